@@ -0,0 +1,74 @@
+package travel;
+
+import java.lang.management.*;
+
+/**
+ * Reads the number of bytes allocated by the current thread.
+ *
+ * <PRE>
+ * Filename:         AllocationCounter.java
+ *
+ * Description:      HotSpot based JVMs keep a running count of the bytes allocated by each thread, which is exposed by the
+ *		     com.sun.management extension of the ThreadMXBean.  This class looks up that extension once and returns
+ *		     UNSUPPORTED on JVMs which do not provide it, so that callers can report the allocation as unknown
+ *		     rather than fail.
+ *
+ * Used By:          UIEventReplayer.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class AllocationCounter
+{
+	//Returned in place of a byte count when the JVM does not support thread allocation counters.
+	public final static long UNSUPPORTED = -1L;
+
+	private final static com.sun.management.ThreadMXBean THREAD_BEAN = lookupThreadBean();
+
+	private AllocationCounter()
+	{
+	}
+
+	/*
+	* Returns the extended ThreadMXBean with allocation counting switched on, or null if it is not available.
+	*/
+	private static com.sun.management.ThreadMXBean lookupThreadBean()
+	{
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean))
+			return null;
+
+		com.sun.management.ThreadMXBean extendedBean = (com.sun.management.ThreadMXBean) bean;
+		if (!extendedBean.isThreadAllocatedMemorySupported())
+			return null;
+		if (!extendedBean.isThreadAllocatedMemoryEnabled())
+			extendedBean.setThreadAllocatedMemoryEnabled(true);
+		return extendedBean;
+	}
+
+	/**
+	* Returns true if the allocation of the current thread can be measured.
+	*/
+	public static boolean isSupported()
+	{
+		return THREAD_BEAN != null;
+	}
+
+	/**
+	* Returns the total number of bytes allocated by the current thread, or UNSUPPORTED.
+	*/
+	public static long currentThreadAllocatedBytes()
+	{
+		if (THREAD_BEAN == null)
+			return UNSUPPORTED;
+		return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
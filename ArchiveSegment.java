@@ -0,0 +1,410 @@
+package travel;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.zip.*;
+
+/**
+ * An immutable segment of an ItineraryArchive, holding its itineraries column by column within compressed blocks.
+ *
+ * <PRE>
+ * Filename:         ArchiveSegment.java
+ *
+ * Description:      The rows of a segment are divided into blocks of BLOCK_ROWS itineraries.  Within a block each field is
+ *		     stored as its own column, and every column is encoded for what it holds:
+ *
+ *		         from, to          the id of the location within the segment's dictionary, as a varint
+ *		         departure day     the difference from the block's earliest departure day, as a varint
+ *		         return day        the difference from the departure day (the length of the trip), as a zigzag varint
+ *		         time windows      the departure and return PreferredTimeWindow ordinals, one nibble each
+ *		         passengers        a varint
+ *
+ *		     The columns of a block are then compressed together with Deflate, which does well on columns of
+ *		     small, repetitive values.  Each block is described within the directory at the end of the file by
+ *		     its offset and lengths and by the smallest and largest departure day, return day and location ids
+ *		     it holds, so that a scan skips every block whose statistics cannot match without reading it.  The
+ *		     dictionary also lets a scan for a route skip a whole segment which never saw one of its locations.
+ *
+ *		         "ITS1" | block | block | ... | dictionary | block directory | directory offset (8 bytes) | "ITS1"
+ *
+ *		     The file is memory mapped when opened.  A Decoder holds the buffers a scan reuses from block to block.
+ *
+ * Nested Class:     Decoder
+ *
+ * Aggregation Of:	 ItineraryArchive.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class ArchiveSegment
+{
+	//The header and trailer of every segment file ("ITS1").
+	public final static int SEGMENT_MAGIC = 0x49545331;
+
+	//The number of itineraries within a full block.
+	public final static int BLOCK_ROWS = 4096;
+
+	//The columns of a block never take more than this many bytes before compression (5 byte varints and one byte columns).
+	private final static int MAX_RAW_BLOCK = BLOCK_ROWS * (5 * 5 + 1);
+
+	//The statistics of each block within the directory, in this order.
+	private final static int ROWS = 0, MIN_DEPARTURE = 1, MAX_DEPARTURE = 2, MIN_RETURN = 3, MAX_RETURN = 4,
+		MIN_FROM = 5, MAX_FROM = 6, MIN_TO = 7, MAX_TO = 8, RAW_LENGTH = 9, COMPRESSED_LENGTH = 10, STAT_COUNT = 11;
+
+	private final File file;
+	private final MappedByteBuffer data;
+	private final String[] dictionary;
+	private final int[][] blockStats;
+	private final long[] blockOffsets;
+	private final int rowCount;
+	private HashMap<String, Integer> dictionaryIds;
+
+	/**
+	* Holds the decompressed columns of one block.  A Decoder may be reused for any number of blocks, by one thread at a time.
+	*/
+	public static class Decoder
+	{
+		private final Inflater inflater = new Inflater();
+		private byte[] compressed = new byte[1024];
+		private final byte[] raw = new byte[MAX_RAW_BLOCK];
+
+		final int[] fromIds = new int[BLOCK_ROWS];
+		final int[] toIds = new int[BLOCK_ROWS];
+		final int[] departureDays = new int[BLOCK_ROWS];
+		final int[] returnDays = new int[BLOCK_ROWS];
+		final byte[] windows = new byte[BLOCK_ROWS];
+		final int[] passengers = new int[BLOCK_ROWS];
+
+		private int position;
+
+		long blocksRead;
+		long blocksSkipped;
+		long bytesInflated;
+
+		/*
+		* Reads the varint at the position within the decompressed columns.
+		*/
+		private int nextVarint()
+		{
+			int value = 0;
+			int shift = 0;
+			byte b;
+			do
+			{
+				b = raw[position++];
+				value |= (b & 0x7f) << shift;
+				shift += 7;
+			}
+			while (b < 0);
+			return value;
+		}
+
+		public long getBlocksRead()
+		{
+			return blocksRead;
+		}
+
+		public long getBlocksSkipped()
+		{
+			return blocksSkipped;
+		}
+
+		/**
+		* Returns the number of bytes of columns decompressed.
+		*/
+		public long getBytesInflated()
+		{
+			return bytesInflated;
+		}
+
+		public void close()
+		{
+			inflater.end();
+		}
+	}
+
+	/*
+	* The constructor maps a segment file and reads its dictionary and block directory.
+	*/
+	private ArchiveSegment(File file) throws IOException
+	{
+		this.file = file;
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try
+		{
+			long length = in.length();
+			if (length < 16)
+				throw new IOException(file + " is not an archive segment");
+			data = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+		}
+		finally
+		{
+			in.close();
+		}
+
+		if (data.getInt(0) != SEGMENT_MAGIC || data.getInt(data.capacity() - 4) != SEGMENT_MAGIC)
+			throw new IOException(file + " is not a complete archive segment");
+		ByteBuffer directory = data.duplicate();
+		directory.position((int) data.getLong(data.capacity() - 12));
+
+		dictionary = new String[directory.getInt()];
+		for (int i = 0; i < dictionary.length; i++)
+		{
+			byte[] name = new byte[directory.getShort() & 0xffff];
+			directory.get(name);
+			dictionary[i] = new String(name, "UTF-8");
+		}
+
+		int blockCount = directory.getInt();
+		blockStats = new int[blockCount][STAT_COUNT];
+		blockOffsets = new long[blockCount];
+		int rows = 0;
+		for (int b = 0; b < blockCount; b++)
+		{
+			blockOffsets[b] = directory.getLong();
+			for (int s = 0; s < STAT_COUNT; s++)
+				blockStats[b][s] = directory.getInt();
+			rows += blockStats[b][ROWS];
+		}
+		rowCount = rows;
+	}
+
+	/**
+	* Maps an existing segment file.
+	*/
+	public static ArchiveSegment open(File file) throws IOException
+	{
+		return new ArchiveSegment(file);
+	}
+
+	/**
+	* Writes the first count rows of the columns as a segment file and maps it.  The location ids refer to the dictionary.
+	*/
+	public static ArchiveSegment write(File file, String[] dictionary, int[] fromIds, int[] toIds, int[] departureDays, int[] returnDays,
+		byte[] windows, int[] passengers, int count) throws IOException
+	{
+		File temporary = new File(file.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary), 1 << 16));
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try
+		{
+			out.writeInt(SEGMENT_MAGIC);
+			long offset = 4;
+			byte[] raw = new byte[MAX_RAW_BLOCK];
+			byte[] compressed = new byte[MAX_RAW_BLOCK + 1024];
+			ArrayList<int[]> stats = new ArrayList<int[]>();
+			ArrayList<Long> offsets = new ArrayList<Long>();
+
+			for (int start = 0; start < count; start += BLOCK_ROWS)
+			{
+				int end = Math.min(count, start + BLOCK_ROWS);
+				int[] block = new int[STAT_COUNT];
+				block[ROWS] = end - start;
+				block[MIN_DEPARTURE] = block[MIN_RETURN] = block[MIN_FROM] = block[MIN_TO] = Integer.MAX_VALUE;
+				block[MAX_DEPARTURE] = block[MAX_RETURN] = block[MAX_FROM] = block[MAX_TO] = Integer.MIN_VALUE;
+				for (int i = start; i < end; i++)
+				{
+					block[MIN_DEPARTURE] = Math.min(block[MIN_DEPARTURE], departureDays[i]);
+					block[MAX_DEPARTURE] = Math.max(block[MAX_DEPARTURE], departureDays[i]);
+					block[MIN_RETURN] = Math.min(block[MIN_RETURN], returnDays[i]);
+					block[MAX_RETURN] = Math.max(block[MAX_RETURN], returnDays[i]);
+					block[MIN_FROM] = Math.min(block[MIN_FROM], fromIds[i]);
+					block[MAX_FROM] = Math.max(block[MAX_FROM], fromIds[i]);
+					block[MIN_TO] = Math.min(block[MIN_TO], toIds[i]);
+					block[MAX_TO] = Math.max(block[MAX_TO], toIds[i]);
+				}
+
+				int length = 0;
+				for (int i = start; i < end; i++)
+					length = putVarint(raw, length, fromIds[i]);
+				for (int i = start; i < end; i++)
+					length = putVarint(raw, length, toIds[i]);
+				for (int i = start; i < end; i++)
+					length = putVarint(raw, length, departureDays[i] - block[MIN_DEPARTURE]);
+				for (int i = start; i < end; i++)
+				{
+					int trip = returnDays[i] - departureDays[i];
+					length = putVarint(raw, length, (trip << 1) ^ (trip >> 31));
+				}
+				for (int i = start; i < end; i++)
+					raw[length++] = windows[i];
+				for (int i = start; i < end; i++)
+					length = putVarint(raw, length, passengers[i]);
+
+				deflater.reset();
+				deflater.setInput(raw, 0, length);
+				deflater.finish();
+				int compressedLength = 0;
+				while (!deflater.finished())
+					compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+				out.write(compressed, 0, compressedLength);
+
+				block[RAW_LENGTH] = length;
+				block[COMPRESSED_LENGTH] = compressedLength;
+				stats.add(block);
+				offsets.add(offset);
+				offset += compressedLength;
+			}
+
+			long directoryOffset = offset;
+			out.writeInt(dictionary.length);
+			for (int i = 0; i < dictionary.length; i++)
+			{
+				byte[] name = dictionary[i].getBytes("UTF-8");
+				out.writeShort(name.length);
+				out.write(name);
+			}
+			out.writeInt(stats.size());
+			for (int b = 0; b < stats.size(); b++)
+			{
+				out.writeLong(offsets.get(b));
+				for (int s = 0; s < STAT_COUNT; s++)
+					out.writeInt(stats.get(b)[s]);
+			}
+			out.writeLong(directoryOffset);
+			out.writeInt(SEGMENT_MAGIC);
+		}
+		finally
+		{
+			deflater.end();
+			out.close();
+		}
+
+		//the segment only appears under its name once it is complete.
+		if (!temporary.renameTo(file))
+			throw new IOException("Unable to rename " + temporary + " to " + file);
+		return open(file);
+	}
+
+	/*
+	* Writes the value as a varint of 7 bits per byte and returns the position after it.
+	*/
+	private static int putVarint(byte[] bytes, int position, int value)
+	{
+		while ((value & ~0x7f) != 0)
+		{
+			bytes[position++] = (byte) ((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		bytes[position++] = (byte) value;
+		return position;
+	}
+
+	public File getFile()
+	{
+		return file;
+	}
+
+	public long getFileLength()
+	{
+		return data.capacity();
+	}
+
+	public int getRowCount()
+	{
+		return rowCount;
+	}
+
+	public int getBlockCount()
+	{
+		return blockOffsets.length;
+	}
+
+	/**
+	* Returns the locations of the dictionary, by id.
+	*/
+	public String[] getDictionary()
+	{
+		return dictionary.clone();
+	}
+
+	/**
+	* Returns the id of the normalized location within the dictionary, or -1 if the segment does not hold it.
+	*/
+	public synchronized int findLocation(String normalizedLocation)
+	{
+		if (dictionaryIds == null)
+		{
+			dictionaryIds = new HashMap<String, Integer>();
+			for (int i = 0; i < dictionary.length; i++)
+				dictionaryIds.put(LocationPool.normalize(dictionary[i]), i);
+		}
+		Integer id = dictionaryIds.get(normalizedLocation);
+		return (id == null) ? -1 : id;
+	}
+
+	/**
+	* Returns true if the block may hold rows of the route (-1 matching any location) within the day ranges.
+	*/
+	public boolean mayMatch(int block, int fromId, int toId, int firstDeparture, int lastDeparture, int firstReturn, int lastReturn)
+	{
+		int[] stats = blockStats[block];
+		return stats[MAX_DEPARTURE] >= firstDeparture && stats[MIN_DEPARTURE] <= lastDeparture
+			&& stats[MAX_RETURN] >= firstReturn && stats[MIN_RETURN] <= lastReturn
+			&& (fromId < 0 || (stats[MIN_FROM] <= fromId && stats[MAX_FROM] >= fromId))
+			&& (toId < 0 || (stats[MIN_TO] <= toId && stats[MAX_TO] >= toId));
+	}
+
+	/**
+	* Decompresses the block into the columns of the decoder and returns its number of rows.
+	*/
+	public int decode(int block, Decoder decoder) throws IOException
+	{
+		int[] stats = blockStats[block];
+		int compressedLength = stats[COMPRESSED_LENGTH];
+		if (decoder.compressed.length < compressedLength)
+			decoder.compressed = new byte[compressedLength];
+		ByteBuffer source = data.duplicate();
+		source.position((int) blockOffsets[block]);
+		source.get(decoder.compressed, 0, compressedLength);
+
+		Inflater inflater = decoder.inflater;
+		inflater.reset();
+		inflater.setInput(decoder.compressed, 0, compressedLength);
+		int rawLength = stats[RAW_LENGTH];
+		try
+		{
+			int inflated = 0;
+			while (inflated < rawLength && !inflater.finished())
+				inflated += inflater.inflate(decoder.raw, inflated, rawLength - inflated);
+			if (inflated != rawLength)
+				throw new IOException("Block " + block + " of " + file + " is truncated");
+		}
+		catch (DataFormatException e)
+		{
+			throw new IOException("Block " + block + " of " + file + " is corrupt: " + e.getMessage());
+		}
+		decoder.blocksRead++;
+		decoder.bytesInflated += rawLength;
+
+		int rows = stats[ROWS];
+		decoder.position = 0;
+		for (int i = 0; i < rows; i++)
+			decoder.fromIds[i] = decoder.nextVarint();
+		for (int i = 0; i < rows; i++)
+			decoder.toIds[i] = decoder.nextVarint();
+		int minDeparture = stats[MIN_DEPARTURE];
+		for (int i = 0; i < rows; i++)
+			decoder.departureDays[i] = minDeparture + decoder.nextVarint();
+		for (int i = 0; i < rows; i++)
+		{
+			int trip = decoder.nextVarint();
+			decoder.returnDays[i] = decoder.departureDays[i] + ((trip >>> 1) ^ -(trip & 1));
+		}
+		System.arraycopy(decoder.raw, decoder.position, decoder.windows, 0, rows);
+		decoder.position += rows;
+		for (int i = 0; i < rows; i++)
+			decoder.passengers[i] = decoder.nextVarint();
+		return rows;
+	}
+}
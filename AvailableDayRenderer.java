@@ -0,0 +1,65 @@
+package travel;
+
+import java.awt.*;
+import javax.swing.*;
+
+/**
+ * Renders the options of a Day Combo Box, greying out the days on which the selected route is not flown.
+ *
+ * <PRE>
+ * Filename:         AvailableDayRenderer.java
+ *
+ * Description:      The MainController works out the bit set of available days from the RouteAvailabilityIndex whenever
+ *		     the locations, month or year change, and hands it to this renderer.  Rendering a day then only
+ *		     requires testing its bit.  The option at position d of the Day Combo Box is day d, position zero being
+ *		     the default value, which is never greyed out (nor is the selected value shown by the combo box itself,
+ *		     which is rendered with a position of -1).  ALL_DAYS is used while the route or month is not known.
+ *
+ * Instantiated By:  MainController.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class AvailableDayRenderer extends TypeAheadComboBoxModel.PrototypeCellRenderer
+{
+	//Every day is shown as available.
+	public final static int ALL_DAYS = -1;
+
+	private int availableDays = ALL_DAYS;
+
+	/**
+	* Sets the bit set of available days, bit d being set for day d.
+	*/
+	public void setAvailableDays(int availableDays)
+	{
+		this.availableDays = availableDays;
+	}
+
+	/**
+	* Returns true if the option at the given position of the Day Combo Box is shown as available.
+	*/
+	public boolean isAvailable(int index)
+	{
+		return index <= 0 || index > 31 || (availableDays & (1 << index)) != 0;
+	}
+
+	public Component getListCellRendererComponent(JList list, Object value, int index, boolean isSelected, boolean cellHasFocus)
+	{
+		super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+		if (!isAvailable(index))
+		{
+			setEnabled(false);
+			if (!isSelected)
+				setForeground(UIManager.getColor("Label.disabledForeground"));
+		}
+		return this;
+	}
+}
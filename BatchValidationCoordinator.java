@@ -0,0 +1,477 @@
+package travel;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Validates a large itinerary feed by sharing it between a number of local worker JVMs.
+ *
+ * <PRE>
+ * Filename:         BatchValidationCoordinator.java
+ *
+ * Description:      A single JVM validating a huge feed eventually spends its time collecting garbage, so the feed is
+ *		     divided into partitions by byte range and validated by BatchValidationWorker processes, each started
+ *		     with a small heap (-Xmx64m by default).  Every worker is looked after by one thread of the coordinator,
+ *		     which takes the next partition from a shared queue, sends it to the worker over its standard input and
+ *		     waits for the answer on its standard output.  There are several partitions per worker, so faster
+ *		     workers simply take more of them.
+ *
+ *		     A partition whose worker answers FAIL, or dies, is put back on the queue and tried again, up to
+ *		     MAX_ATTEMPTS times; a worker that dies is started again.  A worker that has not answered within the
+ *		     partition timeout is taken to be hung: a watchdog kills it, which ends the wait for its answer, and
+ *		     the partition is retried on a new worker.  The counts and rejections of the partitions
+ *		     are merged into a single Result once every partition has either completed or run out of attempts.
+ *		     The corrections suggested by the rules (e.g. "Los Angles>Los Angeles") are merged in the same way
+ *		     and the most frequent of them are printed with the result.
+ *
+ *		     Usage:  java travel.BatchValidationCoordinator feedFile workers [ruleFile]
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.103
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   Merges and prints the corrections suggested by the rules of the workers.
+ * 0.102: A. Cave   A watchdog kills a worker which has not answered within the partition timeout, so a hung
+ *		    worker can no longer block its thread (and run()) forever.
+ * 0.103: A. Cave   A malformed DONE line is treated as a failure of the partition instead of stopping the thread
+ *		    looking after the worker, and is parsed in full before any of its counts are merged.
+ * </PRE>
+  */
+
+public class BatchValidationCoordinator
+{
+	//The number of times a partition is tried before it is given up on.
+	private final static int MAX_ATTEMPTS = 3;
+
+	//The number of partitions given to each worker, so that the load evens out between them.
+	private final static int PARTITIONS_PER_WORKER = 4;
+
+	//Partitions are not made smaller than this, since every partition costs a round trip to a worker.
+	private final static long MIN_PARTITION_BYTES = 1 << 20;
+
+	//The number of suggested corrections printed with the result.
+	private final static int PRINTED_CORRECTIONS = 20;
+
+	//The default time a worker is given to answer for a partition before it is killed.
+	private final static long DEFAULT_PARTITION_TIMEOUT_MILLIS = 10 * 60 * 1000;
+
+	private File feedFile;
+	private File ruleFile;
+	private int workerCount;
+	private String workerHeap = "64m";
+	private long partitionTimeoutMillis = DEFAULT_PARTITION_TIMEOUT_MILLIS;
+
+	public BatchValidationCoordinator(File feedFile, int workerCount, File ruleFile)
+	{
+		this.feedFile = feedFile;
+		this.workerCount = Math.max(1, workerCount);
+		this.ruleFile = ruleFile;
+	}
+
+	/**
+	* Sets the maximum heap of each worker, as given to -Xmx.
+	*/
+	public void setWorkerHeap(String workerHeap)
+	{
+		this.workerHeap = workerHeap;
+	}
+
+	/**
+	* Sets the time a worker is given to answer for a partition before it is killed and the partition is tried again.
+	*/
+	public void setPartitionTimeout(long partitionTimeoutMillis)
+	{
+		if (partitionTimeoutMillis <= 0)
+			throw new IllegalArgumentException("The partition timeout must be positive: " + partitionTimeoutMillis);
+		this.partitionTimeoutMillis = partitionTimeoutMillis;
+	}
+
+	/*
+	* A byte range of the feed along with the number of times it has been tried.
+	*/
+	private static class Partition
+	{
+		final int id;
+		final long start;
+		final long end;
+		int attempts;
+
+		Partition(int id, long start, long end)
+		{
+			this.id = id;
+			this.start = start;
+			this.end = end;
+		}
+	}
+
+	/**
+	* The merged outcome of every partition.
+	*/
+	public static class Result
+	{
+		long records;
+		long valid;
+		long malformed;
+		long workerNanos;
+		long elapsedNanos;
+		int completedPartitions;
+		int failedPartitions;
+		List<String> failures = new ArrayList<String>();
+		TreeMap<String, Long> rejections = new TreeMap<String, Long>();
+		TreeMap<String, Long> corrections = new TreeMap<String, Long>();
+
+		public long getRecords()
+		{
+			return records;
+		}
+
+		public long getValid()
+		{
+			return valid;
+		}
+
+		public long getInvalid()
+		{
+			return records - valid - malformed;
+		}
+
+		public long getMalformed()
+		{
+			return malformed;
+		}
+
+		/**
+		* Returns the number of records rejected first by each rule, by rule name.
+		*/
+		public Map<String, Long> getRejections()
+		{
+			return Collections.unmodifiableMap(rejections);
+		}
+
+		/**
+		* Returns the number of times each correction was suggested, keyed by "typed>suggested".
+		*/
+		public Map<String, Long> getCorrections()
+		{
+			return Collections.unmodifiableMap(corrections);
+		}
+
+		/**
+		* Returns the number of partitions which could not be validated within MAX_ATTEMPTS.
+		*/
+		public int getFailedPartitions()
+		{
+			return failedPartitions;
+		}
+
+		/*
+		* Adds the counts of a DONE line.  The whole line is parsed before anything is added, so a malformed line throws a
+		* RuntimeException and leaves the result unchanged.
+		*/
+		synchronized void merge(String[] done)
+		{
+			long doneRecords = Long.parseLong(done[2]);
+			long doneValid = Long.parseLong(done[3]);
+			long doneMalformed = Long.parseLong(done[4]);
+			long doneNanos = Long.parseLong(done[5]);
+			TreeMap<String, Long> doneRejections = new TreeMap<String, Long>();
+			TreeMap<String, Long> doneCorrections = new TreeMap<String, Long>();
+			if (done.length > 6 && !done[6].isEmpty())
+				add(doneRejections, done[6].split(","));
+			if (done.length > 7 && !done[7].isEmpty())
+				add(doneCorrections, done[7].split("\\" + ItineraryRecordFormat.SEPARATOR));
+
+			records += doneRecords;
+			valid += doneValid;
+			malformed += doneMalformed;
+			workerNanos += doneNanos;
+			completedPartitions++;
+			add(rejections, doneRejections);
+			add(corrections, doneCorrections);
+		}
+
+		/*
+		* Adds the "key=count" pairs to the totals.
+		*/
+		private static void add(TreeMap<String, Long> totals, String[] counts)
+		{
+			for (int i = 0; i < counts.length; i++)
+			{
+				int equals = counts[i].lastIndexOf('=');
+				if (equals < 0)
+					throw new IllegalArgumentException("Expected key=count: " + counts[i]);
+				String key = counts[i].substring(0, equals);
+				long count = Long.parseLong(counts[i].substring(equals + 1));
+				Long total = totals.get(key);
+				totals.put(key, (total == null) ? count : total + count);
+			}
+		}
+
+		/*
+		* Adds the counts of one map to the totals.
+		*/
+		private static void add(TreeMap<String, Long> totals, Map<String, Long> counts)
+		{
+			for (Map.Entry<String, Long> entry : counts.entrySet())
+			{
+				Long total = totals.get(entry.getKey());
+				totals.put(entry.getKey(), (total == null) ? entry.getValue() : total + entry.getValue());
+			}
+		}
+
+		synchronized void fail(String message)
+		{
+			failedPartitions++;
+			failures.add(message);
+		}
+
+		public synchronized void print(PrintStream out)
+		{
+			out.println("Records:              " + records);
+			out.println("Valid:                " + valid);
+			out.println("Invalid:              " + getInvalid());
+			out.println("Malformed:            " + malformed);
+			out.println("Partitions completed: " + completedPartitions);
+			out.println("Partitions failed:    " + failedPartitions);
+			out.printf("Elapsed:              %.3f s%n", elapsedNanos / 1e9);
+			out.println("Throughput:           " + (elapsedNanos == 0 ? 0 : (long) (records * 1e9 / elapsedNanos)) + " records/s");
+			out.println("Rejections by rule:");
+			for (Map.Entry<String, Long> entry : rejections.entrySet())
+				out.printf("  %-24s %d%n", entry.getKey(), entry.getValue());
+			if (!corrections.isEmpty())
+			{
+				ArrayList<Map.Entry<String, Long>> frequent = new ArrayList<Map.Entry<String, Long>>(corrections.entrySet());
+				Collections.sort(frequent, new Comparator<Map.Entry<String, Long>>()
+				{
+					public int compare(Map.Entry<String, Long> a, Map.Entry<String, Long> b)
+					{
+						return b.getValue().compareTo(a.getValue());
+					}
+				});
+				out.println("Suggested corrections:");
+				for (int i = 0; i < frequent.size() && i < PRINTED_CORRECTIONS; i++)
+				{
+					String correction = frequent.get(i).getKey();
+					int arrow = correction.lastIndexOf('>');
+					out.printf("  %-24s -> %-24s %d%n", correction.substring(0, arrow), correction.substring(arrow + 1), frequent.get(i).getValue());
+				}
+			}
+			for (int i = 0; i < failures.size(); i++)
+				out.println("Failure: " + failures.get(i));
+		}
+	}
+
+	/**
+	* Validates the whole feed and returns the merged result.
+	*/
+	public Result run() throws IOException, InterruptedException
+	{
+		long begin = System.nanoTime();
+		final Result result = new Result();
+		final BlockingQueue<Partition> pending = new LinkedBlockingQueue<Partition>();
+		List<Partition> partitions = this.partition();
+		pending.addAll(partitions);
+		final CountDownLatch finished = new CountDownLatch(partitions.size());
+		final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+		{
+			public Thread newThread(Runnable task)
+			{
+				Thread thread = new Thread(task, "worker-watchdog");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < workerCount; i++)
+		{
+			Thread thread = new Thread("worker-" + i)
+			{
+				public void run()
+				{
+					superviseWorker(pending, finished, result, watchdog);
+				}
+			};
+			thread.setDaemon(true);
+			thread.start();
+			threads.add(thread);
+		}
+
+		finished.await();
+		for (int i = 0; i < threads.size(); i++)
+			threads.get(i).interrupt();
+		for (int i = 0; i < threads.size(); i++)
+			threads.get(i).join(5000);
+		watchdog.shutdownNow();
+
+		result.elapsedNanos = System.nanoTime() - begin;
+		return result;
+	}
+
+	/*
+	* Divides the feed into byte ranges of equal size.
+	*/
+	private List<Partition> partition()
+	{
+		long length = feedFile.length();
+		long count = Math.max(1, Math.min((long) workerCount * PARTITIONS_PER_WORKER, length / MIN_PARTITION_BYTES));
+		List<Partition> partitions = new ArrayList<Partition>();
+		for (int i = 0; i < count; i++)
+			partitions.add(new Partition(i, length * i / count, length * (i + 1) / count));
+		return partitions;
+	}
+
+	/*
+	* Starts a worker process and feeds it partitions until none are left, starting it again whenever it dies or has to be
+	* killed by the watchdog.
+	*/
+	private void superviseWorker(BlockingQueue<Partition> pending, CountDownLatch finished, Result result, ScheduledExecutorService watchdog)
+	{
+		Process process = null;
+		BufferedWriter commands = null;
+		BufferedReader answers = null;
+		try
+		{
+			while (finished.getCount() > 0)
+			{
+				Partition partition = pending.poll(100, TimeUnit.MILLISECONDS);
+				if (partition == null)
+					continue;
+
+				partition.attempts++;
+				String answer;
+				try
+				{
+					if (process == null)
+					{
+						process = this.startWorker();
+						commands = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), "UTF-8"));
+						answers = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"));
+					}
+					//killing the worker closes its standard output, which ends the wait for the answer.
+					final Process worker = process;
+					ScheduledFuture<?> kill = watchdog.schedule(new Runnable()
+					{
+						public void run()
+						{
+							worker.destroyForcibly();
+						}
+					}, partitionTimeoutMillis, TimeUnit.MILLISECONDS);
+					try
+					{
+						commands.write("VALIDATE " + partition.id + " " + partition.start + " " + partition.end + "\n");
+						commands.flush();
+						answer = answers.readLine();
+					}
+					catch (IOException e)
+					{
+						answer = "FAIL " + partition.id + " " + e;
+					}
+					if (!kill.cancel(false))
+						answer = "FAIL " + partition.id + " the worker did not answer within " + partitionTimeoutMillis + " ms";
+					else if (answer == null)
+						answer = "FAIL " + partition.id + " the worker stopped (exit code " + process.waitFor() + ")";
+				}
+				catch (IOException e)
+				{
+					answer = "FAIL " + partition.id + " " + e;
+				}
+
+				String[] parts = answer.split(" ", 8);
+				if (parts[0].equals("DONE") && parts.length >= 6)
+				{
+					try
+					{
+						if (Integer.parseInt(parts[1]) == partition.id)
+						{
+							result.merge(parts);
+							finished.countDown();
+							continue;
+						}
+					}
+					catch (RuntimeException e)
+					{
+						answer = "FAIL " + partition.id + " malformed answer (" + e + "): " + answer;
+					}
+				}
+
+				//the worker may be in any state after a failure, so it is replaced.
+				if (process != null)
+				{
+					process.destroy();
+					process = null;
+				}
+				if (partition.attempts < MAX_ATTEMPTS)
+				{
+					pending.add(partition);
+				}
+				else
+				{
+					result.fail("partition " + partition.id + " [" + partition.start + ", " + partition.end + "): " + answer);
+					finished.countDown();
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			//every partition has finished.
+		}
+		finally
+		{
+			if (process != null)
+			{
+				try
+				{
+					commands.write("EXIT\n");
+					commands.flush();
+				}
+				catch (IOException e)
+				{
+				}
+				process.destroy();
+			}
+		}
+	}
+
+	/*
+	* Starts a worker JVM with the same class path as this one.
+	*/
+	private Process startWorker() throws IOException
+	{
+		List<String> command = new ArrayList<String>();
+		command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+		command.add("-Xmx" + workerHeap);
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(BatchValidationWorker.class.getName());
+		command.add(feedFile.getAbsolutePath());
+		if (ruleFile != null)
+			command.add(ruleFile.getAbsolutePath());
+
+		ProcessBuilder builder = new ProcessBuilder(command);
+		builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+		return builder.start();
+	}
+
+	/**
+	* Validates the feed named by the first argument with the given number of workers and prints the result.
+	*/
+	public static void main(String[] args) throws Exception
+	{
+		if (args.length < 2)
+		{
+			System.err.println("Usage: java travel.BatchValidationCoordinator feedFile workers [ruleFile]");
+			System.exit(1);
+		}
+		File ruleFile = (args.length > 2) ? new File(args[2]) : null;
+		BatchValidationCoordinator coordinator = new BatchValidationCoordinator(new File(args[0]), Integer.parseInt(args[1]), ruleFile);
+		Result result = coordinator.run();
+		result.print(System.out);
+		System.exit(result.getFailedPartitions() == 0 ? 0 : 2);
+	}
+}
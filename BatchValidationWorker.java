@@ -0,0 +1,194 @@
+package travel;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Validates partitions of an itinerary feed on behalf of the BatchValidationCoordinator, within its own JVM.
+ *
+ * <PRE>
+ * Filename:         BatchValidationWorker.java
+ *
+ * Description:      The worker is started by the coordinator with the feed file and an optional rule file, and then
+ *		     receives one command per line on its standard input:
+ *
+ *		         VALIDATE partitionId start end     validate the records starting within bytes [start, end)
+ *		         EXIT                               stop the worker
+ *
+ *		     For each partition it answers with one line on its standard output:
+ *
+ *		         DONE partitionId records valid malformed nanos rule=rejections,... typed>suggested=count|...
+ *		         FAIL partitionId message
+ *
+ *		     Every record is parsed into the same TravelFormModel and checked by a ValidationRuleEngine, counting
+ *		     the rule that rejected it first.  When that rule suggests a correction (e.g. the closest known place of
+ *		     a misspelt location) the suggestion is counted as well, for at most MAX_CORRECTIONS distinct values
+ *		     within a partition.  Only the counts are kept, so the worker runs within a small heap no matter how
+ *		     large the partition is.
+ *
+ *		     Usage:  java travel.BatchValidationWorker feedFile [ruleFile]
+ *
+ * Instantiated By:  BatchValidationCoordinator.java (as a separate process)
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.103
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   The DONE line ends with the corrections suggested by the rules, such as those of knownPlace.
+ * 0.102: A. Cave   A command with an invalid partition id is answered with FAIL rather than stopping the worker.
+ * 0.103: A. Cave   The corrected value is read through the TravelFormModel.Field of the rule.
+ * </PRE>
+  */
+
+public class BatchValidationWorker
+{
+	//The most distinct corrections counted within a partition.
+	private final static int MAX_CORRECTIONS = 64;
+
+	private File feedFile;
+	private ValidationRuleEngine ruleEngine;
+	private TravelFormModel travelForm = new TravelFormModel();
+
+	public BatchValidationWorker(File feedFile, ValidationRuleEngine ruleEngine)
+	{
+		this.feedFile = feedFile;
+		this.ruleEngine = ruleEngine;
+	}
+
+	/**
+	* Validates the records starting within [start, end) and returns the DONE line describing them.
+	*/
+	public String validate(int partitionId, long start, long end) throws IOException
+	{
+		long begin = System.nanoTime();
+		long records = 0;
+		long valid = 0;
+		long malformed = 0;
+		LinkedHashMap<String, long[]> rejections = new LinkedHashMap<String, long[]>();
+		LinkedHashMap<String, long[]> corrections = new LinkedHashMap<String, long[]>();
+
+		ItineraryRecordFormat.RangeReader reader = new ItineraryRecordFormat.RangeReader(feedFile, start, end);
+		try
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				if (line.isEmpty())
+					continue;
+				records++;
+				travelForm.reset();
+				if (!ItineraryRecordFormat.parse(line, travelForm))
+				{
+					malformed++;
+					continue;
+				}
+
+				ValidationRule failure = ruleEngine.firstFailure(travelForm);
+				if (failure == null)
+				{
+					valid++;
+				}
+				else
+				{
+					long[] count = rejections.get(failure.getName());
+					if (count == null)
+					{
+						count = new long[1];
+						rejections.put(failure.getName(), count);
+					}
+					count[0]++;
+
+					String correction = failure.getCorrection(travelForm);
+					if (correction != null)
+						count(corrections, failure.getField().get(travelForm).trim() + ">" + correction);
+				}
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+
+		StringBuilder done = new StringBuilder("DONE ");
+		done.append(partitionId).append(' ').append(records).append(' ').append(valid).append(' ').append(malformed)
+			.append(' ').append(System.nanoTime() - begin).append(' ');
+		boolean first = true;
+		for (Map.Entry<String, long[]> entry : rejections.entrySet())
+		{
+			if (!first)
+				done.append(',');
+			done.append(entry.getKey()).append('=').append(entry.getValue()[0]);
+			first = false;
+		}
+		done.append(' ');
+		first = true;
+		for (Map.Entry<String, long[]> entry : corrections.entrySet())
+		{
+			if (!first)
+				done.append(ItineraryRecordFormat.SEPARATOR);
+			done.append(entry.getKey()).append('=').append(entry.getValue()[0]);
+			first = false;
+		}
+		return done.toString();
+	}
+
+	/*
+	* Counts the correction, unless MAX_CORRECTIONS others have already been counted.
+	*/
+	private static void count(LinkedHashMap<String, long[]> corrections, String correction)
+	{
+		long[] count = corrections.get(correction);
+		if (count == null)
+		{
+			if (corrections.size() == MAX_CORRECTIONS)
+				return;
+			count = new long[1];
+			corrections.put(correction, count);
+		}
+		count[0]++;
+	}
+
+	/**
+	* Answers the commands of the coordinator until it sends EXIT or closes the standard input.
+	*/
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 1)
+		{
+			System.err.println("Usage: java travel.BatchValidationWorker feedFile [ruleFile]");
+			System.exit(1);
+		}
+		ValidationRuleEngine ruleEngine = (args.length > 1) ? ValidationRuleEngine.load(new File(args[1])) : ValidationRuleEngine.defaultRules();
+		BatchValidationWorker worker = new BatchValidationWorker(new File(args[0]), ruleEngine);
+
+		BufferedReader commands = new BufferedReader(new InputStreamReader(System.in, "UTF-8"));
+		PrintStream answers = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+		String command;
+		while ((command = commands.readLine()) != null)
+		{
+			String[] parts = command.trim().split(" ");
+			if (parts[0].equals("EXIT"))
+				break;
+			if (!parts[0].equals("VALIDATE") || parts.length != 4)
+			{
+				answers.println("FAIL -1 unknown command: " + command);
+				continue;
+			}
+
+			int partitionId = -1;
+			try
+			{
+				partitionId = Integer.parseInt(parts[1]);
+				answers.println(worker.validate(partitionId, Long.parseLong(parts[2]), Long.parseLong(parts[3])));
+			}
+			catch (Exception e)
+			{
+				answers.println("FAIL " + partitionId + " " + e);
+			}
+		}
+	}
+}
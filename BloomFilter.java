@@ -0,0 +1,122 @@
+package travel;
+
+/**
+ * A Bloom filter of 64-bit fingerprints.
+ *
+ * <PRE>
+ * Filename:         BloomFilter.java
+ *
+ * Description:      The filter is sized from the number of fingerprints it is expected to hold and the false positive rate
+ *		     that can be tolerated, using the usual m = -n ln(p) / (ln 2)^2 bits and k = (m / n) ln 2 probes.  The
+ *		     bits are stored in a long[] so that filters larger than 2^31 bits can be built (a filter holding 500
+ *		     million fingerprints at a 1% false positive rate needs roughly 570MB).  The k probe positions are
+ *		     derived from the two halves of the fingerprint by double hashing, so no further hashing is needed.
+ *		     The caller is expected to provide fingerprints which are already well mixed.
+ *
+ * Aggregation Of:	 DuplicateSubmissionFilter.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class BloomFilter
+{
+	private final long[] words;
+	private final long bitCount;
+	private final int probeCount;
+	private long insertions;
+
+	/*
+	* The constructor sizes the filter for the expected number of fingerprints and false positive rate.
+	*/
+	public BloomFilter(long expectedInsertions, double falsePositiveRate)
+	{
+		if (expectedInsertions <= 0)
+			throw new IllegalArgumentException("The expected number of insertions must be positive!");
+		if (falsePositiveRate <= 0.0 || falsePositiveRate >= 1.0)
+			throw new IllegalArgumentException("The false positive rate must be between 0 and 1!");
+
+		double ln2 = Math.log(2);
+		long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+		long wordCount = Math.max(1, (bits + 63) >>> 6);
+		if (wordCount > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("A Bloom filter of " + bits + " bits cannot be allocated!");
+
+		words = new long[(int) wordCount];
+		bitCount = wordCount << 6;
+		probeCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * ln2));
+	}
+
+	/**
+	* Adds the fingerprint to the filter.
+	*/
+	public void add(long fingerprint)
+	{
+		long hash1 = fingerprint;
+		long hash2 = Long.rotateLeft(fingerprint, 32) | 1L;
+		for (int i = 0; i < probeCount; i++)
+		{
+			long bit = (hash1 & Long.MAX_VALUE) % bitCount;
+			words[(int) (bit >>> 6)] |= 1L << bit;
+			hash1 += hash2;
+		}
+		insertions++;
+	}
+
+	/**
+	* Returns false if the fingerprint has definitely not been added, true if it probably has.
+	*/
+	public boolean mightContain(long fingerprint)
+	{
+		long hash1 = fingerprint;
+		long hash2 = Long.rotateLeft(fingerprint, 32) | 1L;
+		for (int i = 0; i < probeCount; i++)
+		{
+			long bit = (hash1 & Long.MAX_VALUE) % bitCount;
+			if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0)
+				return false;
+			hash1 += hash2;
+		}
+		return true;
+	}
+
+	/**
+	* Removes every fingerprint from the filter, keeping the allocated bits for reuse.
+	*/
+	public void clear()
+	{
+		java.util.Arrays.fill(words, 0L);
+		insertions = 0;
+	}
+
+	/**
+	* Returns the number of fingerprints added since the filter was created or cleared.
+	*/
+	public long getInsertions()
+	{
+		return insertions;
+	}
+
+	/**
+	* Returns the number of bits held by the filter.
+	*/
+	public long getBitCount()
+	{
+		return bitCount;
+	}
+
+	/**
+	* Returns the number of bit positions probed for each fingerprint.
+	*/
+	public int getProbeCount()
+	{
+		return probeCount;
+	}
+}
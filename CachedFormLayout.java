@@ -0,0 +1,497 @@
+package travel;
+
+import java.awt.*;
+import java.util.*;
+import javax.swing.*;
+
+/**
+ * A form layout which measures the geometry of its rows once and reuses it on every following layout.
+ *
+ * <PRE>
+ * Filename:         CachedFormLayout.java
+ *
+ * Description:      A form is laid out as rows of a label followed by cells, where the cells of every row share the same
+ *		     columns.  Unlike the GroupLayout, which discards its springs whenever the container is invalidated and
+ *		     asks every component for its sizes again on the next layout, this layout measures the preferred sizes
+ *		     and baselines of its components only once, and then places every component at its cached bounds on
+ *		     each revalidate.  The geometry is measured again only when the font of the container, the scale of
+ *		     its screen (DPI) or the Look and Feel changes, when a component is removed, or when
+ *		     invalidateGeometry() is called, e.g. after the text of a label has changed.
+ *
+ *		     A column is as wide as the widest of its cells, but never narrower than its minimum width.  The last
+ *		     cell of a spanning row stretches to the right edge of the container, while a row without a label
+ *		     places its cells one after another from the left edge.
+ *
+ *		     Usage:  java travel.CachedFormLayout [iterations]   (compares the relayout time with the GroupLayout)
+ *
+ * Nested Class:     Row
+ *
+ * Used By:          TravelItineraryView.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class CachedFormLayout implements LayoutManager2
+{
+	//The vertical gap between two rows, unless another gap was set by addGap().
+	public final static int ROW_GAP = 6;
+
+	//The horizontal gap between the label and the first cell, and between two cells.
+	public final static int COLUMN_GAP = 10;
+
+	private final Container host;
+	private final int[] minimumColumnWidths;
+	private final Insets margin;
+	private final ArrayList<Row> rows = new ArrayList<Row>();
+	private int pendingGap = -1;
+
+	//The configuration the cached geometry was measured for.
+	private boolean measured;
+	private Font measuredFont;
+	private double measuredScaleX;
+	private double measuredScaleY;
+	private LookAndFeel measuredLookAndFeel;
+	private long measureCount;
+
+	//The cached geometry, relative to the insets of the host.
+	private int labelWidth;
+	private Dimension preferredSize;
+
+	/*
+	* A row of the form along with the cached bounds of its components.
+	*/
+	private static class Row
+	{
+		final Component label;
+		final Component[] cells;
+		final boolean spanning;
+		final int gapBefore;
+
+		int y;
+		int labelY;
+		int labelHeight;
+		int[] cellX;
+		int[] cellY;
+		int[] cellWidth;
+		int[] cellHeight;
+
+		Row(Component label, Component[] cells, boolean spanning, int gapBefore)
+		{
+			this.label = label;
+			this.cells = cells;
+			this.spanning = spanning;
+			this.gapBefore = gapBefore;
+			cellX = new int[cells.length];
+			cellY = new int[cells.length];
+			cellWidth = new int[cells.length];
+			cellHeight = new int[cells.length];
+		}
+	}
+
+	/*
+	* The constructor creates the layout of the host.  The minimum column widths apply to the cells of the rows which
+	* have a label, and the margin is left between the rows and the insets of the host.
+	*/
+	public CachedFormLayout(Container host, int[] minimumColumnWidths, Insets margin)
+	{
+		this.host = host;
+		this.minimumColumnWidths = minimumColumnWidths.clone();
+		this.margin = (Insets) margin.clone();
+	}
+
+	/**
+	* Adds a row of the label (which may be null) and the cells, adding the components to the host if needed.
+	*/
+	public void addRow(Component label, Component... cells)
+	{
+		this.add(new Row(label, cells.clone(), false, this.takeGap()));
+	}
+
+	/**
+	* Adds a row whose cell stretches from the first column (or the left edge when the label is null) to the right edge.
+	*/
+	public void addSpanningRow(Component label, Component cell)
+	{
+		this.add(new Row(label, new Component[]{cell}, true, this.takeGap()));
+	}
+
+	/**
+	* Sets the vertical gap in front of the next row, in place of ROW_GAP.
+	*/
+	public void addGap(int gap)
+	{
+		pendingGap = gap;
+	}
+
+	private int takeGap()
+	{
+		int gap = (pendingGap < 0) ? ROW_GAP : pendingGap;
+		pendingGap = -1;
+		return gap;
+	}
+
+	private void add(Row row)
+	{
+		if (row.label != null && row.label.getParent() != host)
+			host.add(row.label);
+		for (int i = 0; i < row.cells.length; i++)
+		{
+			if (row.cells[i].getParent() != host)
+				host.add(row.cells[i]);
+		}
+		rows.add(row);
+		measured = false;
+	}
+
+	/**
+	* Discards the cached geometry, so that it is measured again on the next layout.
+	*/
+	public void invalidateGeometry()
+	{
+		measured = false;
+	}
+
+	/**
+	* Returns the number of times the geometry has been measured.
+	*/
+	public long getMeasureCount()
+	{
+		return measureCount;
+	}
+
+	/*
+	* Measures the geometry unless it was already measured for the current font, screen scale and Look and Feel.
+	*/
+	private void ensureMeasured(Container parent)
+	{
+		Font font = parent.getFont();
+		GraphicsConfiguration configuration = parent.getGraphicsConfiguration();
+		double scaleX = 1;
+		double scaleY = 1;
+		if (configuration != null)
+		{
+			scaleX = configuration.getDefaultTransform().getScaleX();
+			scaleY = configuration.getDefaultTransform().getScaleY();
+		}
+		LookAndFeel lookAndFeel = UIManager.getLookAndFeel();
+
+		if (measured && scaleX == measuredScaleX && scaleY == measuredScaleY && lookAndFeel == measuredLookAndFeel
+			&& (font == null ? measuredFont == null : font.equals(measuredFont)))
+			return;
+
+		this.measure();
+		measured = true;
+		measuredFont = font;
+		measuredScaleX = scaleX;
+		measuredScaleY = scaleY;
+		measuredLookAndFeel = lookAndFeel;
+		measureCount++;
+	}
+
+	/*
+	* Computes the bounds of every component from the preferred sizes, aligning the components of a row on their baselines.
+	*/
+	private void measure()
+	{
+		labelWidth = 0;
+		int columns = 0;
+		for (int r = 0; r < rows.size(); r++)
+		{
+			Row row = rows.get(r);
+			if (row.label != null)
+				labelWidth = Math.max(labelWidth, row.label.getPreferredSize().width);
+			if (row.label != null && !row.spanning)
+				columns = Math.max(columns, row.cells.length);
+		}
+
+		int[] columnWidths = new int[columns];
+		for (int c = 0; c < columns && c < minimumColumnWidths.length; c++)
+			columnWidths[c] = minimumColumnWidths[c];
+		for (int r = 0; r < rows.size(); r++)
+		{
+			Row row = rows.get(r);
+			if (row.label == null || row.spanning)
+				continue;
+			for (int c = 0; c < row.cells.length; c++)
+				columnWidths[c] = Math.max(columnWidths[c], row.cells[c].getPreferredSize().width);
+		}
+
+		int firstColumn = margin.left + (labelWidth > 0 ? labelWidth + COLUMN_GAP : 0);
+		int[] columnX = new int[columns];
+		int right = firstColumn;
+		for (int c = 0; c < columns; c++)
+		{
+			columnX[c] = (c == 0) ? firstColumn : columnX[c - 1] + columnWidths[c - 1] + COLUMN_GAP;
+			right = columnX[c] + columnWidths[c];
+		}
+
+		int y = margin.top;
+		for (int r = 0; r < rows.size(); r++)
+		{
+			Row row = rows.get(r);
+			if (r > 0)
+				y += row.gapBefore;
+			row.y = y;
+
+			int x = (row.label == null) ? margin.left : firstColumn;
+			int[] heights = new int[row.cells.length];
+			for (int c = 0; c < row.cells.length; c++)
+			{
+				Dimension size = row.cells[c].getPreferredSize();
+				row.cellX[c] = (row.label != null && !row.spanning) ? columnX[c] : x;
+				row.cellWidth[c] = (row.label != null && !row.spanning) ? columnWidths[c] : size.width;
+				heights[c] = size.height;
+				x = row.cellX[c] + row.cellWidth[c] + COLUMN_GAP;
+			}
+			right = Math.max(right, x - COLUMN_GAP);
+
+			//align the components on the lowest baseline of the row, or centre those which have no baseline.
+			int labelHeight = (row.label == null) ? 0 : row.label.getPreferredSize().height;
+			int ascent = (row.label == null) ? -1 : row.label.getBaseline(labelWidth, labelHeight);
+			int height = labelHeight;
+			for (int c = 0; c < row.cells.length; c++)
+			{
+				ascent = Math.max(ascent, row.cells[c].getBaseline(row.cellWidth[c], heights[c]));
+				height = Math.max(height, heights[c]);
+			}
+			if (row.label != null)
+			{
+				row.labelHeight = labelHeight;
+				row.labelY = y + offset(row.label.getBaseline(labelWidth, labelHeight), ascent, labelHeight, height);
+			}
+			int bottom = y + height;
+			for (int c = 0; c < row.cells.length; c++)
+			{
+				row.cellHeight[c] = heights[c];
+				row.cellY[c] = y + offset(row.cells[c].getBaseline(row.cellWidth[c], heights[c]), ascent, heights[c], height);
+				bottom = Math.max(bottom, row.cellY[c] + heights[c]);
+			}
+			if (row.label != null)
+				bottom = Math.max(bottom, row.labelY + labelHeight);
+			y = bottom;
+		}
+		preferredSize = new Dimension(right + margin.right, y + margin.bottom);
+	}
+
+	/*
+	* Returns the offset from the top of the row which places the baseline of a component on the ascent of the row.
+	*/
+	private static int offset(int baseline, int ascent, int componentHeight, int rowHeight)
+	{
+		if (baseline < 0 || ascent < 0)
+			return (rowHeight - componentHeight) / 2;
+		return ascent - baseline;
+	}
+
+	/**
+	* Places every component at its cached bounds, stretching the last cell of each spanning row to the right edge.
+	*/
+	public void layoutContainer(Container parent)
+	{
+		this.ensureMeasured(parent);
+		Insets insets = parent.getInsets();
+		int right = parent.getWidth() - insets.right - margin.right;
+		for (int r = 0; r < rows.size(); r++)
+		{
+			Row row = rows.get(r);
+			if (row.label != null)
+				row.label.setBounds(insets.left + margin.left, insets.top + row.labelY, labelWidth, row.labelHeight);
+			int last = row.cells.length - 1;
+			for (int c = 0; c <= last; c++)
+			{
+				int width = (row.spanning && c == last) ? Math.max(0, right - insets.left - row.cellX[c]) : row.cellWidth[c];
+				row.cells[c].setBounds(insets.left + row.cellX[c], insets.top + row.cellY[c], width, row.cellHeight[c]);
+			}
+		}
+	}
+
+	public Dimension preferredLayoutSize(Container parent)
+	{
+		this.ensureMeasured(parent);
+		Insets insets = parent.getInsets();
+		return new Dimension(preferredSize.width + insets.left + insets.right, preferredSize.height + insets.top + insets.bottom);
+	}
+
+	public Dimension minimumLayoutSize(Container parent)
+	{
+		return this.preferredLayoutSize(parent);
+	}
+
+	public Dimension maximumLayoutSize(Container target)
+	{
+		return new Dimension(Integer.MAX_VALUE, Integer.MAX_VALUE);
+	}
+
+	/**
+	* Keeps the cached geometry: this is called on every revalidate, which is exactly when the GroupLayout starts over.
+	*/
+	public void invalidateLayout(Container target)
+	{
+	}
+
+	/**
+	* Components are placed by addRow() and addSpanningRow(), so those added to the host otherwise are left where they are.
+	*/
+	public void addLayoutComponent(Component component, Object constraints)
+	{
+	}
+
+	public void addLayoutComponent(String name, Component component)
+	{
+	}
+
+	/**
+	* Drops the component from its row, and the row itself once it is empty.
+	*/
+	public void removeLayoutComponent(Component component)
+	{
+		for (int r = rows.size() - 1; r >= 0; r--)
+		{
+			Row row = rows.get(r);
+			ArrayList<Component> cells = new ArrayList<Component>(Arrays.asList(row.cells));
+			boolean removed = cells.remove(component);
+			Component label = (row.label == component) ? null : row.label;
+			if (!removed && label == row.label)
+				continue;
+			if (label == null && cells.isEmpty())
+				rows.remove(r);
+			else
+				rows.set(r, new Row(label, cells.toArray(new Component[cells.size()]), row.spanning && !cells.isEmpty(), row.gapBefore));
+			measured = false;
+		}
+	}
+
+	public float getLayoutAlignmentX(Container target)
+	{
+		return 0.5f;
+	}
+
+	public float getLayoutAlignmentY(Container target)
+	{
+		return 0.5f;
+	}
+
+	/*
+	* Builds a form of the given number of date rows (a label and four Combo Boxes, as the departure date of the
+	* TravelItineraryView) within a panel laid out by a GroupLayout, or by a CachedFormLayout.
+	*/
+	private static JPanel createForm(int rowCount, boolean cached)
+	{
+		JPanel panel = new JPanel();
+		String[] months = new String[]{TravelComboBoxModel.DEFAULT_MONTH, "January", "February", "March", "April", "May", "June",
+			"July", "August", "September", "October", "November", "December"};
+		JComponent[][] form = new JComponent[rowCount][];
+		for (int r = 0; r < rowCount; r++)
+		{
+			form[r] = new JComponent[]{new JLabel("Leg " + (r + 1) + ":"), new JComboBox(months), new JComboBox(new String[]{"1", "31"}),
+				new JComboBox(new String[]{"2026", "2027"}), new JComboBox(PreferredTimeWindow.values())};
+		}
+
+		if (cached)
+		{
+			CachedFormLayout layout = new CachedFormLayout(panel, new int[]{123, 90, 100, 114}, new Insets(12, 12, 12, 12));
+			panel.setLayout(layout);
+			for (int r = 0; r < rowCount; r++)
+				layout.addRow(form[r][0], form[r][1], form[r][2], form[r][3], form[r][4]);
+			return panel;
+		}
+
+		GroupLayout layout = new GroupLayout(panel);
+		panel.setLayout(layout);
+		layout.setAutoCreateGaps(true);
+		layout.setAutoCreateContainerGaps(true);
+		GroupLayout.SequentialGroup horizontal = layout.createSequentialGroup();
+		int[] widths = new int[]{0, 123, 90, 100, 114};
+		for (int c = 0; c < widths.length; c++)
+		{
+			GroupLayout.ParallelGroup column = layout.createParallelGroup(GroupLayout.Alignment.LEADING);
+			for (int r = 0; r < rowCount; r++)
+			{
+				if (c == 0)
+					column.addComponent(form[r][c]);
+				else
+					column.addComponent(form[r][c], 0, widths[c], Short.MAX_VALUE);
+			}
+			horizontal.addGroup(column);
+		}
+		GroupLayout.SequentialGroup vertical = layout.createSequentialGroup();
+		for (int r = 0; r < rowCount; r++)
+		{
+			GroupLayout.ParallelGroup row = layout.createParallelGroup(GroupLayout.Alignment.BASELINE);
+			for (int c = 0; c < form[r].length; c++)
+				row.addComponent(form[r][c], GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE);
+			vertical.addGroup(row);
+		}
+		layout.setHorizontalGroup(horizontal);
+		layout.setVerticalGroup(vertical);
+		return panel;
+	}
+
+	/*
+	* Returns the nanoseconds taken by the first layout of the form, and then by each revalidate of one of its cells.
+	*/
+	private static long[] time(int rowCount, boolean cached, int iterations)
+	{
+		JPanel panel = createForm(rowCount, cached);
+		//validate() does nothing without a screen, so the layout is driven as validateTree() would drive it within a
+		//JScrollPane: the viewport asks for the preferred size and the panel is laid out.
+		long start = System.nanoTime();
+		panel.setSize(panel.getPreferredSize());
+		panel.doLayout();
+		long first = System.nanoTime() - start;
+
+		Component cell = panel.getComponent(panel.getComponentCount() / 2);
+		start = System.nanoTime();
+		for (int i = 0; i < iterations; i++)
+		{
+			//this is what JComponent.revalidate() leads to: the cell and its ancestors are invalidated and laid out again.
+			cell.invalidate();
+			panel.getPreferredSize();
+			panel.doLayout();
+		}
+		return new long[]{first, (System.nanoTime() - start) / iterations};
+	}
+
+	/**
+	* Compares the time taken to lay out forms of 10, 100 and 1000 rows by the GroupLayout and by this layout.
+	*/
+	public static void main(String[] args) throws Exception
+	{
+		System.setProperty("java.awt.headless", "true");
+		final int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public void run()
+			{
+				int[] rowCounts = new int[]{10, 100, 1000};
+				System.out.printf("%-8s %-22s %-22s %-22s %-22s %s%n", "Rows", "GroupLayout first", "Cached first",
+					"GroupLayout relayout", "Cached relayout", "Speed up");
+				for (int i = 0; i < rowCounts.length; i++)
+				{
+					int rowCount = rowCounts[i];
+					int rounds = Math.max(20, iterations / rowCount);
+					//the first round of each warms up the JIT and is not reported.
+					time(rowCount, false, rounds);
+					time(rowCount, true, rounds);
+					long[] group = time(rowCount, false, rounds);
+					long[] cached = time(rowCount, true, rounds);
+					System.out.printf("%-8d %-22s %-22s %-22s %-22s %.1fx%n", rowCount, micros(group[0]), micros(cached[0]),
+						micros(group[1]), micros(cached[1]), (double) group[1] / Math.max(1, cached[1]));
+				}
+			}
+		});
+	}
+
+	private static String micros(long nanos)
+	{
+		return String.format("%.1f us", nanos / 1000.0);
+	}
+}
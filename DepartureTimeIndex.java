@@ -0,0 +1,150 @@
+package travel;
+
+import java.util.*;
+
+/**
+ * An index of departures by their time of day, answering which departures fall within a PreferredTimeWindow.
+ *
+ * <PRE>
+ * Filename:         DepartureTimeIndex.java
+ *
+ * Description:      Departures (of flights, or itineraries, identified by an integer id) are added along with the minute
+ *		     after midnight at which they leave.  build() sorts the ids by minute with a counting sort and keeps,
+ *		     for every minute of the day, the position of the first id leaving at or after that minute.  The ids
+ *		     leaving within a window are then one contiguous range of the sorted ids, or two ranges when the window
+ *		     wraps past midnight, and the bounds of each range are read directly from the offsets.  A lookup
+ *		     therefore costs O(1) plus the number of matches, no matter how many departures are indexed.
+ *
+ *		     The index must be built before it is queried, and adding departures afterwards requires building it
+ *		     again.
+ *
+ * Used By:          FareTable.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.101
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   Matches the departure window of the flights of the larger route-months of the FareTable.
+ * </PRE>
+  */
+
+public class DepartureTimeIndex
+{
+	private int[] pendingIds;
+	private short[] pendingMinutes;
+	private int size;
+
+	//sortedIds holds the ids ordered by minute; offsets[m] is the position of the first id leaving at or after minute m.
+	private int[] sortedIds = new int[0];
+	private int[] offsets = new int[PreferredTimeWindow.MINUTES_PER_DAY + 1];
+	private boolean built = true;
+
+	public DepartureTimeIndex(int expectedSize)
+	{
+		pendingIds = new int[Math.max(16, expectedSize)];
+		pendingMinutes = new short[pendingIds.length];
+	}
+
+	/**
+	* Adds a departure leaving at the given minute after midnight.
+	*/
+	public void add(int id, int minute)
+	{
+		if (minute < 0 || minute >= PreferredTimeWindow.MINUTES_PER_DAY)
+			throw new IllegalArgumentException("The minute must be between 0 and 1439: " + minute);
+		if (size == pendingIds.length)
+		{
+			pendingIds = Arrays.copyOf(pendingIds, size * 2);
+			pendingMinutes = Arrays.copyOf(pendingMinutes, size * 2);
+		}
+		pendingIds[size] = id;
+		pendingMinutes[size] = (short) minute;
+		size++;
+		built = false;
+	}
+
+	/**
+	* Adds a departure leaving at the given hour and minute.
+	*/
+	public void add(int id, int hour, int minute)
+	{
+		this.add(id, hour * 60 + minute);
+	}
+
+	/**
+	* Sorts the departures by minute so that the index can be queried.
+	*/
+	public void build()
+	{
+		int[] counts = new int[PreferredTimeWindow.MINUTES_PER_DAY + 1];
+		for (int i = 0; i < size; i++)
+			counts[pendingMinutes[i] + 1]++;
+		for (int minute = 0; minute < PreferredTimeWindow.MINUTES_PER_DAY; minute++)
+			counts[minute + 1] += counts[minute];
+		offsets = counts.clone();
+
+		sortedIds = new int[size];
+		for (int i = 0; i < size; i++)
+			sortedIds[counts[pendingMinutes[i]]++] = pendingIds[i];
+		built = true;
+	}
+
+	/**
+	* Returns the number of departures indexed.
+	*/
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	* Returns the number of departures leaving within the window.
+	*/
+	public int count(PreferredTimeWindow window)
+	{
+		this.checkBuilt();
+		if (window == PreferredTimeWindow.ANYTIME)
+			return sortedIds.length;
+		if (window.wrapsMidnight())
+			return (sortedIds.length - offsets[window.getStartMinute()]) + offsets[window.getEndMinute()];
+		return offsets[window.getEndMinute()] - offsets[window.getStartMinute()];
+	}
+
+	/**
+	* Copies the ids of the departures leaving within the window into the array, ordered by departure time (those after
+	* midnight last for a wrapping window).  Returns the number of ids copied, which is limited by the length of the array.
+	*/
+	public int match(PreferredTimeWindow window, int[] ids)
+	{
+		this.checkBuilt();
+		if (window == PreferredTimeWindow.ANYTIME)
+			return copyRange(0, sortedIds.length, ids, 0);
+
+		int start = offsets[window.getStartMinute()];
+		int end = offsets[window.getEndMinute()];
+		if (!window.wrapsMidnight())
+			return copyRange(start, end, ids, 0);
+
+		int copied = copyRange(start, sortedIds.length, ids, 0);
+		return copied + copyRange(0, end, ids, copied);
+	}
+
+	private int copyRange(int start, int end, int[] ids, int at)
+	{
+		int length = Math.min(end - start, ids.length - at);
+		if (length <= 0)
+			return 0;
+		System.arraycopy(sortedIds, start, ids, at, length);
+		return length;
+	}
+
+	private void checkBuilt()
+	{
+		if (!built)
+			throw new IllegalStateException("The index must be built after departures are added!");
+	}
+}
@@ -0,0 +1,243 @@
+package travel;
+
+/**
+ * Detects itineraries which have already been submitted within a sliding window of time.
+ *
+ * <PRE>
+ * Filename:         DuplicateSubmissionFilter.java
+ *
+ * Description:      Every itinerary accepted by TravelFormModel.submit() is reduced to its 64-bit fingerprint (see
+ *		     TravelFormModel.fingerprint()) and checked against this filter.  The window is divided into a number of
+ *		     generations, each holding a BloomFilter and an exact LongHashSet of the fingerprints added during that
+ *		     generation.  A fingerprint is looked up within the exact set only when a Bloom filter reports it as
+ *		     present, which filters out the false positives.  The exact sets are bounded by the confirmation
+ *		     capacity; once a generation has exceeded it, its positives can no longer be confirmed and are reported
+ *		     as PROBABLE_DUPLICATE, with the configured false positive rate.  When a generation grows older than the
+ *		     window, its filter and set are cleared and reused for the newest generation, so fingerprints expire
+ *		     between one window and one window plus one generation after they were added and the memory in use never
+ *		     grows beyond what was allocated up front (apart from the exact sets, which grow up to their capacity).
+ *
+ * Aggregation Of:	 MainController.java
+ *
+ * Composition objects: BloomFilter.java, LongHashSet.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.101
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   Added lookup() and add(), so that a fingerprint is only recorded once its itinerary has been accepted.
+ * </PRE>
+  */
+
+public class DuplicateSubmissionFilter
+{
+	//These are the results returned by check().
+	public final static int NEW_SUBMISSION = 0;
+	public final static int DUPLICATE = 1;
+	public final static int PROBABLE_DUPLICATE = 2;
+
+	private final BloomFilter[] filters;
+	private final LongHashSet[] confirmations;
+	private final boolean[] overflowed;
+	private final long generationMillis;
+	private final int confirmationCapacity;
+
+	private int current;
+	private long currentStart;
+
+	private long checks;
+	private long duplicates;
+	private long probableDuplicates;
+	private long falsePositives;
+
+	/*
+	* The constructor allocates every generation up front.  The false positive rate of each generation is divided by
+	* the number of generations so that the rate of the whole filter stays within falsePositiveRate.
+	*/
+	public DuplicateSubmissionFilter(long expectedPerWindow, double falsePositiveRate, long windowMillis, int generations, int confirmationCapacity)
+	{
+		if (generations < 1)
+			throw new IllegalArgumentException("At least one generation is required!");
+		if (windowMillis < generations)
+			throw new IllegalArgumentException("The window must be at least one millisecond per generation!");
+
+		long expectedPerGeneration = Math.max(1, expectedPerWindow / generations);
+		filters = new BloomFilter[generations];
+		confirmations = new LongHashSet[generations];
+		overflowed = new boolean[generations];
+		for (int i = 0; i < generations; i++)
+		{
+			filters[i] = new BloomFilter(expectedPerGeneration, falsePositiveRate / generations);
+			confirmations[i] = new LongHashSet((int) Math.min(expectedPerGeneration, confirmationCapacity));
+		}
+		this.generationMillis = windowMillis / generations;
+		this.confirmationCapacity = confirmationCapacity;
+		this.currentStart = Long.MIN_VALUE;
+	}
+
+	/**
+	* Checks the fingerprint of an itinerary submitted now.
+	*/
+	public int check(long fingerprint)
+	{
+		return this.check(fingerprint, System.currentTimeMillis());
+	}
+
+	/**
+	* Checks the fingerprint of an itinerary submitted at the given time, and adds it to the filter if it has not been
+	* seen within the window.  Batch feeds pass the time of the record rather than the current time.  Returns
+	* NEW_SUBMISSION, DUPLICATE or PROBABLE_DUPLICATE.
+	*/
+	public synchronized int check(long fingerprint, long timeMillis)
+	{
+		int submission = this.lookup(fingerprint, timeMillis);
+		if (submission == NEW_SUBMISSION)
+			this.add(fingerprint, timeMillis);
+		return submission;
+	}
+
+	/**
+	* Checks the fingerprint of an itinerary submitted now without adding it to the filter.  Callers which may still turn
+	* the itinerary away (e.g. because a queue is full) add the fingerprint with add() once it has been accepted, so that
+	* submitting it again is not reported as a duplicate.  Returns NEW_SUBMISSION, DUPLICATE or PROBABLE_DUPLICATE.
+	*/
+	public int lookup(long fingerprint)
+	{
+		return this.lookup(fingerprint, System.currentTimeMillis());
+	}
+
+	/**
+	* Adds the fingerprint of an itinerary accepted now to the filter.
+	*/
+	public void add(long fingerprint)
+	{
+		this.add(fingerprint, System.currentTimeMillis());
+	}
+
+	/*
+	* Checks the fingerprint against every generation, counting the outcome.
+	*/
+	private synchronized int lookup(long fingerprint, long timeMillis)
+	{
+		this.expire(timeMillis);
+		checks++;
+
+		boolean probable = false;
+		for (int i = 0; i < filters.length; i++)
+		{
+			if (filters[i].mightContain(fingerprint))
+			{
+				if (confirmations[i].contains(fingerprint))
+				{
+					duplicates++;
+					return DUPLICATE;
+				}
+				if (overflowed[i])
+					probable = true;
+			}
+		}
+
+		if (probable)
+		{
+			probableDuplicates++;
+			return PROBABLE_DUPLICATE;
+		}
+
+		for (int i = 0; i < filters.length; i++)
+		{
+			if (filters[i].mightContain(fingerprint))
+			{
+				falsePositives++;
+				break;
+			}
+		}
+		return NEW_SUBMISSION;
+	}
+
+	/*
+	* Adds the fingerprint to the current generation.
+	*/
+	private synchronized void add(long fingerprint, long timeMillis)
+	{
+		this.expire(timeMillis);
+		filters[current].add(fingerprint);
+		if (confirmations[current].size() < confirmationCapacity)
+			confirmations[current].add(fingerprint);
+		else
+			overflowed[current] = true;
+	}
+
+	/*
+	* Moves on to a new generation whenever the current one is older than a generation, clearing the oldest.
+	*/
+	private void expire(long timeMillis)
+	{
+		if (currentStart == Long.MIN_VALUE)
+		{
+			currentStart = timeMillis;
+			return;
+		}
+
+		int steps = 0;
+		while (timeMillis - currentStart >= generationMillis && steps < filters.length)
+		{
+			current = (current + 1) % filters.length;
+			filters[current].clear();
+			confirmations[current].clear();
+			overflowed[current] = false;
+			currentStart += generationMillis;
+			steps++;
+		}
+
+		//Every generation has expired, so the clock simply restarts from this submission.
+		if (timeMillis - currentStart >= generationMillis)
+			currentStart = timeMillis;
+	}
+
+	/**
+	* Returns the number of fingerprints checked.
+	*/
+	public synchronized long getCheckCount()
+	{
+		return checks;
+	}
+
+	/**
+	* Returns the number of confirmed duplicates.
+	*/
+	public synchronized long getDuplicateCount()
+	{
+		return duplicates;
+	}
+
+	/**
+	* Returns the number of duplicates which could not be confirmed by an exact set.
+	*/
+	public synchronized long getProbableDuplicateCount()
+	{
+		return probableDuplicates;
+	}
+
+	/**
+	* Returns the number of times a Bloom filter reported a fingerprint which the exact sets then rejected.
+	*/
+	public synchronized long getFalsePositiveCount()
+	{
+		return falsePositives;
+	}
+
+	/**
+	* Returns the number of bytes held by the Bloom filters and the tables of the exact sets.
+	*/
+	public synchronized long getMemoryBytes()
+	{
+		long bytes = 0;
+		for (int i = 0; i < filters.length; i++)
+			bytes += filters[i].getBitCount() / 8 + confirmations[i].capacity() * 8L;
+		return bytes;
+	}
+}
@@ -0,0 +1,578 @@
+package travel;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import javax.swing.*;
+
+/**
+ * Prices every (departure day, return day) pair of a departure month and a return month on a fork-join pool.
+ *
+ * <PRE>
+ * Filename:         FareCalendar.java
+ *
+ * Description:      A round trip costs the cheapest fare of its outbound leg on the departure day plus the cheapest fare of
+ *		     its return leg on the return day, less SATURDAY_STAY_DISCOUNT_PERCENT when the stay includes a Saturday
+ *		     night.  Trips returning before they depart are not priced.  The fares of each leg for a whole month are
+ *		     the intermediate results: they are answered by a RouteLookup (normally the FareTable) and kept within a
+ *		     RouteResultCache keyed by the first day of the month and the preferred time window, so when the
+ *		     operator changes only the return month, the outbound month is taken from the cache and only the new
+ *		     return month is looked up.  The two legs are looked up in parallel when neither is cached.
+ *
+ *		     The grid is then divided by departure day: a RecursiveAction splits its rows in half until at most
+ *		     ROWS_PER_TASK remain, and each worker prices its rows into its own part of one shared array while
+ *		     noting the cheapest return of every row.  The cheapest trip of the grid is picked from those row
+ *		     minimums once every row has been priced, so the workers never contend with one another.
+ *
+ *		     request() prices the grid on the pool and hands it to the Listener on the Event Dispatch Thread.  Only
+ *		     the latest request is delivered: a grid whose request has since been replaced (or cancelled) is
+ *		     dropped, so a quick succession of month changes never shows a stale calendar.
+ *
+ *		     Usage:  java travel.FareCalendar [parallelism] [iterations]
+ *
+ * Nested Class:     Grid, Listener
+ *
+ * Composition objects: RouteResultCache.java
+ *
+ * Aggregation Of:	 MainController.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class FareCalendar
+{
+	//The share of the fare taken off a round trip whose stay includes a Saturday night.
+	public final static int SATURDAY_STAY_DISCOUNT_PERCENT = 10;
+
+	//The most departure days priced by one task before its rows are split between the workers.
+	private final static int ROWS_PER_TASK = 4;
+
+	//The number of leg-months kept, and how long they are kept for, since the fares change over time.
+	private final static int LEG_CACHE_SIZE = 4096;
+	private final static long LEG_TIME_TO_LIVE_MILLIS = 10 * 60 * 1000L;
+
+	//The day of the week of Saturday, counting Monday as zero (1970-01-01 was a Thursday).
+	private final static int SATURDAY = 5;
+
+	private final ForkJoinPool pool;
+	private final RouteResultCache<int[]> legFares;
+	private final AtomicLong latestRequest = new AtomicLong();
+
+	/**
+	* Receives the grid of a request on the Event Dispatch Thread.
+	*/
+	public interface Listener
+	{
+		public void fareCalendarReady(Grid grid);
+	}
+
+	/*
+	* The constructor places a RouteResultCache in front of the fares and starts a pool of the given number of workers.
+	*/
+	public FareCalendar(RouteLookup<int[]> fares, int parallelism)
+	{
+		pool = new ForkJoinPool(parallelism);
+		legFares = new RouteResultCache<int[]>(fares, LEG_CACHE_SIZE, LEG_TIME_TO_LIVE_MILLIS, parallelism * 4);
+	}
+
+	/**
+	* Creates a calendar using one worker per processor.
+	*/
+	public FareCalendar(RouteLookup<int[]> fares)
+	{
+		this(fares, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	* Prices every pair of the month of the departure key's date and the month of the return key's date, on the pool,
+	* and returns once the grid is complete.  The locations and windows of the legs are those of the keys, and the
+	* number of passengers is that of the departure key.
+	*/
+	public Grid compute(RouteKey departure, RouteKey ret)
+	{
+		return pool.invoke(new CalendarTask(departure, ret));
+	}
+
+	/**
+	* Prices the grid as compute() does without waiting for it, and passes it to the listener on the Event Dispatch
+	* Thread unless another request has been made (or cancel() has been called) in the meantime.
+	*/
+	public void request(RouteKey departure, RouteKey ret, final Listener listener)
+	{
+		final long ticket = latestRequest.incrementAndGet();
+		final CalendarTask task = new CalendarTask(departure, ret);
+		pool.execute(new Runnable()
+		{
+			public void run()
+			{
+				if (latestRequest.get() != ticket)
+					return;
+				final Grid grid;
+				try
+				{
+					grid = task.invoke();
+				}
+				catch (RuntimeException e)
+				{
+					System.err.println("Unable to price the fare calendar: " + e);
+					return;
+				}
+				SwingUtilities.invokeLater(new Runnable()
+				{
+					public void run()
+					{
+						if (latestRequest.get() == ticket)
+							listener.fareCalendarReady(grid);
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	* Drops the grid of the latest request, if it has not been delivered yet.
+	*/
+	public void cancel()
+	{
+		latestRequest.incrementAndGet();
+	}
+
+	/**
+	* Forgets the cached fares of every leg, e.g. once the fare table has changed.
+	*/
+	public void invalidate()
+	{
+		legFares.invalidateAll();
+	}
+
+	/**
+	* Stops the workers once the requests already made have been priced.
+	*/
+	public void shutdown()
+	{
+		pool.shutdown();
+	}
+
+	/*
+	* Returns the key of the whole month of the key's date.  Fares are for one traveller, so every number of passengers
+	* shares the same cached leg.
+	*/
+	private static RouteKey monthOf(RouteKey key)
+	{
+		int[] civil = TravelFormModel.TravelDate.fromEpochDay(key.getDay());
+		return new RouteKey(key.getFromLocationId(), key.getToLocationId(), TravelFormModel.TravelDate.toEpochDay(civil[0], civil[1], 1), key.getWindow(), 1);
+	}
+
+	/*
+	* Returns the number of days within the month starting on the given day.
+	*/
+	private static int daysInMonthOf(int firstDay)
+	{
+		int[] civil = TravelFormModel.TravelDate.fromEpochDay(firstDay);
+		return TravelFormModel.TravelDate.daysInMonth(civil[0], civil[1]);
+	}
+
+	/*
+	* Looks up the fares of a leg-month through the cache.
+	*/
+	private class LegTask extends RecursiveTask<int[]>
+	{
+		private final RouteKey key;
+
+		LegTask(RouteKey key)
+		{
+			this.key = key;
+		}
+
+		protected int[] compute()
+		{
+			return legFares.lookup(key);
+		}
+	}
+
+	/*
+	* Looks up both legs, prices the grid and picks its cheapest trip.
+	*/
+	private class CalendarTask extends RecursiveTask<Grid>
+	{
+		private final RouteKey departure;
+		private final RouteKey ret;
+		private final int passengers;
+
+		CalendarTask(RouteKey departure, RouteKey ret)
+		{
+			if (departure.getDay() == Itinerary.NO_DATE || ret.getDay() == Itinerary.NO_DATE)
+				throw new IllegalArgumentException("Both legs require a date");
+			this.departure = monthOf(departure);
+			this.ret = monthOf(ret);
+			this.passengers = Math.max(1, departure.getPassengers());
+		}
+
+		protected Grid compute()
+		{
+			long start = System.nanoTime();
+			LegTask outbound = new LegTask(departure);
+			outbound.fork();
+			int[] returnFares = legFares.lookup(ret);
+			int[] outboundFares = outbound.join();
+
+			Grid grid = new Grid(departure.getDay(), daysInMonthOf(departure.getDay()), ret.getDay(), daysInMonthOf(ret.getDay()), passengers);
+			if (outboundFares != null && returnFares != null)
+			{
+				new RowTask(grid, outboundFares, returnFares, 0, grid.departureDays).invoke();
+			}
+			grid.pickCheapest(System.nanoTime() - start);
+			return grid;
+		}
+	}
+
+	/*
+	* Prices a range of the departure days of the grid, splitting it in half while it holds more than ROWS_PER_TASK rows.
+	*/
+	private static class RowTask extends RecursiveAction
+	{
+		private final Grid grid;
+		private final int[] outboundFares;
+		private final int[] returnFares;
+		private final int fromRow;
+		private final int toRow;
+
+		RowTask(Grid grid, int[] outboundFares, int[] returnFares, int fromRow, int toRow)
+		{
+			this.grid = grid;
+			this.outboundFares = outboundFares;
+			this.returnFares = returnFares;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+		}
+
+		protected void compute()
+		{
+			if (toRow - fromRow <= ROWS_PER_TASK)
+			{
+				for (int row = fromRow; row < toRow; row++)
+					this.priceRow(row);
+				return;
+			}
+			int middle = (fromRow + toRow) >>> 1;
+			invokeAll(new RowTask(grid, outboundFares, returnFares, fromRow, middle), new RowTask(grid, outboundFares, returnFares, middle, toRow));
+		}
+
+		/*
+		* Prices every return day of a single departure day.  The stay includes a Saturday night once the return day is
+		* after the first Saturday on or after the departure day.
+		*/
+		private void priceRow(int row)
+		{
+			int[] fares = grid.fares;
+			int offset = row * grid.returnDays;
+			int departureDay = grid.departureStart + row;
+			int outbound = outboundFares[row + 1];
+			int cheapestColumn = -1;
+			int cheapestFare = FareTable.NO_FARE;
+
+			int firstDiscountedDay = departureDay + Math.floorMod(SATURDAY - Math.floorMod(departureDay + 3, 7), 7) + 1;
+			for (int column = 0; column < grid.returnDays; column++)
+			{
+				int returnDay = grid.returnStart + column;
+				int back = returnFares[column + 1];
+				int fare = FareTable.NO_FARE;
+				if (outbound != FareTable.NO_FARE && back != FareTable.NO_FARE && returnDay >= departureDay)
+				{
+					long total = (long) outbound + back;
+					if (returnDay >= firstDiscountedDay)
+						total -= total * SATURDAY_STAY_DISCOUNT_PERCENT / 100;
+					fare = (int) Math.min(total, FareTable.NO_FARE - 1);
+				}
+				fares[offset + column] = fare;
+				if (fare < cheapestFare)
+				{
+					cheapestFare = fare;
+					cheapestColumn = column;
+				}
+			}
+			grid.cheapestReturns[row] = cheapestColumn;
+		}
+	}
+
+	/**
+	* The priced trips of a departure month and a return month.  Rows are departure days and columns are return days,
+	* both counted from zero for the first day of their month.  Fares are for one traveller, in cents.
+	*/
+	public static class Grid
+	{
+		private final int departureStart;
+		private final int departureDays;
+		private final int returnStart;
+		private final int returnDays;
+		private final int passengers;
+		private final int[] fares;
+		private final int[] cheapestReturns;
+		private int cheapestRow = -1;
+		private int cheapestColumn = -1;
+		private long elapsedNanos;
+
+		Grid(int departureStart, int departureDays, int returnStart, int returnDays, int passengers)
+		{
+			this.departureStart = departureStart;
+			this.departureDays = departureDays;
+			this.returnStart = returnStart;
+			this.returnDays = returnDays;
+			this.passengers = passengers;
+			this.fares = new int[departureDays * returnDays];
+			this.cheapestReturns = new int[departureDays];
+			Arrays.fill(fares, FareTable.NO_FARE);
+			Arrays.fill(cheapestReturns, -1);
+		}
+
+		/*
+		* Picks the cheapest trip from the cheapest return of every row, preferring the earliest departure on a tie.
+		*/
+		void pickCheapest(long elapsedNanos)
+		{
+			this.elapsedNanos = elapsedNanos;
+			int cheapestFare = FareTable.NO_FARE;
+			for (int row = 0; row < departureDays; row++)
+			{
+				int column = cheapestReturns[row];
+				if (column >= 0 && fares[row * returnDays + column] < cheapestFare)
+				{
+					cheapestFare = fares[row * returnDays + column];
+					cheapestRow = row;
+					cheapestColumn = column;
+				}
+			}
+		}
+
+		/**
+		* Returns the number of departure days (rows) of the grid.
+		*/
+		public int getDepartureDayCount()
+		{
+			return departureDays;
+		}
+
+		/**
+		* Returns the number of return days (columns) of the grid.
+		*/
+		public int getReturnDayCount()
+		{
+			return returnDays;
+		}
+
+		/**
+		* Returns the departure day of the given row, in days since 1970-01-01.
+		*/
+		public int getDepartureDay(int row)
+		{
+			return departureStart + row;
+		}
+
+		/**
+		* Returns the return day of the given column, in days since 1970-01-01.
+		*/
+		public int getReturnDay(int column)
+		{
+			return returnStart + column;
+		}
+
+		/**
+		* Returns the fare of one traveller departing on the day of the row and returning on the day of the column, or
+		* FareTable.NO_FARE if that trip cannot be made.
+		*/
+		public int getFare(int row, int column)
+		{
+			return fares[row * returnDays + column];
+		}
+
+		/**
+		* Returns the cheapest fare of one traveller departing on the day of the row, or FareTable.NO_FARE.
+		*/
+		public int getCheapestFareFrom(int row)
+		{
+			int column = cheapestReturns[row];
+			return (column < 0) ? FareTable.NO_FARE : fares[row * returnDays + column];
+		}
+
+		/**
+		* Returns the fare of one traveller for the cheapest trip of the grid, or FareTable.NO_FARE if no trip can be made.
+		*/
+		public int getCheapestFare()
+		{
+			return (cheapestRow < 0) ? FareTable.NO_FARE : fares[cheapestRow * returnDays + cheapestColumn];
+		}
+
+		/**
+		* Returns the fare of every traveller for the cheapest trip of the grid, or FareTable.NO_FARE.
+		*/
+		public long getCheapestTotal()
+		{
+			return (cheapestRow < 0) ? FareTable.NO_FARE : (long) getCheapestFare() * passengers;
+		}
+
+		/**
+		* Returns the departure day of the cheapest trip, or Itinerary.NO_DATE.
+		*/
+		public int getCheapestDepartureDay()
+		{
+			return (cheapestRow < 0) ? Itinerary.NO_DATE : departureStart + cheapestRow;
+		}
+
+		/**
+		* Returns the return day of the cheapest trip, or Itinerary.NO_DATE.
+		*/
+		public int getCheapestReturnDay()
+		{
+			return (cheapestRow < 0) ? Itinerary.NO_DATE : returnStart + cheapestColumn;
+		}
+
+		/**
+		* Returns the number of travellers the totals are for.
+		*/
+		public int getPassengers()
+		{
+			return passengers;
+		}
+
+		/**
+		* Returns the time taken to look up the legs and price the grid.
+		*/
+		public long getElapsedNanos()
+		{
+			return elapsedNanos;
+		}
+	}
+
+	/*
+	* Fills the table with FLIGHTS_PER_DAY flights of both directions of a route for every day of the given months.
+	* Fares rise towards the weekend and vary from flight to flight.
+	*/
+	private static void addRoute(FareTable table, int fromId, int toId, int year, int months, int flightsPerDay, Random random)
+	{
+		for (int month = 1; month <= months; month++)
+		{
+			for (int day = 1; day <= TravelFormModel.TravelDate.daysInMonth(year, month); day++)
+			{
+				int dayOfWeek = Math.floorMod(TravelFormModel.TravelDate.toEpochDay(year, month, day) + 3, 7);
+				int base = 9000 + (dayOfWeek >= 4 ? 6000 : 0);
+				for (int flight = 0; flight < flightsPerDay; flight++)
+				{
+					int minute = 300 + random.nextInt(PreferredTimeWindow.MINUTES_PER_DAY - 300);
+					table.add(fromId, toId, year, month, day, minute, base + random.nextInt(40000));
+					table.add(toId, fromId, year, month, day, minute, base + random.nextInt(40000));
+				}
+			}
+		}
+	}
+
+	/*
+	* Prints the percentiles of the sorted times, in microseconds.
+	*/
+	private static void report(String label, long[] nanos)
+	{
+		Arrays.sort(nanos);
+		System.out.printf("%-40s p50 %9.1f   p99 %9.1f   max %9.1f%n", label, UIEventReplayer.percentile(nanos, 50) / 1000.0,
+			UIEventReplayer.percentile(nanos, 99) / 1000.0, UIEventReplayer.percentile(nanos, 100) / 1000.0);
+	}
+
+	/*
+	* Measures the grids of every pair of the twelve months, either with every leg already cached or with none.
+	*/
+	private static long[] measure(FareCalendar calendar, int fromId, int toId, int year, int iterations, boolean cold)
+	{
+		long[] nanos = new long[iterations * 12];
+		int slot = 0;
+		for (int i = 0; i < iterations; i++)
+		{
+			for (int month = 1; month <= 12; month++)
+			{
+				if (cold)
+					calendar.invalidate();
+				RouteKey departure = new RouteKey(fromId, toId, TravelFormModel.TravelDate.toEpochDay(year, month, 1), PreferredTimeWindow.ANYTIME, 2);
+				RouteKey ret = new RouteKey(toId, fromId, TravelFormModel.TravelDate.toEpochDay(year, Math.min(12, month + 1), 1), PreferredTimeWindow.ANYTIME, 2);
+				long start = System.nanoTime();
+				calendar.compute(departure, ret);
+				nanos[slot++] = System.nanoTime() - start;
+			}
+		}
+		return nanos;
+	}
+
+	/*
+	* Measures the time between a request and the delivery of its grid on the Event Dispatch Thread, changing the return
+	* month on every request as an operator stepping through the months would.
+	*/
+	private static long[] measureRequests(FareCalendar calendar, int fromId, int toId, int year, int requests) throws InterruptedException
+	{
+		long[] nanos = new long[requests];
+		RouteKey departure = new RouteKey(fromId, toId, TravelFormModel.TravelDate.toEpochDay(year, 3, 1), PreferredTimeWindow.MORNING, 1);
+		for (int i = 0; i < requests; i++)
+		{
+			final CountDownLatch delivered = new CountDownLatch(1);
+			RouteKey ret = new RouteKey(toId, fromId, TravelFormModel.TravelDate.toEpochDay(year, 3 + i % 10, 1), PreferredTimeWindow.EARLY_EVENING, 1);
+			long start = System.nanoTime();
+			calendar.request(departure, ret, new Listener()
+			{
+				public void fareCalendarReady(Grid grid)
+				{
+					delivered.countDown();
+				}
+			});
+			delivered.await();
+			nanos[i] = System.nanoTime() - start;
+		}
+		return nanos;
+	}
+
+	/**
+	* Measures the two month grids of a route flown FLIGHTS_PER_DAY times a day in each direction for a year, with a pool
+	* of the given parallelism and with a single worker.
+	*/
+	public static void main(String[] args) throws Exception
+	{
+		System.setProperty("java.awt.headless", "true");
+		int parallelism = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+		int flightsPerDay = 24;
+		int year = 2027;
+
+		LocationPool pool = new LocationPool();
+		int fromId = pool.intern("Boston");
+		int toId = pool.intern("Lisbon");
+		FareTable table = new FareTable();
+		addRoute(table, fromId, toId, year, 12, flightsPerDay, new Random(46));
+		System.out.println("Flights in the fare table:  " + table.size());
+
+		RouteKey departure = new RouteKey(fromId, toId, TravelFormModel.TravelDate.toEpochDay(year, 6, 15), PreferredTimeWindow.ANYTIME, 2);
+		RouteKey ret = new RouteKey(toId, fromId, TravelFormModel.TravelDate.toEpochDay(year, 7, 1), PreferredTimeWindow.ANYTIME, 2);
+		FareCalendar[] calendars = new FareCalendar[]{new FareCalendar(table, parallelism), new FareCalendar(table, 1)};
+		String[] names = new String[]{parallelism + (parallelism == 1 ? " worker" : " workers"), "1 worker"};
+		for (int c = 0; c < calendars.length; c++)
+		{
+			FareCalendar calendar = calendars[c];
+			measure(calendar, fromId, toId, year, iterations, true);
+			measure(calendar, fromId, toId, year, iterations, false);
+			measureRequests(calendar, fromId, toId, year, iterations);
+
+			Grid grid = calendar.compute(departure, ret);
+			System.out.println();
+			System.out.println(names[c] + ": " + grid.getDepartureDayCount() + " x " + grid.getReturnDayCount() + " grid, cheapest "
+				+ Itinerary.formatDay(grid.getCheapestDepartureDay()) + " to " + Itinerary.formatDay(grid.getCheapestReturnDay())
+				+ String.format(" at %.2f for %d", grid.getCheapestTotal() / 100.0, grid.getPassengers()));
+			System.out.println("Latency (microseconds):");
+			report("  grid, legs looked up", measure(calendar, fromId, toId, year, iterations, true));
+			report("  grid, legs cached", measure(calendar, fromId, toId, year, iterations, false));
+			report("  request to delivery on the EDT", measureRequests(calendar, fromId, toId, year, iterations));
+			System.out.println("  leg cache: " + calendar.legFares);
+			calendar.shutdown();
+		}
+	}
+}
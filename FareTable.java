@@ -0,0 +1,236 @@
+package travel;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * The local table of flights and their fares, answering the cheapest fare of each day of a route-month.
+ *
+ * <PRE>
+ * Filename:         FareTable.java
+ *
+ * Description:      The flights of each route-month (a From and a To location given by the LocationPool, and a month)
+ *		     are kept together within parallel primitive arrays holding the day of the month, the minute after
+ *		     midnight at which the flight leaves and its fare in cents for one traveller.  As a RouteLookup, the
+ *		     table answers the RouteKey of a leg with the cheapest fare of every day of the month of the key's date,
+ *		     counting only the flights which leave within the key's PreferredTimeWindow.  The answer is an array
+ *		     indexed by the day of the month (position zero is unused) holding NO_FARE on the days without a
+ *		     matching flight, or null when nothing is flown on the route during that month.  Answers may be shared
+ *		     by a RouteResultCache placed in front of the table, so they must not be modified.
+ *
+ *		     A route-month with at least INDEXED_FLIGHTS flights answers the window through a DepartureTimeIndex of
+ *		     its flights, built on its first lookup, so only the flights leaving within the window are visited.
+ *		     Smaller route-months are scanned, since the index costs an offset per minute of the day.
+ *
+ *		     The fare file holds one flight per line (blank lines and lines starting with '#' are skipped):
+ *
+ *		         from | to | yyyy-mm-dd | hh:mm | 412.50
+ *
+ * Implements:       RouteLookup.java
+ *
+ * Used By:          FareCalendar.java
+ *
+ * Composition objects: DepartureTimeIndex.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.101
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   Route-months with many flights match the window through a DepartureTimeIndex.
+ * </PRE>
+  */
+
+public class FareTable implements RouteLookup<int[]>
+{
+	//Marks a day without a flight within the answer of lookup(), and is greater than every fare.
+	public final static int NO_FARE = Integer.MAX_VALUE;
+
+	//Location ids are limited to 24 bits each so that they fit within the key along with the month.
+	private final static int MAX_LOCATION_ID = (1 << 24) - 1;
+
+	//Route-months with at least this many flights are matched through a DepartureTimeIndex rather than scanned.
+	private final static int INDEXED_FLIGHTS = 64;
+
+	private final Map<Long, RouteMonth> routeMonths = new HashMap<Long, RouteMonth>();
+	private int flightCount;
+
+	/*
+	* The flights of a single route-month, in the order they were added.
+	*/
+	private static class RouteMonth
+	{
+		byte[] days = new byte[8];
+		short[] minutes = new short[8];
+		int[] fares = new int[8];
+		int size;
+
+		//The positions of the flights by departure minute, built on demand and dropped when a flight is added.
+		DepartureTimeIndex byMinute;
+
+		void add(int day, int minute, int fare)
+		{
+			if (size == days.length)
+			{
+				days = Arrays.copyOf(days, size * 2);
+				minutes = Arrays.copyOf(minutes, size * 2);
+				fares = Arrays.copyOf(fares, size * 2);
+			}
+			days[size] = (byte) day;
+			minutes[size] = (short) minute;
+			fares[size] = fare;
+			size++;
+			byMinute = null;
+		}
+
+		/*
+		* Returns the index of the flights by departure minute, building it if needed.
+		*/
+		DepartureTimeIndex byMinute()
+		{
+			if (byMinute == null)
+			{
+				byMinute = new DepartureTimeIndex(size);
+				for (int i = 0; i < size; i++)
+					byMinute.add(i, minutes[i]);
+				byMinute.build();
+			}
+			return byMinute;
+		}
+	}
+
+	/*
+	* Packs the route and the month (year * 12 + month - 1) into the key of the route-month.
+	*/
+	private static long keyOf(int fromLocationId, int toLocationId, int year, int month)
+	{
+		if (fromLocationId < 0 || fromLocationId > MAX_LOCATION_ID || toLocationId < 0 || toLocationId > MAX_LOCATION_ID)
+			throw new IllegalArgumentException("Location ids must be between 0 and " + MAX_LOCATION_ID);
+		return ((long) fromLocationId << 40) | ((long) toLocationId << 16) | (year * 12 + month - 1);
+	}
+
+	/**
+	* Adds a flight of the route leaving on the given date at the given minute after midnight.
+	*/
+	public synchronized void add(int fromLocationId, int toLocationId, int year, int month, int day, int minute, int fareCents)
+	{
+		if (month < 1 || month > 12 || day < 1 || day > TravelFormModel.TravelDate.daysInMonth(year, month))
+			throw new IllegalArgumentException("No such date: " + year + "-" + month + "-" + day);
+		if (minute < 0 || minute >= PreferredTimeWindow.MINUTES_PER_DAY)
+			throw new IllegalArgumentException("The minute must be between 0 and 1439: " + minute);
+		if (fareCents < 0 || fareCents == NO_FARE)
+			throw new IllegalArgumentException("Invalid fare: " + fareCents);
+
+		Long key = keyOf(fromLocationId, toLocationId, year, month);
+		RouteMonth routeMonth = routeMonths.get(key);
+		if (routeMonth == null)
+		{
+			routeMonth = new RouteMonth();
+			routeMonths.put(key, routeMonth);
+		}
+		routeMonth.add(day, minute, fareCents);
+		flightCount++;
+	}
+
+	/**
+	* Returns the cheapest fare of every day of the month of the key's date within the key's window, indexed by the day
+	* of the month, or null if nothing is flown on the route during that month.  The number of passengers is ignored,
+	* since the fares are for one traveller.
+	*/
+	public int[] lookup(RouteKey key)
+	{
+		if (key.getDay() == Itinerary.NO_DATE)
+			return null;
+		int[] civil = TravelFormModel.TravelDate.fromEpochDay(key.getDay());
+		PreferredTimeWindow window = key.getWindow();
+
+		synchronized (this)
+		{
+			RouteMonth routeMonth = routeMonths.get(keyOf(key.getFromLocationId(), key.getToLocationId(), civil[0], civil[1]));
+			if (routeMonth == null)
+				return null;
+
+			int[] cheapest = new int[32];
+			Arrays.fill(cheapest, NO_FARE);
+			if (routeMonth.size >= INDEXED_FLIGHTS)
+			{
+				DepartureTimeIndex byMinute = routeMonth.byMinute();
+				int[] flights = new int[byMinute.count(window)];
+				int matched = byMinute.match(window, flights);
+				for (int i = 0; i < matched; i++)
+				{
+					int flight = flights[i];
+					if (routeMonth.fares[flight] < cheapest[routeMonth.days[flight]])
+						cheapest[routeMonth.days[flight]] = routeMonth.fares[flight];
+				}
+				return cheapest;
+			}
+			for (int i = 0; i < routeMonth.size; i++)
+			{
+				if (window.contains(routeMonth.minutes[i]) && routeMonth.fares[i] < cheapest[routeMonth.days[i]])
+					cheapest[routeMonth.days[i]] = routeMonth.fares[i];
+			}
+			return cheapest;
+		}
+	}
+
+	/**
+	* Returns the number of flights within the table.
+	*/
+	public synchronized int size()
+	{
+		return flightCount;
+	}
+
+	/**
+	* Reads a fare file into a new table, interning its locations into the pool.
+	*/
+	public static FareTable load(File fareFile, LocationPool pool) throws IOException
+	{
+		FareTable table = new FareTable();
+		BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(fareFile), "UTF-8"));
+		try
+		{
+			String line;
+			int lineNumber = 0;
+			while ((line = in.readLine()) != null)
+			{
+				lineNumber++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+				try
+				{
+					String[] parts = line.split("\\|");
+					if (parts.length != 5)
+						throw new IllegalArgumentException("expected \"from | to | yyyy-mm-dd | hh:mm | fare\"");
+					String[] date = parts[2].trim().split("-");
+					String[] time = parts[3].trim().split(":");
+					if (date.length != 3 || time.length != 2)
+						throw new IllegalArgumentException("invalid date or time: " + parts[2].trim() + " " + parts[3].trim());
+					int hour = Integer.parseInt(time[0]);
+					int minute = Integer.parseInt(time[1]);
+					if (hour < 0 || hour > 23 || minute < 0 || minute > 59)
+						throw new IllegalArgumentException("no such time: " + parts[3].trim());
+					long fare = Math.round(Double.parseDouble(parts[4].trim()) * 100);
+					if (fare < 0 || fare >= NO_FARE)
+						throw new IllegalArgumentException("invalid fare: " + parts[4].trim());
+					table.add(pool.intern(parts[0]), pool.intern(parts[1]), Integer.parseInt(date[0]), Integer.parseInt(date[1]),
+						Integer.parseInt(date[2]), hour * 60 + minute, (int) fare);
+				}
+				catch (RuntimeException e)
+				{
+					throw new IOException(fareFile + ":" + lineNumber + ": " + e.getMessage());
+				}
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+		return table;
+	}
+}
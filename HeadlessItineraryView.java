@@ -0,0 +1,180 @@
+package travel;
+
+import javax.swing.*;
+
+/**
+ * A view of the TravelFormModel that is never displayed, used for driving the MainController without a screen.
+ *
+ * <PRE>
+ * Filename:         HeadlessItineraryView.java
+ *
+ * Description:      This class holds the same Text Fields, Combo Boxes and Submit Button as the TravelItineraryView, but
+ *		     does not place them within a JFrame.  Lightweight Swing Components may be created and fired while
+ *		     java.awt.headless is set, which allows the MainController and its listeners to be exercised at full
+ *		     speed by the UIEventReplayer.  Messages which would normally be shown in a dialog are only counted,
+ *		     and the last one is kept so that it can be inspected.
+ *
+ * Implements:       TravelView.java
+ *
+ * Instantiated By:  UIEventReplayer.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class HeadlessItineraryView implements TravelView
+{
+	private JTextField fromTextBox;
+	private JTextField toTextBox;
+	private JComboBox departureMonthComboBox;
+	private JComboBox departureDayComboBox;
+	private JComboBox departureYearComboBox;
+	private JComboBox departureSettingComboBox;
+	private JComboBox returnMonthComboBox;
+	private JComboBox returnDayComboBox;
+	private JComboBox returnYearComboBox;
+	private JComboBox returnSettingComboBox;
+	private JComboBox passengersComboBox;
+	private JButton manifestButton;
+	private JButton submitButton;
+
+	private int messageCount;
+	private String lastMessage;
+	private int lastMessageType;
+
+	/*
+	* The constructor instantiates the Swing Components without any layout or top level container.
+	*/
+	public HeadlessItineraryView()
+	{
+		fromTextBox = new JTextField();
+		toTextBox = new JTextField();
+
+		departureMonthComboBox = new JComboBox();
+		departureDayComboBox = new JComboBox();
+		departureYearComboBox = new JComboBox();
+		departureSettingComboBox = new JComboBox();
+		returnMonthComboBox = new JComboBox();
+		returnDayComboBox = new JComboBox();
+		returnYearComboBox = new JComboBox();
+		returnSettingComboBox = new JComboBox();
+		passengersComboBox = new JComboBox();
+
+		manifestButton = new JButton("Manifest...");
+		submitButton = new JButton("Submit");
+	}
+
+	public JTextField getToLocationTextField()
+	{
+		return toTextBox;
+	}
+
+	public JTextField getFromLocationTextField()
+	{
+		return fromTextBox;
+	}
+
+	public JComboBox getDepartureMonthDropDown()
+	{
+		return departureMonthComboBox;
+	}
+
+	public JComboBox getDepartureDayDropDown()
+	{
+		return departureDayComboBox;
+	}
+
+	public JComboBox getDepartureYearDropDown()
+	{
+		return departureYearComboBox;
+	}
+
+	public JComboBox getDepartureSettingDropDown()
+	{
+		return departureSettingComboBox;
+	}
+
+	public JComboBox getReturnMonthDropDown()
+	{
+		return returnMonthComboBox;
+	}
+
+	public JComboBox getReturnDayDropDown()
+	{
+		return returnDayComboBox;
+	}
+
+	public JComboBox getReturnYearDropDown()
+	{
+		return returnYearComboBox;
+	}
+
+	public JComboBox getReturnSettingDropDown()
+	{
+		return returnSettingComboBox;
+	}
+
+	public JComboBox getPassengerDropDown()
+	{
+		return passengersComboBox;
+	}
+
+	public JButton getManifestButton()
+	{
+		return manifestButton;
+	}
+
+	public JButton getSubmitButton()
+	{
+		return submitButton;
+	}
+
+	/**
+	* Records the message instead of displaying it.
+	*/
+	public void showMessage(String message, String title, int messageType)
+	{
+		messageCount++;
+		lastMessage = message;
+		lastMessageType = messageType;
+	}
+
+	/**
+	* Records the status message in the same way as the messages of showMessage().
+	*/
+	public void showStatus(String message, int messageType)
+	{
+		this.showMessage(message, "Status", messageType);
+	}
+
+	/**
+	* Returns the number of messages that would have been displayed.
+	*/
+	public int getMessageCount()
+	{
+		return messageCount;
+	}
+
+	/**
+	* Returns the last message that would have been displayed, or null if there has been none.
+	*/
+	public String getLastMessage()
+	{
+		return lastMessage;
+	}
+
+	/**
+	* Returns the JOptionPane message type of the last message.
+	*/
+	public int getLastMessageType()
+	{
+		return lastMessageType;
+	}
+}
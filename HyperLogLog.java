@@ -0,0 +1,165 @@
+package travel;
+
+import java.io.*;
+
+/**
+ * A HyperLogLog sketch estimating the number of distinct 64-bit hashes it has been given.
+ *
+ * <PRE>
+ * Filename:         HyperLogLog.java
+ *
+ * Description:      The sketch holds 2^precision one byte registers.  The top precision bits of a hash choose a register,
+ *		     which keeps the longest run of leading zeros (plus one) seen within the remaining bits.  The estimate
+ *		     is the bias corrected harmonic mean of 2^register over all registers, falling back on linear counting
+ *		     of the empty registers while the sketch is sparsely filled.  With 64-bit hashes no correction is
+ *		     needed for large counts.  The standard error is about 1.04 / sqrt(2^precision), e.g. 0.8% for the
+ *		     default precision of 14, which takes 16KB no matter how many hashes are added.
+ *
+ *		     Two sketches of the same precision are merged by keeping the larger of each register, which gives
+ *		     exactly the sketch of the union of their hashes, so sketches built by separate processes can be
+ *		     combined.  The caller is expected to provide hashes which are already well mixed (see hash()).
+ *
+ * Aggregation Of:	 ItineraryAnalytics.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class HyperLogLog
+{
+	public final static int DEFAULT_PRECISION = 14;
+
+	private final int precision;
+	private final byte[] registers;
+
+	/*
+	* The constructor creates an empty sketch of 2^precision registers, where the precision lies between 4 and 18.
+	*/
+	public HyperLogLog(int precision)
+	{
+		if (precision < 4 || precision > 18)
+			throw new IllegalArgumentException("The precision must lie between 4 and 18: " + precision);
+		this.precision = precision;
+		this.registers = new byte[1 << precision];
+	}
+
+	/**
+	* Returns a well mixed 64-bit hash of the text (FNV-1a followed by the finalizer of MurmurHash3).
+	*/
+	public static long hash(CharSequence text)
+	{
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < text.length(); i++)
+		{
+			char c = text.charAt(i);
+			hash = (hash ^ (c & 0xff)) * 0x100000001b3L;
+			hash = (hash ^ (c >>> 8)) * 0x100000001b3L;
+		}
+		return mix(hash);
+	}
+
+	/**
+	* Returns the hash with every bit depending on every bit of the value (the finalizer of MurmurHash3).
+	*/
+	public static long mix(long hash)
+	{
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	/**
+	* Adds the hash to the sketch.
+	*/
+	public void add(long hash)
+	{
+		int index = (int) (hash >>> (64 - precision));
+
+		//the guard bit bounds the run of zeros when the remaining bits are all zero.
+		long remaining = (hash << precision) | (1L << (precision - 1));
+		byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+		if (rank > registers[index])
+			registers[index] = rank;
+	}
+
+	/**
+	* Returns the estimated number of distinct hashes added.
+	*/
+	public long estimate()
+	{
+		int m = registers.length;
+		double sum = 0;
+		int empty = 0;
+		for (int i = 0; i < m; i++)
+		{
+			sum += Double.longBitsToDouble((1023L - registers[i]) << 52);
+			if (registers[i] == 0)
+				empty++;
+		}
+
+		double alpha = (m == 16) ? 0.673 : (m == 32) ? 0.697 : (m == 64) ? 0.709 : 0.7213 / (1 + 1.079 / m);
+		double estimate = alpha * m * m / sum;
+		if (estimate <= 2.5 * m && empty > 0)
+			estimate = m * Math.log((double) m / empty);
+		return Math.round(estimate);
+	}
+
+	/**
+	* Adds the hashes of the other sketch, which must have the same precision.
+	*/
+	public void merge(HyperLogLog other)
+	{
+		if (other.precision != precision)
+			throw new IllegalArgumentException("Sketches of precision " + precision + " and " + other.precision + " cannot be merged");
+		for (int i = 0; i < registers.length; i++)
+		{
+			if (other.registers[i] > registers[i])
+				registers[i] = other.registers[i];
+		}
+	}
+
+	/**
+	* Empties the sketch.
+	*/
+	public void clear()
+	{
+		java.util.Arrays.fill(registers, (byte) 0);
+	}
+
+	public int getPrecision()
+	{
+		return precision;
+	}
+
+	/**
+	* Writes the precision and the registers.
+	*/
+	public void write(DataOutput out) throws IOException
+	{
+		out.writeByte(precision);
+		out.write(registers);
+	}
+
+	/**
+	* Reads a sketch written by write().
+	*/
+	public static HyperLogLog read(DataInput in) throws IOException
+	{
+		int precision = in.readByte();
+		if (precision < 4 || precision > 18)
+			throw new IOException("Invalid HyperLogLog precision " + precision);
+		HyperLogLog sketch = new HyperLogLog(precision);
+		in.readFully(sketch.registers);
+		return sketch;
+	}
+}
@@ -0,0 +1,188 @@
+package travel;
+
+/**
+ * An immutable, compact copy of a submitted TravelFormModel.
+ *
+ * <PRE>
+ * Filename:         Itinerary.java
+ *
+ * Description:      While the TravelFormModel holds the Strings shown by the view, an Itinerary holds only what they mean:
+ *		     the ids given to the From and To locations by a LocationPool, the departure and return dates as days
+ *		     since 1970-01-01 (see TravelDate.toEpochDay()), the PreferredTimeWindow of each date and the number of
+ *		     travellers.  This makes large sets of itineraries cheap to hold, and comparing, hashing or grouping
+ *		     them only involves integers.  The location names are looked up from the pool when they are needed
+ *		     for display.
+ *
+ *		     The travellers of a group booking are kept as a private copy of the PassengerManifest, so that the form
+ *		     (and the manifest attached to it) may be reset and reused once the itinerary has been queued.
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.101
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   Carries a copy of the travellers of the PassengerManifest, if one holding travellers is attached.
+ * </PRE>
+  */
+
+public final class Itinerary
+{
+	//Used in place of the epoch day of a date that has not been fully selected.
+	public final static int NO_DATE = Integer.MIN_VALUE;
+
+	private final int fromLocationId;
+	private final int toLocationId;
+	private final int departureDay;
+	private final int returnDay;
+	private final PreferredTimeWindow departureWindow;
+	private final PreferredTimeWindow returnWindow;
+	private final int passengers;
+	private final PassengerManifest travellers;
+
+	public Itinerary(int fromLocationId, int toLocationId, int departureDay, int returnDay,
+		PreferredTimeWindow departureWindow, PreferredTimeWindow returnWindow, int passengers)
+	{
+		this(fromLocationId, toLocationId, departureDay, returnDay, departureWindow, returnWindow, passengers, null);
+	}
+
+	/*
+	* The travellers are held as given, so they must not be modified afterwards; they may be null.
+	*/
+	private Itinerary(int fromLocationId, int toLocationId, int departureDay, int returnDay,
+		PreferredTimeWindow departureWindow, PreferredTimeWindow returnWindow, int passengers, PassengerManifest travellers)
+	{
+		this.fromLocationId = fromLocationId;
+		this.toLocationId = toLocationId;
+		this.departureDay = departureDay;
+		this.returnDay = returnDay;
+		this.departureWindow = departureWindow;
+		this.returnWindow = returnWindow;
+		this.passengers = passengers;
+		this.travellers = travellers;
+	}
+
+	/**
+	* Creates the Itinerary of the TravelFormModel, interning its locations into the pool.  The travellers of an attached
+	* PassengerManifest are copied, so the itinerary keeps them once the form has been reset.
+	*/
+	public static Itinerary of(TravelFormModel travelForm, LocationPool pool)
+	{
+		PassengerManifest manifest = travelForm.getPassengerManifest();
+		PassengerManifest travellers = null;
+		if (manifest != null && manifest.size() > 0)
+		{
+			travellers = new PassengerManifest(manifest.size());
+			travellers.addAll(manifest);
+		}
+		return new Itinerary(pool.intern(travelForm.getFromLocation()), pool.intern(travelForm.getToLocation()),
+			travelForm.getDepartureDate().toEpochDay(), travelForm.getReturnDate().toEpochDay(),
+			travelForm.getDepartureDate().getPreferredTimeWindow(), travelForm.getReturnDate().getPreferredTimeWindow(),
+			travelForm.getPassengerCount(), travellers);
+	}
+
+	public int getFromLocationId()
+	{
+		return fromLocationId;
+	}
+
+	public int getToLocationId()
+	{
+		return toLocationId;
+	}
+
+	/**
+	* Returns the departure date in days since 1970-01-01, or NO_DATE.
+	*/
+	public int getDepartureDay()
+	{
+		return departureDay;
+	}
+
+	/**
+	* Returns the return date in days since 1970-01-01, or NO_DATE.
+	*/
+	public int getReturnDay()
+	{
+		return returnDay;
+	}
+
+	public PreferredTimeWindow getDepartureWindow()
+	{
+		return departureWindow;
+	}
+
+	public PreferredTimeWindow getReturnWindow()
+	{
+		return returnWindow;
+	}
+
+	public int getPassengers()
+	{
+		return passengers;
+	}
+
+	/**
+	* Returns the travellers of the group booking, which must not be modified, or null if no manifest was attached.
+	*/
+	public PassengerManifest getTravellers()
+	{
+		return travellers;
+	}
+
+	/**
+	* Returns a key combining the From and To location ids, for grouping itineraries by route.
+	*/
+	public long getRouteKey()
+	{
+		return ((long) fromLocationId << 32) | (toLocationId & 0xffffffffL);
+	}
+
+	public boolean equals(Object other)
+	{
+		if (!(other instanceof Itinerary))
+			return false;
+		Itinerary that = (Itinerary) other;
+		return fromLocationId == that.fromLocationId && toLocationId == that.toLocationId && departureDay == that.departureDay
+			&& returnDay == that.returnDay && departureWindow == that.departureWindow && returnWindow == that.returnWindow
+			&& passengers == that.passengers;
+	}
+
+	public int hashCode()
+	{
+		int hash = fromLocationId;
+		hash = 31 * hash + toLocationId;
+		hash = 31 * hash + departureDay;
+		hash = 31 * hash + returnDay;
+		hash = 31 * hash + departureWindow.ordinal();
+		hash = 31 * hash + returnWindow.ordinal();
+		return 31 * hash + passengers;
+	}
+
+	/**
+	* Returns a string representation of the Itinerary, looking up the location names within the pool.
+	*/
+	public String toString(LocationPool pool)
+	{
+		return "From: "+pool.getName(fromLocationId)+"\nTo: "+pool.getName(toLocationId)+"\nDeparting: "+formatDay(departureDay)+" at "+departureWindow
+			+"\nReturning: "+formatDay(returnDay)+" at "+returnWindow+"\nPassengers: "+passengers;
+	}
+
+	public String toString()
+	{
+		return "Itinerary["+fromLocationId+" -> "+toLocationId+", "+formatDay(departureDay)+" "+departureWindow+" to "+formatDay(returnDay)+" "+returnWindow+", "+passengers+"]";
+	}
+
+	/**
+	* Formats a day since 1970-01-01 as yyyy-mm-dd.
+	*/
+	public static String formatDay(int epochDay)
+	{
+		if (epochDay == NO_DATE)
+			return "(no date)";
+		int[] civil = TravelFormModel.TravelDate.fromEpochDay(epochDay);
+		return String.format("%04d-%02d-%02d", civil[0], civil[1], civil[2]);
+	}
+}
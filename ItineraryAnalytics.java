@@ -0,0 +1,407 @@
+package travel;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Aggregates the itineraries accepted by the MainController into fixed size sketches for live reporting.
+ *
+ * <PRE>
+ * Filename:         ItineraryAnalytics.java
+ *
+ * Description:      Every accepted itinerary updates:
+ *
+ *		         - a SpaceSavingSketch of the most popular routes (From - To, weighted by itinerary)
+ *		         - a HyperLogLog of the distinct routes
+ *		         - a HyperLogLog of the distinct travellers of the passenger manifests (last name, first name and
+ *		           birth date; itineraries without a manifest carry no traveller details)
+ *		         - the number of passengers of each departure day and preferred time window
+ *
+ *		     The passengers are kept for the HORIZON_DAYS most recent departure days within a ring, each slot
+ *		     tagged with the day it holds; a slot is emptied when a later day takes it over and itineraries
+ *		     departing on a day older than its slot are only counted within the totals.  The memory used is
+ *		     therefore the same however many itineraries are recorded, and every query but topRoutes() takes
+ *		     constant time.
+ *
+ *		     Routes and travellers are keyed by hashes of their normalized names rather than by LocationPool ids,
+ *		     so the analytics of several processes can be merged, either directly with merge() or through the
+ *		     files written by write().  The methods are synchronized, as itineraries are recorded on the Event
+ *		     Dispatch Thread while a dashboard may read from any thread.
+ *
+ *		     Usage:  java travel.ItineraryAnalytics analyticsFile...   (merges the files and prints the summary)
+ *
+ * Composition objects: SpaceSavingSketch.java, HyperLogLog.java
+ *
+ * Aggregation Of:	 MainController.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.101
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   write(File) writes to a temporary file moved over the analytics file, and merge() reads the
+ *		    whole file before applying any of it, so a failed write or a truncated file loses nothing.
+ * </PRE>
+  */
+
+public class ItineraryAnalytics
+{
+	//The header of the files written by write() ("ITA1").
+	public final static int ANALYTICS_MAGIC = 0x49544131;
+
+	//The number of departure days whose passengers are kept.
+	public final static int HORIZON_DAYS = 512;
+
+	//The number of routes tracked by the Space-Saving sketch.
+	public final static int ROUTE_COUNTERS = 1024;
+
+	private final static int WINDOW_COUNT = PreferredTimeWindow.values().length;
+	private final static int EMPTY_DAY = Integer.MIN_VALUE;
+
+	private SpaceSavingSketch topRoutes = new SpaceSavingSketch(ROUTE_COUNTERS);
+	private HyperLogLog routes = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+	private HyperLogLog travellers = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+
+	//The passengers of each departure day (by slot) and preferred time window, and the day held by each slot.
+	private long[] dayPassengers = new long[HORIZON_DAYS * WINDOW_COUNT];
+	private int[] slotDays = new int[HORIZON_DAYS];
+
+	private long[] windowPassengers = new long[WINDOW_COUNT];
+	private long itineraryCount;
+	private long passengerCount;
+	private long outsideHorizonCount;
+
+	public ItineraryAnalytics()
+	{
+		Arrays.fill(slotDays, EMPTY_DAY);
+	}
+
+	/**
+	* Records an accepted itinerary.
+	*/
+	public synchronized void record(TravelFormModel travelForm)
+	{
+		TravelFormModel.TravelDate departure = travelForm.getDepartureDate();
+		this.record(travelForm.getFromLocation(), travelForm.getToLocation(), departure.toEpochDay(), departure.getPreferredTimeWindow(),
+			travelForm.getPassengerCount());
+
+		PassengerManifest manifest = travelForm.getPassengerManifest();
+		if (manifest != null)
+		{
+			StringBuilder traveller = new StringBuilder(64);
+			for (int row = 0; row < manifest.size(); row++)
+			{
+				traveller.setLength(0);
+				traveller.append(LocationPool.normalize(manifest.getLastName(row))).append('\u001f')
+					.append(LocationPool.normalize(manifest.getFirstName(row))).append('\u001f').append(manifest.getBirthDate(row));
+				travellers.add(HyperLogLog.hash(traveller));
+			}
+		}
+	}
+
+	/**
+	* Records an accepted itinerary which carries no traveller details.  The departure day is the number of days since
+	* 1970-01-01, or Itinerary.NO_DATE.
+	*/
+	public synchronized void record(String fromLocation, String toLocation, int departureDay, PreferredTimeWindow window, int passengers)
+	{
+		String from = LocationPool.normalize(fromLocation);
+		String to = LocationPool.normalize(toLocation);
+		long routeKey = HyperLogLog.hash(from + '\u001f' + to);
+		topRoutes.offer(routeKey, fromLocation.trim() + " - " + toLocation.trim(), 1);
+		routes.add(routeKey);
+
+		itineraryCount++;
+		passengerCount += passengers;
+		windowPassengers[window.ordinal()] += passengers;
+
+		int slot = this.slotOf(departureDay);
+		if (slot < 0)
+		{
+			outsideHorizonCount++;
+			return;
+		}
+		dayPassengers[slot * WINDOW_COUNT + window.ordinal()] += passengers;
+	}
+
+	/*
+	* Returns the slot of the departure day, taking the slot over when it holds an earlier day, or -1 when the slot holds a
+	* later day (or there is no day).
+	*/
+	private int slotOf(int departureDay)
+	{
+		if (departureDay == Itinerary.NO_DATE)
+			return -1;
+		int slot = Math.floorMod(departureDay, HORIZON_DAYS);
+		if (slotDays[slot] == departureDay)
+			return slot;
+		if (slotDays[slot] != EMPTY_DAY && slotDays[slot] > departureDay)
+			return -1;
+		slotDays[slot] = departureDay;
+		Arrays.fill(dayPassengers, slot * WINDOW_COUNT, (slot + 1) * WINDOW_COUNT, 0);
+		return slot;
+	}
+
+	/**
+	* Returns the number of itineraries recorded.
+	*/
+	public synchronized long getItineraryCount()
+	{
+		return itineraryCount;
+	}
+
+	/**
+	* Returns the number of passengers of every itinerary recorded.
+	*/
+	public synchronized long getPassengerCount()
+	{
+		return passengerCount;
+	}
+
+	/**
+	* Returns the number of itineraries whose departure day was no longer (or not) within the horizon when recorded.
+	*/
+	public synchronized long getOutsideHorizonCount()
+	{
+		return outsideHorizonCount;
+	}
+
+	/**
+	* Returns the estimated number of distinct routes.
+	*/
+	public synchronized long estimateDistinctRoutes()
+	{
+		return routes.estimate();
+	}
+
+	/**
+	* Returns the estimated number of distinct travellers of the passenger manifests.
+	*/
+	public synchronized long estimateDistinctTravellers()
+	{
+		return travellers.estimate();
+	}
+
+	/**
+	* Returns the estimated number of itineraries of the route, which is never lower than the true number.
+	*/
+	public synchronized long estimateRouteCount(String fromLocation, String toLocation)
+	{
+		return topRoutes.estimate(HyperLogLog.hash(LocationPool.normalize(fromLocation) + '\u001f' + LocationPool.normalize(toLocation)));
+	}
+
+	/**
+	* Returns up to n of the most popular routes, the most popular first.
+	*/
+	public synchronized List<SpaceSavingSketch.Entry> topRoutes(int n)
+	{
+		return topRoutes.top(n);
+	}
+
+	/**
+	* Returns the number of passengers departing on the day within the preferred time window, or 0 when the day is not
+	* within the horizon.
+	*/
+	public synchronized long getPassengers(int departureDay, PreferredTimeWindow window)
+	{
+		int slot = Math.floorMod(departureDay, HORIZON_DAYS);
+		if (departureDay == Itinerary.NO_DATE || slotDays[slot] != departureDay)
+			return 0;
+		return dayPassengers[slot * WINDOW_COUNT + window.ordinal()];
+	}
+
+	/**
+	* Returns the number of passengers departing on the day.
+	*/
+	public synchronized long getPassengers(int departureDay)
+	{
+		long passengers = 0;
+		for (PreferredTimeWindow window : PreferredTimeWindow.values())
+			passengers += this.getPassengers(departureDay, window);
+		return passengers;
+	}
+
+	/**
+	* Returns the number of passengers of every itinerary recorded within the preferred time window.
+	*/
+	public synchronized long getPassengers(PreferredTimeWindow window)
+	{
+		return windowPassengers[window.ordinal()];
+	}
+
+	/**
+	* Adds the itineraries recorded by the other analytics.
+	*/
+	public void merge(ItineraryAnalytics other)
+	{
+		//the other analytics is copied first, so that the two locks are never held at once.
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try
+		{
+			other.write(new DataOutputStream(bytes));
+			this.merge(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException("Unable to copy the analytics: " + e.getMessage());
+		}
+	}
+
+	/**
+	* Adds the itineraries of analytics written by write().
+	*/
+	public synchronized void merge(DataInput in) throws IOException
+	{
+		if (in.readInt() != ANALYTICS_MAGIC)
+			throw new IOException("Not an analytics file");
+		long otherItineraries = in.readLong();
+		long otherPassengers = in.readLong();
+		long otherOutside = in.readLong();
+		SpaceSavingSketch otherRoutes = SpaceSavingSketch.read(in);
+		HyperLogLog otherRouteSketch = HyperLogLog.read(in);
+		HyperLogLog otherTravellers = HyperLogLog.read(in);
+		int windows = in.readInt();
+		int horizon = in.readInt();
+		if (windows != WINDOW_COUNT || horizon != HORIZON_DAYS)
+			throw new IOException("The analytics file holds " + horizon + " days of " + windows + " windows");
+
+		long[] otherWindows = new long[WINDOW_COUNT];
+		for (int i = 0; i < WINDOW_COUNT; i++)
+			otherWindows[i] = in.readLong();
+		int[] otherDays = new int[HORIZON_DAYS];
+		long[] otherDayPassengers = new long[HORIZON_DAYS * WINDOW_COUNT];
+		for (int i = 0; i < HORIZON_DAYS; i++)
+		{
+			otherDays[i] = in.readInt();
+			for (int w = 0; w < WINDOW_COUNT; w++)
+				otherDayPassengers[i * WINDOW_COUNT + w] = in.readLong();
+		}
+
+		//everything has been read, so a truncated file has thrown before any of it was applied.
+		topRoutes.merge(otherRoutes);
+		routes.merge(otherRouteSketch);
+		travellers.merge(otherTravellers);
+		itineraryCount += otherItineraries;
+		passengerCount += otherPassengers;
+		outsideHorizonCount += otherOutside;
+		for (int i = 0; i < WINDOW_COUNT; i++)
+			windowPassengers[i] += otherWindows[i];
+
+		for (int i = 0; i < HORIZON_DAYS; i++)
+		{
+			if (otherDays[i] == EMPTY_DAY)
+				continue;
+
+			//a slot keeps the later of the two days, as it would have had both been recorded here.
+			int slot = this.slotOf(otherDays[i]);
+			if (slot < 0)
+				continue;
+			for (int w = 0; w < WINDOW_COUNT; w++)
+				dayPassengers[slot * WINDOW_COUNT + w] += otherDayPassengers[i * WINDOW_COUNT + w];
+		}
+	}
+
+	/**
+	* Writes every sketch and counter so that the analytics can be merged by another process.
+	*/
+	public synchronized void write(DataOutput out) throws IOException
+	{
+		out.writeInt(ANALYTICS_MAGIC);
+		out.writeLong(itineraryCount);
+		out.writeLong(passengerCount);
+		out.writeLong(outsideHorizonCount);
+		topRoutes.write(out);
+		routes.write(out);
+		travellers.write(out);
+		out.writeInt(WINDOW_COUNT);
+		out.writeInt(HORIZON_DAYS);
+		for (int i = 0; i < WINDOW_COUNT; i++)
+			out.writeLong(windowPassengers[i]);
+		for (int i = 0; i < HORIZON_DAYS; i++)
+		{
+			out.writeInt(slotDays[i]);
+			for (int w = 0; w < WINDOW_COUNT; w++)
+				out.writeLong(dayPassengers[i * WINDOW_COUNT + w]);
+		}
+	}
+
+	/**
+	* Writes the analytics to a file, replacing its contents.  The analytics are written to a temporary file first and then
+	* moved over the file, so the previous contents are kept if the write fails.
+	*/
+	public void write(File analyticsFile) throws IOException
+	{
+		File temporaryFile = new File(analyticsFile.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)));
+		try
+		{
+			this.write(out);
+		}
+		finally
+		{
+			out.close();
+		}
+		java.nio.file.Files.move(temporaryFile.toPath(), analyticsFile.toPath(),
+			java.nio.file.StandardCopyOption.REPLACE_EXISTING, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	* Adds the itineraries of an analytics file.
+	*/
+	public void merge(File analyticsFile) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(analyticsFile)));
+		try
+		{
+			this.merge((DataInput) in);
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	/**
+	* Prints the counts, the ten most popular routes and the passengers of the next seven departure days after the given day.
+	*/
+	public synchronized void printSummary(PrintStream out, int today)
+	{
+		out.println("Itineraries:          " + itineraryCount);
+		out.println("Passengers:           " + passengerCount);
+		out.println("Distinct routes:      ~" + routes.estimate());
+		out.println("Distinct travellers:  ~" + travellers.estimate());
+		out.println("Top routes:");
+		List<SpaceSavingSketch.Entry> top = topRoutes.top(10);
+		for (int i = 0; i < top.size(); i++)
+			out.printf("  %2d. %-40s %10d%s%n", i + 1, top.get(i).getLabel(), top.get(i).getCount(),
+				top.get(i).getError() > 0 ? " (at least " + top.get(i).getGuaranteedCount() + ")" : "");
+		out.println("Passengers by preferred time:");
+		for (PreferredTimeWindow window : PreferredTimeWindow.values())
+			out.printf("  %-16s %10d%n", window.getLabel(), windowPassengers[window.ordinal()]);
+		out.println("Passengers departing:");
+		for (int day = today; day < today + 7; day++)
+			out.printf("  %s %10d%n", Itinerary.formatDay(day), this.getPassengers(day));
+	}
+
+	/**
+	* Merges the analytics files given as arguments and prints the summary.
+	*/
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 1)
+		{
+			System.err.println("Usage: java travel.ItineraryAnalytics analyticsFile...");
+			System.exit(1);
+		}
+		ItineraryAnalytics analytics = new ItineraryAnalytics();
+		for (int i = 0; i < args.length; i++)
+			analytics.merge(new File(args[i]));
+
+		Calendar now = Calendar.getInstance();
+		analytics.printSummary(System.out, TravelFormModel.TravelDate.toEpochDay(now.get(Calendar.YEAR), now.get(Calendar.MONTH) + 1,
+			now.get(Calendar.DAY_OF_MONTH)));
+	}
+}
@@ -0,0 +1,736 @@
+package travel;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A long term archive of itineraries, kept as immutable, columnar ArchiveSegments with a background compactor.
+ *
+ * <PRE>
+ * Filename:         ItineraryArchive.java
+ *
+ * Description:      Appended itineraries collect within a write buffer, which is written as a new ArchiveSegment once it
+ *		     holds WRITE_BUFFER_ROWS itineraries (or on flush()).  Segments are never changed once written.  Small
+ *		     segments are merged by the compactor, which runs on its own thread: it picks a run of neighbouring
+ *		     segments smaller than TARGET_SEGMENT_ROWS, writes their rows as one segment and then swaps the new
+ *		     segment in for the old ones.  The rows of every segment are written in order of departure day, so
+ *		     that each block covers a narrow range of days and a scan of a departure range skips most blocks.  Only the swap holds the lock of the archive, so writers and scans are
+ *		     never held up by the merge.  A scan works on the segments that existed when it started; as segment
+ *		     files are memory mapped, it keeps reading them even once the compactor has deleted them.
+ *
+ *		     Each segment file is named after the range of segment numbers it holds, e.g. segment-000003-000007
+ *		     for the merge of segments 3 to 7, so when a crash leaves both a merged segment and some of the
+ *		     segments it replaced, the replaced ones are recognised and deleted when the archive is opened.
+ *
+ *		     Location ids are those of a LocationPool: the archive stores the location names within each segment's
+ *		     dictionary and a scan hands its RowVisitor the ids of the caller's pool.
+ *
+ *		     Usage:  java travel.ItineraryArchive directory import feedFile
+ *		             java travel.ItineraryArchive directory scan [from to] [firstDate lastDate]   (dates as yyyy-mm-dd)
+ *
+ * Nested Class:     Query, RowVisitor, ScanStatistics
+ *
+ * Composition objects: ArchiveSegment.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class ItineraryArchive
+{
+	//The number of itineraries collected before they are written as a segment.
+	public final static int WRITE_BUFFER_ROWS = 64 * ArchiveSegment.BLOCK_ROWS;
+
+	//Segments with fewer itineraries than this are merged by the compactor.
+	public final static int TARGET_SEGMENT_ROWS = 256 * ArchiveSegment.BLOCK_ROWS;
+
+	private final static String SEGMENT_PREFIX = "segment-";
+	private final static String SEGMENT_SUFFIX = ".its";
+
+	private final File directory;
+
+	//The segments ordered by their first segment number.  The list is replaced rather than changed, so scans may keep it.
+	private volatile List<ArchiveSegment> segments = new ArrayList<ArchiveSegment>();
+	private int nextSegment;
+
+	//The write buffer: the columns of the itineraries appended since the last segment was written.
+	private HashMap<String, Integer> bufferIds = new HashMap<String, Integer>();
+	private ArrayList<String> bufferNames = new ArrayList<String>();
+	private int[] fromIds = new int[WRITE_BUFFER_ROWS];
+	private int[] toIds = new int[WRITE_BUFFER_ROWS];
+	private int[] departureDays = new int[WRITE_BUFFER_ROWS];
+	private int[] returnDays = new int[WRITE_BUFFER_ROWS];
+	private byte[] windows = new byte[WRITE_BUFFER_ROWS];
+	private int[] passengers = new int[WRITE_BUFFER_ROWS];
+	private int bufferCount;
+
+	private final Object compactionLock = new Object();
+	private Thread compactor;
+	private volatile boolean compactorStopping;
+	private long compactionCount;
+
+	/**
+	* Receives the itineraries found by a scan, one field per argument.  The windows are PreferredTimeWindow ordinals.
+	*/
+	public interface RowVisitor
+	{
+		public void visit(int fromLocationId, int toLocationId, int departureDay, int returnDay, int departureWindow, int returnWindow, int passengers);
+	}
+
+	/**
+	* Describes the itineraries a scan is looking for.  Every itinerary matches a new Query.
+	*/
+	public static class Query
+	{
+		private String fromLocation;
+		private String toLocation;
+		private int firstDeparture = Integer.MIN_VALUE;
+		private int lastDeparture = Integer.MAX_VALUE;
+		private int firstReturn = Integer.MIN_VALUE;
+		private int lastReturn = Integer.MAX_VALUE;
+
+		/**
+		* Only matches the route From - To.  Either location may be null to match any location.
+		*/
+		public void setRoute(String fromLocation, String toLocation)
+		{
+			this.fromLocation = (fromLocation == null) ? null : LocationPool.normalize(fromLocation);
+			this.toLocation = (toLocation == null) ? null : LocationPool.normalize(toLocation);
+		}
+
+		/**
+		* Only matches itineraries departing between the first and last day (days since 1970-01-01, inclusive).
+		*/
+		public void setDepartureRange(int firstDeparture, int lastDeparture)
+		{
+			this.firstDeparture = firstDeparture;
+			this.lastDeparture = lastDeparture;
+		}
+
+		/**
+		* Only matches itineraries returning between the first and last day (days since 1970-01-01, inclusive).
+		*/
+		public void setReturnRange(int firstReturn, int lastReturn)
+		{
+			this.firstReturn = firstReturn;
+			this.lastReturn = lastReturn;
+		}
+	}
+
+	/**
+	* The amount of work done by a scan.
+	*/
+	public static class ScanStatistics
+	{
+		long rowsMatched;
+		long rowsScanned;
+		long segmentsSkipped;
+		long blocksRead;
+		long blocksSkipped;
+		long bytesRead;
+		long bytesInflated;
+
+		public long getRowsMatched()
+		{
+			return rowsMatched;
+		}
+
+		public long getRowsScanned()
+		{
+			return rowsScanned;
+		}
+
+		public long getSegmentsSkipped()
+		{
+			return segmentsSkipped;
+		}
+
+		public long getBlocksRead()
+		{
+			return blocksRead;
+		}
+
+		public long getBlocksSkipped()
+		{
+			return blocksSkipped;
+		}
+
+		/**
+		* Returns the number of bytes of columns decompressed.
+		*/
+		public long getBytesInflated()
+		{
+			return bytesInflated;
+		}
+	}
+
+	/*
+	* The constructor opens the archive within the directory, creating the directory if needed.
+	*/
+	public ItineraryArchive(File directory) throws IOException
+	{
+		this.directory = directory;
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Unable to create " + directory);
+		this.openSegments();
+	}
+
+	/*
+	* Maps the segment files, deleting those replaced by a merged segment and any left incomplete.
+	*/
+	private void openSegments() throws IOException
+	{
+		TreeMap<Integer, int[]> ranges = new TreeMap<Integer, int[]>();
+		HashMap<Integer, File> files = new HashMap<Integer, File>();
+		File[] listed = directory.listFiles();
+		for (int i = 0; listed != null && i < listed.length; i++)
+		{
+			String name = listed[i].getName();
+			if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX + ".tmp"))
+			{
+				listed[i].delete();
+				continue;
+			}
+			int[] range = parseRange(name);
+			if (range == null)
+				continue;
+			int[] other = ranges.get(range[0]);
+			if (other == null || range[1] > other[1])
+			{
+				if (other != null)
+					files.get(range[0]).delete();
+				ranges.put(range[0], range);
+				files.put(range[0], listed[i]);
+			}
+			else
+			{
+				listed[i].delete();
+			}
+		}
+
+		ArrayList<ArchiveSegment> opened = new ArrayList<ArchiveSegment>();
+		int coveredTo = -1;
+		for (Map.Entry<Integer, int[]> entry : ranges.entrySet())
+		{
+			int[] range = entry.getValue();
+			if (range[1] <= coveredTo)
+			{
+				//this segment was merged into an earlier one which covers it.
+				files.get(range[0]).delete();
+				continue;
+			}
+			opened.add(ArchiveSegment.open(files.get(range[0])));
+			coveredTo = range[1];
+		}
+		segments = opened;
+		nextSegment = coveredTo + 1;
+	}
+
+	/*
+	* Returns the first and last segment numbers of a segment file name, or null if it is not a segment file.
+	*/
+	private static int[] parseRange(String name)
+	{
+		if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX))
+			return null;
+		String[] numbers = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()).split("-");
+		try
+		{
+			if (numbers.length == 2)
+				return new int[]{Integer.parseInt(numbers[0]), Integer.parseInt(numbers[1])};
+		}
+		catch (NumberFormatException e)
+		{
+		}
+		return null;
+	}
+
+	private File segmentFile(int first, int last)
+	{
+		return new File(directory, String.format("%s%06d-%06d%s", SEGMENT_PREFIX, first, last, SEGMENT_SUFFIX));
+	}
+
+	/**
+	* Appends the itinerary, whose location ids belong to the pool.  Itineraries without both dates cannot be archived.
+	*/
+	public synchronized void append(Itinerary itinerary, LocationPool pool) throws IOException
+	{
+		if (itinerary.getDepartureDay() == Itinerary.NO_DATE || itinerary.getReturnDay() == Itinerary.NO_DATE)
+			throw new IllegalArgumentException("Only itineraries with both dates can be archived: " + itinerary);
+
+		fromIds[bufferCount] = this.bufferId(pool.getName(itinerary.getFromLocationId()));
+		toIds[bufferCount] = this.bufferId(pool.getName(itinerary.getToLocationId()));
+		departureDays[bufferCount] = itinerary.getDepartureDay();
+		returnDays[bufferCount] = itinerary.getReturnDay();
+		windows[bufferCount] = (byte) ((itinerary.getDepartureWindow().ordinal() << 4) | itinerary.getReturnWindow().ordinal());
+		passengers[bufferCount] = itinerary.getPassengers();
+		bufferCount++;
+		if (bufferCount == WRITE_BUFFER_ROWS)
+			this.flush();
+	}
+
+	/*
+	* Returns the id of the location within the dictionary of the write buffer.
+	*/
+	private int bufferId(String location)
+	{
+		Integer id = bufferIds.get(location);
+		if (id == null)
+		{
+			id = bufferNames.size();
+			bufferNames.add(location);
+			bufferIds.put(location, id);
+		}
+		return id;
+	}
+
+	/**
+	* Writes the itineraries of the write buffer as a new segment.
+	*/
+	public synchronized void flush() throws IOException
+	{
+		if (bufferCount == 0)
+			return;
+		int number = nextSegment++;
+		sortByDeparture(bufferCount, fromIds, toIds, departureDays, returnDays, windows, passengers);
+		ArchiveSegment segment = ArchiveSegment.write(this.segmentFile(number, number), bufferNames.toArray(new String[bufferNames.size()]),
+			fromIds, toIds, departureDays, returnDays, windows, passengers, bufferCount);
+
+		ArrayList<ArchiveSegment> replaced = new ArrayList<ArchiveSegment>(segments);
+		replaced.add(segment);
+		segments = replaced;
+		bufferCount = 0;
+		bufferIds.clear();
+		bufferNames.clear();
+	}
+
+	/**
+	* Returns the segments of the archive.
+	*/
+	public List<ArchiveSegment> getSegments()
+	{
+		return Collections.unmodifiableList(segments);
+	}
+
+	/**
+	* Returns the number of itineraries written to segments.
+	*/
+	public long getRowCount()
+	{
+		long rows = 0;
+		List<ArchiveSegment> current = segments;
+		for (int i = 0; i < current.size(); i++)
+			rows += current.get(i).getRowCount();
+		return rows;
+	}
+
+	/**
+	* Returns the number of bytes taken by the segment files.
+	*/
+	public long getFileLength()
+	{
+		long length = 0;
+		List<ArchiveSegment> current = segments;
+		for (int i = 0; i < current.size(); i++)
+			length += current.get(i).getFileLength();
+		return length;
+	}
+
+	/**
+	* Passes every itinerary matching the query to the visitor, with its location ids interned into the pool.  The
+	* itineraries still within the write buffer are written as a segment first.
+	*/
+	public ScanStatistics scan(Query query, RowVisitor visitor, LocationPool pool) throws IOException
+	{
+		this.flush();
+		List<ArchiveSegment> current = segments;
+		ScanStatistics statistics = new ScanStatistics();
+		ArchiveSegment.Decoder decoder = new ArchiveSegment.Decoder();
+		try
+		{
+			for (int s = 0; s < current.size(); s++)
+				this.scan(current.get(s), query, visitor, pool, decoder, statistics);
+		}
+		finally
+		{
+			decoder.close();
+		}
+		statistics.blocksRead = decoder.getBlocksRead();
+		statistics.bytesInflated = decoder.getBytesInflated();
+		return statistics;
+	}
+
+	private void scan(ArchiveSegment segment, Query query, RowVisitor visitor, LocationPool pool, ArchiveSegment.Decoder decoder,
+		ScanStatistics statistics) throws IOException
+	{
+		int fromId = -1;
+		int toId = -1;
+		if (query.fromLocation != null)
+			fromId = segment.findLocation(query.fromLocation);
+		if (query.toLocation != null)
+			toId = segment.findLocation(query.toLocation);
+		if ((query.fromLocation != null && fromId < 0) || (query.toLocation != null && toId < 0))
+		{
+			statistics.segmentsSkipped++;
+			statistics.blocksSkipped += segment.getBlockCount();
+			return;
+		}
+
+		int[] poolIds = null;
+		for (int b = 0; b < segment.getBlockCount(); b++)
+		{
+			if (!segment.mayMatch(b, fromId, toId, query.firstDeparture, query.lastDeparture, query.firstReturn, query.lastReturn))
+			{
+				statistics.blocksSkipped++;
+				continue;
+			}
+			if (poolIds == null)
+			{
+				String[] dictionary = segment.getDictionary();
+				poolIds = new int[dictionary.length];
+				for (int i = 0; i < dictionary.length; i++)
+					poolIds[i] = pool.intern(dictionary[i]);
+			}
+
+			int rows = segment.decode(b, decoder);
+			statistics.rowsScanned += rows;
+			int[] from = decoder.fromIds;
+			int[] to = decoder.toIds;
+			int[] departure = decoder.departureDays;
+			int[] returning = decoder.returnDays;
+			for (int i = 0; i < rows; i++)
+			{
+				if ((fromId >= 0 && from[i] != fromId) || (toId >= 0 && to[i] != toId)
+					|| departure[i] < query.firstDeparture || departure[i] > query.lastDeparture
+					|| returning[i] < query.firstReturn || returning[i] > query.lastReturn)
+					continue;
+				statistics.rowsMatched++;
+				int window = decoder.windows[i];
+				visitor.visit(poolIds[from[i]], poolIds[to[i]], departure[i], returning[i], (window >> 4) & 0xf, window & 0xf, decoder.passengers[i]);
+			}
+		}
+	}
+
+	/**
+	* Merges the longest run of neighbouring segments smaller than TARGET_SEGMENT_ROWS, if there are at least two, and
+	* returns true if a merge took place.  Appends and scans carry on while the merged segment is written.
+	*/
+	public boolean compact() throws IOException
+	{
+		synchronized (compactionLock)
+		{
+			List<ArchiveSegment> current = segments;
+			int bestStart = 0;
+			int bestLength = 0;
+			for (int start = 0; start < current.size(); start++)
+			{
+				long rows = 0;
+				int length = 0;
+				while (start + length < current.size() && current.get(start + length).getRowCount() < TARGET_SEGMENT_ROWS
+					&& rows + current.get(start + length).getRowCount() <= 2L * TARGET_SEGMENT_ROWS)
+				{
+					rows += current.get(start + length).getRowCount();
+					length++;
+				}
+				if (length > bestLength)
+				{
+					bestStart = start;
+					bestLength = length;
+				}
+			}
+			if (bestLength < 2)
+				return false;
+
+			List<ArchiveSegment> run = current.subList(bestStart, bestStart + bestLength);
+			ArchiveSegment merged = this.merge(run);
+
+			synchronized (this)
+			{
+				//segments flushed meanwhile were added at the end, so the run is still where it was.
+				ArrayList<ArchiveSegment> replaced = new ArrayList<ArchiveSegment>(segments);
+				for (int i = 0; i < bestLength; i++)
+					replaced.remove(bestStart);
+				replaced.add(bestStart, merged);
+				segments = replaced;
+			}
+			for (int i = 0; i < run.size(); i++)
+				run.get(i).getFile().delete();
+			compactionCount++;
+			return true;
+		}
+	}
+
+	/*
+	* Writes the rows of the segments as a single segment named after the range of segment numbers they hold.
+	*/
+	private ArchiveSegment merge(List<ArchiveSegment> run) throws IOException
+	{
+		int count = 0;
+		for (int i = 0; i < run.size(); i++)
+			count += run.get(i).getRowCount();
+		int[] mergedFrom = new int[count];
+		int[] mergedTo = new int[count];
+		int[] mergedDeparture = new int[count];
+		int[] mergedReturn = new int[count];
+		byte[] mergedWindows = new byte[count];
+		int[] mergedPassengers = new int[count];
+		HashMap<String, Integer> ids = new HashMap<String, Integer>();
+		ArrayList<String> names = new ArrayList<String>();
+
+		int row = 0;
+		ArchiveSegment.Decoder decoder = new ArchiveSegment.Decoder();
+		try
+		{
+			for (int s = 0; s < run.size(); s++)
+			{
+				ArchiveSegment segment = run.get(s);
+				String[] dictionary = segment.getDictionary();
+				int[] mergedIds = new int[dictionary.length];
+				for (int i = 0; i < dictionary.length; i++)
+				{
+					Integer id = ids.get(dictionary[i]);
+					if (id == null)
+					{
+						id = names.size();
+						names.add(dictionary[i]);
+						ids.put(dictionary[i], id);
+					}
+					mergedIds[i] = id;
+				}
+
+				for (int b = 0; b < segment.getBlockCount(); b++)
+				{
+					int rows = segment.decode(b, decoder);
+					for (int i = 0; i < rows; i++, row++)
+					{
+						mergedFrom[row] = mergedIds[decoder.fromIds[i]];
+						mergedTo[row] = mergedIds[decoder.toIds[i]];
+						mergedDeparture[row] = decoder.departureDays[i];
+						mergedReturn[row] = decoder.returnDays[i];
+						mergedWindows[row] = decoder.windows[i];
+						mergedPassengers[row] = decoder.passengers[i];
+					}
+				}
+			}
+		}
+		finally
+		{
+			decoder.close();
+		}
+
+		sortByDeparture(count, mergedFrom, mergedTo, mergedDeparture, mergedReturn, mergedWindows, mergedPassengers);
+		int first = parseRange(run.get(0).getFile().getName())[0];
+		int last = parseRange(run.get(run.size() - 1).getFile().getName())[1];
+		return ArchiveSegment.write(this.segmentFile(first, last), names.toArray(new String[names.size()]),
+			mergedFrom, mergedTo, mergedDeparture, mergedReturn, mergedWindows, mergedPassengers, count);
+	}
+
+	/*
+	* Reorders the rows of the columns by departure day, keeping rows of the same day in their original order.
+	*/
+	private static void sortByDeparture(int count, int[] from, int[] to, int[] departure, int[] returning, byte[] windows, int[] passengers)
+	{
+		int first = Integer.MAX_VALUE;
+		for (int i = 0; i < count; i++)
+			first = Math.min(first, departure[i]);
+		//the row number within the low half of the key makes the sort stable and yields the new order.
+		long[] keys = new long[count];
+		for (int i = 0; i < count; i++)
+			keys[i] = ((long) (departure[i] - first) << 32) | i;
+		Arrays.sort(keys);
+
+		int[] scratch = new int[count];
+		int[][] columns = new int[][]{from, to, departure, returning, passengers};
+		for (int c = 0; c < columns.length; c++)
+		{
+			for (int i = 0; i < count; i++)
+				scratch[i] = columns[c][(int) keys[i]];
+			System.arraycopy(scratch, 0, columns[c], 0, count);
+		}
+		byte[] windowScratch = new byte[count];
+		for (int i = 0; i < count; i++)
+			windowScratch[i] = windows[(int) keys[i]];
+		System.arraycopy(windowScratch, 0, windows, 0, count);
+	}
+
+	/**
+	* Returns the number of merges done by compact().
+	*/
+	public long getCompactionCount()
+	{
+		synchronized (compactionLock)
+		{
+			return compactionCount;
+		}
+	}
+
+	/**
+	* Starts the compactor thread, which looks for segments to merge every interval.
+	*/
+	public synchronized void startCompactor(final long intervalMillis)
+	{
+		if (compactor != null)
+			return;
+		compactorStopping = false;
+		compactor = new Thread("archive-compactor")
+		{
+			public void run()
+			{
+				while (!compactorStopping)
+				{
+					try
+					{
+						//merge for as long as there is something to merge, then wait for more segments.
+						if (!compact())
+							Thread.sleep(intervalMillis);
+					}
+					catch (InterruptedException e)
+					{
+						return;
+					}
+					catch (IOException e)
+					{
+						System.err.println("The archive compaction failed: " + e.getMessage());
+						try
+						{
+							Thread.sleep(intervalMillis);
+						}
+						catch (InterruptedException stopped)
+						{
+							return;
+						}
+					}
+				}
+			}
+		};
+		compactor.setDaemon(true);
+		compactor.start();
+	}
+
+	/**
+	* Stops the compactor thread once any merge under way has completed.
+	*/
+	public void stopCompactor() throws InterruptedException
+	{
+		Thread thread;
+		synchronized (this)
+		{
+			thread = compactor;
+			compactor = null;
+			compactorStopping = true;
+		}
+		if (thread != null)
+		{
+			thread.interrupt();
+			thread.join();
+		}
+	}
+
+	/**
+	* Stops the compactor and writes the write buffer as a segment.
+	*/
+	public void close() throws IOException, InterruptedException
+	{
+		this.stopCompactor();
+		this.flush();
+	}
+
+	/**
+	* Imports a feed into the archive, or scans the archive, as described by the usage above.
+	*/
+	public static void main(String[] args) throws Exception
+	{
+		if (args.length < 2)
+		{
+			System.err.println("Usage: java travel.ItineraryArchive directory import feedFile");
+			System.err.println("       java travel.ItineraryArchive directory scan [from to] [firstDate lastDate]");
+			System.exit(1);
+		}
+		ItineraryArchive archive = new ItineraryArchive(new File(args[0]));
+		LocationPool pool = new LocationPool();
+		long start = System.nanoTime();
+		if (args[1].equals("import") && args.length == 3)
+		{
+			archive.startCompactor(100);
+			long count = 0;
+			long skipped = 0;
+			TravelFormModel travelForm = new TravelFormModel();
+			BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(args[2]), "UTF-8"), 1 << 16);
+			try
+			{
+				String line;
+				while ((line = in.readLine()) != null)
+				{
+					travelForm.reset();
+					Itinerary itinerary = ItineraryRecordFormat.parse(line, travelForm) ? Itinerary.of(travelForm, pool) : null;
+					if (itinerary == null || itinerary.getDepartureDay() == Itinerary.NO_DATE || itinerary.getReturnDay() == Itinerary.NO_DATE
+						|| itinerary.getFromLocationId() == LocationPool.NO_LOCATION || itinerary.getToLocationId() == LocationPool.NO_LOCATION)
+					{
+						skipped++;
+						continue;
+					}
+					archive.append(itinerary, pool);
+					count++;
+				}
+			}
+			finally
+			{
+				in.close();
+			}
+			archive.flush();
+			while (archive.compact())
+			{
+				//the remaining merges are finished before the archive is measured.
+			}
+			archive.close();
+
+			long feedLength = new File(args[2]).length();
+			System.out.println("Imported:        " + count + " itineraries (" + skipped + " skipped)");
+			System.out.println("Segments:        " + archive.getSegments().size() + " (" + archive.getCompactionCount() + " merges)");
+			System.out.println("Feed size:       " + feedLength + " bytes");
+			System.out.printf("Archive size:    %d bytes (%.1f bytes per itinerary, %.1fx smaller)%n", archive.getFileLength(),
+				(double) archive.getFileLength() / Math.max(1, count), (double) feedLength / Math.max(1, archive.getFileLength()));
+			System.out.printf("Elapsed:         %.3f s%n", (System.nanoTime() - start) / 1e9);
+			return;
+		}
+
+		Query query = new Query();
+		int next = 2;
+		if (args.length == 6 || (args.length == 4 && !args[2].matches("\\d{4}-\\d{2}-\\d{2}")))
+		{
+			query.setRoute(args[2], args[3]);
+			next = 4;
+		}
+		if (args.length >= next + 2)
+			query.setDepartureRange(ItineraryStore.parseDay(args[next]), ItineraryStore.parseDay(args[next + 1]));
+
+		final long[] totals = new long[1];
+		RowVisitor visitor = new RowVisitor()
+		{
+			public void visit(int fromLocationId, int toLocationId, int departureDay, int returnDay, int departureWindow, int returnWindow, int passengers)
+			{
+				totals[0] += passengers;
+			}
+		};
+		//the first scan warms up the decoder, the second is measured.
+		archive.scan(query, visitor, pool);
+		totals[0] = 0;
+		start = System.nanoTime();
+		ScanStatistics statistics = archive.scan(query, visitor, pool);
+		long elapsed = System.nanoTime() - start;
+
+		System.out.println("Matched:         " + statistics.getRowsMatched() + " itineraries, " + totals[0] + " passengers");
+		System.out.println("Scanned:         " + statistics.getRowsScanned() + " of " + archive.getRowCount() + " itineraries");
+		System.out.println("Blocks:          " + statistics.getBlocksRead() + " read, " + statistics.getBlocksSkipped() + " skipped");
+		System.out.printf("Elapsed:         %.3f ms%n", elapsed / 1e6);
+		System.out.printf("Throughput:      %.0f itineraries/s, %.1f MB/s of columns%n", statistics.getRowsScanned() * 1e9 / Math.max(1, elapsed),
+			statistics.getBytesInflated() * 1e3 / Math.max(1, elapsed));
+	}
+}
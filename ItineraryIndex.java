@@ -0,0 +1,286 @@
+package travel;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+/**
+ * An immutable, sorted index segment of fixed width entries, read through a memory mapping.
+ *
+ * <PRE>
+ * Filename:         ItineraryIndex.java
+ *
+ * Description:      Each entry holds a 64-bit key, a day (days since 1970-01-01) and the byte offset of an itinerary
+ *		     within the feed file of an ItineraryStore:
+ *
+ *		         key (8 bytes) | day (4 bytes) | offset (8 bytes)
+ *
+ *		     The entries are sorted by key, then day, then offset, so that every itinerary of a key within a range
+ *		     of days lies within one run of entries which is found by a binary search.  The route index uses the
+ *		     hash of the route as its key and the departure day as its day; the return index uses a key of 0 and
+ *		     the return day.  The file starts with a header holding INDEX_MAGIC, the number of entries and the
+ *		     length of the feed that the segment covers, which lets the store find the itineraries it still has
+ *		     to index after a restart.
+ *
+ *		     The file is mapped read only, so a search touches only the pages it visits and the operating system
+ *		     shares and caches them.  A single segment may hold up to MAX_ENTRIES (about 107 million) entries, as a
+ *		     mapping is limited to 2GB.  merge() combines sorted segments by streaming them, never holding their
+ *		     entries in memory.
+ *
+ * Aggregation Of:	 ItineraryStore.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.101
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   Added merge() and the MAX_ENTRIES limit of a single segment.
+ * </PRE>
+  */
+
+public class ItineraryIndex
+{
+	//The header of every index file ("ITX1").
+	public final static int INDEX_MAGIC = 0x49545831;
+
+	public final static int ENTRY_BYTES = 20;
+	private final static int HEADER_BYTES = 16;
+
+	//The most entries a segment may hold, so that its mapping stays within 2GB.
+	public final static int MAX_ENTRIES = (Integer.MAX_VALUE - HEADER_BYTES) / ENTRY_BYTES;
+
+	private final File file;
+	private final MappedByteBuffer entries;
+	private final int size;
+	private final long coveredLength;
+
+	/*
+	* The constructor maps an index file written by write().
+	*/
+	private ItineraryIndex(File file) throws IOException
+	{
+		this.file = file;
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try
+		{
+			if (in.length() < HEADER_BYTES || in.readInt() != INDEX_MAGIC)
+				throw new IOException(file + " is not an itinerary index");
+			size = in.readInt();
+			coveredLength = in.readLong();
+			if (in.length() != HEADER_BYTES + (long) size * ENTRY_BYTES)
+				throw new IOException(file + " is truncated");
+			entries = in.getChannel().map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, (long) size * ENTRY_BYTES);
+		}
+		finally
+		{
+			//the mapping stays valid once the file has been closed.
+			in.close();
+		}
+	}
+
+	/**
+	* Maps an existing index file.
+	*/
+	public static ItineraryIndex open(File file) throws IOException
+	{
+		return new ItineraryIndex(file);
+	}
+
+	/**
+	* Sorts the first count entries given by the three arrays and writes them to the file, recording the length of the feed
+	* that they cover.  The arrays are left unchanged.
+	*/
+	public static void write(File file, long[] keys, int[] days, long[] offsets, int count, long coveredLength) throws IOException
+	{
+		if (count > MAX_ENTRIES)
+			throw new IOException("A segment may hold at most " + MAX_ENTRIES + " entries, not " + count);
+		int[] order = sortedOrder(keys, days, offsets, count);
+		File temporary = new File(file.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary), 1 << 16));
+		try
+		{
+			out.writeInt(INDEX_MAGIC);
+			out.writeInt(count);
+			out.writeLong(coveredLength);
+			for (int i = 0; i < count; i++)
+			{
+				out.writeLong(keys[order[i]]);
+				out.writeInt(days[order[i]]);
+				out.writeLong(offsets[order[i]]);
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+		rename(temporary, file);
+	}
+
+	/**
+	* Writes the entries of the segments, which are each already sorted, as one sorted segment covering the given length of
+	* the feed.  The segments are read in step, so only their current entries are held in memory.
+	*/
+	public static void merge(File file, java.util.List<ItineraryIndex> segments, long coveredLength) throws IOException
+	{
+		long count = 0;
+		for (int s = 0; s < segments.size(); s++)
+			count += segments.get(s).size();
+		if (count > MAX_ENTRIES)
+			throw new IOException("A segment may hold at most " + MAX_ENTRIES + " entries, not " + count);
+
+		ItineraryIndex[] inputs = segments.toArray(new ItineraryIndex[segments.size()]);
+		int[] positions = new int[inputs.length];
+		File temporary = new File(file.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary), 1 << 16));
+		try
+		{
+			out.writeInt(INDEX_MAGIC);
+			out.writeInt((int) count);
+			out.writeLong(coveredLength);
+			for (long written = 0; written < count; written++)
+			{
+				//few segments are merged at once, so the smallest current entry is found by looking at each of them.
+				int smallest = -1;
+				for (int s = 0; s < inputs.length; s++)
+				{
+					if (positions[s] < inputs[s].size() && (smallest < 0 || inputs[s].compareTo(positions[s], inputs[smallest], positions[smallest]) < 0))
+						smallest = s;
+				}
+				int position = positions[smallest]++;
+				out.writeLong(inputs[smallest].getKey(position));
+				out.writeInt(inputs[smallest].getDay(position));
+				out.writeLong(inputs[smallest].getOffset(position));
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+		rename(temporary, file);
+	}
+
+	/*
+	* The segment only appears under its name once it is complete.
+	*/
+	private static void rename(File temporary, File file) throws IOException
+	{
+		if (!temporary.renameTo(file))
+			throw new IOException("Unable to rename " + temporary + " to " + file);
+	}
+
+	/*
+	* Compares the entry at the position with the entry at the other position of the other segment, in the sorted order.
+	*/
+	private int compareTo(int position, ItineraryIndex other, int otherPosition)
+	{
+		long key = this.getKey(position);
+		long otherKey = other.getKey(otherPosition);
+		if (key != otherKey)
+			return Long.compare(key, otherKey);
+		int day = this.getDay(position);
+		int otherDay = other.getDay(otherPosition);
+		if (day != otherDay)
+			return Integer.compare(day, otherDay);
+		return Long.compare(this.getOffset(position), other.getOffset(otherPosition));
+	}
+
+	/*
+	* Returns the positions of the entries in sorted order, using a bottom up merge sort so that no boxing is needed.
+	*/
+	private static int[] sortedOrder(long[] keys, int[] days, long[] offsets, int count)
+	{
+		int[] order = new int[count];
+		int[] buffer = new int[count];
+		for (int i = 0; i < count; i++)
+			order[i] = i;
+
+		for (int width = 1; width < count; width *= 2)
+		{
+			for (int low = 0; low < count; low += 2 * width)
+			{
+				int middle = Math.min(low + width, count);
+				int high = Math.min(low + 2 * width, count);
+				int left = low;
+				int right = middle;
+				for (int i = low; i < high; i++)
+				{
+					if (left < middle && (right >= high || compare(keys, days, offsets, order[left], order[right]) <= 0))
+						buffer[i] = order[left++];
+					else
+						buffer[i] = order[right++];
+				}
+			}
+			int[] swap = order;
+			order = buffer;
+			buffer = swap;
+		}
+		return order;
+	}
+
+	private static int compare(long[] keys, int[] days, long[] offsets, int a, int b)
+	{
+		if (keys[a] != keys[b])
+			return Long.compare(keys[a], keys[b]);
+		if (days[a] != days[b])
+			return Integer.compare(days[a], days[b]);
+		return Long.compare(offsets[a], offsets[b]);
+	}
+
+	/**
+	* Returns the position of the first entry at or after (key, day), or size() if there is none.
+	*/
+	public int lowerBound(long key, int day)
+	{
+		int low = 0;
+		int high = size;
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			long middleKey = this.getKey(middle);
+			if (middleKey < key || (middleKey == key && this.getDay(middle) < day))
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	public long getKey(int position)
+	{
+		return entries.getLong(position * ENTRY_BYTES);
+	}
+
+	public int getDay(int position)
+	{
+		return entries.getInt(position * ENTRY_BYTES + 8);
+	}
+
+	public long getOffset(int position)
+	{
+		return entries.getLong(position * ENTRY_BYTES + 12);
+	}
+
+	/**
+	* Returns the number of entries.
+	*/
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	* Returns the length of the feed, in bytes, whose itineraries this segment (along with the earlier ones) covers.
+	*/
+	public long getCoveredLength()
+	{
+		return coveredLength;
+	}
+
+	public File getFile()
+	{
+		return file;
+	}
+}
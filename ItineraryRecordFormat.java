@@ -0,0 +1,188 @@
+package travel;
+
+import java.io.*;
+
+/**
+ * Reads and writes itineraries as lines of text, for batch feeds.
+ *
+ * <PRE>
+ * Filename:         ItineraryRecordFormat.java
+ *
+ * Description:      Each itinerary takes one line holding the fields of TravelFormModel.Field, in the same order and
+ *		     separated by '|':
+ *
+ *		         from|to|departureMonth|departureDay|departureYear|departureTime|returnMonth|returnDay|returnYear|returnTime|passengers
+ *
+ *		     e.g. "Los Angeles|New York|March|5|2008|morning|March|12|2008|red eye|2".  The values are exactly those
+ *		     offered by the Combo Boxes, so a record that leaves a Combo Box at its default value carries that
+ *		     default and fails validation just as the form would.  A '|' or line break within a location is
+ *		     replaced by a space when written.  Parsing fills an existing TravelFormModel so that batch validation
+ *		     can reuse one form for every record.
+ *
+ * Used By:          BatchValidationWorker.java, ItineraryWorkloadGenerator.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.102
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   Added append() so that a writer can reuse one StringBuilder for every record.
+ * 0.102: A. Cave   The fields are read and written through TravelFormModel.Field rather than the SessionStore.
+ * </PRE>
+  */
+
+public class ItineraryRecordFormat
+{
+	public final static char SEPARATOR = '|';
+
+	private final static TravelFormModel.Field[] FIELDS = TravelFormModel.Field.values();
+
+	private ItineraryRecordFormat()
+	{
+	}
+
+	/**
+	* Fills the form with the fields of the line.  Returns false, leaving the form partly filled, if the line does not hold
+	* one value per TravelFormModel.Field or its passenger count is not a number.
+	*/
+	public static boolean parse(String line, TravelFormModel travelForm)
+	{
+		int start = 0;
+		for (int field = 0; field < FIELDS.length; field++)
+		{
+			int end = line.indexOf(SEPARATOR, start);
+			if (end < 0)
+			{
+				if (field != FIELDS.length - 1)
+					return false;
+				end = line.length();
+			}
+			else if (field == FIELDS.length - 1)
+			{
+				return false;
+			}
+
+			String value = line.substring(start, end);
+			if (FIELDS[field] == TravelFormModel.Field.PASSENGERS)
+			{
+				try
+				{
+					travelForm.setNumberOfPassengers(Integer.valueOf(value.trim()));
+				}
+				catch (NumberFormatException e)
+				{
+					return false;
+				}
+			}
+			else
+			{
+				FIELDS[field].set(travelForm, value);
+			}
+			start = end + 1;
+		}
+		return true;
+	}
+
+	/**
+	* Returns the line holding the fields of the form, without a line break.
+	*/
+	public static String format(TravelFormModel travelForm)
+	{
+		StringBuilder line = new StringBuilder(96);
+		append(line, travelForm);
+		return line.toString();
+	}
+
+	/**
+	* Appends the fields of the form to the line, without a line break.
+	*/
+	public static void append(StringBuilder line, TravelFormModel travelForm)
+	{
+		for (int field = 0; field < FIELDS.length; field++)
+		{
+			if (field > 0)
+				line.append(SEPARATOR);
+			appendField(line, FIELDS[field].get(travelForm));
+		}
+	}
+
+	/**
+	* Appends a value to the line, replacing separators and line breaks with spaces.
+	*/
+	public static void appendField(StringBuilder line, String value)
+	{
+		for (int i = 0; i < value.length(); i++)
+		{
+			char c = value.charAt(i);
+			line.append((c == SEPARATOR || c == '\n' || c == '\r') ? ' ' : c);
+		}
+	}
+
+	/**
+	* Reads the lines whose first byte lies within [start, end) of a UTF-8 file, one at a time.  A line which starts before
+	* the end but finishes after it is read whole, and a line which started before the start is skipped, so that partitions
+	* of a file by byte range between them read every line exactly once.
+	*/
+	public static class RangeReader
+	{
+		private final InputStream in;
+		private final long end;
+		private long position;
+		private byte[] buffer = new byte[256];
+
+		public RangeReader(File file, long start, long end) throws IOException
+		{
+			FileInputStream fileIn = new FileInputStream(file);
+			position = Math.max(0, start - 1);
+			fileIn.getChannel().position(position);
+			this.in = new BufferedInputStream(fileIn, 1 << 16);
+			this.end = end;
+
+			//unless the range starts the file, the line containing byte start - 1 belongs to the previous range.
+			if (start > 0)
+			{
+				int b;
+				while ((b = in.read()) != -1)
+				{
+					position++;
+					if (b == '\n')
+						break;
+				}
+			}
+		}
+
+		/**
+		* Returns the next line of the range without its line break, or null once the range has been read.
+		*/
+		public String readLine() throws IOException
+		{
+			if (position >= end)
+				return null;
+
+			int length = 0;
+			int b;
+			while ((b = in.read()) != -1)
+			{
+				position++;
+				if (b == '\n')
+					break;
+				if (length == buffer.length)
+					buffer = java.util.Arrays.copyOf(buffer, length * 2);
+				buffer[length++] = (byte) b;
+			}
+			if (b == -1 && length == 0)
+				return null;
+			if (length > 0 && buffer[length - 1] == '\r')
+				length--;
+			return new String(buffer, 0, length, "UTF-8");
+		}
+
+		public void close() throws IOException
+		{
+			in.close();
+		}
+	}
+}
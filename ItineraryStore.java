@@ -0,0 +1,616 @@
+package travel;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * Stores itineraries within an append only feed and finds them by route and departure date or by return date.
+ *
+ * <PRE>
+ * Filename:         ItineraryStore.java
+ *
+ * Description:      The itineraries are appended to the feed file of the store's directory, one ItineraryRecordFormat
+ *		     line each, and the byte offset of a line is the identity of its itinerary.  Two secondary indexes are
+ *		     kept in the style of a log structured merge tree: new entries collect within a memory table and are
+ *		     written as an immutable, sorted ItineraryIndex segment once MEMORY_TABLE_SIZE entries have collected
+ *		     (or on flush()).  Segments are compacted in tiers: a segment's tier grows by one for every MERGE_FACTOR
+ *		     times it holds more entries than a memory table, and once MERGE_FACTOR neighbouring segments share a
+ *		     tier they are merged into one segment of the next tier.  Each entry is therefore rewritten once per
+ *		     tier rather than on every compaction, and no merge makes a segment of more than MAX_SEGMENT_ENTRIES
+ *		     (which keeps its mapping within 2GB); larger stores keep several segments of the top tier.
+ *
+ *		         route index    key = hash of the normalized From and To locations, day = departure day
+ *		         return index   key = 0, day = return day
+ *
+ *		     A query does a binary search of each segment for the start of its range, reads the entries of the
+ *		     range through the memory mapping and adds the matching entries of the memory table, so only the
+ *		     itineraries within the range are read from the feed.  As the route key is a hash, each itinerary
+ *		     read is checked against the locations asked for.
+ *
+ *		     Every segment records how much of the feed it covers, so when the store is opened the itineraries
+ *		     appended after the last segment are indexed again, and an incomplete line left at the end of the
+ *		     feed by a crash is removed.  Each segment file is named after the range of segment numbers it holds,
+ *		     e.g. route-000004-000007 for the merge of segments 4 to 7, and a merge deletes the segments it
+ *		     replaced only once both of its files are complete.  So when a crash leaves both a merged segment and
+ *		     some of the segments it replaced, the replaced ones are recognised and deleted when the store is
+ *		     opened, and a merged segment missing one of its files is deleted in favour of the segments it merged.
+ *
+ *		     Usage:  java travel.ItineraryStore directory import feedFile
+ *		             java travel.ItineraryStore directory departing from to firstDate lastDate   (dates as yyyy-mm-dd)
+ *		             java travel.ItineraryStore directory returning firstDate lastDate
+ *
+ * Composition objects: ItineraryIndex.java, ItineraryRecordFormat.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.101
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   Compacts in size bounded tiers rather than merging every segment, and names segments after the range
+ *		    they hold so that an interrupted compaction is completed when the store is opened.
+ * </PRE>
+  */
+
+public class ItineraryStore
+{
+	public final static String FEED_FILE = "itineraries.txt";
+
+	//The number of entries collected in memory before they are written as a segment.
+	public final static int MEMORY_TABLE_SIZE = 1 << 20;
+
+	//The number of neighbouring segments of the same tier which are merged into one segment of the next tier.
+	public final static int MERGE_FACTOR = 4;
+
+	//The most entries a merge may write into one segment.
+	public final static int MAX_SEGMENT_ENTRIES = 1 << 26;
+
+	private final static Charset UTF8 = Charset.forName("UTF-8");
+	private final static String ROUTE_PREFIX = "route-";
+	private final static String RETURN_PREFIX = "return-";
+	private final static String INDEX_SUFFIX = ".idx";
+
+	private final File directory;
+	private final File feedFile;
+	private OutputStream feedOut;
+	private FileChannel feedChannel;
+	private long feedLength;
+
+	//The memory table: one entry per itinerary appended since the last segment was written.
+	private long[] routeKeys = new long[1024];
+	private int[] departureDays = new int[1024];
+	private int[] returnDays = new int[1024];
+	private long[] offsets = new long[1024];
+	private int memoryCount;
+
+	private ArrayList<ItineraryIndex> routeSegments = new ArrayList<ItineraryIndex>();
+	private ArrayList<ItineraryIndex> returnSegments = new ArrayList<ItineraryIndex>();
+	private int nextSegment;
+
+	/*
+	* The constructor opens the store within the directory, creating it if needed.
+	*/
+	public ItineraryStore(File directory) throws IOException
+	{
+		this.directory = directory;
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Unable to create " + directory);
+		feedFile = new File(directory, FEED_FILE);
+
+		long covered = this.openSegments();
+		feedLength = this.repairFeed();
+		feedOut = new BufferedOutputStream(new FileOutputStream(feedFile, true), 1 << 16);
+		feedChannel = new RandomAccessFile(feedFile, "r").getChannel();
+		this.indexFeed(covered);
+	}
+
+	/*
+	* Maps the segments of both indexes in the order they were written and returns the length of the feed they cover.
+	* Segments replaced by a merged segment, and segments missing one of their two files, are deleted.
+	*/
+	private long openSegments() throws IOException
+	{
+		TreeMap<Long, File> routeFiles = this.listSegments(ROUTE_PREFIX);
+		TreeMap<Long, File> returnFiles = this.listSegments(RETURN_PREFIX);
+		deleteUnpaired(routeFiles, returnFiles);
+		deleteUnpaired(returnFiles, routeFiles);
+
+		//ranges are ordered by their first segment, then by their last, so a merged range comes after those it starts with.
+		long covered = 0;
+		int coveredTo = -1;
+		ArrayList<Long> ranges = new ArrayList<Long>(routeFiles.keySet());
+		for (int i = 0; i < ranges.size(); i++)
+		{
+			long range = ranges.get(i);
+			int first = (int) (range >>> 32);
+			int last = (int) range;
+			boolean replaced = (last <= coveredTo) || (i + 1 < ranges.size() && (int) (ranges.get(i + 1) >>> 32) == first);
+			if (replaced)
+			{
+				//this segment was merged into another one which covers it.
+				routeFiles.get(range).delete();
+				returnFiles.get(range).delete();
+				continue;
+			}
+			ItineraryIndex route = ItineraryIndex.open(routeFiles.get(range));
+			routeSegments.add(route);
+			returnSegments.add(ItineraryIndex.open(returnFiles.get(range)));
+			covered = Math.max(covered, route.getCoveredLength());
+			coveredTo = last;
+		}
+		nextSegment = coveredTo + 1;
+		return covered;
+	}
+
+	/*
+	* Deletes the files of the segments which have no file within the other index.
+	*/
+	private static void deleteUnpaired(TreeMap<Long, File> files, TreeMap<Long, File> otherFiles)
+	{
+		for (Iterator<Map.Entry<Long, File>> i = files.entrySet().iterator(); i.hasNext(); )
+		{
+			Map.Entry<Long, File> entry = i.next();
+			if (!otherFiles.containsKey(entry.getKey()))
+			{
+				//its itineraries are still held by the segments it would have replaced, or are indexed again from the feed.
+				entry.getValue().delete();
+				i.remove();
+			}
+		}
+	}
+
+	/*
+	* Returns the index files with the given prefix by their range, the first segment number in the upper half of the key
+	* and the last in the lower half.  Files left unfinished by a crash are deleted.
+	*/
+	private TreeMap<Long, File> listSegments(String prefix)
+	{
+		TreeMap<Long, File> segments = new TreeMap<Long, File>();
+		File[] files = directory.listFiles();
+		for (int i = 0; files != null && i < files.length; i++)
+		{
+			String name = files[i].getName();
+			if (name.startsWith(prefix) && name.endsWith(INDEX_SUFFIX + ".tmp"))
+			{
+				files[i].delete();
+				continue;
+			}
+			int[] range = parseRange(name, prefix);
+			if (range != null)
+				segments.put(((long) range[0] << 32) | range[1], files[i]);
+		}
+		return segments;
+	}
+
+	/*
+	* Returns the first and last segment numbers of an index file name, or null if it is not a segment of this store.
+	* Segments written before merged segments were named after their range hold the single number of the segment.
+	*/
+	private static int[] parseRange(String name, String prefix)
+	{
+		if (!name.startsWith(prefix) || !name.endsWith(INDEX_SUFFIX))
+			return null;
+		String[] numbers = name.substring(prefix.length(), name.length() - INDEX_SUFFIX.length()).split("-");
+		try
+		{
+			if (numbers.length == 1)
+				return new int[]{Integer.parseInt(numbers[0]), Integer.parseInt(numbers[0])};
+			if (numbers.length == 2)
+				return new int[]{Integer.parseInt(numbers[0]), Integer.parseInt(numbers[1])};
+		}
+		catch (NumberFormatException e)
+		{
+		}
+		return null;
+	}
+
+	/*
+	* Cuts an incomplete line from the end of the feed and returns the feed's length.
+	*/
+	private long repairFeed() throws IOException
+	{
+		RandomAccessFile feed = new RandomAccessFile(feedFile, "rw");
+		try
+		{
+			long length = feed.length();
+			long end = length;
+			while (end > 0)
+			{
+				feed.seek(end - 1);
+				if (feed.read() == '\n')
+					break;
+				end--;
+			}
+			if (end != length)
+				feed.setLength(end);
+			return end;
+		}
+		finally
+		{
+			feed.close();
+		}
+	}
+
+	/*
+	* Adds the itineraries of the feed from the given offset to the memory table.
+	*/
+	private void indexFeed(long from) throws IOException
+	{
+		if (from >= feedLength)
+			return;
+		InputStream in = new BufferedInputStream(new FileInputStream(feedFile), 1 << 16);
+		try
+		{
+			long skipped = 0;
+			while (skipped < from)
+				skipped += in.skip(from - skipped);
+
+			TravelFormModel travelForm = new TravelFormModel();
+			ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+			long offset = from;
+			int b;
+			while ((b = in.read()) >= 0)
+			{
+				if (b != '\n')
+				{
+					line.write(b);
+					continue;
+				}
+				travelForm.reset();
+				if (ItineraryRecordFormat.parse(new String(line.toByteArray(), UTF8), travelForm))
+					this.addEntry(travelForm, offset);
+				offset += line.size() + 1;
+				line.reset();
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	/**
+	* Returns the key of the route within the route index.
+	*/
+	public static long routeKey(String fromLocation, String toLocation)
+	{
+		return HyperLogLog.hash(LocationPool.normalize(fromLocation) + '\u001f' + LocationPool.normalize(toLocation));
+	}
+
+	/**
+	* Appends the itinerary to the feed and indexes it.  Returns the offset that identifies it.
+	*/
+	public synchronized long append(TravelFormModel travelForm) throws IOException
+	{
+		byte[] line = (ItineraryRecordFormat.format(travelForm) + "\n").getBytes(UTF8);
+		long offset = feedLength;
+		feedOut.write(line);
+		feedLength += line.length;
+		this.addEntry(travelForm, offset);
+		if (memoryCount >= MEMORY_TABLE_SIZE)
+			this.flush();
+		return offset;
+	}
+
+	/*
+	* Adds the entries of an itinerary to the memory table.
+	*/
+	private void addEntry(TravelFormModel travelForm, long offset)
+	{
+		if (memoryCount == offsets.length)
+		{
+			int capacity = memoryCount * 2;
+			routeKeys = Arrays.copyOf(routeKeys, capacity);
+			departureDays = Arrays.copyOf(departureDays, capacity);
+			returnDays = Arrays.copyOf(returnDays, capacity);
+			offsets = Arrays.copyOf(offsets, capacity);
+		}
+		routeKeys[memoryCount] = routeKey(travelForm.getFromLocation(), travelForm.getToLocation());
+		departureDays[memoryCount] = travelForm.getDepartureDate().toEpochDay();
+		returnDays[memoryCount] = travelForm.getReturnDate().toEpochDay();
+		offsets[memoryCount] = offset;
+		memoryCount++;
+	}
+
+	/**
+	* Writes the memory table as a new segment of each index, compacting the segments when there are too many.
+	*/
+	public synchronized void flush() throws IOException
+	{
+		feedOut.flush();
+		if (memoryCount == 0)
+			return;
+
+		int segment = nextSegment++;
+		File routeFile = this.segmentFile(ROUTE_PREFIX, segment, segment);
+		File returnFile = this.segmentFile(RETURN_PREFIX, segment, segment);
+		//a segment missing either file is dropped on opening, and its itineraries indexed again from the feed.
+		ItineraryIndex.write(returnFile, new long[memoryCount], returnDays, offsets, memoryCount, feedLength);
+		ItineraryIndex.write(routeFile, routeKeys, departureDays, offsets, memoryCount, feedLength);
+		routeSegments.add(ItineraryIndex.open(routeFile));
+		returnSegments.add(ItineraryIndex.open(returnFile));
+		memoryCount = 0;
+
+		this.compact();
+	}
+
+	private File segmentFile(String prefix, int first, int last)
+	{
+		return new File(directory, String.format("%s%06d-%06d%s", prefix, first, last, INDEX_SUFFIX));
+	}
+
+	/*
+	* Returns the tier of a segment: zero up to the size of a memory table, and one more for every MERGE_FACTOR times larger.
+	*/
+	private static int tierOf(int size)
+	{
+		int tier = 0;
+		for (long bound = MEMORY_TABLE_SIZE; size > bound; bound *= MERGE_FACTOR)
+			tier++;
+		return tier;
+	}
+
+	/**
+	* Merges every run of MERGE_FACTOR neighbouring segments of the same tier into one segment, as long as the merged segment
+	* holds no more than MAX_SEGMENT_ENTRIES, until no such run remains.
+	*/
+	public synchronized void compact() throws IOException
+	{
+		int start;
+		while ((start = this.findMergeableRun()) >= 0)
+		{
+			List<ItineraryIndex> routeRun = routeSegments.subList(start, start + MERGE_FACTOR);
+			List<ItineraryIndex> returnRun = returnSegments.subList(start, start + MERGE_FACTOR);
+			int first = parseRange(routeRun.get(0).getFile().getName(), ROUTE_PREFIX)[0];
+			int last = parseRange(routeRun.get(MERGE_FACTOR - 1).getFile().getName(), ROUTE_PREFIX)[1];
+			long covered = 0;
+			for (int i = 0; i < MERGE_FACTOR; i++)
+				covered = Math.max(covered, routeRun.get(i).getCoveredLength());
+
+			File routeFile = this.segmentFile(ROUTE_PREFIX, first, last);
+			File returnFile = this.segmentFile(RETURN_PREFIX, first, last);
+			ItineraryIndex.merge(returnFile, returnRun, covered);
+			ItineraryIndex.merge(routeFile, routeRun, covered);
+
+			//the replaced segments are deleted only once both merged files are complete.
+			ArrayList<ItineraryIndex> oldSegments = new ArrayList<ItineraryIndex>(routeRun);
+			oldSegments.addAll(returnRun);
+			routeRun.clear();
+			returnRun.clear();
+			routeSegments.add(start, ItineraryIndex.open(routeFile));
+			returnSegments.add(start, ItineraryIndex.open(returnFile));
+			for (int i = 0; i < oldSegments.size(); i++)
+				oldSegments.get(i).getFile().delete();
+		}
+	}
+
+	/*
+	* Returns the position of the oldest run of MERGE_FACTOR neighbouring segments of the same tier whose merge stays within
+	* MAX_SEGMENT_ENTRIES, or -1 if there is none.
+	*/
+	private int findMergeableRun()
+	{
+		for (int start = 0; start + MERGE_FACTOR <= routeSegments.size(); start++)
+		{
+			int tier = tierOf(routeSegments.get(start).size());
+			long entries = 0;
+			int length = 0;
+			while (length < MERGE_FACTOR && tierOf(routeSegments.get(start + length).size()) == tier)
+			{
+				entries += routeSegments.get(start + length).size();
+				length++;
+			}
+			if (length == MERGE_FACTOR && entries <= MAX_SEGMENT_ENTRIES)
+				return start;
+		}
+		return -1;
+	}
+
+	/**
+	* Returns the itineraries of the route departing between the first and last day (days since 1970-01-01, inclusive), in
+	* the order they were appended.
+	*/
+	public synchronized List<TravelFormModel> findDeparting(String fromLocation, String toLocation, int firstDay, int lastDay) throws IOException
+	{
+		long key = routeKey(fromLocation, toLocation);
+		long[] matches = this.collect(routeSegments, routeKeys, departureDays, key, firstDay, lastDay);
+
+		String from = LocationPool.normalize(fromLocation);
+		String to = LocationPool.normalize(toLocation);
+		List<TravelFormModel> itineraries = this.read(matches);
+		for (Iterator<TravelFormModel> i = itineraries.iterator(); i.hasNext(); )
+		{
+			TravelFormModel travelForm = i.next();
+			if (!LocationPool.normalize(travelForm.getFromLocation()).equals(from) || !LocationPool.normalize(travelForm.getToLocation()).equals(to))
+				i.remove();
+		}
+		return itineraries;
+	}
+
+	/**
+	* Returns the itineraries returning between the first and last day (days since 1970-01-01, inclusive), in the order
+	* they were appended.
+	*/
+	public synchronized List<TravelFormModel> findReturning(int firstDay, int lastDay) throws IOException
+	{
+		return this.read(this.collect(returnSegments, null, returnDays, 0, firstDay, lastDay));
+	}
+
+	/*
+	* Returns the sorted offsets of the entries of the segments and the memory table with the key and a day within the range.
+	* The memory table keys are null for the return index, whose key is always 0.
+	*/
+	private long[] collect(List<ItineraryIndex> segments, long[] memoryKeys, int[] memoryDays, long key, int firstDay, int lastDay)
+	{
+		long[] matches = new long[16];
+		int count = 0;
+		for (int s = 0; s < segments.size(); s++)
+		{
+			ItineraryIndex index = segments.get(s);
+			for (int i = index.lowerBound(key, firstDay); i < index.size() && index.getKey(i) == key && index.getDay(i) <= lastDay; i++)
+			{
+				if (count == matches.length)
+					matches = Arrays.copyOf(matches, count * 2);
+				matches[count++] = index.getOffset(i);
+			}
+		}
+		for (int i = 0; i < memoryCount; i++)
+		{
+			if ((memoryKeys == null || memoryKeys[i] == key) && memoryDays[i] >= firstDay && memoryDays[i] <= lastDay)
+			{
+				if (count == matches.length)
+					matches = Arrays.copyOf(matches, count * 2);
+				matches[count++] = offsets[i];
+			}
+		}
+		matches = Arrays.copyOf(matches, count);
+		Arrays.sort(matches);
+		return matches;
+	}
+
+	/*
+	* Reads the itineraries at the offsets of the feed.
+	*/
+	private List<TravelFormModel> read(long[] matches) throws IOException
+	{
+		feedOut.flush();
+		ArrayList<TravelFormModel> itineraries = new ArrayList<TravelFormModel>(matches.length);
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		for (int i = 0; i < matches.length; i++)
+		{
+			buffer.clear();
+			int end;
+			while (true)
+			{
+				feedChannel.read(buffer, matches[i] + buffer.position());
+				end = indexOfNewline(buffer);
+				if (end >= 0 || matches[i] + buffer.position() >= feedLength)
+					break;
+				if (!buffer.hasRemaining())
+				{
+					ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+					buffer.flip();
+					larger.put(buffer);
+					buffer = larger;
+				}
+			}
+			if (end < 0)
+				end = buffer.position();
+
+			TravelFormModel travelForm = new TravelFormModel();
+			if (ItineraryRecordFormat.parse(new String(buffer.array(), 0, end, UTF8), travelForm))
+				itineraries.add(travelForm);
+		}
+		return itineraries;
+	}
+
+	private static int indexOfNewline(ByteBuffer buffer)
+	{
+		byte[] bytes = buffer.array();
+		for (int i = 0; i < buffer.position(); i++)
+		{
+			if (bytes[i] == '\n')
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	* Returns the number of itineraries indexed, including those still within the memory table.
+	*/
+	public synchronized long size()
+	{
+		long size = memoryCount;
+		for (int i = 0; i < routeSegments.size(); i++)
+			size += routeSegments.get(i).size();
+		return size;
+	}
+
+	/**
+	* Writes the memory table as a segment and closes the feed.
+	*/
+	public synchronized void close() throws IOException
+	{
+		this.flush();
+		feedOut.close();
+		feedChannel.close();
+	}
+
+	/**
+	* Returns the number of days since 1970-01-01 of a date written as yyyy-mm-dd.
+	*/
+	public static int parseDay(String date)
+	{
+		String[] parts = date.trim().split("-");
+		if (parts.length != 3)
+			throw new IllegalArgumentException("Dates are written as yyyy-mm-dd: " + date);
+		return TravelFormModel.TravelDate.toEpochDay(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+	}
+
+	/**
+	* Imports a feed into the store, or queries the store, as described by the usage above.
+	*/
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 3)
+		{
+			System.err.println("Usage: java travel.ItineraryStore directory import feedFile");
+			System.err.println("       java travel.ItineraryStore directory departing from to firstDate lastDate");
+			System.err.println("       java travel.ItineraryStore directory returning firstDate lastDate");
+			System.exit(1);
+		}
+		ItineraryStore store = new ItineraryStore(new File(args[0]));
+		try
+		{
+			long start = System.nanoTime();
+			if (args[1].equals("import"))
+			{
+				long count = 0;
+				TravelFormModel travelForm = new TravelFormModel();
+				BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(args[2]), UTF8), 1 << 16);
+				try
+				{
+					String line;
+					while ((line = in.readLine()) != null)
+					{
+						travelForm.reset();
+						if (ItineraryRecordFormat.parse(line, travelForm))
+						{
+							store.append(travelForm);
+							count++;
+						}
+					}
+				}
+				finally
+				{
+					in.close();
+				}
+				store.flush();
+				System.out.println("Imported " + count + " itineraries (" + store.size() + " stored) in " + (System.nanoTime() - start) / 1000000 + " ms");
+				return;
+			}
+
+			List<TravelFormModel> itineraries;
+			if (args[1].equals("departing") && args.length == 6)
+				itineraries = store.findDeparting(args[2], args[3], parseDay(args[4]), parseDay(args[5]));
+			else if (args[1].equals("returning") && args.length == 4)
+				itineraries = store.findReturning(parseDay(args[2]), parseDay(args[3]));
+			else
+				throw new IllegalArgumentException("Unknown query: " + Arrays.toString(args));
+			long elapsed = System.nanoTime() - start;
+
+			for (int i = 0; i < itineraries.size(); i++)
+				System.out.println(ItineraryRecordFormat.format(itineraries.get(i)));
+			System.out.printf("%d itineraries found in %.3f ms%n", itineraries.size(), elapsed / 1e6);
+		}
+		finally
+		{
+			store.close();
+		}
+	}
+}
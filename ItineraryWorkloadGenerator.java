@@ -0,0 +1,466 @@
+package travel;
+
+import java.io.*;
+import java.text.*;
+import java.util.*;
+
+/**
+ * Produces synthetic itineraries for load and soak tests of validation and persistence.
+ *
+ * <PRE>
+ * Filename:         ItineraryWorkloadGenerator.java
+ *
+ * Description:      Every itinerary is drawn from configurable distributions:
+ *
+ *		         locations         a Zipf distribution over the location list (the first location is the most popular)
+ *		         departure date    uniform over a range of days, by default the year starting tomorrow
+ *		         trip length       uniform from 0 to the maximum number of days
+ *		         preferred times   weighted over the PreferredTimeWindow values
+ *		         passengers        weighted over 1 - 10 passengers
+ *
+ *		     A configurable share of the itineraries is made invalid by leaving one field as the user could have left
+ *		     it: a blank (or white space) location, or a date Combo Box at its default value.
+ *
+ *		     All of the values are prepared as Strings when the generator is configured, so that filling a form
+ *		     only assigns references and allocates nothing.  Drawing a value from a distribution is a binary
+ *		     search of its cumulative weights driven by an xorshift random number generator, which keeps the rate
+ *		     in the millions of itineraries per second.  A generator is not thread safe; each thread should use
+ *		     its own, with a different seed.
+ *
+ *		     The itineraries may be taken one at a time with next(), as a List of new forms with generate(), or
+ *		     written to a feed file in the ItineraryRecordFormat with write().
+ *
+ *		     Usage:  java travel.ItineraryWorkloadGenerator count [feedFile | -] [seed]
+ *
+ * Composition objects: TravelFormModel.java, ItineraryRecordFormat.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.101
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   The fields left invalid are TravelFormModel.Field values rather than SessionStore constants.
+ * </PRE>
+  */
+
+public class ItineraryWorkloadGenerator
+{
+	//The locations used when no other list is given, roughly in order of popularity.
+	public final static String[] DEFAULT_LOCATIONS = new String[]{"Atlanta","Los Angeles","Chicago","Dallas","Denver",
+		"New York","San Francisco","Seattle","Las Vegas","Orlando","Charlotte","Newark","Phoenix","Houston","Miami",
+		"Boston","Minneapolis","Fort Lauderdale","Detroit","Philadelphia","Baltimore","Salt Lake City","Washington",
+		"San Diego","Tampa","Nashville","Austin","Portland","Honolulu","St. Louis","Sacramento","Kansas City",
+		"Raleigh","Cleveland","New Orleans","San Jose","Oakland","Indianapolis","Pittsburgh","Columbus"};
+
+	//The fields that an invalid itinerary may leave blank or at the default value of their Combo Box.
+	private final static TravelFormModel.Field[] INVALID_FIELDS = new TravelFormModel.Field[]{TravelFormModel.Field.FROM_LOCATION,
+		TravelFormModel.Field.TO_LOCATION, TravelFormModel.Field.DEPARTURE_MONTH, TravelFormModel.Field.DEPARTURE_DAY,
+		TravelFormModel.Field.DEPARTURE_YEAR, TravelFormModel.Field.RETURN_MONTH, TravelFormModel.Field.RETURN_DAY,
+		TravelFormModel.Field.RETURN_YEAR};
+
+	private final static String[] MONTH_NAMES = new DateFormatSymbols().getMonths();
+
+	private long seed;
+
+	private String[] locations = DEFAULT_LOCATIONS;
+	private double zipfExponent = 1.0;
+	private int firstDepartureDay = today() + 1;
+	private int departureDays = 365;
+	private int maxTripDays = 21;
+	private double[] preferredTimeWeights = new double[]{30, 10, 20, 10, 15, 10, 5};
+	private double[] passengerWeights = new double[]{45, 30, 8, 8, 3, 2, 1.5, 1, 0.75, 0.75};
+	private double invalidShare = 0.05;
+
+	//The tables prepared from the configuration by prepare().
+	private boolean prepared;
+	private double[] locationCumulative;
+	private double[] preferredTimeCumulative;
+	private double[] passengerCumulative;
+	private String[] preferredTimeLabels;
+	private Integer[] passengerValues;
+	private String[] dayMonths;
+	private String[] dayDays;
+	private String[] dayYears;
+
+	private long generatedCount;
+	private long invalidCount;
+
+	public ItineraryWorkloadGenerator(long seed)
+	{
+		//xorshift never leaves the state of zero.
+		this.seed = (seed == 0) ? 0x9e3779b97f4a7c15L : seed;
+	}
+
+	/*
+	* Returns the current date as the number of days since 1970-01-01.
+	*/
+	private static int today()
+	{
+		Calendar now = Calendar.getInstance();
+		return TravelFormModel.TravelDate.toEpochDay(now.get(Calendar.YEAR), now.get(Calendar.MONTH) + 1, now.get(Calendar.DAY_OF_MONTH));
+	}
+
+	/**
+	* Sets the locations to choose from, the most popular first.
+	*/
+	public void setLocations(String[] locations)
+	{
+		if (locations.length < 2)
+			throw new IllegalArgumentException("At least two locations are required");
+		this.locations = locations.clone();
+		prepared = false;
+	}
+
+	/**
+	* Reads the locations from a file holding one location per line, the most popular first.  Blank lines and lines
+	* starting with '#' are skipped.
+	*/
+	public void loadLocations(File locationFile) throws IOException
+	{
+		ArrayList<String> names = new ArrayList<String>();
+		BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(locationFile), "UTF-8"));
+		try
+		{
+			String line;
+			while ((line = in.readLine()) != null)
+			{
+				line = line.trim();
+				if (!line.isEmpty() && !line.startsWith("#"))
+					names.add(line);
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+		this.setLocations(names.toArray(new String[names.size()]));
+	}
+
+	/**
+	* Sets the exponent of the Zipf distribution of the locations.  0 makes every location equally popular, while larger
+	* values concentrate the itineraries on the first locations.
+	*/
+	public void setZipfExponent(double zipfExponent)
+	{
+		this.zipfExponent = zipfExponent;
+		prepared = false;
+	}
+
+	/**
+	* Sets the range of departure dates as the first day (days since 1970-01-01) and the number of days.
+	*/
+	public void setDepartureRange(int firstDepartureDay, int departureDays)
+	{
+		if (departureDays < 1)
+			throw new IllegalArgumentException("The departure range must hold at least one day");
+		this.firstDepartureDay = firstDepartureDay;
+		this.departureDays = departureDays;
+		prepared = false;
+	}
+
+	/**
+	* Sets the longest number of days between the departure and the return.
+	*/
+	public void setMaxTripDays(int maxTripDays)
+	{
+		this.maxTripDays = Math.max(0, maxTripDays);
+		prepared = false;
+	}
+
+	/**
+	* Sets the relative weights of the preferred times, in the order of PreferredTimeWindow.values().
+	*/
+	public void setPreferredTimeWeights(double[] preferredTimeWeights)
+	{
+		if (preferredTimeWeights.length != PreferredTimeWindow.values().length)
+			throw new IllegalArgumentException("One weight is required for each PreferredTimeWindow");
+		this.preferredTimeWeights = preferredTimeWeights.clone();
+		prepared = false;
+	}
+
+	/**
+	* Sets the relative weights of the number of passengers, starting with one passenger.
+	*/
+	public void setPassengerWeights(double[] passengerWeights)
+	{
+		if (passengerWeights.length == 0)
+			throw new IllegalArgumentException("At least one passenger weight is required");
+		this.passengerWeights = passengerWeights.clone();
+		prepared = false;
+	}
+
+	/**
+	* Sets the share (0 - 1) of the itineraries which leave a field blank or at its default value.
+	*/
+	public void setInvalidShare(double invalidShare)
+	{
+		if (invalidShare < 0 || invalidShare > 1)
+			throw new IllegalArgumentException("The invalid share must lie between 0 and 1");
+		this.invalidShare = invalidShare;
+	}
+
+	/**
+	* Returns the number of itineraries generated so far.
+	*/
+	public long getGeneratedCount()
+	{
+		return generatedCount;
+	}
+
+	/**
+	* Returns the number of itineraries generated so far which were made invalid.
+	*/
+	public long getInvalidCount()
+	{
+		return invalidCount;
+	}
+
+	/*
+	* Builds the cumulative weights and the Strings of every value from the configuration.
+	*/
+	private void prepare()
+	{
+		double[] locationWeights = new double[locations.length];
+		for (int i = 0; i < locationWeights.length; i++)
+			locationWeights[i] = 1.0 / Math.pow(i + 1, zipfExponent);
+		locationCumulative = cumulative(locationWeights);
+		preferredTimeCumulative = cumulative(preferredTimeWeights);
+		passengerCumulative = cumulative(passengerWeights);
+
+		preferredTimeLabels = PreferredTimeWindow.labels();
+		passengerValues = new Integer[passengerWeights.length];
+		for (int i = 0; i < passengerValues.length; i++)
+			passengerValues[i] = Integer.valueOf(i + 1);
+
+		//the month, day and year Strings of every day that a departure or return may fall on.
+		String[] days = new String[32];
+		for (int i = 1; i < days.length; i++)
+			days[i] = Integer.toString(i);
+		HashMap<Integer, String> years = new HashMap<Integer, String>();
+		int length = departureDays + maxTripDays;
+		dayMonths = new String[length];
+		dayDays = new String[length];
+		dayYears = new String[length];
+		for (int i = 0; i < length; i++)
+		{
+			int[] date = TravelFormModel.TravelDate.fromEpochDay(firstDepartureDay + i);
+			String year = years.get(date[0]);
+			if (year == null)
+			{
+				year = Integer.toString(date[0]);
+				years.put(date[0], year);
+			}
+			dayYears[i] = year;
+			dayMonths[i] = MONTH_NAMES[date[1] - 1];
+			dayDays[i] = days[date[2]];
+		}
+		prepared = true;
+	}
+
+	/*
+	* Returns the running totals of the weights, scaled so that the last total is 1.
+	*/
+	private static double[] cumulative(double[] weights)
+	{
+		double[] totals = new double[weights.length];
+		double total = 0;
+		for (int i = 0; i < weights.length; i++)
+		{
+			if (weights[i] < 0)
+				throw new IllegalArgumentException("Weights may not be negative");
+			total += weights[i];
+			totals[i] = total;
+		}
+		if (total <= 0)
+			throw new IllegalArgumentException("At least one weight must be positive");
+		for (int i = 0; i < totals.length; i++)
+			totals[i] /= total;
+		totals[totals.length - 1] = 1.0;
+		return totals;
+	}
+
+	/*
+	* Returns the next value of the xorshift64* generator.
+	*/
+	private long nextLong()
+	{
+		seed ^= seed >>> 12;
+		seed ^= seed << 25;
+		seed ^= seed >>> 27;
+		return seed * 0x2545f4914f6cdd1dL;
+	}
+
+	/*
+	* Returns a uniformly distributed value within [0, 1).
+	*/
+	private double nextDouble()
+	{
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	/*
+	* Returns a uniformly distributed value within [0, bound).
+	*/
+	private int nextInt(int bound)
+	{
+		return (int) (((nextLong() >>> 33) * bound) >>> 31);
+	}
+
+	/*
+	* Returns the index of the value drawn from the cumulative weights.
+	*/
+	private int draw(double[] cumulative)
+	{
+		int index = Arrays.binarySearch(cumulative, nextDouble());
+		return (index >= 0) ? index + 1 : -index - 1;
+	}
+
+	/**
+	* Fills the form with the next itinerary, replacing every field.  Returns false if the itinerary was made invalid.
+	*/
+	public boolean next(TravelFormModel travelForm)
+	{
+		if (!prepared)
+			this.prepare();
+
+		int from = draw(locationCumulative);
+		int to = draw(locationCumulative);
+		if (to == from)
+			to = (from + 1 + nextInt(locations.length - 1)) % locations.length;
+		travelForm.setFromLocation(locations[from]);
+		travelForm.setToLocation(locations[to]);
+
+		int departure = nextInt(departureDays);
+		int returning = departure + nextInt(maxTripDays + 1);
+		TravelFormModel.TravelDate departureDate = travelForm.getDepartureDate();
+		departureDate.setMonth(dayMonths[departure]);
+		departureDate.setDay(dayDays[departure]);
+		departureDate.setYear(dayYears[departure]);
+		departureDate.setPreferredTime(preferredTimeLabels[draw(preferredTimeCumulative)]);
+		TravelFormModel.TravelDate returnDate = travelForm.getReturnDate();
+		returnDate.setMonth(dayMonths[returning]);
+		returnDate.setDay(dayDays[returning]);
+		returnDate.setYear(dayYears[returning]);
+		returnDate.setPreferredTime(preferredTimeLabels[draw(preferredTimeCumulative)]);
+
+		travelForm.setNumberOfPassengers(passengerValues[draw(passengerCumulative)]);
+
+		generatedCount++;
+		if (invalidShare == 0 || nextDouble() >= invalidShare)
+			return true;
+
+		invalidCount++;
+		this.invalidate(travelForm, INVALID_FIELDS[nextInt(INVALID_FIELDS.length)]);
+		return false;
+	}
+
+	/*
+	* Leaves the field as the user could have left it: a blank location or the default value of a Combo Box.
+	*/
+	private void invalidate(TravelFormModel travelForm, TravelFormModel.Field field)
+	{
+		switch (field)
+		{
+			case FROM_LOCATION:
+			case TO_LOCATION:
+				field.set(travelForm, (nextInt(2) == 0) ? "" : "   ");
+				break;
+			case DEPARTURE_MONTH:
+			case RETURN_MONTH:
+				field.set(travelForm, TravelComboBoxModel.DEFAULT_MONTH);
+				break;
+			case DEPARTURE_DAY:
+			case RETURN_DAY:
+				field.set(travelForm, TravelComboBoxModel.DEFAULT_DAY);
+				break;
+			default:
+				field.set(travelForm, TravelComboBoxModel.DEFAULT_YEAR);
+				break;
+		}
+	}
+
+	/**
+	* Returns a List of new forms holding the next itineraries, for benchmarks which should not measure the generation.
+	*/
+	public List<TravelFormModel> generate(int count)
+	{
+		ArrayList<TravelFormModel> forms = new ArrayList<TravelFormModel>(count);
+		for (int i = 0; i < count; i++)
+		{
+			TravelFormModel travelForm = new TravelFormModel();
+			this.next(travelForm);
+			forms.add(travelForm);
+		}
+		return forms;
+	}
+
+	/**
+	* Writes the next itineraries to the writer, one ItineraryRecordFormat line each.
+	*/
+	public void write(Writer out, long count) throws IOException
+	{
+		TravelFormModel travelForm = new TravelFormModel();
+		StringBuilder line = new StringBuilder(128);
+		for (long i = 0; i < count; i++)
+		{
+			this.next(travelForm);
+			line.setLength(0);
+			ItineraryRecordFormat.append(line, travelForm);
+			line.append('\n');
+			out.append(line);
+		}
+	}
+
+	/**
+	* Writes the next itineraries to a UTF-8 feed file, replacing its contents.
+	*/
+	public void write(File feedFile, long count) throws IOException
+	{
+		Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(feedFile), "UTF-8"), 1 << 16);
+		try
+		{
+			this.write(out, count);
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+
+	/**
+	* Writes the given number of itineraries to the feed file, or when no file (or "-") is given, generates them into a
+	* single form, and reports the rate.
+	*/
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 1)
+		{
+			System.err.println("Usage: java travel.ItineraryWorkloadGenerator count [feedFile | -] [seed]");
+			System.exit(1);
+		}
+		long count = Long.parseLong(args[0]);
+		long seed = (args.length > 2) ? Long.parseLong(args[2]) : System.nanoTime();
+		ItineraryWorkloadGenerator generator = new ItineraryWorkloadGenerator(seed);
+
+		long start = System.nanoTime();
+		if (args.length > 1 && !args[1].equals("-"))
+		{
+			generator.write(new File(args[1]), count);
+		}
+		else
+		{
+			TravelFormModel travelForm = new TravelFormModel();
+			for (long i = 0; i < count; i++)
+				generator.next(travelForm);
+		}
+		long elapsed = System.nanoTime() - start;
+
+		System.out.println("Itineraries:   " + generator.getGeneratedCount());
+		System.out.println("Invalid:       " + generator.getInvalidCount());
+		System.out.printf("Elapsed:       %.3f s%n", elapsed / 1e9);
+		System.out.println("Rate:          " + (elapsed == 0 ? 0 : (long) (count * 1e9 / elapsed)) + " itineraries/s");
+	}
+}
@@ -0,0 +1,201 @@
+package travel;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Canonicalizes location names and assigns each distinct location a small integer id.
+ *
+ * <PRE>
+ * Filename:         LocationPool.java
+ *
+ * Description:      The From and To Text Fields accept free text, so the same location arrives as "New York", " new  york"
+ *		     or "NYC".  A location is canonicalized by trimming it, collapsing each run of white space into a single
+ *		     space and ignoring case, and then by following the aliases of the pool (e.g. "nyc" to "New York").  The
+ *		     canonical key is interned into a ConcurrentHashMap which hands out ids counting up from zero, and the
+ *		     name first seen for each id is kept for display.  Itineraries store the ids only, so comparing, hashing
+ *		     and grouping locations are integer operations and each distinct name is held once however many
+ *		     itineraries refer to it.
+ *
+ *		     Lookups of known locations do not lock.  Assigning a new id or adding an alias locks the pool, so that
+ *		     ids stay dense and an alias is never overwritten by a location interned at the same time.  An alias
+ *		     which is already interned as a different location is rejected.
+ *
+ * Used By:          Itinerary.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.101
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   addAlias() holds the lock of the pool and rejects an alias of a different location, and
+ *		    loadAliases() reports such a line with its line number.
+ * </PRE>
+  */
+
+public class LocationPool
+{
+	//Returned by find() for a location which has not been interned, and used by Itinerary for a blank location.
+	public final static int NO_LOCATION = -1;
+
+	private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+	private volatile String[] names = new String[64];
+	private int size;
+
+	/**
+	* Returns the canonical key of a location: trimmed, with single spaces between words and in lower case.  Returns an
+	* empty string for a blank location.
+	*/
+	public static String normalize(String location)
+	{
+		StringBuilder key = new StringBuilder(location.length());
+		boolean pendingSpace = false;
+		for (int i = 0; i < location.length(); i++)
+		{
+			char c = location.charAt(i);
+			if (Character.isWhitespace(c))
+			{
+				pendingSpace = key.length() > 0;
+				continue;
+			}
+			if (pendingSpace)
+			{
+				key.append(' ');
+				pendingSpace = false;
+			}
+			key.append(Character.toLowerCase(c));
+		}
+		return key.toString();
+	}
+
+	/**
+	* Returns the display form of a location: trimmed, with single spaces between words, keeping its case.
+	*/
+	private static String tidy(String location)
+	{
+		return location.trim().replaceAll("\\s+", " ");
+	}
+
+	/**
+	* Returns the id of the location, interning it if it has not been seen before.  Returns NO_LOCATION for a blank location.
+	*/
+	public int intern(String location)
+	{
+		String key = normalize(location);
+		if (key.isEmpty())
+			return NO_LOCATION;
+
+		Integer id = ids.get(key);
+		if (id != null)
+			return id.intValue();
+		return this.assign(key, tidy(location));
+	}
+
+	/**
+	* Returns the id of the location without interning it, or NO_LOCATION if it has not been seen before.
+	*/
+	public int find(String location)
+	{
+		Integer id = ids.get(normalize(location));
+		return (id == null) ? NO_LOCATION : id.intValue();
+	}
+
+	/*
+	* Assigns the next id to the key unless another thread has just done so.
+	*/
+	private synchronized int assign(String key, String name)
+	{
+		Integer id = ids.get(key);
+		if (id != null)
+			return id.intValue();
+
+		String[] current = names;
+		if (size == current.length)
+			current = Arrays.copyOf(current, size * 2);
+		current[size] = name;
+		names = current;
+		ids.put(key, Integer.valueOf(size));
+		return size++;
+	}
+
+	/**
+	* Makes the alias refer to the same id as the canonical location, interning the canonical location if needed.  Throws
+	* an IllegalArgumentException if the alias is already interned as a different location.
+	*/
+	public synchronized int addAlias(String alias, String canonical)
+	{
+		int id = this.intern(canonical);
+		String key = normalize(alias);
+		if (id == NO_LOCATION || key.isEmpty())
+			throw new IllegalArgumentException("An alias and its location may not be blank!");
+		Integer existing = ids.get(key);
+		if (existing != null && existing.intValue() != id)
+			throw new IllegalArgumentException("\"" + tidy(alias) + "\" is already the location " + getName(existing.intValue()));
+		ids.put(key, Integer.valueOf(id));
+		return id;
+	}
+
+	/**
+	* Reads aliases from a file holding lines of the form "alias = canonical location".  Blank lines and lines starting
+	* with '#' are skipped.  Returns the number of aliases added.
+	*/
+	public int loadAliases(File aliasFile) throws IOException
+	{
+		BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(aliasFile), "UTF-8"));
+		int count = 0;
+		try
+		{
+			String line;
+			int lineNumber = 0;
+			while ((line = in.readLine()) != null)
+			{
+				lineNumber++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+				int equals = line.indexOf('=');
+				if (equals < 0)
+					throw new IOException(aliasFile + ":" + lineNumber + ": expected \"alias = location\"");
+				try
+				{
+					this.addAlias(line.substring(0, equals), line.substring(equals + 1));
+				}
+				catch (IllegalArgumentException e)
+				{
+					throw new IOException(aliasFile + ":" + lineNumber + ": " + e.getMessage());
+				}
+				count++;
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+		return count;
+	}
+
+	/**
+	* Returns the display name of the location with the given id.
+	*/
+	public String getName(int id)
+	{
+		if (id == NO_LOCATION)
+			return "";
+		String[] current = names;
+		if (id < 0 || id >= current.length || current[id] == null)
+			throw new IllegalArgumentException("No such location id exist: " + id);
+		return current[id];
+	}
+
+	/**
+	* Returns the number of distinct locations interned.
+	*/
+	public synchronized int size()
+	{
+		return size;
+	}
+}
@@ -0,0 +1,161 @@
+package travel;
+
+/**
+ * An open addressing hash set of primitive longs.
+ *
+ * <PRE>
+ * Filename:         LongHashSet.java
+ *
+ * Description:      Storing fingerprints as java.lang.Long within a HashSet costs roughly 50 bytes each, whereas this set
+ *		     stores them within a single long[] using linear probing, costing 8 bytes per slot.  The table grows by
+ *		     doubling when it becomes more than half full, up to MAX_CAPACITY slots (the largest power of two an
+ *		     array may hold); beyond that the table keeps filling and an add() fails once a single slot is left.  Zero is used to mark empty slots, so a zero value is
+ *		     tracked separately.  Removal is not supported since the users of this class only ever add values and
+ *		     clear the whole set.
+ *
+ * Aggregation Of:	 DuplicateSubmissionFilter.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.101
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   The table stops doubling at MAX_CAPACITY rather than overflowing the array size, and add()
+ *		    fails with an IllegalStateException when the table is full.
+ * </PRE>
+  */
+
+public class LongHashSet
+{
+	//The largest table, since the number of slots is a power of two and an array holds fewer than 2^31 elements.
+	public final static int MAX_CAPACITY = 1 << 30;
+
+	private long[] table;
+	private int mask;
+	private int size;
+	private boolean containsZero;
+
+	/*
+	* The constructor allocates a table which can hold the expected number of values without growing.
+	*/
+	public LongHashSet(int expectedSize)
+	{
+		int capacity = 16;
+		while (capacity < expectedSize * 2L && capacity < MAX_CAPACITY)
+			capacity <<= 1;
+		table = new long[capacity];
+		mask = capacity - 1;
+	}
+
+	/*
+	* Spreads the bits of the value across the low order bits used for indexing the table.
+	*/
+	private static int slotOf(long value, int mask)
+	{
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		return (int) value & mask;
+	}
+
+	/**
+	* Adds the value to the set.  Returns true if the value was not already present.
+	*/
+	public boolean add(long value)
+	{
+		if (value == 0)
+		{
+			if (containsZero)
+				return false;
+			containsZero = true;
+			size++;
+			return true;
+		}
+
+		int slot = slotOf(value, mask);
+		while (table[slot] != 0)
+		{
+			if (table[slot] == value)
+				return false;
+			slot = (slot + 1) & mask;
+		}
+
+		//one slot is always left empty so that every probe ends.
+		if (size - (containsZero ? 1 : 0) >= table.length - 1)
+			throw new IllegalStateException("The set is full: it holds at most " + ((long) MAX_CAPACITY - 1) + " values besides zero");
+		table[slot] = value;
+		size++;
+
+		if (size * 2L > table.length && table.length < MAX_CAPACITY)
+			this.grow();
+		return true;
+	}
+
+	/**
+	* Returns true if the value is present within the set.
+	*/
+	public boolean contains(long value)
+	{
+		if (value == 0)
+			return containsZero;
+
+		int slot = slotOf(value, mask);
+		while (table[slot] != 0)
+		{
+			if (table[slot] == value)
+				return true;
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	* Returns the number of slots within the table.
+	*/
+	public int capacity()
+	{
+		return table.length;
+	}
+
+	/**
+	* Returns the number of values within the set.
+	*/
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	* Removes every value from the set, keeping the allocated table for reuse.
+	*/
+	public void clear()
+	{
+		java.util.Arrays.fill(table, 0L);
+		containsZero = false;
+		size = 0;
+	}
+
+	/*
+	* Doubles the table and reinserts every value.
+	*/
+	private void grow()
+	{
+		long[] oldTable = table;
+		table = new long[oldTable.length * 2];
+		mask = table.length - 1;
+		for (int i = 0; i < oldTable.length; i++)
+		{
+			long value = oldTable[i];
+			if (value != 0)
+			{
+				int slot = slotOf(value, mask);
+				while (table[slot] != 0)
+					slot = (slot + 1) & mask;
+				table[slot] = value;
+			}
+		}
+	}
+}
@@ -21,7 +21,9 @@ import javax.swing.text.*;
  *		     The TravelDocumentListener listens for updates within the Text Fields and updates the TravelFormModel object accordingly.
  *		     The ButtonListener responds whenever the user clicks "Submit".
  *
- * Aggregate Objects:TravelFormModel.java, TravelItineraryView.java, TravelComboBoxModel.java
+ * Aggregate Objects:TravelFormModel.java, TravelView.java, TravelComboBoxModel.java, UIEventRecorder.java,
+ *		     DuplicateSubmissionFilter.java, ValidationRuleEngine.java, SubmissionQueue.java, ItineraryAnalytics.java,
+ *		     PlaceNameIndex.java, FareCalendar.java
  *
  * Inner classes:    TravelDocumentListener, ComboBoxListener, ButtonListener.
  *
@@ -29,32 +31,64 @@ import javax.swing.text.*;
  *
  * Maintainer:       A. Cave
  *
- * Version:          0.103
+ * Version:          0.115
  *
- * Lasted Modified:  04/24/2010  by: A. Cave
+ * Lasted Modified:  10/19/2026  by: A. Cave
  *
  * Changes Made -------
  * 0.100: A. Cave   Initial Version.
  * 0.101: A. Cave   Added an object reference of TravelFormConfirmation to validate the TravelFormInformation object when the user clicks "Submit".
  * 0.102: A. Cave   Removed dead code and finalized comments.
  * 0.103: A. Cave	modified for use of TravelFormModel class method "submit()".
+ * 0.104: A. Cave   Depends on the TravelView interface instead of TravelItineraryView and passes the user interactions
+ *		    to an optional UIEventRecorder.
+ * 0.105: A. Cave   Accepted itineraries are checked against an optional DuplicateSubmissionFilter.
+ * 0.106: A. Cave   The Combo Boxes are given prototype display values so that their options are not measured one by one.
+ * 0.107: A. Cave   The Manifest button opens the PassengerManifestController of the TravelFormModel.
+ * 0.108: A. Cave   Submissions are checked by an optional ValidationRuleEngine which reports every broken rule.
+ * 0.109: A. Cave   Added the rapid entry mode, which queues valid itineraries and resets the form in place.
+ * 0.110: A. Cave   The Day Combo Boxes grey out the days on which the route is not flown, using a RouteAvailabilityIndex.
+ * 0.111: A. Cave   The rapid entry mode queues itineraries onto a bounded SubmissionQueue and reports when it is full.
+ * 0.112: A. Cave   Accepted itineraries are recorded by an optional ItineraryAnalytics.
+ * 0.113: A. Cave   Suggests the closest known place of an optional PlaceNameIndex while a location is typed, and
+ *		    names the corrections suggested by the rules when a submission is rejected.
+ * 0.114: A. Cave   Shows the cheapest round trip of the selected months, priced in the background by an optional FareCalendar.
+ * 0.115: A. Cave   The rapid entry mode offers to the queue without waiting, and the duplicate filter records an itinerary
+ *		    only once it has been queued or confirmed.
  * </PRE>
   */
 
 public class MainController
 {
 	private TravelFormModel travelForm;
-	private TravelItineraryView view;
+	private TravelView view;
 	private TravelComboBoxModel tcbm;
-	private JOptionPane confirmationDialog;
+	private UIEventRecorder recorder;
+	private DuplicateSubmissionFilter duplicateFilter;
+	private PassengerManifestController manifestController;
+	private ValidationRuleEngine ruleEngine;
+	private SubmissionQueue<Itinerary> submissionQueue;
+	private LocationPool locationPool;
+	private int queuedCount;
+	private RouteAvailabilityIndex availabilityIndex;
+	private AvailableDayRenderer departureDayRenderer;
+	private AvailableDayRenderer returnDayRenderer;
+	private ItineraryAnalytics analytics;
+	private PlaceNameIndex placeIndex;
+	private String fromSuggestion;
+	private String toSuggestion;
+	private boolean suggestionShown;
+	private FareCalendar fareCalendar;
+	private RouteKey fareDeparture;
+	private RouteKey fareReturn;
 
 	/**
-	* This constructor accepts the TravelFormModel object reference, TravelItineraryView object reference, and a
+	* This constructor accepts the TravelFormModel object reference, TravelView object reference, and a
 	* TravelComboBoxModel object reference.  The aim is to utilize the "pull model", where the view calls the model in
 	* order to request updates. This is implemented by registering event listeners to the view in order to automatically
 	* update the TravelForm object as the user interacts with the view.
 	*/
-	public MainController(TravelFormModel dataModel, TravelItineraryView frame, TravelComboBoxModel tcbm)
+	public MainController(TravelFormModel dataModel, TravelView frame, TravelComboBoxModel tcbm)
 	{
 		this.travelForm = dataModel;
 		this.view = frame;
@@ -62,7 +96,240 @@ public class MainController
 		this.assignListeners();
 		this.provideViewWithComboBoxModels();
 		this.initializeTravelModel();
-		confirmationDialog = new JOptionPane();
+	}
+
+	/**
+	* This method attaches a UIEventRecorder which is passed every user interaction handled by the listeners.  Passing
+	* null stops the recording.
+	*/
+	public void setEventRecorder(UIEventRecorder recorder)
+	{
+		this.recorder = recorder;
+	}
+
+	/**
+	* This method switches on the rapid entry mode.  Rather than confirming each submission with a dialog, a valid itinerary
+	* is added to the queue as an immutable Itinerary (with its locations interned into the pool), the outcome is shown
+	* within the status strip of the view, and the same TravelFormModel and view are reset for the next itinerary with the
+	* focus returned to the From field.  Invalid or duplicate itineraries are reported within the status strip and left in
+	* place for correction.  When the queue is full the itinerary is also left in place, so that it can be submitted again
+	* once the consumer of the queue has caught up.
+	*/
+	public void enableRapidEntry(SubmissionQueue<Itinerary> submissionQueue, LocationPool locationPool)
+	{
+		this.submissionQueue = submissionQueue;
+		this.locationPool = locationPool;
+	}
+
+	/**
+	* This method attaches the RouteAvailabilityIndex used for greying out the days on which nothing is flown.  The pool
+	* must be the one the index was loaded with.  The departure days are those of the route From - To and the return days
+	* those of the route To - From.
+	*/
+	public void setAvailabilityIndex(RouteAvailabilityIndex availabilityIndex, LocationPool locationPool)
+	{
+		this.availabilityIndex = availabilityIndex;
+		if (this.locationPool == null)
+		{
+			this.locationPool = locationPool;
+		}
+		departureDayRenderer = new AvailableDayRenderer();
+		returnDayRenderer = new AvailableDayRenderer();
+		view.getDepartureDayDropDown().setRenderer(departureDayRenderer);
+		view.getReturnDayDropDown().setRenderer(returnDayRenderer);
+		this.updateAvailability();
+	}
+
+	/*
+	* This private method works out the available days of the departure and return months and repaints the Day Combo Boxes.
+	* Every day stays available while a location has not been scheduled or the month and year have not been selected.
+	*/
+	private void updateAvailability()
+	{
+		if (availabilityIndex == null)
+		{
+			return;
+		}
+		int fromId = locationPool.find(travelForm.getFromLocation());
+		int toId = locationPool.find(travelForm.getToLocation());
+		departureDayRenderer.setAvailableDays(availableDays(fromId, toId, travelForm.getDepartureDate()));
+		returnDayRenderer.setAvailableDays(availableDays(toId, fromId, travelForm.getReturnDate()));
+		view.getDepartureDayDropDown().repaint();
+		view.getReturnDayDropDown().repaint();
+	}
+
+	/**
+	* This method attaches the FareCalendar which prices every round trip of the departure and return months once the
+	* route, months and years have been selected, and shows the cheapest within the status strip.  The pool must be the
+	* one the fares were loaded with.  Passing null switches the calendar off.
+	*/
+	public void setFareCalendar(FareCalendar fareCalendar, LocationPool locationPool)
+	{
+		this.fareCalendar = fareCalendar;
+		if (this.locationPool == null)
+		{
+			this.locationPool = locationPool;
+		}
+		fareDeparture = null;
+		fareReturn = null;
+		this.updateFareCalendar();
+	}
+
+	/*
+	* This private method asks the FareCalendar for the grid of the selected months whenever the route, a month, a year, a
+	* preferred time or the number of passengers has changed.  The grid is priced on the pool of the calendar and shown
+	* once it arrives on the Event Dispatch Thread, unless the selection has changed again in the meantime.
+	*/
+	private void updateFareCalendar()
+	{
+		if (fareCalendar == null)
+		{
+			return;
+		}
+		TravelFormModel.TravelDate departureDate = travelForm.getDepartureDate();
+		TravelFormModel.TravelDate returnDate = travelForm.getReturnDate();
+		int fromId = locationPool.find(travelForm.getFromLocation());
+		int toId = locationPool.find(travelForm.getToLocation());
+		if (fromId == LocationPool.NO_LOCATION || toId == LocationPool.NO_LOCATION || departureDate.getMonthNumber() == 0
+			|| departureDate.getYearNumber() == 0 || returnDate.getMonthNumber() == 0 || returnDate.getYearNumber() == 0)
+		{
+			if (fareDeparture != null)
+			{
+				fareCalendar.cancel();
+				fareDeparture = null;
+				fareReturn = null;
+			}
+			return;
+		}
+
+		RouteKey departure = new RouteKey(fromId, toId, TravelFormModel.TravelDate.toEpochDay(departureDate.getYearNumber(), departureDate.getMonthNumber(), 1),
+			departureDate.getPreferredTimeWindow(), travelForm.getPassengerCount());
+		RouteKey ret = new RouteKey(toId, fromId, TravelFormModel.TravelDate.toEpochDay(returnDate.getYearNumber(), returnDate.getMonthNumber(), 1),
+			returnDate.getPreferredTimeWindow(), travelForm.getPassengerCount());
+		if (departure.equals(fareDeparture) && ret.equals(fareReturn))
+		{
+			return;
+		}
+		fareDeparture = departure;
+		fareReturn = ret;
+		fareCalendar.request(departure, ret, new FareCalendar.Listener()
+		{
+			public void fareCalendarReady(FareCalendar.Grid grid)
+			{
+				if (grid.getCheapestFare() == FareTable.NO_FARE)
+				{
+					view.showStatus("No round trip is priced for the selected months.", JOptionPane.INFORMATION_MESSAGE);
+				}
+				else
+				{
+					String travellers = (grid.getPassengers() == 1) ? "1 passenger" : grid.getPassengers() + " passengers";
+					view.showStatus("Cheapest: depart " + Itinerary.formatDay(grid.getCheapestDepartureDay()) + ", return "
+						+ Itinerary.formatDay(grid.getCheapestReturnDay()) + String.format(" at %.2f for ", grid.getCheapestTotal() / 100.0)
+						+ travellers, JOptionPane.INFORMATION_MESSAGE);
+				}
+			}
+		});
+	}
+
+	/*
+	* Returns the bit set of the days of the date's month on which the route is flown.
+	*/
+	private int availableDays(int fromId, int toId, TravelFormModel.TravelDate date)
+	{
+		int month = date.getMonthNumber();
+		int year = date.getYearNumber();
+		if (fromId == LocationPool.NO_LOCATION || toId == LocationPool.NO_LOCATION || month == 0 || year == 0)
+		{
+			return AvailableDayRenderer.ALL_DAYS;
+		}
+		return availabilityIndex.getDays(fromId, toId, year, month);
+	}
+
+	/**
+	* This method resets the TravelFormModel to its default values and updates the view to match, reusing both.
+	*/
+	public void resetForm()
+	{
+		//the status strip now reports the previous itinerary, which a cleared suggestion must not wipe.
+		fromSuggestion = null;
+		toSuggestion = null;
+		suggestionShown = false;
+		travelForm.reset();
+		this.initializeTravelModel();
+		if (manifestController != null)
+		{
+			manifestController.refresh();
+		}
+		view.getFromLocationTextField().requestFocusInWindow();
+	}
+
+	/**
+	* This method attaches the ValidationRuleEngine used for checking the business rules when the user submits the form.
+	* Passing null falls back on TravelFormModel.submit() and its generic error message.
+	*/
+	public void setRuleEngine(ValidationRuleEngine ruleEngine)
+	{
+		this.ruleEngine = ruleEngine;
+	}
+
+	/**
+	* This method attaches the ItineraryAnalytics which records every itinerary once it has been accepted.  Passing null
+	* switches the recording off.
+	*/
+	public void setAnalytics(ItineraryAnalytics analytics)
+	{
+		this.analytics = analytics;
+	}
+
+	/**
+	* This method attaches the PlaceNameIndex used for suggesting the closest known place within the status strip while a
+	* location which is not a known place is typed.  Passing null switches the suggestions off.
+	*/
+	public void setPlaceIndex(PlaceNameIndex placeIndex)
+	{
+		this.placeIndex = placeIndex;
+	}
+
+	/*
+	* This private method looks up the suggestion for the text of a location field, and shows the suggestion for the From
+	* location, or else the one for the To location.  A suggestion shown before is cleared once neither field has one.
+	*/
+	private void suggestCorrection(String fieldName, String text)
+	{
+		if (placeIndex == null)
+		{
+			return;
+		}
+		String suggestion = placeIndex.suggest(text);
+		if (fieldName.equals("From Field"))
+		{
+			fromSuggestion = suggestion;
+		}
+		else
+		{
+			toSuggestion = suggestion;
+		}
+
+		if (fromSuggestion != null || toSuggestion != null)
+		{
+			String message = (fromSuggestion != null) ? "From: did you mean \"" + fromSuggestion + "\"?" : "To: did you mean \"" + toSuggestion + "\"?";
+			view.showStatus(message, JOptionPane.WARNING_MESSAGE);
+			suggestionShown = true;
+		}
+		else if (suggestionShown)
+		{
+			view.showStatus("", JOptionPane.INFORMATION_MESSAGE);
+			suggestionShown = false;
+		}
+	}
+
+	/**
+	* This method attaches the DuplicateSubmissionFilter that every valid itinerary is checked against once it has been
+	* submitted.  Passing null switches the check off.
+	*/
+	public void setDuplicateFilter(DuplicateSubmissionFilter duplicateFilter)
+	{
+		this.duplicateFilter = duplicateFilter;
 	}
 
 	/*
@@ -92,6 +359,14 @@ public class MainController
 		view.getReturnSettingDropDown().setModel(tcbm.getPreferredTimes());
 
 		view.getPassengerDropDown().setModel(tcbm.getPassengerValues());
+
+		JComboBox[] comboBoxes = new JComboBox[]{view.getDepartureMonthDropDown(), view.getDepartureDayDropDown(),
+			view.getDepartureYearDropDown(), view.getDepartureSettingDropDown(), view.getReturnMonthDropDown(),
+			view.getReturnDayDropDown(), view.getReturnYearDropDown(), view.getReturnSettingDropDown(), view.getPassengerDropDown()};
+		for (int i = 0; i < comboBoxes.length; i++)
+		{
+			TypeAheadComboBoxModel.setPrototype(comboBoxes[i], TypeAheadComboBoxModel.longestElement(comboBoxes[i].getModel()));
+		}
 	}
 
 	/*
@@ -170,6 +445,18 @@ public class MainController
 		private void addButtonListener(ActionListener buttonListener)
 		{
 			view.getSubmitButton().addActionListener(buttonListener);
+
+			view.getManifestButton().addActionListener(new ActionListener()
+			{
+				public void actionPerformed(ActionEvent evt)
+				{
+					if (manifestController == null)
+					{
+						manifestController = new PassengerManifestController(travelForm);
+					}
+					manifestController.show();
+				}
+			});
 		}
 
 	/*
@@ -233,6 +520,14 @@ public class MainController
 			{
             	travelForm.setFromLocation(docSource.getText());
         	}
+
+			if (recorder != null)
+			{
+				recorder.recordText(valueEntry, docSource.getText());
+			}
+			updateAvailability();
+			updateFareCalendar();
+			suggestCorrection(valueEntry, docSource.getText());
 		}
 
 	}
@@ -255,6 +550,13 @@ public class MainController
 			JComboBox activatedJComboBox = (JComboBox) evt.getSource();
 			String actionCommand = evt.getActionCommand();
 			updateModel(activatedJComboBox, actionCommand);
+
+			if (recorder != null)
+			{
+				recorder.recordSelection(actionCommand, activatedJComboBox.getSelectedIndex());
+			}
+			updateAvailability();
+			updateFareCalendar();
 		}
 
 		/*
@@ -323,15 +625,98 @@ public class MainController
 		public void actionPerformed(ActionEvent evt)
 		{
 			String errorMessage = "One or more fields contain invalid and/or default entries!\nPlease ensure all fields are populated with valid entries before submitting.";
-			boolean validForm = TravelFormModel.submit(travelForm);
+			boolean validForm;
+			if (ruleEngine != null)
+			{
+				java.util.List<ValidationRule> failures = ruleEngine.failures(travelForm);
+				validForm = failures.isEmpty();
+				if (!validForm)
+				{
+					StringBuilder reasons = new StringBuilder("The itinerary cannot be submitted:");
+					for (int i = 0; i < failures.size(); i++)
+					{
+						reasons.append("\n  - ").append(failures.get(i).describe(travelForm));
+					}
+					errorMessage = reasons.toString();
+				}
+			}
+			else
+			{
+				validForm = TravelFormModel.submit(travelForm);
+			}
 
-			if(validForm)
+			if (recorder != null)
+			{
+				recorder.recordSubmit();
+			}
+
+			//the fingerprint is only recorded once the itinerary has been accepted, so that an itinerary turned away by a full
+			//queue is not reported as a duplicate when it is submitted again.
+			long fingerprint = 0;
+			int submission = DuplicateSubmissionFilter.NEW_SUBMISSION;
+			if (validForm && duplicateFilter != null)
+			{
+				fingerprint = travelForm.fingerprint();
+				submission = duplicateFilter.lookup(fingerprint);
+			}
+
+			if(validForm && submission != DuplicateSubmissionFilter.NEW_SUBMISSION)
+			{
+				String warning = (submission == DuplicateSubmissionFilter.DUPLICATE) ? "This itinerary has already been submitted:\n" : "This itinerary has most likely already been submitted:\n";
+				report(warning + travelForm.toString(), "Duplicate Itinerary", JOptionPane.WARNING_MESSAGE);
+			}
+			else if(validForm && submissionQueue != null)
+			{
+				//the Event Dispatch Thread never waits for room, so a full queue is reported at once.
+				if (!submissionQueue.offer(Itinerary.of(travelForm, locationPool)))
+				{
+					report("The submission queue is full.  Please submit the itinerary again in a moment.", "Queue Full", JOptionPane.WARNING_MESSAGE);
+					return;
+				}
+				if (duplicateFilter != null)
+				{
+					duplicateFilter.add(fingerprint);
+				}
+				queuedCount++;
+				if (analytics != null)
+				{
+					analytics.record(travelForm);
+				}
+				String backlog = submissionQueue.isUnderPressure() ? " (" + submissionQueue.size() + " waiting)" : "";
+				view.showStatus("Itinerary " + queuedCount + " queued" + backlog + ": " + travelForm.getFromLocation().trim() + " to " + travelForm.getToLocation().trim()
+					+ ", departing " + travelForm.getDepartureDate(), backlog.isEmpty() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+				resetForm();
+			}
+			else if(validForm)
+			{
+				if (duplicateFilter != null)
+				{
+					duplicateFilter.add(fingerprint);
+				}
+				if (analytics != null)
+				{
+					analytics.record(travelForm);
+				}
+				view.showMessage(travelForm.toString(), "Confirmation Message", JOptionPane.INFORMATION_MESSAGE);
+			}
+			else
+			{
+				report(errorMessage, "Error Message", JOptionPane.ERROR_MESSAGE);
+			}
+		}
+
+		/*
+		* Shows the message within a dialog, or on a single line of the status strip in the rapid entry mode.
+		*/
+		private void report(String message, String title, int messageType)
+		{
+			if (submissionQueue != null)
 			{
-				confirmationDialog.showMessageDialog(view, travelForm.toString(), "Confirmation Message", JOptionPane.INFORMATION_MESSAGE);
+				view.showStatus(message.replace("\n  - ", " ").replace('\n', ' '), messageType);
 			}
 			else
 			{
-				confirmationDialog.showMessageDialog(view, errorMessage, "Error Message", JOptionPane.ERROR_MESSAGE);
+				view.showMessage(message, title, messageType);
 			}
 		}
 	}
@@ -0,0 +1,305 @@
+package travel;
+
+import java.io.*;
+import java.util.*;
+import javax.swing.*;
+
+/**
+ * Measures the memory held by the model classes and the memory allocated by each kind of user interaction.
+ *
+ * <PRE>
+ * Filename:         MemoryDiagnostics.java
+ *
+ * Description:      Two kinds of figures are measured:
+ *
+ *		         retained    the growth of the used heap, after garbage collection, when a number of instances is
+ *		                     created and kept reachable, divided by the number of instances.
+ *		         allocated   the bytes allocated by the current thread (see AllocationCounter) while an instance is
+ *		                     created or an interaction is handled, averaged over the samples.
+ *
+ *		     The retained size is measured for an Itinerary, a filled TravelFormModel, an open form (the model,
+ *		     its TravelComboBoxModel, a HeadlessItineraryView and the MainController listening to it), a
+ *		     TravelComboBoxModel and the DefaultComboBoxModels that a view takes from it.  The allocation is also
+ *		     measured for typing into a Text Field, selecting within a Combo Box and submitting the form.
+ *
+ *		     Shared values such as the location Strings of the itineraries are created before the measurement,
+ *		     so only the memory owned by each instance is counted.  Everything runs on the Event Dispatch Thread
+ *		     with java.awt.headless set.  The report holds one "name value unit" line per figure, always in the
+ *		     same order, so that the reports of two releases (on the same JVM and heap settings) can be compared
+ *		     with diff.
+ *
+ *		     Usage:  java travel.MemoryDiagnostics [reportFile] [samples]
+ *		             java travel.TravelForm -diagnostics [reportFile]
+ *
+ * Composition objects: ItineraryWorkloadGenerator.java, HeadlessItineraryView.java, MainController.java, AllocationCounter.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class MemoryDiagnostics
+{
+	//The number of instances kept for measuring a retained size, and of events for measuring an allocation.
+	public final static int DEFAULT_SAMPLES = 20000;
+
+	//Open forms hold Swing Components, so no more than this many of them are created.
+	private final static int OPEN_FORM_SAMPLES = 500;
+
+	//The number of collections in a row which must free nothing before the used heap is measured.
+	private final static int SETTLED_COLLECTIONS = 4;
+
+	//Reported in place of an allocation which the JVM is not able to measure.
+	private final static String UNSUPPORTED = "unsupported";
+
+	private int samples;
+	private ArrayList<String[]> figures = new ArrayList<String[]>();
+
+	/*
+	* Creates one of the instances that a retained size is measured for.
+	*/
+	private interface Sample
+	{
+		public Object create(int i);
+	}
+
+	public MemoryDiagnostics(int samples)
+	{
+		this.samples = Math.max(1, samples);
+	}
+
+	/**
+	* Measures every figure.  This method must be called on the Event Dispatch Thread.
+	*/
+	public void run()
+	{
+		figures.clear();
+		Runtime runtime = Runtime.getRuntime();
+		this.add("jvm.name", System.getProperty("java.vm.name") + " " + System.getProperty("java.version"), "");
+		this.add("jvm.maxHeap", Long.toString(runtime.maxMemory()), "bytes");
+		this.add("samples", Integer.toString(samples), "");
+
+		//the shared inputs, created before any measurement.
+		ItineraryWorkloadGenerator generator = new ItineraryWorkloadGenerator(1);
+		generator.setInvalidShare(0);
+		final List<TravelFormModel> forms = generator.generate(samples);
+		final LocationPool pool = new LocationPool();
+		for (int i = 0; i < ItineraryWorkloadGenerator.DEFAULT_LOCATIONS.length; i++)
+			pool.intern(ItineraryWorkloadGenerator.DEFAULT_LOCATIONS[i]);
+		final TravelComboBoxModel comboBoxModel = new TravelComboBoxModel();
+		final ItineraryWorkloadGenerator filler = new ItineraryWorkloadGenerator(2);
+
+		this.measureRetained("itinerary", samples, new Sample()
+		{
+			public Object create(int i)
+			{
+				return Itinerary.of(forms.get(i), pool);
+			}
+		});
+		this.measureRetained("travelFormModel", samples, new Sample()
+		{
+			public Object create(int i)
+			{
+				TravelFormModel travelForm = new TravelFormModel();
+				filler.next(travelForm);
+				return travelForm;
+			}
+		});
+		this.measureRetained("openForm", Math.min(samples, OPEN_FORM_SAMPLES), new Sample()
+		{
+			public Object create(int i)
+			{
+				return new MainController(new TravelFormModel(), new HeadlessItineraryView(), new TravelComboBoxModel());
+			}
+		});
+		this.measureRetained("travelComboBoxModel", samples, new Sample()
+		{
+			public Object create(int i)
+			{
+				return new TravelComboBoxModel();
+			}
+		});
+		this.measureRetained("travelComboBoxModel.installed", samples, new Sample()
+		{
+			public Object create(int i)
+			{
+				return new Object[]{comboBoxModel.getMonthValues(), comboBoxModel.getDayValues(), comboBoxModel.getYearValues(),
+					comboBoxModel.getPreferredTimes(), comboBoxModel.getPassengerValues()};
+			}
+		});
+
+		this.measureInteractions(forms);
+	}
+
+	/*
+	* Keeps the given number of instances reachable and records the retained and allocated bytes of each.
+	*/
+	private void measureRetained(String name, int count, Sample sample)
+	{
+		//a few instances are created first, so that class loading and static tables are not counted.
+		for (int i = 0; i < Math.min(count, 100); i++)
+			sample.create(i);
+
+		Object[] instances = new Object[count];
+		long before = usedHeap();
+		long startBytes = AllocationCounter.currentThreadAllocatedBytes();
+		for (int i = 0; i < count; i++)
+			instances[i] = sample.create(i);
+		long allocated = AllocationCounter.currentThreadAllocatedBytes() - startBytes;
+		long after = usedHeap();
+
+		this.add("retained." + name, Long.toString(Math.max(0, after - before) / count), "bytes/instance");
+		this.add("allocated." + name, AllocationCounter.isSupported() ? Long.toString(allocated / count) : UNSUPPORTED, "bytes/instance");
+
+		//the instances must stay reachable until the heap has been measured.
+		if (instances[count - 1] == null)
+			throw new IllegalStateException(name + " was not created");
+	}
+
+	/*
+	* Returns the number of bytes in use once garbage collection has settled.  A full collection may leave some garbage in
+	* place rather than move the live objects around it (e.g. the serial collector only compacts completely every fourth
+	* time), so collection has only settled once several collections in a row have freed nothing.
+	*/
+	private static long usedHeap()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		long used = Long.MAX_VALUE;
+		int unchanged = 0;
+		for (int i = 0; i < 16 && unchanged < SETTLED_COLLECTIONS; i++)
+		{
+			System.gc();
+			try
+			{
+				Thread.sleep(10);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			long now = runtime.totalMemory() - runtime.freeMemory();
+			if (now < used)
+			{
+				used = now;
+				unchanged = 0;
+			}
+			else
+			{
+				unchanged++;
+			}
+		}
+		return used;
+	}
+
+	/*
+	* Drives an open form with typing, selections and submits, and records the bytes allocated by each.
+	*/
+	private void measureInteractions(List<TravelFormModel> forms)
+	{
+		HeadlessItineraryView view = new HeadlessItineraryView();
+		new MainController(new TravelFormModel(), view, new TravelComboBoxModel());
+		JTextField fromField = view.getFromLocationTextField();
+		JComboBox monthBox = view.getDepartureMonthDropDown();
+		JButton submitButton = view.getSubmitButton();
+
+		//a valid form is submitted, so that the submit measures the whole validation.
+		TravelFormModel valid = forms.get(0);
+		view.getToLocationTextField().setText(valid.getToLocation());
+		monthBox.setSelectedItem(valid.getDepartureDate().getMonth());
+		view.getDepartureDayDropDown().setSelectedItem(valid.getDepartureDate().getDay());
+		view.getDepartureYearDropDown().setSelectedIndex(1);
+		view.getReturnMonthDropDown().setSelectedItem(valid.getReturnDate().getMonth());
+		view.getReturnDayDropDown().setSelectedItem(valid.getReturnDate().getDay());
+		view.getReturnYearDropDown().setSelectedIndex(1);
+
+		int events = samples;
+		long[] bytes = new long[3];
+		for (int pass = 0; pass < 2; pass++)
+		{
+			//the first pass warms up the listeners and is not recorded.
+			Arrays.fill(bytes, 0);
+			for (int i = 0; i < events; i++)
+			{
+				long start = AllocationCounter.currentThreadAllocatedBytes();
+				fromField.setText(forms.get(i).getFromLocation());
+				long typed = AllocationCounter.currentThreadAllocatedBytes();
+				monthBox.setSelectedIndex(1 + i % 12);
+				long selected = AllocationCounter.currentThreadAllocatedBytes();
+				submitButton.doClick(0);
+				long submitted = AllocationCounter.currentThreadAllocatedBytes();
+
+				bytes[0] += typed - start;
+				bytes[1] += selected - typed;
+				bytes[2] += submitted - selected;
+			}
+		}
+
+		String[] names = new String[]{"interaction.text", "interaction.selection", "interaction.submit"};
+		for (int i = 0; i < names.length; i++)
+			this.add(names[i], AllocationCounter.isSupported() ? Long.toString(bytes[i] / events) : UNSUPPORTED, "bytes/event");
+	}
+
+	private void add(String name, String value, String unit)
+	{
+		figures.add(new String[]{name, value, unit});
+	}
+
+	/**
+	* Prints the figures measured by the last run(), one per line.
+	*/
+	public void report(PrintStream out)
+	{
+		out.println("# Travel form memory diagnostics");
+		for (int i = 0; i < figures.size(); i++)
+		{
+			String[] figure = figures.get(i);
+			out.println(String.format("%-40s %-16s %s", figure[0], figure[1], figure[2]).trim());
+		}
+	}
+
+	/**
+	* Measures the figures on the Event Dispatch Thread and prints the report to the file, or to the standard output when
+	* no file is given.
+	*/
+	public static void run(File reportFile, int samples) throws Exception
+	{
+		System.setProperty("java.awt.headless", "true");
+		final MemoryDiagnostics diagnostics = new MemoryDiagnostics(samples);
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public void run()
+			{
+				diagnostics.run();
+			}
+		});
+
+		if (reportFile == null)
+		{
+			diagnostics.report(System.out);
+			return;
+		}
+		PrintStream out = new PrintStream(new FileOutputStream(reportFile), false, "UTF-8");
+		try
+		{
+			diagnostics.report(out);
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+
+	public static void main(String[] args) throws Exception
+	{
+		File reportFile = (args.length > 0 && !args[0].equals("-")) ? new File(args[0]) : null;
+		int samples = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_SAMPLES;
+		run(reportFile, samples);
+		System.exit(0);
+	}
+}
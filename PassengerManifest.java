@@ -0,0 +1,332 @@
+package travel;
+
+import java.util.*;
+
+/**
+ * Holds the details of every traveller of a group booking.
+ *
+ * <PRE>
+ * Filename:         PassengerManifest.java
+ *
+ * Description:      Group bookings can hold hundreds or thousands of travellers, well beyond the MAX_PASSENGERS offered by
+ *		     the Passenger Combo Box.  Rather than one object per traveller, the details are stored column by column
+ *		     within parallel arrays (last names, first names, birth dates as yyyymmdd integers, travel document
+ *		     numbers and a validation status byte), which grow by doubling.  This keeps the manifest compact and lets
+ *		     the PassengerManifestTableModel read any cell by position.
+ *
+ *		     Travellers are added already validated: parseLine() splits a pasted or imported line into its fields
+ *		     and validate() determines its status, so that bulk imports can validate on a background thread and
+ *		     only append the results on the Event Dispatch Thread.  The reason a traveller is invalid is not stored
+ *		     but worked out again by getProblem() when it is asked for.
+ *
+ * Aggregated By:	 TravelFormModel.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class PassengerManifest
+{
+	//These are the validation states of a traveller.
+	public final static byte VALID = 0;
+	public final static byte INVALID = 1;
+
+	private final static int[] DAYS_IN_MONTH = new int[]{31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+	private static int today;
+	private static long todayExpiry;
+
+	private String[] lastNames;
+	private String[] firstNames;
+	private int[] birthDates;
+	private String[] documentNumbers;
+	private byte[] statuses;
+	private int size;
+	private int invalidCount;
+
+	/*
+	* The constructor allocates room for the expected number of travellers.
+	*/
+	public PassengerManifest(int expectedSize)
+	{
+		int capacity = Math.max(16, expectedSize);
+		lastNames = new String[capacity];
+		firstNames = new String[capacity];
+		birthDates = new int[capacity];
+		documentNumbers = new String[capacity];
+		statuses = new byte[capacity];
+	}
+
+	/**
+	* Adds a traveller to the end of the manifest and returns its position.  The birth date is an integer of the form
+	* yyyymmdd, or 0 if it is not known.
+	*/
+	public int add(String lastName, String firstName, int birthDate, String documentNumber)
+	{
+		if (size == lastNames.length)
+			this.grow(size * 2);
+
+		lastNames[size] = lastName;
+		firstNames[size] = firstName;
+		birthDates[size] = birthDate;
+		documentNumbers[size] = documentNumber;
+		statuses[size] = (validate(lastName, firstName, birthDate, documentNumber) == null) ? VALID : INVALID;
+		if (statuses[size] == INVALID)
+			invalidCount++;
+		return size++;
+	}
+
+	/**
+	* Appends every traveller of the other manifest, keeping the statuses it has already worked out.
+	*/
+	public void addAll(PassengerManifest other)
+	{
+		if (size + other.size > lastNames.length)
+			this.grow(Math.max(size + other.size, size * 2));
+
+		System.arraycopy(other.lastNames, 0, lastNames, size, other.size);
+		System.arraycopy(other.firstNames, 0, firstNames, size, other.size);
+		System.arraycopy(other.birthDates, 0, birthDates, size, other.size);
+		System.arraycopy(other.documentNumbers, 0, documentNumbers, size, other.size);
+		System.arraycopy(other.statuses, 0, statuses, size, other.size);
+		size += other.size;
+		invalidCount += other.invalidCount;
+	}
+
+	/**
+	* Replaces the details of the traveller at the given position and validates them again.
+	*/
+	public void set(int row, String lastName, String firstName, int birthDate, String documentNumber)
+	{
+		this.checkRow(row);
+		if (statuses[row] == INVALID)
+			invalidCount--;
+
+		lastNames[row] = lastName;
+		firstNames[row] = firstName;
+		birthDates[row] = birthDate;
+		documentNumbers[row] = documentNumber;
+		statuses[row] = (validate(lastName, firstName, birthDate, documentNumber) == null) ? VALID : INVALID;
+		if (statuses[row] == INVALID)
+			invalidCount++;
+	}
+
+	/**
+	* Removes every traveller, keeping the allocated arrays for reuse.
+	*/
+	public void clear()
+	{
+		Arrays.fill(lastNames, 0, size, null);
+		Arrays.fill(firstNames, 0, size, null);
+		Arrays.fill(documentNumbers, 0, size, null);
+		size = 0;
+		invalidCount = 0;
+	}
+
+	/*
+	* Copies the columns into arrays of the new capacity.
+	*/
+	private void grow(int capacity)
+	{
+		lastNames = Arrays.copyOf(lastNames, capacity);
+		firstNames = Arrays.copyOf(firstNames, capacity);
+		birthDates = Arrays.copyOf(birthDates, capacity);
+		documentNumbers = Arrays.copyOf(documentNumbers, capacity);
+		statuses = Arrays.copyOf(statuses, capacity);
+	}
+
+	private void checkRow(int row)
+	{
+		if (row < 0 || row >= size)
+			throw new IndexOutOfBoundsException("No such traveller: " + row);
+	}
+
+	/**
+	* Returns the number of travellers.
+	*/
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	* Returns the number of travellers whose details are invalid.
+	*/
+	public int getInvalidCount()
+	{
+		return invalidCount;
+	}
+
+	public String getLastName(int row)
+	{
+		this.checkRow(row);
+		return lastNames[row];
+	}
+
+	public String getFirstName(int row)
+	{
+		this.checkRow(row);
+		return firstNames[row];
+	}
+
+	/**
+	* Returns the birth date as an integer of the form yyyymmdd, or 0 if it is not known.
+	*/
+	public int getBirthDate(int row)
+	{
+		this.checkRow(row);
+		return birthDates[row];
+	}
+
+	public String getDocumentNumber(int row)
+	{
+		this.checkRow(row);
+		return documentNumbers[row];
+	}
+
+	public byte getStatus(int row)
+	{
+		this.checkRow(row);
+		return statuses[row];
+	}
+
+	/**
+	* Returns the reason the traveller at the given position is invalid, or null if it is valid.
+	*/
+	public String getProblem(int row)
+	{
+		this.checkRow(row);
+		return validate(lastNames[row], firstNames[row], birthDates[row], documentNumbers[row]);
+	}
+
+	/**
+	* Returns the reason the details of a traveller are invalid, or null if they are valid.  As per the business rules, both
+	* names are required and may only contain letters, spaces, hyphens and apostrophes; the birth date is optional but must be
+	* a real date which is not in the future; the travel document number is optional but must be 5 to 20 letters or digits.
+	*/
+	public static String validate(String lastName, String firstName, int birthDate, String documentNumber)
+	{
+		if (!isName(lastName))
+			return "The last name is missing or contains invalid characters.";
+		if (!isName(firstName))
+			return "The first name is missing or contains invalid characters.";
+		if (birthDate != 0 && !isPastDate(birthDate))
+			return "The birth date is not a valid date in the past.";
+		if (documentNumber != null && !documentNumber.isEmpty() && !isDocumentNumber(documentNumber))
+			return "The travel document number must be 5 to 20 letters or digits.";
+		return null;
+	}
+
+	private static boolean isName(String name)
+	{
+		if (name == null || name.trim().isEmpty())
+			return false;
+		for (int i = 0; i < name.length(); i++)
+		{
+			char c = name.charAt(i);
+			if (!Character.isLetter(c) && c != ' ' && c != '-' && c != '\'')
+				return false;
+		}
+		return true;
+	}
+
+	/*
+	* Checks the date arithmetically rather than through a Calendar, since bulk imports validate thousands of dates.
+	*/
+	private static boolean isPastDate(int birthDate)
+	{
+		int year = birthDate / 10000;
+		int month = (birthDate / 100) % 100;
+		int day = birthDate % 100;
+		if (year < 1850 || month < 1 || month > 12 || day < 1)
+			return false;
+
+		boolean leapYear = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+		int daysInMonth = (month == 2) ? (leapYear ? 29 : 28) : DAYS_IN_MONTH[month - 1];
+		return day <= daysInMonth && birthDate < today();
+	}
+
+	/*
+	* Returns the current date as a yyyymmdd integer, looking it up again at most once a minute.
+	*/
+	private static synchronized int today()
+	{
+		long now = System.currentTimeMillis();
+		if (now >= todayExpiry)
+		{
+			Calendar calendar = Calendar.getInstance();
+			today = calendar.get(Calendar.YEAR) * 10000 + (calendar.get(Calendar.MONTH) + 1) * 100 + calendar.get(Calendar.DAY_OF_MONTH);
+			todayExpiry = now + 60000;
+		}
+		return today;
+	}
+
+	private static boolean isDocumentNumber(String documentNumber)
+	{
+		if (documentNumber.length() < 5 || documentNumber.length() > 20)
+			return false;
+		for (int i = 0; i < documentNumber.length(); i++)
+		{
+			if (!Character.isLetterOrDigit(documentNumber.charAt(i)))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	* Splits a pasted or imported line of the form "last, first, yyyy-mm-dd, document" (the fields may also be separated by
+	* tabs, as when pasted from a spreadsheet) and adds the traveller.  Only the names are required.  Returns false if the line
+	* is blank and nothing was added.
+	*/
+	public boolean addLine(String line)
+	{
+		if (line.trim().isEmpty())
+			return false;
+
+		String[] fields = line.split(line.indexOf('\t') >= 0 ? "\t" : ",", -1);
+		String lastName = fields[0].trim();
+		String firstName = fields.length > 1 ? fields[1].trim() : "";
+		String birth = fields.length > 2 ? fields[2].trim() : "";
+		String documentNumber = fields.length > 3 ? fields[3].trim() : "";
+		this.add(lastName, firstName, parseBirthDate(birth), documentNumber);
+		return true;
+	}
+
+	/**
+	* Turns a yyyy-mm-dd date into a yyyymmdd integer.  Blank dates become 0 and malformed dates become -1, which validate()
+	* rejects.
+	*/
+	public static int parseBirthDate(String birth)
+	{
+		if (birth.isEmpty())
+			return 0;
+		if (birth.length() != 10 || birth.charAt(4) != '-' || birth.charAt(7) != '-')
+			return -1;
+		try
+		{
+			return Integer.parseInt(birth.substring(0, 4)) * 10000 + Integer.parseInt(birth.substring(5, 7)) * 100 + Integer.parseInt(birth.substring(8, 10));
+		}
+		catch (NumberFormatException e)
+		{
+			return -1;
+		}
+	}
+
+	/**
+	* Formats a yyyymmdd birth date as yyyy-mm-dd, or an empty string if it is not known.
+	*/
+	public static String formatBirthDate(int birthDate)
+	{
+		if (birthDate == 0)
+			return "";
+		if (birthDate < 0)
+			return "?";
+		return String.format("%04d-%02d-%02d", birthDate / 10000, (birthDate / 100) % 100, birthDate % 100);
+	}
+}
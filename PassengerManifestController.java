@@ -0,0 +1,281 @@
+package travel;
+
+import java.io.*;
+import java.awt.*;
+import java.awt.datatransfer.*;
+import java.awt.event.*;
+import javax.swing.*;
+
+/**
+ * This class acts as the controller of the PassengerManifestView.
+ *
+ * <PRE>
+ * Filename:         PassengerManifestController.java
+ *
+ * Description:      Pasting or importing thousands of travellers must not freeze the view, so the lines are read, split and
+ *		     validated by an ImportWorker on a background thread.  The worker fills a small PassengerManifest of
+ *		     IMPORT_CHUNK_SIZE travellers at a time and publishes it to the Event Dispatch Thread, where it is
+ *		     appended to the manifest of the TravelFormModel and the table is told about the new rows only.  The
+ *		     operator can therefore scroll and read the first travellers while the rest are still being imported.
+ *		     Only one import runs at a time.
+ *
+ * Aggregate Objects:TravelFormModel.java, PassengerManifestView.java, PassengerManifestTableModel.java
+ *
+ * Inner classes:    ImportWorker
+ *
+ * Instantiated By:  MainController.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class PassengerManifestController
+{
+	//The number of travellers validated in the background before they are handed to the view.
+	private final static int IMPORT_CHUNK_SIZE = 500;
+
+	private TravelFormModel travelForm;
+	private PassengerManifestTableModel tableModel;
+	private PassengerManifestView view;
+	private ImportWorker importWorker;
+
+	/**
+	* This constructor attaches a manifest to the TravelFormModel if it does not have one yet and creates its view.
+	*/
+	public PassengerManifestController(TravelFormModel travelForm)
+	{
+		this.travelForm = travelForm;
+		if (travelForm.getPassengerManifest() == null)
+		{
+			travelForm.setPassengerManifest(new PassengerManifest(IMPORT_CHUNK_SIZE));
+		}
+		tableModel = new PassengerManifestTableModel(travelForm.getPassengerManifest());
+		view = new PassengerManifestView(tableModel);
+		this.assignListeners();
+		this.updateStatus(null);
+	}
+
+	/**
+	* Displays the travellers of the manifest again after it was changed outside of this controller (e.g. by
+	* TravelFormModel.reset()).
+	*/
+	public void refresh()
+	{
+		tableModel.fireTableDataChanged();
+		this.updateStatus(null);
+	}
+
+	/**
+	* Displays the manifest window.
+	*/
+	public void show()
+	{
+		view.setVisible(true);
+		view.toFront();
+	}
+
+	/*
+	* This private method assigns the listeners of the Paste, Import and Clear buttons.
+	*/
+	private void assignListeners()
+	{
+		view.getPasteButton().addActionListener(new ActionListener()
+		{
+			public void actionPerformed(ActionEvent evt)
+			{
+				pasteFromClipboard();
+			}
+		});
+		view.getImportButton().addActionListener(new ActionListener()
+		{
+			public void actionPerformed(ActionEvent evt)
+			{
+				importFromFile();
+			}
+		});
+		view.getClearButton().addActionListener(new ActionListener()
+		{
+			public void actionPerformed(ActionEvent evt)
+			{
+				if (importWorker == null)
+				{
+					tableModel.getManifest().clear();
+					tableModel.fireTableDataChanged();
+					updateStatus(null);
+				}
+			}
+		});
+	}
+
+	/*
+	* Imports the text held by the clipboard.
+	*/
+	private void pasteFromClipboard()
+	{
+		try
+		{
+			Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+			String text = (String) clipboard.getData(DataFlavor.stringFlavor);
+			this.startImport(new StringReader(text));
+		}
+		catch (UnsupportedFlavorException e)
+		{
+			this.updateStatus("The clipboard does not hold any text.");
+		}
+		catch (IOException e)
+		{
+			this.updateStatus("Unable to read the clipboard: " + e.getMessage());
+		}
+	}
+
+	/*
+	* Asks the operator for a file and imports it.
+	*/
+	private void importFromFile()
+	{
+		JFileChooser chooser = new JFileChooser();
+		if (chooser.showOpenDialog(view) != JFileChooser.APPROVE_OPTION)
+			return;
+		try
+		{
+			this.startImport(new InputStreamReader(new FileInputStream(chooser.getSelectedFile()), "UTF-8"));
+		}
+		catch (IOException e)
+		{
+			this.updateStatus("Unable to open " + chooser.getSelectedFile() + ": " + e.getMessage());
+		}
+	}
+
+	/*
+	* Starts an ImportWorker unless one is already running.
+	*/
+	private void startImport(Reader reader)
+	{
+		if (importWorker != null)
+		{
+			this.updateStatus("An import is already running.");
+			return;
+		}
+		view.getPasteButton().setEnabled(false);
+		view.getImportButton().setEnabled(false);
+		view.getClearButton().setEnabled(false);
+		importWorker = new ImportWorker(reader);
+		importWorker.execute();
+	}
+
+	/*
+	* Shows the number of travellers, the number of invalid ones and an optional message in the status label.
+	*/
+	private void updateStatus(String message)
+	{
+		PassengerManifest manifest = tableModel.getManifest();
+		String status = manifest.size() + " travellers, " + manifest.getInvalidCount() + " invalid";
+		view.getStatusLabel().setText(message == null ? status : status + ".  " + message);
+	}
+
+	/*
+	*  This inner class reads and validates the travellers in the background, handing them to the view chunk by chunk.
+	*  Chunks may still be waiting to be processed when done() is called, so the import only finishes once both
+	*  the total is known and every chunk has been appended.
+	*/
+	private class ImportWorker extends SwingWorker<Integer, PassengerManifest>
+	{
+		private Reader reader;
+		private int processed;
+		private int total = -1;
+
+		public ImportWorker(Reader reader)
+		{
+			this.reader = reader;
+		}
+
+		/**
+		* Reads the lines on the background thread.  Returns the number of travellers read.
+		*/
+		protected Integer doInBackground() throws IOException
+		{
+			BufferedReader in = new BufferedReader(reader);
+			int count = 0;
+			try
+			{
+				PassengerManifest chunk = new PassengerManifest(IMPORT_CHUNK_SIZE);
+				String line;
+				while ((line = in.readLine()) != null)
+				{
+					if (chunk.addLine(line))
+						count++;
+					if (chunk.size() == IMPORT_CHUNK_SIZE)
+					{
+						publish(chunk);
+						chunk = new PassengerManifest(IMPORT_CHUNK_SIZE);
+					}
+				}
+				if (chunk.size() > 0)
+					publish(chunk);
+			}
+			finally
+			{
+				in.close();
+			}
+			return count;
+		}
+
+		/**
+		* Appends the validated chunks to the manifest on the Event Dispatch Thread.
+		*/
+		protected void process(java.util.List<PassengerManifest> chunks)
+		{
+			PassengerManifest manifest = tableModel.getManifest();
+			int firstRow = manifest.size();
+			for (int i = 0; i < chunks.size(); i++)
+			{
+				manifest.addAll(chunks.get(i));
+				processed += chunks.get(i).size();
+			}
+			if (manifest.size() > firstRow)
+				tableModel.fireTableRowsInserted(firstRow, manifest.size() - 1);
+
+			if (processed == total)
+				this.finish("Imported " + total + " travellers.");
+			else
+				updateStatus("Importing...");
+		}
+
+		/**
+		* Records the outcome of the import once the background thread has finished.
+		*/
+		protected void done()
+		{
+			try
+			{
+				total = get();
+				if (processed == total)
+					this.finish("Imported " + total + " travellers.");
+			}
+			catch (Exception e)
+			{
+				Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+				this.finish("The import failed after " + processed + " travellers: " + cause.getMessage());
+			}
+		}
+
+		/*
+		* Enables the buttons again so that another import may be started.
+		*/
+		private void finish(String message)
+		{
+			importWorker = null;
+			view.getPasteButton().setEnabled(true);
+			view.getImportButton().setEnabled(true);
+			view.getClearButton().setEnabled(true);
+			updateStatus(message);
+		}
+	}
+}
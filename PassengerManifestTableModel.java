@@ -0,0 +1,113 @@
+package travel;
+
+import javax.swing.table.*;
+
+/**
+ * Presents a PassengerManifest within a JTable.
+ *
+ * <PRE>
+ * Filename:         PassengerManifestTableModel.java
+ *
+ * Description:      The JTable only asks its model for the cells of the rows which are visible within the scroll pane, so
+ *		     this model reads each cell straight from the columns of the manifest instead of keeping a copy of its
+ *		     rows.  Birth dates are formatted and statuses described only when their cell is painted.  Editing a
+ *		     cell replaces the details of the traveller, which validates them again.
+ *
+ * Aggregation Of:	 PassengerManifestController.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class PassengerManifestTableModel extends AbstractTableModel
+{
+	public final static int ROW_NUMBER_COLUMN = 0;
+	public final static int LAST_NAME_COLUMN = 1;
+	public final static int FIRST_NAME_COLUMN = 2;
+	public final static int BIRTH_DATE_COLUMN = 3;
+	public final static int DOCUMENT_COLUMN = 4;
+	public final static int STATUS_COLUMN = 5;
+
+	private final static String[] COLUMN_NAMES = new String[]{"#", "Last Name", "First Name", "Birth Date", "Document", "Status"};
+
+	private PassengerManifest manifest;
+
+	public PassengerManifestTableModel(PassengerManifest manifest)
+	{
+		this.manifest = manifest;
+	}
+
+	/**
+	* Returns the manifest presented by this model.
+	*/
+	public PassengerManifest getManifest()
+	{
+		return manifest;
+	}
+
+	public int getRowCount()
+	{
+		return manifest.size();
+	}
+
+	public int getColumnCount()
+	{
+		return COLUMN_NAMES.length;
+	}
+
+	public String getColumnName(int column)
+	{
+		return COLUMN_NAMES[column];
+	}
+
+	public Object getValueAt(int row, int column)
+	{
+		switch (column)
+		{
+			case ROW_NUMBER_COLUMN: return String.valueOf(row + 1);
+			case LAST_NAME_COLUMN:  return manifest.getLastName(row);
+			case FIRST_NAME_COLUMN: return manifest.getFirstName(row);
+			case BIRTH_DATE_COLUMN: return PassengerManifest.formatBirthDate(manifest.getBirthDate(row));
+			case DOCUMENT_COLUMN:   return manifest.getDocumentNumber(row);
+			case STATUS_COLUMN:     return (manifest.getStatus(row) == PassengerManifest.VALID) ? "OK" : manifest.getProblem(row);
+			default:
+				throw new IllegalArgumentException("No such column exist: " + column);
+		}
+	}
+
+	public boolean isCellEditable(int row, int column)
+	{
+		return column != ROW_NUMBER_COLUMN && column != STATUS_COLUMN;
+	}
+
+	/**
+	* Replaces one detail of the traveller and validates the traveller again.
+	*/
+	public void setValueAt(Object value, int row, int column)
+	{
+		String text = (value == null) ? "" : value.toString().trim();
+		String lastName = manifest.getLastName(row);
+		String firstName = manifest.getFirstName(row);
+		String birth = PassengerManifest.formatBirthDate(manifest.getBirthDate(row));
+		String documentNumber = manifest.getDocumentNumber(row);
+
+		if (column == LAST_NAME_COLUMN)
+			lastName = text;
+		else if (column == FIRST_NAME_COLUMN)
+			firstName = text;
+		else if (column == BIRTH_DATE_COLUMN)
+			birth = text;
+		else if (column == DOCUMENT_COLUMN)
+			documentNumber = text;
+
+		manifest.set(row, lastName, firstName, PassengerManifest.parseBirthDate(birth), documentNumber);
+		fireTableRowsUpdated(row, row);
+	}
+}
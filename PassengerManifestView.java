@@ -0,0 +1,111 @@
+package travel;
+
+import java.awt.*;
+import javax.swing.*;
+
+/**
+ * This class represents the View of the PassengerManifest of a group booking.
+ *
+ * <PRE>
+ * Filename:         PassengerManifestView.java
+ *
+ * Description:      The travellers are displayed within a JTable inside a scroll pane.  Every row has the same fixed height
+ *		     and the columns are not sorted, so the table only lays out and paints the rows which are visible, no
+ *		     matter how many travellers the manifest holds.  The buttons allow the operator to paste travellers
+ *		     from the clipboard or import them from a file, and the status label reports the progress of an import
+ *		     and the number of invalid travellers.  As with the TravelItineraryView, the listeners are registered
+ *		     by the controller.
+ *
+ * Instantiated By:  PassengerManifestController.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class PassengerManifestView extends JFrame
+{
+	private JTable manifestTable;
+	private JButton pasteButton;
+	private JButton importButton;
+	private JButton clearButton;
+	private JLabel statusLabel;
+
+	/** Creates the manifest window for the given table model */
+	public PassengerManifestView(PassengerManifestTableModel tableModel)
+	{
+		setDefaultCloseOperation(WindowConstants.HIDE_ON_CLOSE);
+		setTitle("Passenger Manifest");
+
+		manifestTable = new JTable(tableModel);
+		manifestTable.setRowHeight(manifestTable.getFontMetrics(manifestTable.getFont()).getHeight() + 4);
+		manifestTable.setFillsViewportHeight(true);
+		manifestTable.setAutoCreateRowSorter(false);
+		manifestTable.getColumnModel().getColumn(PassengerManifestTableModel.ROW_NUMBER_COLUMN).setPreferredWidth(50);
+		manifestTable.getColumnModel().getColumn(PassengerManifestTableModel.STATUS_COLUMN).setPreferredWidth(300);
+
+		pasteButton = new JButton("Paste");
+		importButton = new JButton("Import...");
+		clearButton = new JButton("Clear");
+		statusLabel = new JLabel(" ");
+
+		JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		buttonPanel.add(pasteButton);
+		buttonPanel.add(importButton);
+		buttonPanel.add(clearButton);
+
+		getContentPane().setLayout(new BorderLayout());
+		getContentPane().add(buttonPanel, BorderLayout.NORTH);
+		getContentPane().add(new JScrollPane(manifestTable), BorderLayout.CENTER);
+		getContentPane().add(statusLabel, BorderLayout.SOUTH);
+
+		setSize(800, 500);
+		setLocationRelativeTo(null);
+	}
+
+	/**
+	* This method returns the JTable displaying the travellers to the Controller.
+	*/
+	public JTable getManifestTable()
+	{
+		return manifestTable;
+	}
+
+	/**
+	* This method returns the Paste JButton Swing Component to the Controller.
+	*/
+	public JButton getPasteButton()
+	{
+		return pasteButton;
+	}
+
+	/**
+	* This method returns the Import JButton Swing Component to the Controller.
+	*/
+	public JButton getImportButton()
+	{
+		return importButton;
+	}
+
+	/**
+	* This method returns the Clear JButton Swing Component to the Controller.
+	*/
+	public JButton getClearButton()
+	{
+		return clearButton;
+	}
+
+	/**
+	* This method returns the status JLabel Swing Component to the Controller.
+	*/
+	public JLabel getStatusLabel()
+	{
+		return statusLabel;
+	}
+}
@@ -0,0 +1,690 @@
+package travel;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Finds the known place closest to a location typed by the user, tolerating a few typing mistakes.
+ *
+ * <PRE>
+ * Filename:         PlaceNameIndex.java
+ *
+ * Description:      The place names are normalized as by LocationPool.normalize() and split into trigrams, each name
+ *		     being padded with one sentinel character at either end so that a name of n characters has n trigrams.
+ *		     An inverted index maps each trigram to the sorted ids of the names containing it, with every posting
+ *		     list held within a single int array and the trigrams within an open addressing table.
+ *
+ *		     A lookup allows maxDistance() edits (insertions, deletions or substitutions): none for up to three
+ *		     characters, one for up to seven and MAX_DISTANCE beyond.  Since one edit changes at most three
+ *		     trigrams, a name within k edits of a query of n characters shares at least n - 3k of its trigrams, so
+ *		     the posting lists of the query are merged by counting the trigrams each name shares, skipping the
+ *		     names whose length differs by more than k.  Only the names reaching the count are verified, by an edit
+ *		     distance bounded by the best distance found so far which gives up as soon as a row of the distance
+ *		     matrix exceeds the bound.  Of the names at the smallest distance the one listed first wins, so a
+ *		     place file ordered by importance prefers the larger city.
+ *
+ *		     The counters and rows of a lookup are kept per thread and cleared by walking the names touched, so a
+ *		     lookup allocates nothing and the index may be shared by any number of threads.
+ *
+ *		     Usage:  java travel.PlaceNameIndex [placeFile] [lookups]   (times lookups with one typing mistake)
+ *
+ * Nested Class:     Matcher
+ *
+ * Aggregation Of:	 MainController.java, ValidationRuleEngine.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class PlaceNameIndex
+{
+	//Returned by find() when no place lies within the allowed number of edits.
+	public final static int NO_PLACE = -1;
+
+	//The most edits allowed between a location and a place.
+	public final static int MAX_DISTANCE = 2;
+
+	//The number of synthetic place names indexed by main() when no place file is given.
+	private final static int SYNTHETIC_PLACES = 300000;
+
+	//Pads the normalized names on both sides; it cannot appear within a name.
+	private final static char PAD = '\u0000';
+
+	//The indexes loaded by shared(), by canonical path.
+	private final static ConcurrentHashMap<String, PlaceNameIndex> SHARED = new ConcurrentHashMap<String, PlaceNameIndex>();
+
+	//The names by id.  Ids are handed out in order of the length of the normalized name, so that the names within
+	//maxDistance() of the length of a location form one range of every posting list.
+	private final String[] names;
+	private final int[] ranks;
+	private final int[] lengthStart;
+
+	//The normalized names, one after another; the name of id i occupies [keyOffsets[i], keyOffsets[i + 1]).
+	private final char[] keyChars;
+	private final int[] keyOffsets;
+
+	//The open addressing table of trigrams, each with the range of postings of the names containing it.
+	private long[] trigrams;
+	private int[] postingStart;
+	private int[] postingCount;
+	private int[] postings;
+	private int trigramMask;
+
+	//The exact names by the hash of their keys, for isKnown().
+	private final int[] exactIds;
+
+	private final ThreadLocal<Matcher> matchers = new ThreadLocal<Matcher>()
+	{
+		protected Matcher initialValue()
+		{
+			return new Matcher(names.length, longestKey());
+		}
+	};
+
+	/*
+	* The scratch space of the lookups of one thread.
+	*/
+	private static class Matcher
+	{
+		final int[] counts;
+		final int[] touched;
+		char[] query = new char[64];
+		int[] slots = new int[64];
+		int[] previousRow;
+		int[] currentRow;
+
+		Matcher(int placeCount, int longestKey)
+		{
+			counts = new int[placeCount];
+			touched = new int[placeCount];
+			previousRow = new int[longestKey + 2];
+			currentRow = new int[longestKey + 2];
+		}
+	}
+
+	/*
+	* The constructor indexes the place names, which should be listed in order of preference.
+	*/
+	public PlaceNameIndex(String[] places)
+	{
+		String[] keys = new String[places.length];
+		int longest = 0;
+		for (int i = 0; i < places.length; i++)
+		{
+			keys[i] = LocationPool.normalize(places[i]);
+			longest = Math.max(longest, keys[i].length());
+		}
+
+		//lengthStart[n] is the first id of the names of n characters, and ranks[id] the position of the name within places.
+		lengthStart = new int[longest + 2];
+		for (int i = 0; i < places.length; i++)
+			lengthStart[keys[i].length() + 1]++;
+		for (int n = 1; n < lengthStart.length; n++)
+			lengthStart[n] += lengthStart[n - 1];
+		int[] nextId = lengthStart.clone();
+		names = new String[places.length];
+		ranks = new int[places.length];
+		for (int i = 0; i < places.length; i++)
+		{
+			int id = nextId[keys[i].length()]++;
+			names[id] = places[i];
+			ranks[id] = i;
+		}
+
+		keyOffsets = new int[names.length + 1];
+		keyChars = new char[lengthStart[lengthStart.length - 1] == 0 ? 0 : totalLength(keys)];
+		for (int id = 0; id < names.length; id++)
+		{
+			String key = keys[ranks[id]];
+			key.getChars(0, key.length(), keyChars, keyOffsets[id]);
+			keyOffsets[id + 1] = keyOffsets[id] + key.length();
+		}
+
+		this.buildTrigrams();
+		exactIds = new int[Integer.highestOneBit(Math.max(1, names.length) * 2) * 2];
+		Arrays.fill(exactIds, NO_PLACE);
+		for (int i = 0; i < names.length; i++)
+		{
+			int slot = hash(keyChars, keyOffsets[i], keyOffsets[i + 1] - keyOffsets[i]) & (exactIds.length - 1);
+			while (exactIds[slot] != NO_PLACE && !this.keyEquals(exactIds[slot], keyChars, keyOffsets[i], keyOffsets[i + 1] - keyOffsets[i]))
+				slot = (slot + 1) & (exactIds.length - 1);
+			if (exactIds[slot] == NO_PLACE)
+				exactIds[slot] = i;
+		}
+	}
+
+	/**
+	* Creates the index of a text file holding one place per line, in order of preference.  Blank lines and lines
+	* starting with '#' are skipped.
+	*/
+	public static PlaceNameIndex load(File placeFile) throws IOException
+	{
+		return new PlaceNameIndex(readPlaces(placeFile));
+	}
+
+	private static String[] readPlaces(File placeFile) throws IOException
+	{
+		ArrayList<String> places = new ArrayList<String>();
+		BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(placeFile), "UTF-8"));
+		try
+		{
+			String line;
+			while ((line = in.readLine()) != null)
+			{
+				line = line.trim();
+				if (!line.isEmpty() && !line.startsWith("#"))
+					places.add(line);
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+		return places.toArray(new String[places.size()]);
+	}
+
+	/**
+	* Returns the index of the place file, loading it only once however many rules and controllers refer to it.
+	*/
+	public static PlaceNameIndex shared(File placeFile) throws IOException
+	{
+		String path = placeFile.getCanonicalPath();
+		PlaceNameIndex index = SHARED.get(path);
+		if (index == null)
+		{
+			index = load(placeFile);
+			PlaceNameIndex loaded = SHARED.putIfAbsent(path, index);
+			if (loaded != null)
+				index = loaded;
+		}
+		return index;
+	}
+
+	/*
+	* Builds the posting lists: the trigrams are counted first, so that each list can be given its place within one array.
+	*/
+	private void buildTrigrams()
+	{
+		trigrams = new long[1 << 12];
+		postingCount = new int[trigrams.length];
+		trigramMask = trigrams.length - 1;
+		Arrays.fill(trigrams, -1L);
+		int[] lastId = new int[trigrams.length];
+		int distinct = 0;
+		int total = 0;
+
+		for (int pass = 0; pass < 2; pass++)
+		{
+			if (pass == 1)
+			{
+				postingStart = new int[trigrams.length];
+				for (int slot = 0, start = 0; slot < trigrams.length; slot++)
+				{
+					postingStart[slot] = start;
+					start += postingCount[slot];
+				}
+				postings = new int[total];
+				Arrays.fill(postingCount, 0);
+				Arrays.fill(lastId, -1);
+			}
+			else
+			{
+				Arrays.fill(lastId, -1);
+			}
+
+			for (int id = 0; id < names.length; id++)
+			{
+				int start = keyOffsets[id];
+				int length = keyOffsets[id + 1] - start;
+				for (int i = 0; i < length; i++)
+				{
+					long trigram = trigram(keyChars, start, length, i);
+					int slot = this.slotOf(trigram);
+					if (trigrams[slot] == -1L)
+					{
+						if ((distinct + 1) * 2 > trigrams.length)
+						{
+							lastId = this.grow(lastId);
+							slot = this.slotOf(trigram);
+						}
+						trigrams[slot] = trigram;
+						distinct++;
+					}
+					//a trigram repeated within a name is posted once.
+					if (lastId[slot] == id)
+						continue;
+					lastId[slot] = id;
+					if (pass == 1)
+						postings[postingStart[slot] + postingCount[slot]] = id;
+					postingCount[slot]++;
+					total++;
+				}
+			}
+		}
+	}
+
+	/*
+	* Doubles the trigram table during the counting pass, carrying the counts and the last ids across.
+	*/
+	private int[] grow(int[] lastId)
+	{
+		long[] oldTrigrams = trigrams;
+		int[] oldCounts = postingCount;
+		trigrams = new long[oldTrigrams.length * 2];
+		postingCount = new int[trigrams.length];
+		int[] grownLastId = new int[trigrams.length];
+		trigramMask = trigrams.length - 1;
+		Arrays.fill(trigrams, -1L);
+		for (int i = 0; i < oldTrigrams.length; i++)
+		{
+			if (oldTrigrams[i] == -1L)
+				continue;
+			int slot = this.slotOf(oldTrigrams[i]);
+			trigrams[slot] = oldTrigrams[i];
+			postingCount[slot] = oldCounts[i];
+			grownLastId[slot] = lastId[i];
+		}
+		return grownLastId;
+	}
+
+	/*
+	* Returns the slot of the trigram, or the empty slot where it belongs.
+	*/
+	private int slotOf(long trigram)
+	{
+		int slot = (int) HyperLogLog.mix(trigram) & trigramMask;
+		while (trigrams[slot] != -1L && trigrams[slot] != trigram)
+			slot = (slot + 1) & trigramMask;
+		return slot;
+	}
+
+	/*
+	* Returns the i-th trigram of the padded key, packing its three characters into a long.
+	*/
+	private static long trigram(char[] key, int start, int length, int i)
+	{
+		char first = (i == 0) ? PAD : key[start + i - 1];
+		char last = (i == length - 1) ? PAD : key[start + i + 1];
+		return ((long) first << 32) | ((long) key[start + i] << 16) | last;
+	}
+
+	private static int hash(char[] key, int start, int length)
+	{
+		int hash = 0;
+		for (int i = 0; i < length; i++)
+			hash = 31 * hash + key[start + i];
+		return (int) HyperLogLog.mix(hash);
+	}
+
+	private boolean keyEquals(int id, char[] key, int start, int length)
+	{
+		int offset = keyOffsets[id];
+		if (keyOffsets[id + 1] - offset != length)
+			return false;
+		for (int i = 0; i < length; i++)
+		{
+			if (keyChars[offset + i] != key[start + i])
+				return false;
+		}
+		return true;
+	}
+
+	private int longestKey()
+	{
+		return lengthStart.length - 2;
+	}
+
+	private static int totalLength(String[] keys)
+	{
+		int total = 0;
+		for (int i = 0; i < keys.length; i++)
+			total += keys[i].length();
+		return total;
+	}
+
+	/**
+	* Returns the number of edits allowed for a normalized location of the given length.
+	*/
+	public static int maxDistance(int length)
+	{
+		if (length <= 3)
+			return 0;
+		return (length <= 7) ? 1 : MAX_DISTANCE;
+	}
+
+	/**
+	* Returns the number of places within the index.
+	*/
+	public int size()
+	{
+		return names.length;
+	}
+
+	/**
+	* Returns the place name of the id, as it was listed.  Ids range from zero to size() - 1 but follow the length of the
+	* names rather than the order of the listing.
+	*/
+	public String getName(int id)
+	{
+		return names[id];
+	}
+
+	/*
+	* Normalizes the location into the query buffer of the matcher, as LocationPool.normalize() would, and returns its length.
+	*/
+	private static int normalize(CharSequence location, Matcher matcher)
+	{
+		if (matcher.query.length < location.length())
+		{
+			matcher.query = new char[location.length()];
+			matcher.slots = new int[location.length()];
+		}
+		char[] query = matcher.query;
+		int length = 0;
+		boolean pendingSpace = false;
+		for (int i = 0; i < location.length(); i++)
+		{
+			char c = location.charAt(i);
+			if (Character.isWhitespace(c))
+			{
+				pendingSpace = length > 0;
+				continue;
+			}
+			if (pendingSpace)
+			{
+				query[length++] = ' ';
+				pendingSpace = false;
+			}
+			query[length++] = Character.toLowerCase(c);
+		}
+		return length;
+	}
+
+	/**
+	* Returns true if the location is one of the places, ignoring case and white space.
+	*/
+	public boolean isKnown(CharSequence location)
+	{
+		Matcher matcher = matchers.get();
+		int length = normalize(location, matcher);
+		if (length == 0)
+			return false;
+		int slot = hash(matcher.query, 0, length) & (exactIds.length - 1);
+		while (exactIds[slot] != NO_PLACE)
+		{
+			if (this.keyEquals(exactIds[slot], matcher.query, 0, length))
+				return true;
+			slot = (slot + 1) & (exactIds.length - 1);
+		}
+		return false;
+	}
+
+	/**
+	* Returns the id of the place closest to the location within maxDistance() edits, or NO_PLACE.
+	*/
+	public int find(CharSequence location)
+	{
+		Matcher matcher = matchers.get();
+		int length = normalize(location, matcher);
+		if (length == 0)
+			return NO_PLACE;
+		char[] query = matcher.query;
+		int bound = maxDistance(length);
+		int threshold = Math.max(1, length - 3 * bound);
+
+		//the trigrams are ordered by the length of their posting lists, those not indexed (-1) coming first.
+		int[] slots = matcher.slots;
+		for (int i = 0; i < length; i++)
+		{
+			int slot = this.slotOf(trigram(query, 0, length, i));
+			slot = (trigrams[slot] == -1L) ? -1 : slot;
+			int j = i;
+			while (j > 0 && this.listLength(slots[j - 1]) > this.listLength(slot))
+			{
+				slots[j] = slots[j - 1];
+				j--;
+			}
+			slots[j] = slot;
+		}
+
+		//a name sharing threshold trigrams shares one of the rarest length - threshold + 1, so only those lists are merged.
+		int scanned = length - threshold + 1;
+		int firstId = lengthStart[Math.min(lengthStart.length - 1, Math.max(0, length - bound))];
+		int endId = lengthStart[Math.min(lengthStart.length - 1, length + bound + 1)];
+		int[] counts = matcher.counts;
+		int[] touched = matcher.touched;
+		int touchedCount = 0;
+		for (int i = 0; i < scanned; i++)
+		{
+			if (slots[i] == -1)
+				continue;
+			int end = postingStart[slots[i]] + postingCount[slots[i]];
+			for (int p = this.lowerBound(slots[i], firstId); p < end && postings[p] < endId; p++)
+			{
+				int id = postings[p];
+				if (counts[id]++ == 0)
+					touched[touchedCount++] = id;
+			}
+		}
+
+		int best = NO_PLACE;
+		for (int t = 0; t < touchedCount; t++)
+		{
+			int id = touched[t];
+			int count = counts[id];
+			counts[id] = 0;
+			//the remaining, longer, lists are searched for the candidate only while it can still reach the threshold.
+			for (int i = scanned; i < length && count < threshold && count + length - i >= threshold; i++)
+			{
+				if (this.contains(slots[i], id))
+					count++;
+			}
+			if (count >= threshold)
+			{
+				int distance = this.distance(matcher, length, id, bound);
+				if (distance < bound || (distance == bound && (best == NO_PLACE || ranks[id] < ranks[best])))
+				{
+					best = id;
+					bound = distance;
+				}
+			}
+		}
+		return best;
+	}
+
+	private int listLength(int slot)
+	{
+		return (slot == -1) ? 0 : postingCount[slot];
+	}
+
+	/*
+	* Returns the position of the first id of the posting list of the slot which is not below the given id.
+	*/
+	private int lowerBound(int slot, int id)
+	{
+		int low = postingStart[slot];
+		int high = low + postingCount[slot];
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if (postings[middle] < id)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/*
+	* Returns true if the posting list of the slot holds the id.
+	*/
+	private boolean contains(int slot, int id)
+	{
+		int position = this.lowerBound(slot, id);
+		return position < postingStart[slot] + postingCount[slot] && postings[position] == id;
+	}
+
+	/**
+	* Returns the closest place when the location is not a place itself but lies within maxDistance() edits of one, and
+	* null otherwise.
+	*/
+	public String suggest(CharSequence location)
+	{
+		if (this.isKnown(location))
+			return null;
+		int id = this.find(location);
+		return (id == NO_PLACE) ? null : names[id];
+	}
+
+	/*
+	* Returns the edit distance between the query of the matcher and the key of the place, or bound + 1 once it is
+	* certain to exceed the bound.  Only the cells within bound of the diagonal are computed, as any path through the
+	* others costs more than the bound; the cells just outside the band are held at bound + 1.
+	*/
+	private int distance(Matcher matcher, int length, int id, int bound)
+	{
+		char[] query = matcher.query;
+		int start = keyOffsets[id];
+		int keyLength = keyOffsets[id + 1] - start;
+		int[] previous = matcher.previousRow;
+		int[] current = matcher.currentRow;
+		int outside = bound + 1;
+		for (int j = 0; j <= keyLength; j++)
+			previous[j] = Math.min(j, outside);
+
+		for (int i = 1; i <= length; i++)
+		{
+			int low = Math.max(1, i - bound);
+			int high = Math.min(keyLength, i + bound);
+			current[low - 1] = (low == 1) ? Math.min(i, outside) : outside;
+			int rowMinimum = current[low - 1];
+			char c = query[i - 1];
+			for (int j = low; j <= high; j++)
+			{
+				int cost = (keyChars[start + j - 1] == c) ? 0 : 1;
+				int value = Math.min(Math.min(current[j - 1], previous[j]) + 1, previous[j - 1] + cost);
+				current[j] = Math.min(value, outside);
+				rowMinimum = Math.min(rowMinimum, value);
+			}
+			if (high < keyLength)
+				current[high + 1] = outside;
+			if (rowMinimum > bound)
+				return bound + 1;
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return previous[keyLength];
+	}
+
+	/*
+	* Returns the place names read from the file, or synthetic names built from syllables when the file is null.
+	*/
+	private static String[] places(File placeFile, Random random) throws IOException
+	{
+		if (placeFile != null)
+			return readPlaces(placeFile);
+		String consonants = "bcdfghjklmnprstvwyz";
+		String vowels = "aeiou";
+		//about one name in ten starts with a common word, as within a gazetteer.
+		String[] prefixes = new String[]{"Port ", "Saint ", "New ", "North ", "East ", "Lake ", "Fort ", "San ", "Mount ", "West "};
+		LinkedHashSet<String> names = new LinkedHashSet<String>(Arrays.asList(ItineraryWorkloadGenerator.DEFAULT_LOCATIONS));
+		while (names.size() < SYNTHETIC_PLACES)
+		{
+			StringBuilder name = new StringBuilder(random.nextInt(10) == 0 ? prefixes[random.nextInt(prefixes.length)] : "");
+			int count = 2 + random.nextInt(3);
+			int first = name.length();
+			for (int i = 0; i < count; i++)
+			{
+				name.append(consonants.charAt(random.nextInt(consonants.length()))).append(vowels.charAt(random.nextInt(vowels.length())));
+				if (random.nextBoolean())
+					name.append(consonants.charAt(random.nextInt(consonants.length())));
+			}
+			name.setCharAt(first, Character.toUpperCase(name.charAt(first)));
+			names.add(name.toString());
+		}
+		return names.toArray(new String[names.size()]);
+	}
+
+	/*
+	* Returns the name with one random insertion, deletion or substitution of a letter.
+	*/
+	private static String misspell(String name, Random random)
+	{
+		StringBuilder typed = new StringBuilder(name);
+		int position = random.nextInt(name.length());
+		char letter = (char) ('a' + random.nextInt(26));
+		int edit = random.nextInt(3);
+		if (edit == 0)
+			typed.insert(position, letter);
+		else if (edit == 1 && name.length() > 1)
+			typed.deleteCharAt(position);
+		else
+			typed.setCharAt(position, letter);
+		return typed.toString();
+	}
+
+	/**
+	* Indexes the place file (or SYNTHETIC_PLACES generated names) and times lookups of names with one typing mistake.
+	*/
+	public static void main(String[] args) throws IOException
+	{
+		File placeFile = (args.length > 0 && !args[0].equals("-")) ? new File(args[0]) : null;
+		int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+		Random random = new Random(42);
+		String[] places = places(placeFile, random);
+
+		long start = System.nanoTime();
+		PlaceNameIndex index = new PlaceNameIndex(places);
+		System.out.printf("Indexed:          %d places in %.1f ms%n", index.size(), (System.nanoTime() - start) / 1e6);
+
+		String[] typed = new String[lookups];
+		int[] intended = new int[lookups];
+		for (int i = 0; i < lookups; i++)
+		{
+			intended[i] = random.nextInt(places.length);
+			typed[i] = misspell(places[intended[i]], random);
+		}
+		//the first round warms up the JIT and is not reported.
+		for (int i = 0; i < lookups; i++)
+			index.find(typed[i]);
+
+		long[] latencies = new long[lookups];
+		int corrected = 0;
+		int missed = 0;
+		for (int i = 0; i < lookups; i++)
+		{
+			long begin = System.nanoTime();
+			int id = index.find(typed[i]);
+			latencies[i] = System.nanoTime() - begin;
+			if (id == NO_PLACE)
+				missed++;
+			else if (LocationPool.normalize(index.getName(id)).equals(LocationPool.normalize(places[intended[i]])))
+				corrected++;
+		}
+		long startBytes = AllocationCounter.currentThreadAllocatedBytes();
+		for (int i = 0; i < lookups; i++)
+			index.find(typed[i]);
+		long allocated = AllocationCounter.currentThreadAllocatedBytes() - startBytes;
+
+		Arrays.sort(latencies);
+		long total = 0;
+		for (int i = 0; i < lookups; i++)
+			total += latencies[i];
+		System.out.println("Lookups:          " + lookups);
+		System.out.printf("Corrected:        %.1f%% (another place as close: %.1f%%, none found: %.1f%%)%n", 100.0 * corrected / lookups,
+			100.0 * (lookups - corrected - missed) / lookups, 100.0 * missed / lookups);
+		System.out.printf("Latency (us):     mean %.1f, p50 %.1f, p99 %.1f, max %.1f%n", total / 1e3 / lookups,
+			UIEventReplayer.percentile(latencies, 50) / 1e3, UIEventReplayer.percentile(latencies, 99) / 1e3, latencies[lookups - 1] / 1e3);
+		if (AllocationCounter.isSupported())
+			System.out.printf("Allocation:       %.1f bytes/lookup%n", (double) allocated / lookups);
+	}
+}
@@ -0,0 +1,155 @@
+package travel;
+
+/**
+ * The preferred times of day offered by the Preferred Time Combo Boxes, as ranges of minutes.
+ *
+ * <PRE>
+ * Filename:         PreferredTimeWindow.java
+ *
+ * Description:      Each preferred time has the label displayed within the Combo Box and a window of minutes since
+ *		     midnight, starting at startMinute (inclusive) and ending at endMinute (exclusive).  A window whose end is
+ *		     not after its start wraps past midnight, e.g. the red eye runs from 22:00 until 05:00 the next morning.
+ *		     Because there are only MINUTES_PER_DAY minutes, the windows containing each minute are worked out once
+ *		     as a bit mask (bit n set for the window with ordinal n), so that finding the windows which a departure
+ *		     time falls within is a single array lookup.
+ *
+ * Used By:          TravelComboBoxModel.java, TravelFormModel.java, DepartureTimeIndex.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public enum PreferredTimeWindow
+{
+	ANYTIME(TravelComboBoxModel.DEFAULT_TIME, 0, 0),
+	EARLY_MORNING("early morning", 5 * 60, 8 * 60),
+	MORNING("morning", 8 * 60, 11 * 60 + 30),
+	NOON("noon", 11 * 60 + 30, 13 * 60 + 30),
+	AFTERNOON("afternoon", 13 * 60 + 30, 17 * 60),
+	EARLY_EVENING("early evening", 17 * 60, 20 * 60),
+	RED_EYE("red eye", 22 * 60, 5 * 60);
+
+	public final static int MINUTES_PER_DAY = 24 * 60;
+
+	//WINDOWS_CONTAINING[m] holds a bit for every window that contains minute m.
+	private final static int[] WINDOWS_CONTAINING = new int[MINUTES_PER_DAY];
+	private final static PreferredTimeWindow[] WINDOWS = values();
+
+	static
+	{
+		for (int i = 0; i < WINDOWS.length; i++)
+		{
+			for (int minute = 0; minute < MINUTES_PER_DAY; minute++)
+			{
+				if (WINDOWS[i].contains(minute))
+					WINDOWS_CONTAINING[minute] |= 1 << i;
+			}
+		}
+	}
+
+	private final String label;
+	private final int startMinute;
+	private final int endMinute;
+
+	private PreferredTimeWindow(String label, int startMinute, int endMinute)
+	{
+		this.label = label;
+		this.startMinute = startMinute;
+		this.endMinute = endMinute;
+	}
+
+	/**
+	* Returns the label displayed within the Combo Boxes.
+	*/
+	public String getLabel()
+	{
+		return label;
+	}
+
+	/**
+	* Returns the first minute after midnight within the window.
+	*/
+	public int getStartMinute()
+	{
+		return startMinute;
+	}
+
+	/**
+	* Returns the minute after midnight at which the window ends.  This is not after the start minute when the window wraps
+	* past midnight.
+	*/
+	public int getEndMinute()
+	{
+		return endMinute;
+	}
+
+	/**
+	* Returns true if the window continues past midnight (ANYTIME covers the whole day and is treated as wrapping).
+	*/
+	public boolean wrapsMidnight()
+	{
+		return endMinute <= startMinute;
+	}
+
+	/**
+	* Returns the number of minutes within the window.
+	*/
+	public int getLength()
+	{
+		return wrapsMidnight() ? MINUTES_PER_DAY - startMinute + endMinute : endMinute - startMinute;
+	}
+
+	/**
+	* Returns true if the given minute after midnight falls within the window.
+	*/
+	public boolean contains(int minute)
+	{
+		if (wrapsMidnight())
+			return minute >= startMinute || minute < endMinute;
+		return minute >= startMinute && minute < endMinute;
+	}
+
+	/**
+	* Returns a bit mask holding the bit (1 << ordinal()) of every window which contains the given minute after midnight.
+	*/
+	public static int windowsContaining(int minute)
+	{
+		return WINDOWS_CONTAINING[minute];
+	}
+
+	/**
+	* Returns the window displayed with the given label, or ANYTIME if no window has that label.
+	*/
+	public static PreferredTimeWindow forLabel(String label)
+	{
+		for (int i = 0; i < WINDOWS.length; i++)
+		{
+			if (WINDOWS[i].label.equals(label))
+				return WINDOWS[i];
+		}
+		return ANYTIME;
+	}
+
+	/**
+	* Returns the labels of every window, in the order they are displayed.
+	*/
+	public static String[] labels()
+	{
+		String[] labels = new String[WINDOWS.length];
+		for (int i = 0; i < WINDOWS.length; i++)
+			labels[i] = WINDOWS[i].label;
+		return labels;
+	}
+
+	public String toString()
+	{
+		return label;
+	}
+}
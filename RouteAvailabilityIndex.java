@@ -0,0 +1,221 @@
+package travel;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Records the days of each month on which a route is flown.
+ *
+ * <PRE>
+ * Filename:         RouteAvailabilityIndex.java
+ *
+ * Description:      A month has at most 31 days, so the days on which a route (a From and a To location) is flown during
+ *		     a month fit within the bits of a single int, bit d being set when day d is available.  The bit sets are
+ *		     kept within an open addressing hash table of primitive arrays: a long key packing the two location ids
+ *		     given by the LocationPool with the month (year * 12 + month - 1), and the int bit set.  The top bit
+ *		     of every stored key marks its slot as used, so From location ids are limited to 23 bits.  Each
+ *		     route-month therefore costs 12 bytes per slot, at most half of the slots being used, so millions of
+ *		     route-months fit within a few tens of megabytes.  Checking whether a day is available is one hash
+ *		     lookup followed by a bit test, and the Day Combo Box renderers only need the bit test.
+ *
+ *		     The schedule file holds one route-month per line (blank lines and lines starting with '#' are
+ *		     skipped), where the days are single days or ranges separated by commas:
+ *
+ *		         from | to | yyyy-mm | 1-5,8,12,20-31
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.101
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   From location ids are limited to 23 bits so that they no longer reach the bit marking a
+ *		    used slot, where ids differing only in bit 23 shared a key.
+ * </PRE>
+  */
+
+public class RouteAvailabilityIndex
+{
+	//Returned when a route-month has no entry: nothing is flown.
+	public final static int NO_DAYS = 0;
+
+	//A key of zero marks an empty slot, so every stored key has this bit set.
+	private final static long OCCUPIED = 1L << 63;
+
+	//The From location id sits just below the OCCUPIED bit, so it is limited to 23 bits; the To location id has 24.
+	private final static int MAX_FROM_LOCATION_ID = (1 << 23) - 1;
+	private final static int MAX_TO_LOCATION_ID = (1 << 24) - 1;
+
+	private long[] keys;
+	private int[] days;
+	private int mask;
+	private int size;
+
+	public RouteAvailabilityIndex(int expectedRouteMonths)
+	{
+		int capacity = 16;
+		while (capacity < expectedRouteMonths * 2L && capacity < (1 << 30))
+			capacity <<= 1;
+		keys = new long[capacity];
+		days = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	/*
+	* Packs the route and month into a key.  Months are counted from year 0, which leaves room up to year 5461.
+	*/
+	private static long keyOf(int fromLocationId, int toLocationId, int year, int month)
+	{
+		if (fromLocationId < 0 || fromLocationId > MAX_FROM_LOCATION_ID)
+			throw new IllegalArgumentException("From location ids must be between 0 and " + MAX_FROM_LOCATION_ID
+				+ " (23 bits, the top bit of the key marks a used slot)");
+		if (toLocationId < 0 || toLocationId > MAX_TO_LOCATION_ID)
+			throw new IllegalArgumentException("To location ids must be between 0 and " + MAX_TO_LOCATION_ID);
+		long monthNumber = year * 12L + month - 1;
+		return OCCUPIED | ((long) fromLocationId << 40) | ((long) toLocationId << 16) | (monthNumber & 0xffff);
+	}
+
+	private int slotOf(long key)
+	{
+		long hash = key * 0x9e3779b97f4a7c15L;
+		int slot = (int) (hash >>> 40) & mask;
+		while (keys[slot] != 0 && keys[slot] != key)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	/**
+	* Marks the days within the bit set as available on the route during the month (1 - 12) of the year, in addition to
+	* those already marked.
+	*/
+	public void addDays(int fromLocationId, int toLocationId, int year, int month, int dayBits)
+	{
+		long key = keyOf(fromLocationId, toLocationId, year, month);
+		int slot = this.slotOf(key);
+		if (keys[slot] == 0)
+		{
+			keys[slot] = key;
+			size++;
+			if (size * 2L > keys.length)
+			{
+				this.grow();
+				slot = this.slotOf(key);
+			}
+		}
+		days[slot] |= dayBits;
+	}
+
+	/**
+	* Returns the bit set of the days on which the route is flown during the month (1 - 12) of the year, bit d being set
+	* for day d.  Returns NO_DAYS if nothing is flown.
+	*/
+	public int getDays(int fromLocationId, int toLocationId, int year, int month)
+	{
+		if (fromLocationId < 0 || fromLocationId > MAX_FROM_LOCATION_ID || toLocationId < 0 || toLocationId > MAX_TO_LOCATION_ID)
+			return NO_DAYS;
+		int slot = this.slotOf(keyOf(fromLocationId, toLocationId, year, month));
+		return (keys[slot] == 0) ? NO_DAYS : days[slot];
+	}
+
+	/**
+	* Returns true if the route is flown on the given day.
+	*/
+	public boolean isAvailable(int fromLocationId, int toLocationId, int year, int month, int day)
+	{
+		return (getDays(fromLocationId, toLocationId, year, month) & (1 << day)) != 0;
+	}
+
+	/**
+	* Returns the number of route-months held.
+	*/
+	public int size()
+	{
+		return size;
+	}
+
+	private void grow()
+	{
+		long[] oldKeys = keys;
+		int[] oldDays = days;
+		keys = new long[oldKeys.length * 2];
+		days = new int[oldKeys.length * 2];
+		mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			if (oldKeys[i] != 0)
+			{
+				int slot = this.slotOf(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				days[slot] = oldDays[i];
+			}
+		}
+	}
+
+	/**
+	* Reads a schedule file into a new index, interning its locations into the pool.
+	*/
+	public static RouteAvailabilityIndex load(File scheduleFile, LocationPool pool) throws IOException
+	{
+		RouteAvailabilityIndex index = new RouteAvailabilityIndex(1024);
+		BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(scheduleFile), "UTF-8"));
+		try
+		{
+			String line;
+			int lineNumber = 0;
+			while ((line = in.readLine()) != null)
+			{
+				lineNumber++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+				try
+				{
+					String[] parts = line.split("\\|");
+					if (parts.length != 4)
+						throw new IllegalArgumentException("expected \"from | to | yyyy-mm | days\"");
+					String yearMonth = parts[2].trim();
+					int dash = yearMonth.indexOf('-');
+					int year = Integer.parseInt(yearMonth.substring(0, dash));
+					int month = Integer.parseInt(yearMonth.substring(dash + 1));
+					if (month < 1 || month > 12)
+						throw new IllegalArgumentException("no such month: " + yearMonth);
+					index.addDays(pool.intern(parts[0]), pool.intern(parts[1]), year, month, parseDays(parts[3].trim()));
+				}
+				catch (RuntimeException e)
+				{
+					throw new IOException(scheduleFile + ":" + lineNumber + ": " + e.getMessage());
+				}
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+		return index;
+	}
+
+	/**
+	* Turns a list such as "1-5,8,12" into a bit set of days.
+	*/
+	public static int parseDays(String list)
+	{
+		int bits = 0;
+		String[] ranges = list.split(",");
+		for (int i = 0; i < ranges.length; i++)
+		{
+			String range = ranges[i].trim();
+			if (range.isEmpty())
+				continue;
+			int dash = range.indexOf('-');
+			int first = Integer.parseInt((dash < 0 ? range : range.substring(0, dash)).trim());
+			int last = (dash < 0) ? first : Integer.parseInt(range.substring(dash + 1).trim());
+			if (first < 1 || last > 31 || first > last)
+				throw new IllegalArgumentException("invalid days: " + range);
+			for (int day = first; day <= last; day++)
+				bits |= 1 << day;
+		}
+		return bits;
+	}
+}
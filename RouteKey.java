@@ -0,0 +1,113 @@
+package travel;
+
+/**
+ * The normalized (from, to, date, preferred time, passengers) tuple that a route lookup is keyed by.
+ *
+ * <PRE>
+ * Filename:         RouteKey.java
+ *
+ * Description:      Two requests for the same route are only recognised as the same when they are compared in normalized
+ *		     form, so the locations are held as LocationPool ids (which ignore case, white space and aliases), the
+ *		     date as a day since 1970-01-01 and the preferred time as its PreferredTimeWindow.  Comparing and hashing
+ *		     a key therefore only involves integers.
+ *
+ * Used By:          RouteResultCache.java, RouteLookup.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public final class RouteKey
+{
+	private final int fromLocationId;
+	private final int toLocationId;
+	private final int day;
+	private final PreferredTimeWindow window;
+	private final int passengers;
+	private final int hash;
+
+	public RouteKey(int fromLocationId, int toLocationId, int day, PreferredTimeWindow window, int passengers)
+	{
+		this.fromLocationId = fromLocationId;
+		this.toLocationId = toLocationId;
+		this.day = day;
+		this.window = window;
+		this.passengers = passengers;
+
+		long mixed = ((long) fromLocationId << 40) ^ ((long) toLocationId << 20) ^ day ^ ((long) window.ordinal() << 60) ^ ((long) passengers << 48);
+		mixed *= 0x9e3779b97f4a7c15L;
+		this.hash = (int) (mixed ^ (mixed >>> 32));
+	}
+
+	/**
+	* Returns the key of the outbound leg of the TravelFormModel, interning its locations into the pool.
+	*/
+	public static RouteKey departureOf(TravelFormModel travelForm, LocationPool pool)
+	{
+		return new RouteKey(pool.intern(travelForm.getFromLocation()), pool.intern(travelForm.getToLocation()),
+			travelForm.getDepartureDate().toEpochDay(), travelForm.getDepartureDate().getPreferredTimeWindow(), travelForm.getPassengerCount());
+	}
+
+	/**
+	* Returns the key of the return leg of the TravelFormModel, interning its locations into the pool.
+	*/
+	public static RouteKey returnOf(TravelFormModel travelForm, LocationPool pool)
+	{
+		return new RouteKey(pool.intern(travelForm.getToLocation()), pool.intern(travelForm.getFromLocation()),
+			travelForm.getReturnDate().toEpochDay(), travelForm.getReturnDate().getPreferredTimeWindow(), travelForm.getPassengerCount());
+	}
+
+	public int getFromLocationId()
+	{
+		return fromLocationId;
+	}
+
+	public int getToLocationId()
+	{
+		return toLocationId;
+	}
+
+	/**
+	* Returns the date in days since 1970-01-01, or Itinerary.NO_DATE.
+	*/
+	public int getDay()
+	{
+		return day;
+	}
+
+	public PreferredTimeWindow getWindow()
+	{
+		return window;
+	}
+
+	public int getPassengers()
+	{
+		return passengers;
+	}
+
+	public boolean equals(Object other)
+	{
+		if (!(other instanceof RouteKey))
+			return false;
+		RouteKey that = (RouteKey) other;
+		return hash == that.hash && fromLocationId == that.fromLocationId && toLocationId == that.toLocationId
+			&& day == that.day && window == that.window && passengers == that.passengers;
+	}
+
+	public int hashCode()
+	{
+		return hash;
+	}
+
+	public String toString()
+	{
+		return "RouteKey[" + fromLocationId + " -> " + toLocationId + ", " + Itinerary.formatDay(day) + " " + window + ", " + passengers + "]";
+	}
+}
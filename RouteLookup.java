@@ -0,0 +1,31 @@
+package travel;
+
+/**
+ * Looks up a result (e.g. the flights, fares or seat availability) of a route.
+ *
+ * <PRE>
+ * Filename:         RouteLookup.java
+ *
+ * Description:      Implemented by anything that computes or fetches a result for a RouteKey, and by the RouteResultCache,
+ *		     which can be placed in front of any other RouteLookup without its callers being changed.
+ *
+ * Implemented By:   RouteResultCache.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public interface RouteLookup<V>
+{
+	/**
+	* Returns the result for the route, or null if there is none.
+	*/
+	public V lookup(RouteKey key);
+}
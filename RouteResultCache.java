@@ -0,0 +1,296 @@
+package travel;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A size bounded, concurrent cache of route results placed in front of another RouteLookup.
+ *
+ * <PRE>
+ * Filename:         RouteResultCache.java
+ *
+ * Description:      Operators look up the same popular routes and dates again and again, so the results of the underlying
+ *		     RouteLookup are kept by RouteKey.  The cache is divided into segments, chosen by the hash of the key and
+ *		     each locked on its own, so lookups from different threads rarely wait on one another.
+ *
+ *		     Each segment evicts using a segmented LRU: a new entry enters the probation segment, and is promoted to
+ *		     the protected segment (PROTECTED_SHARE of the capacity) when it is used again.  When the protected
+ *		     segment is full its least recently used entry is demoted back to probation, and when the whole segment
+ *		     is full the least recently used entry of probation is evicted.  Routes that are only looked up once
+ *		     therefore never push out the routes that are looked up repeatedly.  Entries also expire once they are
+ *		     older than the time to live, since the underlying results change over time.  The number of entries,
+ *		     and therefore the heap in use, never exceeds the maximum size.
+ *
+ *		     Results are computed outside of the segment lock, so two threads missing on the same key at once may
+ *		     both compute it; the later result replaces the earlier.  Missing results (null) are cached as well.
+ *
+ * Implements:       RouteLookup.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class RouteResultCache<V> implements RouteLookup<V>
+{
+	//The share of each segment's capacity kept for entries which have been used more than once.
+	private final static double PROTECTED_SHARE = 0.8;
+
+	//Stands in for a null result so that missing results are cached too.
+	private final static Object NO_RESULT = new Object();
+
+	private final RouteLookup<V> delegate;
+	private final Segment[] segments;
+	private final long timeToLiveNanos;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong expirations = new AtomicLong();
+
+	/*
+	* The constructor divides the maximum size between the segments.  The number of segments is rounded up to a power of two.
+	*/
+	public RouteResultCache(RouteLookup<V> delegate, int maximumSize, long timeToLiveMillis, int segmentCount)
+	{
+		if (maximumSize < 1)
+			throw new IllegalArgumentException("The maximum size must be positive!");
+		int count = 1;
+		while (count < segmentCount && count < maximumSize)
+			count <<= 1;
+
+		this.delegate = delegate;
+		this.timeToLiveNanos = timeToLiveMillis * 1000000L;
+		segments = new Segment[count];
+		for (int i = 0; i < count; i++)
+		{
+			int capacity = maximumSize / count + (i < maximumSize % count ? 1 : 0);
+			segments[i] = new Segment(capacity, evictions, expirations);
+		}
+	}
+
+	private Segment segmentFor(RouteKey key)
+	{
+		int hash = key.hashCode();
+		hash ^= hash >>> 16;
+		return segments[hash & (segments.length - 1)];
+	}
+
+	/**
+	* Returns the cached result of the route, looking it up through the underlying RouteLookup when it is missing or expired.
+	*/
+	@SuppressWarnings("unchecked")
+	public V lookup(RouteKey key)
+	{
+		Segment segment = this.segmentFor(key);
+		long now = System.nanoTime();
+		Object cached = segment.get(key, now);
+		if (cached != null)
+		{
+			hits.incrementAndGet();
+			return (cached == NO_RESULT) ? null : (V) cached;
+		}
+
+		misses.incrementAndGet();
+		V result = delegate.lookup(key);
+		segment.put(key, (result == null) ? NO_RESULT : result, now + timeToLiveNanos);
+		return result;
+	}
+
+	/**
+	* Removes the result of the route, e.g. after it has been changed.
+	*/
+	public void invalidate(RouteKey key)
+	{
+		this.segmentFor(key).remove(key);
+	}
+
+	/**
+	* Removes every result.
+	*/
+	public void invalidateAll()
+	{
+		for (int i = 0; i < segments.length; i++)
+			segments[i].clear();
+	}
+
+	/**
+	* Returns the number of results held.
+	*/
+	public int size()
+	{
+		int size = 0;
+		for (int i = 0; i < segments.length; i++)
+			size += segments[i].size();
+		return size;
+	}
+
+	public long getHitCount()
+	{
+		return hits.get();
+	}
+
+	public long getMissCount()
+	{
+		return misses.get();
+	}
+
+	/**
+	* Returns the number of results removed to stay within the maximum size.
+	*/
+	public long getEvictionCount()
+	{
+		return evictions.get();
+	}
+
+	/**
+	* Returns the number of results removed because they were older than the time to live.
+	*/
+	public long getExpirationCount()
+	{
+		return expirations.get();
+	}
+
+	/**
+	* Returns the fraction of lookups answered from the cache.
+	*/
+	public double getHitRate()
+	{
+		long hitCount = hits.get();
+		long total = hitCount + misses.get();
+		return (total == 0) ? 0.0 : (double) hitCount / total;
+	}
+
+	public String toString()
+	{
+		return String.format("RouteResultCache[size=%d, hits=%d, misses=%d, hit rate=%.1f%%, evictions=%d, expirations=%d]",
+			size(), hits.get(), misses.get(), getHitRate() * 100, evictions.get(), expirations.get());
+	}
+
+	/*
+	* A cached result along with the time it expires.
+	*/
+	private static class Entry
+	{
+		Object value;
+		long expiresAt;
+
+		Entry(Object value, long expiresAt)
+		{
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	/*
+	*  This nested class holds one segment of the cache as two LinkedHashMaps in access order, the eldest entry of each
+	*  being its least recently used.  The eviction and expiration counters are shared by every segment of the cache.
+	*/
+	private static class Segment
+	{
+		private final AtomicLong evictions;
+		private final AtomicLong expirations;
+		private final int capacity;
+		private final int protectedCapacity;
+		private final LinkedHashMap<RouteKey, Entry> probation = new LinkedHashMap<RouteKey, Entry>(16, 0.75f, true);
+		private final LinkedHashMap<RouteKey, Entry> protectedEntries = new LinkedHashMap<RouteKey, Entry>(16, 0.75f, true);
+
+		Segment(int capacity, AtomicLong evictions, AtomicLong expirations)
+		{
+			this.evictions = evictions;
+			this.expirations = expirations;
+			this.capacity = Math.max(1, capacity);
+			this.protectedCapacity = (int) (this.capacity * PROTECTED_SHARE);
+		}
+
+		synchronized Object get(RouteKey key, long now)
+		{
+			Entry entry = protectedEntries.get(key);
+			if (entry == null)
+			{
+				entry = probation.get(key);
+				if (entry == null)
+					return null;
+				if (now - entry.expiresAt >= 0)
+				{
+					probation.remove(key);
+					expirations.incrementAndGet();
+					return null;
+				}
+
+				//used a second time, so the entry is promoted.
+				probation.remove(key);
+				protectedEntries.put(key, entry);
+				this.demoteOverflow();
+				return entry.value;
+			}
+
+			if (now - entry.expiresAt >= 0)
+			{
+				protectedEntries.remove(key);
+				expirations.incrementAndGet();
+				return null;
+			}
+			return entry.value;
+		}
+
+		synchronized void put(RouteKey key, Object value, long expiresAt)
+		{
+			Entry entry = protectedEntries.get(key);
+			if (entry == null)
+				entry = probation.get(key);
+			if (entry != null)
+			{
+				entry.value = value;
+				entry.expiresAt = expiresAt;
+				return;
+			}
+
+			probation.put(key, new Entry(value, expiresAt));
+			while (probation.size() + protectedEntries.size() > capacity)
+			{
+				Iterator<Map.Entry<RouteKey, Entry>> eldest = probation.isEmpty() ? protectedEntries.entrySet().iterator() : probation.entrySet().iterator();
+				eldest.next();
+				eldest.remove();
+				evictions.incrementAndGet();
+			}
+		}
+
+		/*
+		* Moves the least recently used protected entries back to probation while the protected segment is over its share.
+		*/
+		private void demoteOverflow()
+		{
+			while (protectedEntries.size() > protectedCapacity)
+			{
+				Iterator<Map.Entry<RouteKey, Entry>> eldest = protectedEntries.entrySet().iterator();
+				Map.Entry<RouteKey, Entry> demoted = eldest.next();
+				eldest.remove();
+				probation.put(demoted.getKey(), demoted.getValue());
+			}
+		}
+
+		synchronized void remove(RouteKey key)
+		{
+			if (protectedEntries.remove(key) == null)
+				probation.remove(key);
+		}
+
+		synchronized void clear()
+		{
+			protectedEntries.clear();
+			probation.clear();
+		}
+
+		synchronized int size()
+		{
+			return probation.size() + protectedEntries.size();
+		}
+	}
+}
@@ -0,0 +1,361 @@
+package travel;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.awt.event.*;
+
+/**
+ * Saves the in-progress TravelFormModel objects of a session and restores them when the program is started again.
+ *
+ * <PRE>
+ * Filename:         SessionStore.java
+ *
+ * Description:      The session is kept within two files of the session directory.  The snapshot holds every field of every
+ *		     open form and is rewritten in full when the program exits.  The journal holds only the fields which
+ *		     changed since the last save: every auto-save compares the forms against the values that were last
+ *		     written and appends one record (form index, field, value) per changed field.  Restoring reads the
+ *		     snapshot through a read-only memory mapping, without copying it through stream buffers, and then
+ *		     applies the journal records in order.  A record which was only partially written when the program
+ *		     stopped is cut off the end of the journal, so that later records are not appended after it, and the
+ *		     restored session is then written to a new snapshot, which empties the journal.  A value which cannot
+ *		     be assigned to its field fails the restore with an IOException, leaving the store empty.
+ *
+ *		     Both files use the same encoding for values: a short holding the number of bytes followed by the UTF-8
+ *		     bytes themselves.  The snapshot starts with SNAPSHOT_MAGIC, the number of forms and the number of
+ *		     fields per form.  The snapshot is written to a temporary file and then renamed so that a failure during
+ *		     the write never destroys the previous snapshot.
+ *
+ * Instantiated By:  TravelForm.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.102
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   A torn journal record is truncated away and the journal is compacted after a restore, and an
+ *		    invalid saved value fails the restore with an IOException rather than a NumberFormatException.
+ * 0.102: A. Cave   The fields and their accessors are those of TravelFormModel.Field.
+ * </PRE>
+  */
+
+public class SessionStore
+{
+	//The header of the snapshot file ("TFS1").
+	public final static int SNAPSHOT_MAGIC = 0x54465331;
+
+	//The fields of a TravelFormModel that are saved, in the order they appear within the snapshot.
+	private final static TravelFormModel.Field[] FIELDS = TravelFormModel.Field.values();
+	private final static int FIELD_COUNT = FIELDS.length;
+
+	private final static Charset UTF8 = Charset.forName("UTF-8");
+
+	private File snapshotFile;
+	private File journalFile;
+	private List<TravelFormModel> forms = new ArrayList<TravelFormModel>();
+	private List<String[]> savedValues = new ArrayList<String[]>();
+	private DataOutputStream journal;
+	private javax.swing.Timer autoSaveTimer;
+
+	/*
+	* The constructor names the snapshot and journal files within the session directory, which is created if needed.
+	*/
+	public SessionStore(File directory)
+	{
+		directory.mkdirs();
+		snapshotFile = new File(directory, "session.snapshot");
+		journalFile = new File(directory, "session.journal");
+	}
+
+	/**
+	* Reads the snapshot and the journal and returns the forms they describe, in the order they were registered.  The
+	* returned forms are registered with this store.  An empty list is returned when no session has been saved.
+	*/
+	public synchronized List<TravelFormModel> restore() throws IOException
+	{
+		try
+		{
+			if (snapshotFile.length() > 0)
+			{
+				this.readSnapshot();
+			}
+			if (journalFile.length() > 0)
+			{
+				this.readJournal();
+			}
+		}
+		catch (IOException e)
+		{
+			//a session which is only partly restored is not kept, so that the next snapshot replaces the damaged files.
+			forms.clear();
+			savedValues.clear();
+			throw e;
+		}
+
+		if (journalFile.length() > 0)
+		{
+			try
+			{
+				this.saveSnapshot();
+			}
+			catch (IOException e)
+			{
+				//the journal no longer ends with a torn record, so it can still be appended to.
+				System.err.println("Unable to compact the session journal: " + e.getMessage());
+			}
+		}
+		return new ArrayList<TravelFormModel>(forms);
+	}
+
+	/*
+	* Assigns a restored value to a field of the form, reporting a value the field does not accept as an IOException.
+	*/
+	private static void restoreField(TravelFormModel form, int field, String value, File file) throws IOException
+	{
+		try
+		{
+			FIELDS[field].set(form, value);
+		}
+		catch (IllegalArgumentException e)
+		{
+			throw new IOException(file + " holds an invalid value for the field " + FIELDS[field].getLabel() + ": \"" + value + "\"");
+		}
+	}
+
+	/*
+	* Memory maps the snapshot and creates a form for each of the forms within it.
+	*/
+	private void readSnapshot() throws IOException
+	{
+		RandomAccessFile file = new RandomAccessFile(snapshotFile, "r");
+		try
+		{
+			ByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+			if (buffer.getInt() != SNAPSHOT_MAGIC)
+				throw new IOException(snapshotFile + " is not a session snapshot");
+
+			int formCount = buffer.getInt();
+			int fieldCount = buffer.getShort();
+			byte[] scratch = new byte[256];
+			for (int i = 0; i < formCount; i++)
+			{
+				TravelFormModel form = new TravelFormModel();
+				String[] values = new String[FIELD_COUNT];
+				for (int field = 0; field < fieldCount; field++)
+				{
+					int length = buffer.getShort() & 0xffff;
+					if (length > scratch.length)
+						scratch = new byte[length];
+					buffer.get(scratch, 0, length);
+					String value = new String(scratch, 0, length, UTF8);
+
+					//fields added by a later version of the snapshot are skipped.
+					if (field < FIELD_COUNT)
+					{
+						restoreField(form, field, value, snapshotFile);
+						values[field] = value;
+					}
+				}
+				forms.add(form);
+				savedValues.add(values);
+			}
+		}
+		catch (BufferUnderflowException e)
+		{
+			throw new IOException(snapshotFile + " is truncated");
+		}
+		finally
+		{
+			file.close();
+		}
+	}
+
+	/*
+	* Applies the journal records to the restored forms, creating forms which did not exist at the time of the snapshot.  A
+	* record which was only partially written is truncated away.
+	*/
+	private void readJournal() throws IOException
+	{
+		//the length of the journal up to the end of the last complete record.
+		long completeLength = 0;
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)));
+		try
+		{
+			while (true)
+			{
+				int formIndex = in.readShort() & 0xffff;
+				int field = in.readByte();
+				byte[] bytes = new byte[in.readShort() & 0xffff];
+				in.readFully(bytes);
+				String value = new String(bytes, UTF8);
+				completeLength += 5 + bytes.length;
+
+				while (forms.size() <= formIndex)
+				{
+					forms.add(new TravelFormModel());
+					savedValues.add(new String[FIELD_COUNT]);
+				}
+				if (field >= 0 && field < FIELD_COUNT)
+				{
+					restoreField(forms.get(formIndex), field, value, journalFile);
+					savedValues.get(formIndex)[field] = value;
+				}
+			}
+		}
+		catch (EOFException e)
+		{
+			//the end of the journal, possibly within a record which was being written when the program stopped.
+		}
+		finally
+		{
+			in.close();
+		}
+
+		if (completeLength < journalFile.length())
+		{
+			RandomAccessFile file = new RandomAccessFile(journalFile, "rw");
+			try
+			{
+				file.setLength(completeLength);
+			}
+			finally
+			{
+				file.close();
+			}
+		}
+	}
+
+	/**
+	* Adds a form to the session.  Forms returned by restore() are already registered.
+	*/
+	public synchronized void register(TravelFormModel form)
+	{
+		if (!forms.contains(form))
+		{
+			forms.add(form);
+			savedValues.add(new String[FIELD_COUNT]);
+		}
+	}
+
+	/**
+	* Appends the fields which changed since the last save to the journal.  Returns the number of fields written.
+	*/
+	public synchronized int autoSave() throws IOException
+	{
+		int written = 0;
+		for (int i = 0; i < forms.size(); i++)
+		{
+			TravelFormModel form = forms.get(i);
+			String[] values = savedValues.get(i);
+			for (int field = 0; field < FIELD_COUNT; field++)
+			{
+				String value = FIELDS[field].get(form);
+				if (!value.equals(values[field]))
+				{
+					if (journal == null)
+						journal = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true)));
+					journal.writeShort(i);
+					journal.writeByte(field);
+					writeValue(journal, value);
+					values[field] = value;
+					written++;
+				}
+			}
+		}
+		if (journal != null)
+			journal.flush();
+		return written;
+	}
+
+	/**
+	* Writes every field of every form to a new snapshot and empties the journal.
+	*/
+	public synchronized void saveSnapshot() throws IOException
+	{
+		File temporaryFile = new File(snapshotFile.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)));
+		try
+		{
+			out.writeInt(SNAPSHOT_MAGIC);
+			out.writeInt(forms.size());
+			out.writeShort(FIELD_COUNT);
+			for (int i = 0; i < forms.size(); i++)
+			{
+				String[] values = savedValues.get(i);
+				for (int field = 0; field < FIELD_COUNT; field++)
+				{
+					values[field] = FIELDS[field].get(forms.get(i));
+					writeValue(out, values[field]);
+				}
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+		java.nio.file.Files.move(temporaryFile.toPath(), snapshotFile.toPath(),
+			java.nio.file.StandardCopyOption.REPLACE_EXISTING, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+
+		if (journal != null)
+		{
+			journal.close();
+			journal = null;
+		}
+		new FileOutputStream(journalFile).close();
+	}
+
+	/*
+	* Writes the value as a short length followed by its UTF-8 bytes.  Values longer than the length can hold are cut short.
+	*/
+	private static void writeValue(DataOutputStream out, String value) throws IOException
+	{
+		byte[] bytes = value.getBytes(UTF8);
+		int length = Math.min(bytes.length, 0xffff);
+		out.writeShort(length);
+		out.write(bytes, 0, length);
+	}
+
+	/**
+	* Starts auto-saving the changed fields on the Event Dispatch Thread every delayMillis milliseconds.
+	*/
+	public void startAutoSave(int delayMillis)
+	{
+		autoSaveTimer = new javax.swing.Timer(delayMillis, new ActionListener()
+		{
+			public void actionPerformed(ActionEvent evt)
+			{
+				try
+				{
+					autoSave();
+				}
+				catch (IOException e)
+				{
+					System.err.println("Unable to auto-save the session: " + e.getMessage());
+				}
+			}
+		});
+		autoSaveTimer.start();
+	}
+
+	/**
+	* Stops auto-saving and writes the final snapshot.  This is called when the program is closed.
+	*/
+	public void close()
+	{
+		if (autoSaveTimer != null)
+			autoSaveTimer.stop();
+		try
+		{
+			this.saveSnapshot();
+		}
+		catch (IOException e)
+		{
+			System.err.println("Unable to save the session: " + e.getMessage());
+		}
+	}
+}
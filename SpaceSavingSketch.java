@@ -0,0 +1,395 @@
+package travel;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Tracks the most frequent keys of a stream within a fixed number of counters, using the Space-Saving algorithm.
+ *
+ * <PRE>
+ * Filename:         SpaceSavingSketch.java
+ *
+ * Description:      Each of the capacity counters holds a key (a 64-bit hash along with a label to display), its count and
+ *		     the most that count may have been overestimated by.  A key which is already counted is incremented.
+ *		     Otherwise, while a counter is free the key takes it, and once every counter is in use the key takes
+ *		     over the counter with the smallest count, inheriting that count as its error (Metwally, Agrawal and
+ *		     El Abbadi).  Every key whose true count exceeds total / capacity is guaranteed to be held, and each
+ *		     count lies within [count - error, count].
+ *
+ *		     The counters are kept within a binary min-heap so that the smallest is found at once, and are found
+ *		     by key through an open addressing table, so offering a key takes O(log capacity) time and the memory
+ *		     never grows.  Two sketches are merged by adding up the counts of their keys, counting a key missing
+ *		     from a full sketch at that sketch's smallest count, and keeping the largest (Agarwal et al.), which
+ *		     keeps the same guarantees for the combined stream.
+ *
+ * Nested Class:     Entry
+ *
+ * Aggregation Of:	 ItineraryAnalytics.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class SpaceSavingSketch
+{
+	private final int capacity;
+	private final long[] keys;
+	private final String[] labels;
+	private final long[] counts;
+	private final long[] errors;
+	private int size;
+
+	//The counters ordered as a binary min-heap by count, and the position of each counter within the heap.
+	private final int[] heap;
+	private final int[] heapPositions;
+
+	//Open addressing table from key to counter (plus one, zero marking a free entry), probed linearly.
+	private final int[] table;
+	private final int tableMask;
+
+	/**
+	* A key along with its estimated count.
+	*/
+	public static class Entry
+	{
+		private final String label;
+		private final long count;
+		private final long error;
+
+		Entry(String label, long count, long error)
+		{
+			this.label = label;
+			this.count = count;
+			this.error = error;
+		}
+
+		public String getLabel()
+		{
+			return label;
+		}
+
+		/**
+		* Returns the estimated count, which is never lower than the true count.
+		*/
+		public long getCount()
+		{
+			return count;
+		}
+
+		/**
+		* Returns the most that the count may be above the true count.
+		*/
+		public long getError()
+		{
+			return error;
+		}
+
+		/**
+		* Returns the count that the key is certain to have reached.
+		*/
+		public long getGuaranteedCount()
+		{
+			return count - error;
+		}
+
+		public String toString()
+		{
+			return label + " " + count + (error > 0 ? " (+/- " + error + ")" : "");
+		}
+	}
+
+	/*
+	* The constructor creates a sketch of the given number of counters.
+	*/
+	public SpaceSavingSketch(int capacity)
+	{
+		if (capacity < 1)
+			throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+		this.capacity = capacity;
+		keys = new long[capacity];
+		labels = new String[capacity];
+		counts = new long[capacity];
+		errors = new long[capacity];
+		heap = new int[capacity];
+		heapPositions = new int[capacity];
+		int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+		table = new int[Math.max(2, tableSize)];
+		tableMask = table.length - 1;
+	}
+
+	/**
+	* Adds the weight to the count of the key.  The label is kept for displaying the key.
+	*/
+	public void offer(long key, String label, long weight)
+	{
+		int counter = this.find(key);
+		if (counter >= 0)
+		{
+			counts[counter] += weight;
+			this.siftDown(heapPositions[counter]);
+			return;
+		}
+
+		if (size < capacity)
+		{
+			counter = size++;
+			keys[counter] = key;
+			labels[counter] = label;
+			counts[counter] = weight;
+			errors[counter] = 0;
+			heap[counter] = counter;
+			heapPositions[counter] = counter;
+			this.insert(key, counter);
+			this.siftUp(counter);
+			return;
+		}
+
+		//the key takes over the smallest counter, which may have been its own before it was evicted.
+		counter = heap[0];
+		this.remove(keys[counter]);
+		errors[counter] = counts[counter];
+		counts[counter] += weight;
+		keys[counter] = key;
+		labels[counter] = label;
+		this.insert(key, counter);
+		this.siftDown(0);
+	}
+
+	/**
+	* Returns the estimated count of the key, which is the smallest count of a full sketch when the key is not held.
+	*/
+	public long estimate(long key)
+	{
+		int counter = this.find(key);
+		if (counter >= 0)
+			return counts[counter];
+		return this.getMinimumCount();
+	}
+
+	/*
+	* Returns the count that a key which is not held may have reached.
+	*/
+	private long getMinimumCount()
+	{
+		return (size < capacity) ? 0 : counts[heap[0]];
+	}
+
+	/**
+	* Returns up to n entries with the largest counts, largest first.
+	*/
+	public List<Entry> top(int n)
+	{
+		Integer[] order = new Integer[size];
+		for (int i = 0; i < size; i++)
+			order[i] = i;
+		Arrays.sort(order, new Comparator<Integer>()
+		{
+			public int compare(Integer a, Integer b)
+			{
+				return Long.compare(counts[b], counts[a]);
+			}
+		});
+
+		ArrayList<Entry> entries = new ArrayList<Entry>(Math.min(n, size));
+		for (int i = 0; i < Math.min(n, size); i++)
+			entries.add(new Entry(labels[order[i]], counts[order[i]], errors[order[i]]));
+		return entries;
+	}
+
+	/**
+	* Adds the counts of the other sketch, keeping the keys with the largest combined counts.
+	*/
+	public void merge(SpaceSavingSketch other)
+	{
+		long thisMinimum = this.getMinimumCount();
+		long otherMinimum = other.getMinimumCount();
+		HashMap<Long, long[]> combined = new HashMap<Long, long[]>();
+		HashMap<Long, String> combinedLabels = new HashMap<Long, String>();
+		for (int i = 0; i < size; i++)
+		{
+			combined.put(keys[i], new long[]{counts[i] + otherMinimum, errors[i] + otherMinimum});
+			combinedLabels.put(keys[i], labels[i]);
+		}
+		for (int i = 0; i < other.size; i++)
+		{
+			long[] entry = combined.get(other.keys[i]);
+			if (entry == null)
+			{
+				combined.put(other.keys[i], new long[]{other.counts[i] + thisMinimum, other.errors[i] + thisMinimum});
+				combinedLabels.put(other.keys[i], other.labels[i]);
+			}
+			else
+			{
+				//the key is held by both, so the other sketch's minimum assumed above is replaced by its count.
+				entry[0] += other.counts[i] - otherMinimum;
+				entry[1] += other.errors[i] - otherMinimum;
+			}
+		}
+
+		ArrayList<Map.Entry<Long, long[]>> ranked = new ArrayList<Map.Entry<Long, long[]>>(combined.entrySet());
+		Collections.sort(ranked, new Comparator<Map.Entry<Long, long[]>>()
+		{
+			public int compare(Map.Entry<Long, long[]> a, Map.Entry<Long, long[]> b)
+			{
+				return Long.compare(b.getValue()[0], a.getValue()[0]);
+			}
+		});
+
+		this.clear();
+		for (int i = 0; i < Math.min(capacity, ranked.size()); i++)
+		{
+			Map.Entry<Long, long[]> entry = ranked.get(i);
+			this.offer(entry.getKey(), combinedLabels.get(entry.getKey()), entry.getValue()[0]);
+			errors[this.find(entry.getKey())] = entry.getValue()[1];
+		}
+	}
+
+	/**
+	* Removes every key.
+	*/
+	public void clear()
+	{
+		Arrays.fill(table, 0);
+		Arrays.fill(labels, null);
+		size = 0;
+	}
+
+	public int getCapacity()
+	{
+		return capacity;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	/*
+	* Returns the counter holding the key, or -1.
+	*/
+	private int find(long key)
+	{
+		for (int i = (int) HyperLogLog.mix(key) & tableMask; table[i] != 0; i = (i + 1) & tableMask)
+		{
+			if (keys[table[i] - 1] == key)
+				return table[i] - 1;
+		}
+		return -1;
+	}
+
+	private void insert(long key, int counter)
+	{
+		int i = (int) HyperLogLog.mix(key) & tableMask;
+		while (table[i] != 0)
+			i = (i + 1) & tableMask;
+		table[i] = counter + 1;
+	}
+
+	/*
+	* Removes the key from the table, moving later entries of its probe sequence back so that no tombstones are needed.
+	*/
+	private void remove(long key)
+	{
+		int i = (int) HyperLogLog.mix(key) & tableMask;
+		while (keys[table[i] - 1] != key)
+			i = (i + 1) & tableMask;
+		table[i] = 0;
+
+		for (int j = (i + 1) & tableMask; table[j] != 0; j = (j + 1) & tableMask)
+		{
+			int home = (int) HyperLogLog.mix(keys[table[j] - 1]) & tableMask;
+
+			//the entry at j may move into the hole at i unless its home lies cyclically within (i, j].
+			boolean reachable = (i <= j) ? (home > i && home <= j) : (home > i || home <= j);
+			if (!reachable)
+			{
+				table[i] = table[j];
+				table[j] = 0;
+				i = j;
+			}
+		}
+	}
+
+	private void siftUp(int position)
+	{
+		int counter = heap[position];
+		while (position > 0)
+		{
+			int parent = (position - 1) >>> 1;
+			if (counts[heap[parent]] <= counts[counter])
+				break;
+			this.place(heap[parent], position);
+			position = parent;
+		}
+		this.place(counter, position);
+	}
+
+	private void siftDown(int position)
+	{
+		int counter = heap[position];
+		while (true)
+		{
+			int child = 2 * position + 1;
+			if (child >= size)
+				break;
+			if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]])
+				child++;
+			if (counts[heap[child]] >= counts[counter])
+				break;
+			this.place(heap[child], position);
+			position = child;
+		}
+		this.place(counter, position);
+	}
+
+	private void place(int counter, int position)
+	{
+		heap[position] = counter;
+		heapPositions[counter] = position;
+	}
+
+	/**
+	* Writes the capacity and the counters.
+	*/
+	public void write(DataOutput out) throws IOException
+	{
+		out.writeInt(capacity);
+		out.writeInt(size);
+		for (int i = 0; i < size; i++)
+		{
+			out.writeLong(keys[i]);
+			out.writeUTF(labels[i]);
+			out.writeLong(counts[i]);
+			out.writeLong(errors[i]);
+		}
+	}
+
+	/**
+	* Reads a sketch written by write().
+	*/
+	public static SpaceSavingSketch read(DataInput in) throws IOException
+	{
+		int capacity = in.readInt();
+		int size = in.readInt();
+		if (capacity < 1 || size < 0 || size > capacity)
+			throw new IOException("Invalid Space-Saving sketch of " + size + " / " + capacity + " counters");
+		SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+		for (int i = 0; i < size; i++)
+		{
+			long key = in.readLong();
+			String label = in.readUTF();
+			long count = in.readLong();
+			long error = in.readLong();
+			sketch.offer(key, label, count);
+			sketch.errors[sketch.find(key)] = error;
+		}
+		return sketch;
+	}
+}
@@ -0,0 +1,473 @@
+package travel;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * A bounded, lock-free queue of submissions which any number of threads add to and a single consumer drains in batches.
+ *
+ * <PRE>
+ * Filename:         SubmissionQueue.java
+ *
+ * Description:      Itineraries may be submitted by the view, an import or any other source at the same time, while the
+ *		     downstream work (validation and persistence) is cheapest when it handles many at once.  This queue sits
+ *		     between the two.  It is a ring of power of two size in which every slot carries a sequence number, as
+ *		     described by D. Vyukov: a producer claims a slot by advancing the tail with a single compare and set,
+ *		     stores its element and then publishes it by advancing the slot's sequence.  The consumer takes the
+ *		     elements in order and hands the slot back by advancing its sequence by the capacity.  No locks are
+ *		     taken and nothing is allocated once the queue has been created.
+ *
+ *		     The queue never grows.  When it is full, offer() returns false at once and offer() with a timeout
+ *		     backs off (spinning, yielding and then parking) until there is room or the timeout has passed, so a
+ *		     slow consumer pushes back on the producers rather than exhausting the heap.  isUnderPressure() tells
+ *		     producers that the queue is filling up before it is full.
+ *
+ *		     The consumer is either a thread started with start(), which passes batches of up to maxBatch
+ *		     elements to a BatchHandler, or any single thread calling drain().  While the queue stays empty the
+ *		     consumer thread parks for twice as long each time, up to MAX_IDLE_PARK_NANOS, and offer() wakes it as
+ *		     soon as an element is added, so an idle queue costs almost nothing.  The elements should be immutable
+ *		     (e.g. an Itinerary), since they are handed from one thread to another.
+ *
+ *		     Usage:  java travel.SubmissionQueue [producers] [seconds]   (measures the throughput of the queue)
+ *
+ * Nested Class:     BatchHandler
+ *
+ * Aggregation Of:	 MainController.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.101
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   The idle consumer parks for growing periods and is woken by offer(), rather than waking every 50us.
+ * </PRE>
+  */
+
+public class SubmissionQueue<E>
+{
+	//The share of the capacity above which the queue reports that it is under pressure.
+	private final static double HIGH_WATER_SHARE = 0.75;
+
+	//How long the consumer thread parks while the queue is empty, and the longest a waiting producer parks at once.
+	private final static long IDLE_PARK_NANOS = 50000L;
+
+	//The longest the consumer thread parks at once while the queue stays empty.  A producer wakes it on adding an element,
+	//so this only bounds the delay should the wake up be missed by a producer racing with the consumer going to sleep.
+	private final static long MAX_IDLE_PARK_NANOS = 100000000L;
+
+	private final int capacity;
+	private final int mask;
+	private final int highWater;
+	private final AtomicReferenceArray<E> elements;
+	private final AtomicLongArray sequences;
+
+	//The next position to be claimed by a producer, which is also the number of elements accepted.
+	private final AtomicLong tail = new AtomicLong();
+
+	//The next position to be taken by the consumer, which is also the number of elements consumed.
+	private final AtomicLong head = new AtomicLong();
+
+	private final LongAdder rejections = new LongAdder();
+	private volatile long batchCount;
+	private volatile int maxDepth;
+
+	private volatile Thread consumer;
+	private volatile boolean stopping;
+	private volatile boolean consumerParked;
+
+	/**
+	* Handles the batches taken from the queue by the consumer thread.
+	*/
+	public interface BatchHandler<E>
+	{
+		/**
+		* Handles the elements of a batch, in the order they were accepted.  The List is reused for the next batch and must
+		* not be kept.
+		*/
+		public void handle(List<E> batch);
+	}
+
+	/*
+	* The constructor rounds the capacity up to a power of two.
+	*/
+	public SubmissionQueue(int capacity)
+	{
+		if (capacity < 2 || capacity > (1 << 30))
+			throw new IllegalArgumentException("The capacity must lie between 2 and 2^30: " + capacity);
+		this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = this.capacity - 1;
+		this.highWater = (int) (this.capacity * HIGH_WATER_SHARE);
+		this.elements = new AtomicReferenceArray<E>(this.capacity);
+		this.sequences = new AtomicLongArray(this.capacity);
+		for (int i = 0; i < this.capacity; i++)
+			sequences.set(i, i);
+	}
+
+	/**
+	* Adds the element if there is room and returns true, or returns false at once when the queue is full.
+	*/
+	public boolean offer(E element)
+	{
+		if (this.offerQuietly(element))
+			return true;
+		rejections.increment();
+		return false;
+	}
+
+	/**
+	* Adds the element, waiting up to the timeout for room when the queue is full.  Returns false if there was no room in
+	* time or the thread was interrupted.
+	*/
+	public boolean offer(E element, long timeout, TimeUnit unit)
+	{
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		for (int attempt = 0; ; attempt++)
+		{
+			if (this.offerQuietly(element))
+				return true;
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0 || Thread.currentThread().isInterrupted())
+			{
+				rejections.increment();
+				return false;
+			}
+			backOff(attempt, remaining);
+		}
+	}
+
+	/*
+	* Adds the element if there is room, without counting a rejection when there is not.
+	*/
+	private boolean offerQuietly(E element)
+	{
+		if (element == null)
+			throw new NullPointerException();
+		while (true)
+		{
+			long position = tail.get();
+			int slot = (int) position & mask;
+			long difference = sequences.get(slot) - position;
+			if (difference == 0)
+			{
+				if (tail.compareAndSet(position, position + 1))
+				{
+					elements.lazySet(slot, element);
+					sequences.lazySet(slot, position + 1);
+					if (consumerParked)
+						this.wakeConsumer();
+					return true;
+				}
+			}
+			else if (difference < 0)
+			{
+				//the slot still holds the element from one lap before, which the consumer has not taken yet.
+				return false;
+			}
+			//otherwise another producer claimed the position first, so the next one is tried.
+		}
+	}
+
+	/*
+	* Wakes the consumer thread, if there is one, once it has parked on an empty queue.
+	*/
+	private void wakeConsumer()
+	{
+		Thread thread = consumer;
+		if (thread != null)
+			LockSupport.unpark(thread);
+	}
+
+	/*
+	* Waits a little longer on each attempt: spinning at first, then yielding, then parking.
+	*/
+	private static void backOff(int attempt, long remainingNanos)
+	{
+		if (attempt < 64)
+			return;
+		if (attempt < 128)
+			Thread.yield();
+		else
+			LockSupport.parkNanos(Math.min(IDLE_PARK_NANOS, remainingNanos));
+	}
+
+	/**
+	* Moves up to batch.length elements into the batch and returns how many were moved.  Only one thread may consume the
+	* queue, so this method may not be called while a consumer thread is running.
+	*/
+	public int drain(E[] batch)
+	{
+		long position = head.get();
+		int count = 0;
+		while (count < batch.length)
+		{
+			E element = this.take(position);
+			if (element == null)
+				break;
+			batch[count++] = element;
+			position++;
+		}
+		if (count > 0)
+			this.finishBatch(position, count);
+		return count;
+	}
+
+	/*
+	* Takes the element at the position if it has been published, handing its slot back to the producers.
+	*/
+	private E take(long position)
+	{
+		int slot = (int) position & mask;
+		if (sequences.get(slot) != position + 1)
+			return null;
+		E element = elements.get(slot);
+		elements.lazySet(slot, null);
+		sequences.lazySet(slot, position + capacity);
+		return element;
+	}
+
+	/*
+	* Records the depth seen at the start of the batch and moves the head past it.
+	*/
+	private void finishBatch(long position, int count)
+	{
+		long depth = tail.get() - (position - count);
+		if (depth > maxDepth)
+			maxDepth = (int) Math.min(depth, capacity);
+		batchCount++;
+		head.lazySet(position);
+	}
+
+	/**
+	* Starts the consumer thread, which passes batches of up to maxBatch elements to the handler.  An exception thrown by the
+	* handler is reported and the consumer carries on with the next batch.
+	*/
+	public synchronized void start(final BatchHandler<E> handler, final int maxBatch, String threadName)
+	{
+		if (consumer != null)
+			throw new IllegalStateException("The queue already has a consumer");
+		stopping = false;
+		consumer = new Thread(threadName)
+		{
+			public void run()
+			{
+				consume(handler, Math.max(1, maxBatch));
+			}
+		};
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+
+	/*
+	* The loop of the consumer thread.  It ends once stop() has been called and the queue is empty.
+	*/
+	private void consume(BatchHandler<E> handler, int maxBatch)
+	{
+		ArrayList<E> batch = new ArrayList<E>(maxBatch);
+		int idle = 0;
+		long parkNanos = IDLE_PARK_NANOS;
+		while (true)
+		{
+			long position = head.get();
+			E element;
+			while (batch.size() < maxBatch && (element = this.take(position)) != null)
+			{
+				batch.add(element);
+				position++;
+			}
+
+			if (batch.isEmpty())
+			{
+				if (stopping)
+					return;
+				if (idle < 128)
+				{
+					backOff(idle++, IDLE_PARK_NANOS);
+					continue;
+				}
+
+				//the flag is raised before the queue is looked at again, so an element added after the look wakes the thread.
+				consumerParked = true;
+				if (sequences.get((int) position & mask) != position + 1 && !stopping)
+				{
+					LockSupport.parkNanos(this, parkNanos);
+					parkNanos = Math.min(parkNanos * 2, MAX_IDLE_PARK_NANOS);
+				}
+				consumerParked = false;
+				continue;
+			}
+
+			idle = 0;
+			parkNanos = IDLE_PARK_NANOS;
+			this.finishBatch(position, batch.size());
+			try
+			{
+				handler.handle(batch);
+			}
+			catch (RuntimeException e)
+			{
+				System.err.println("A batch of " + batch.size() + " submissions could not be handled: " + e);
+			}
+			batch.clear();
+		}
+	}
+
+	/**
+	* Stops the consumer thread once it has handled every element accepted so far, waiting up to the timeout for it.
+	* Returns true if the consumer has stopped.
+	*/
+	public boolean stop(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		Thread thread;
+		synchronized (this)
+		{
+			thread = consumer;
+			if (thread == null)
+				return true;
+			stopping = true;
+		}
+		LockSupport.unpark(thread);
+		thread.join(Math.max(1, unit.toMillis(timeout)));
+		synchronized (this)
+		{
+			if (thread.isAlive())
+				return false;
+			consumer = null;
+			return true;
+		}
+	}
+
+	/**
+	* Returns the number of elements waiting within the queue.
+	*/
+	public int size()
+	{
+		long size = tail.get() - head.get();
+		return (int) Math.max(0, Math.min(size, capacity));
+	}
+
+	/**
+	* Returns the largest number of elements the queue can hold.
+	*/
+	public int getCapacity()
+	{
+		return capacity;
+	}
+
+	/**
+	* Returns true when the queue is more than HIGH_WATER_SHARE full, so that producers may slow down before they are
+	* turned away.
+	*/
+	public boolean isUnderPressure()
+	{
+		return this.size() >= highWater;
+	}
+
+	/**
+	* Returns the number of elements accepted by the queue.
+	*/
+	public long getAcceptedCount()
+	{
+		return tail.get();
+	}
+
+	/**
+	* Returns the number of elements turned away because the queue was full.
+	*/
+	public long getRejectedCount()
+	{
+		return rejections.sum();
+	}
+
+	/**
+	* Returns the number of elements taken by the consumer.
+	*/
+	public long getConsumedCount()
+	{
+		return head.get();
+	}
+
+	/**
+	* Returns the number of batches taken by the consumer.
+	*/
+	public long getBatchCount()
+	{
+		return batchCount;
+	}
+
+	/**
+	* Returns the deepest the queue has been at the start of a batch.
+	*/
+	public int getMaxDepth()
+	{
+		return maxDepth;
+	}
+
+	/**
+	* Prints the counts of the queue.
+	*/
+	public void printStatistics(PrintStream out)
+	{
+		long batches = batchCount;
+		out.println("Capacity:      " + capacity);
+		out.println("Accepted:      " + this.getAcceptedCount());
+		out.println("Rejected:      " + this.getRejectedCount());
+		out.println("Consumed:      " + this.getConsumedCount());
+		out.println("Depth:         " + this.size() + " (max " + maxDepth + ")");
+		out.printf("Batches:       %d (average %.1f)%n", batches, batches == 0 ? 0.0 : (double) this.getConsumedCount() / batches);
+	}
+
+	/**
+	* Measures the throughput of the queue with the given number of producer threads, each offering the same Itinerary with
+	* a timeout, for the given number of seconds.
+	*/
+	public static void main(String[] args) throws InterruptedException
+	{
+		int producers = (args.length > 0) ? Integer.parseInt(args[0]) : 4;
+		int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+
+		final SubmissionQueue<Itinerary> queue = new SubmissionQueue<Itinerary>(1 << 16);
+		final Itinerary itinerary = new Itinerary(0, 1, 20000, 20007, PreferredTimeWindow.MORNING, PreferredTimeWindow.ANYTIME, 2);
+		final long[] handled = new long[1];
+		queue.start(new BatchHandler<Itinerary>()
+		{
+			public void handle(List<Itinerary> batch)
+			{
+				for (int i = 0; i < batch.size(); i++)
+					handled[0] += batch.get(i).getPassengers();
+			}
+		}, 1024, "submission-consumer");
+
+		final long end = System.nanoTime() + seconds * 1000000000L;
+		Thread[] threads = new Thread[producers];
+		for (int i = 0; i < producers; i++)
+		{
+			threads[i] = new Thread("producer-" + i)
+			{
+				public void run()
+				{
+					while (System.nanoTime() < end)
+					{
+						for (int j = 0; j < 1000; j++)
+							queue.offer(itinerary, 10, TimeUnit.MILLISECONDS);
+					}
+				}
+			};
+			threads[i].start();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < producers; i++)
+			threads[i].join();
+		queue.stop(10, TimeUnit.SECONDS);
+		long elapsed = System.nanoTime() - start;
+
+		queue.printStatistics(System.out);
+		System.out.println("Producers:     " + producers);
+		System.out.println("Throughput:    " + (long) (queue.getConsumedCount() * 1e9 / elapsed) + " submissions/s");
+	}
+}
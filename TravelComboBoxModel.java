@@ -23,14 +23,15 @@ import javax.swing.*;
  *
  * Maintainer:       A. Cave
  *
- * Version:          0.102
+ * Version:          0.103
  *
- * Lasted Modified:  04/19/2010  by: A. Cave
+ * Lasted Modified:  10/19/2026  by: A. Cave
  *
  * Changes Made -------
  * 0.100: A. Cave   Initial Version.
  * 0.101: A. Cave	Replaced Vector<?> with arrays for storing the data values
  * 0.102: A. Cave	Cleaned up dead code and finalized commenting
+ * 0.103: A. Cave	The preferred times are taken from the labels of the PreferredTimeWindow values.
  * </PRE>
   */
 
@@ -53,7 +54,7 @@ public class TravelComboBoxModel
 	private String[] monthArrayModel;
 	private String[] dayArrayModel;
 	private String[] yearArrayModel;
-	private String[] stringPreferredTimes = new String[]{DEFAULT_TIME,"early morning","morning","noon","afternoon","early evening","red eye"};
+	private String[] stringPreferredTimes = PreferredTimeWindow.labels();
 	private Integer[] intPassengersArray = new Integer[MAX_PASSENGERS];
 
 	//The constructor populates the necessary data structures upon Object Construction, starting with the default value (if any)
@@ -17,19 +17,66 @@ import javax.swing.*;
  *
  * Maintainer:       A. Cave
  *
- * Version:          0.102
+ * Version:          0.116
  *
- * Lasted Modified:  04/22/2010  by: A. Cave
+ * Lasted Modified:  10/19/2026  by: A. Cave
  *
  * Changes Made -------
  * 0.100: A. Cave   Initial Version.
  * 0.101: A. Cave	Modified the classes to reflect new class names.
  * 0.102: A. Cave   Remove dead code and finalize comments.
+ * 0.103: A. Cave   Added the "-record traceFile" option for recording the user interactions with a UIEventRecorder.
+ * 0.104: A. Cave   The MainController is given a DuplicateSubmissionFilter covering the last 24 hours.
+ * 0.105: A. Cave   The form is restored from the SessionStore before the view is displayed and saved when it is closed.
+ * 0.106: A. Cave   The business rules are loaded from the RULE_FILE into a ValidationRuleEngine, if the file exists.
+ * 0.107: A. Cave   Added the "-rapid" option for the rapid entry mode, where Enter submits and the form resets in place.
+ * 0.108: A. Cave   The route schedule is loaded from the SCHEDULE_FILE into a RouteAvailabilityIndex, if the file exists.
+ * 0.109: A. Cave   Added the "-diagnostics [reportFile]" option, which prints the MemoryDiagnostics report instead of opening the form.
+ * 0.110: A. Cave   The rapid entry mode queues onto a SubmissionQueue whose consumer appends batches to the SUBMISSION_FILE.
+ * 0.111: A. Cave   Accepted itineraries are recorded by an ItineraryAnalytics, kept between sessions within the ANALYTICS_FILE.
+ * 0.112: A. Cave   Added the "-cachedLayout" option, which lays out the view with a CachedFormLayout.
+ * 0.113: A. Cave   The known places are loaded from the PLACE_FILE into a PlaceNameIndex for suggesting corrections, if the file exists.
+ * 0.114: A. Cave   The flights and fares are loaded from the FARE_FILE into a FareCalendar showing the cheapest trip, if the file exists.
+ * 0.115: A. Cave   The SUBMISSION_FILE records the travellers of group bookings queued in the rapid entry mode.
+ * 0.116: A. Cave   The location aliases are loaded from the ALIAS_FILE into the LocationPool before the schedule and fares, if the file exists.
  * </PRE>
   */
 
 public class TravelForm
 {
+	//The number of itineraries a single operator is expected to submit within a day, used for sizing the duplicate filter.
+	private final static int EXPECTED_DAILY_SUBMISSIONS = 100000;
+
+	//How often the fields which changed are written to the session journal.
+	private final static int AUTO_SAVE_MILLIS = 5000;
+
+	//The declarations of the business rules, looked up within the working directory.
+	private final static String RULE_FILE = "validation.rules";
+
+	//The aliases of locations ("LAX = Los Angeles"), looked up within the working directory.
+	private final static String ALIAS_FILE = "aliases.txt";
+
+	//The days on which each route is flown, looked up within the working directory.
+	private final static String SCHEDULE_FILE = "schedule.txt";
+
+	//The known places, one per line in order of preference, looked up within the working directory.
+	private final static String PLACE_FILE = "places.txt";
+
+	//The flights of each route and their fares, looked up within the working directory.
+	private final static String FARE_FILE = "fares.txt";
+
+	//The itineraries queued in the rapid entry mode are appended to this file within the working directory.
+	private final static String SUBMISSION_FILE = "submissions.txt";
+
+	//The number of itineraries the rapid entry mode may queue before the operator is asked to wait.
+	private final static int SUBMISSION_QUEUE_CAPACITY = 4096;
+
+	//The most itineraries written to the SUBMISSION_FILE at once.
+	private final static int SUBMISSION_BATCH = 256;
+
+	//The analytics of the accepted itineraries, kept within the working directory.
+	private final static String ANALYTICS_FILE = "analytics.dat";
+
 	/**
 	* This is the main execution method. First, the data model objects are instantiated.  Then, the view
 	* denoted by TravelItineraryView is instantiated and packed. Next, the MainController object is initialized and accepts the
@@ -38,15 +85,186 @@ public class TravelForm
 	*   -  registers the necessary listeners with the view to update the TravelFormModel based on user interactions.
 	*   -  renders the view with the values encapsulated within the TravelFormModel object.
 	*  The TravelFormModel object is validated when the user decides to submit the form.
+	*  When started with "-record traceFile", every user interaction is also written to the trace file until the program exits.
+	*  The form left open by the previous session is restored from the SessionStore before the view is made visible.
+	*  When started with "-rapid", the rapid entry mode is switched on and the Enter key submits the form.  The queued
+	*  itineraries are appended to the SUBMISSION_FILE.
+	*  When started with "-diagnostics [reportFile]", the MemoryDiagnostics report is written instead and no form is opened.
+	*  When started with "-cachedLayout", the view measures its layout once rather than on every revalidate.
 	*/
-	public static void main(String[] args)
+	public static void main(String[] args) throws java.io.IOException
 	{
+		int diagnostics = java.util.Arrays.asList(args).indexOf("-diagnostics");
+		if (diagnostics >= 0)
+		{
+			java.io.File reportFile = (diagnostics + 1 < args.length) ? new java.io.File(args[diagnostics + 1]) : null;
+			try
+			{
+				MemoryDiagnostics.run(reportFile, MemoryDiagnostics.DEFAULT_SAMPLES);
+			}
+			catch (Exception e)
+			{
+				System.err.println("Unable to complete the diagnostics: " + e);
+			}
+			return;
+		}
+
+		final SessionStore sessionStore = new SessionStore(new java.io.File(System.getProperty("user.home"), ".travelform"));
+		java.util.List<TravelFormModel> drafts;
+		try
+		{
+			drafts = sessionStore.restore();
+		}
+		catch (java.io.IOException e)
+		{
+			System.err.println("Unable to restore the previous session: " + e.getMessage());
+			drafts = new java.util.ArrayList<TravelFormModel>();
+		}
+
 		TravelComboBoxModel comboBoxModel = new TravelComboBoxModel();
-		TravelFormModel travelModel = new TravelFormModel();
-		TravelItineraryView view = new TravelItineraryView();
+		TravelFormModel travelModel = drafts.isEmpty() ? new TravelFormModel() : drafts.get(0);
+		sessionStore.register(travelModel);
+		TravelItineraryView view = new TravelItineraryView(java.util.Arrays.asList(args).contains("-cachedLayout"));
 		MainController frontController = new MainController(travelModel, view, comboBoxModel);
+		LocationPool locationPool = new LocationPool();
+		java.io.File aliasFile = new java.io.File(ALIAS_FILE);
+		if (aliasFile.exists())
+		{
+			locationPool.loadAliases(aliasFile);
+		}
+		java.io.File scheduleFile = new java.io.File(SCHEDULE_FILE);
+		if (scheduleFile.exists())
+		{
+			frontController.setAvailabilityIndex(RouteAvailabilityIndex.load(scheduleFile, locationPool), locationPool);
+		}
+		java.io.File placeFile = new java.io.File(PLACE_FILE);
+		if (placeFile.exists())
+		{
+			frontController.setPlaceIndex(PlaceNameIndex.shared(placeFile));
+		}
+		java.io.File fareFile = new java.io.File(FARE_FILE);
+		if (fareFile.exists())
+		{
+			frontController.setFareCalendar(new FareCalendar(FareTable.load(fareFile, locationPool)), locationPool);
+		}
+
+		java.io.File ruleFile = new java.io.File(RULE_FILE);
+		frontController.setRuleEngine(ruleFile.exists() ? ValidationRuleEngine.load(ruleFile) : ValidationRuleEngine.defaultRules());
+		frontController.setDuplicateFilter(new DuplicateSubmissionFilter(EXPECTED_DAILY_SUBMISSIONS, 0.001, 24L * 60 * 60 * 1000, 4, EXPECTED_DAILY_SUBMISSIONS));
+
+		final ItineraryAnalytics analytics = new ItineraryAnalytics();
+		final java.io.File analyticsFile = new java.io.File(ANALYTICS_FILE);
+		if (analyticsFile.exists())
+		{
+			try
+			{
+				analytics.merge(analyticsFile);
+			}
+			catch (java.io.IOException e)
+			{
+				System.err.println("Unable to restore the analytics: " + e.getMessage());
+			}
+		}
+		frontController.setAnalytics(analytics);
+
+		SubmissionQueue<Itinerary> submissionQueue = null;
+		if (java.util.Arrays.asList(args).contains("-rapid"))
+		{
+			submissionQueue = startSubmissionQueue(locationPool);
+			frontController.enableRapidEntry(submissionQueue, locationPool);
+			view.getRootPane().setDefaultButton(view.getSubmitButton());
+		}
+		final SubmissionQueue<Itinerary> queueToDrain = submissionQueue;
+
+		int record = java.util.Arrays.asList(args).indexOf("-record");
+		if (record >= 0 && record + 1 < args.length)
+		{
+			final UIEventRecorder recorder = new UIEventRecorder(new java.io.File(args[record + 1]));
+			frontController.setEventRecorder(recorder);
+
+			//EXIT_ON_CLOSE ends the program through System.exit(), so the trace is completed by a shutdown hook.
+			Runtime.getRuntime().addShutdownHook(new Thread()
+			{
+				public void run()
+				{
+					recorder.close();
+				}
+			});
+		}
+
+		//EXIT_ON_CLOSE ends the program once the window listeners have run, so the final snapshot is written here.
+		view.addWindowListener(new java.awt.event.WindowAdapter()
+		{
+			public void windowClosing(java.awt.event.WindowEvent evt)
+			{
+				sessionStore.close();
+				try
+				{
+					analytics.write(analyticsFile);
+				}
+				catch (java.io.IOException e)
+				{
+					System.err.println("Unable to save the analytics: " + e.getMessage());
+				}
+				if (queueToDrain != null)
+				{
+					try
+					{
+						queueToDrain.stop(5, java.util.concurrent.TimeUnit.SECONDS);
+					}
+					catch (InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		});
+		sessionStore.startAutoSave(AUTO_SAVE_MILLIS);
 
 		//set the frame visible
 		view.setVisible(true);
 	}
+
+	/*
+	* Creates the SubmissionQueue of the rapid entry mode along with the consumer which appends each batch of itineraries to
+	* the SUBMISSION_FILE, one line per itinerary:  from|to|departure date|departure time|return date|return time|passengers
+	* A group booking adds a final field holding its travellers separated by ';', each written as "last,first,yyyy-mm-dd,document"
+	* as read by PassengerManifest.addLine().
+	*/
+	private static SubmissionQueue<Itinerary> startSubmissionQueue(final LocationPool locationPool) throws java.io.IOException
+	{
+		final java.io.Writer out = new java.io.BufferedWriter(new java.io.OutputStreamWriter(
+			new java.io.FileOutputStream(SUBMISSION_FILE, true), "UTF-8"));
+		SubmissionQueue<Itinerary> submissionQueue = new SubmissionQueue<Itinerary>(SUBMISSION_QUEUE_CAPACITY);
+		submissionQueue.start(new SubmissionQueue.BatchHandler<Itinerary>()
+		{
+			public void handle(java.util.List<Itinerary> batch)
+			{
+				try
+				{
+					for (int i = 0; i < batch.size(); i++)
+					{
+						Itinerary itinerary = batch.get(i);
+						out.write(locationPool.getName(itinerary.getFromLocationId()) + "|" + locationPool.getName(itinerary.getToLocationId())
+							+ "|" + Itinerary.formatDay(itinerary.getDepartureDay()) + "|" + itinerary.getDepartureWindow().getLabel()
+							+ "|" + Itinerary.formatDay(itinerary.getReturnDay()) + "|" + itinerary.getReturnWindow().getLabel()
+							+ "|" + itinerary.getPassengers());
+						PassengerManifest travellers = itinerary.getTravellers();
+						for (int row = 0; travellers != null && row < travellers.size(); row++)
+						{
+							out.write((row == 0 ? "|" : ";") + travellers.getLastName(row) + "," + travellers.getFirstName(row) + ","
+								+ PassengerManifest.formatBirthDate(travellers.getBirthDate(row)) + "," + travellers.getDocumentNumber(row));
+						}
+						out.write("\n");
+					}
+					out.flush();
+				}
+				catch (java.io.IOException e)
+				{
+					System.err.println("Unable to write " + batch.size() + " itineraries to " + SUBMISSION_FILE + ": " + e.getMessage());
+				}
+			}
+		}, SUBMISSION_BATCH, "submission-writer");
+		return submissionQueue;
+	}
 }
\ No newline at end of file
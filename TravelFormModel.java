@@ -13,9 +13,11 @@ import java.text.*;
  *		     		This class makes use of a static nested class called TravelDate, which stores the
  *		     		Month, Day, Year and Preferred Time of the either the Return Date or Departure Date. This
  *		     		class serves as the primary data model to be used for any view which wishes to represent a
- *		     		Travel Form model.
+ *		     		Travel Form model.  The nested enum Field lists the fields of the form as text, which is how
+ *		     		they are saved by the SessionStore, checked by the ValidationRuleEngine and written by the
+ *		     		ItineraryRecordFormat.
  *
- * Nested Class:     TravelDate
+ * Nested Class:     TravelDate, Field
  *
  * Instantiated By:  TravelForm.java
  *
@@ -23,15 +25,23 @@ import java.text.*;
  *
  * Maintainer:       A. Cave
  *
- * Version:          0.102
+ * Version:          0.111
  *
- * Last Modified:  	04/20/2010  by: A. Cave
+ * Last Modified:  	10/19/2026  by: A. Cave
  *
  * Changes Made -------
  * 0.100: A. Cave   Initial Version.
  * 0.101: A. Cave   Added the isValid() method into class and removed the TravelFormConfirmation Class
  * 0.102: A. Cave	Removed dead code and finalized comments.
  * 0.103: A. Cave   Modified method "isFormValid" to class method "submit(TravelFormModel travelForm)".
+ * 0.104: A. Cave   Added the fingerprint() method used for detecting duplicate submissions.
+ * 0.105: A. Cave   Added the optional PassengerManifest of group bookings.
+ * 0.106: A. Cave   Added TravelDate.getPreferredTimeWindow() for matching against departure times.
+ * 0.107: A. Cave   Added TravelDate.toEpochDay() and fromEpochDay() for the compact Itinerary representation.
+ * 0.108: A. Cave   Added reset() so that the same form can be used for the next itinerary.
+ * 0.109: A. Cave   Added TravelDate.getMonthNumber() and getYearNumber().
+ * 0.110: A. Cave   The fingerprint covers the travellers of an attached PassengerManifest.
+ * 0.111: A. Cave   Added the Field enum, taking over the field constants and accessors of the SessionStore.
  * </PRE>
   */
 
@@ -42,6 +52,7 @@ public class TravelFormModel
 	private String fromLocation;
 	private String toLocation;
 	private Integer numberOfPassengers;
+	private PassengerManifest passengerManifest;
 
 	/*
 	* The constructor initializes all variables with empty values.
@@ -55,6 +66,21 @@ public class TravelFormModel
 		numberOfPassengers = new Integer(1);
 	}
 
+	/**
+	* This method returns every field to the value it had when the form was constructed, without allocating new objects.
+	* The passenger manifest, if any, is emptied but stays attached.
+	*/
+	public void reset()
+	{
+		fromLocation = "";
+		toLocation = "";
+		departureDate.reset();
+		returnDate.reset();
+		numberOfPassengers = Integer.valueOf(1);
+		if (passengerManifest != null)
+			passengerManifest.clear();
+	}
+
 	/**
 	* This method sets the From Location (aka Departure) with the parameter value passed.
 	*/
@@ -119,18 +145,55 @@ public class TravelFormModel
 		return numberOfPassengers;
 	}
 
+	/**
+	* This method attaches the manifest of a group booking, or removes it when passed null.
+	*/
+	public void setPassengerManifest(PassengerManifest passengerManifest)
+	{
+		this.passengerManifest = passengerManifest;
+	}
+
+	/**
+	* This method returns the manifest of a group booking, or null if the itinerary is not a group booking.
+	*/
+	public PassengerManifest getPassengerManifest()
+	{
+		return passengerManifest;
+	}
+
+	/**
+	* This method returns the number of travellers of the itinerary.  When a manifest holding travellers is attached, this is
+	* the size of the manifest, otherwise it is the number of passengers selected by the user.
+	*/
+	public int getPassengerCount()
+	{
+		if (passengerManifest != null && passengerManifest.size() > 0)
+			return passengerManifest.size();
+		return numberOfPassengers.intValue();
+	}
+
 	/**
 	* This method determines if the submitted form meets all the necessary business requirements.
 	*/
 	public static boolean submit(TravelFormModel travelForm)
 	{
-		boolean condition1, condition2;
+		boolean condition1, condition2, condition3;
 
 		condition1 = travelForm.verifyTextFields();
 
 		condition2 = travelForm.verifyTravelDates();
 
-		return (condition1 && condition2);
+		condition3 = travelForm.verifyPassengerManifest();
+
+		return (condition1 && condition2 && condition3);
+	}
+
+	/*
+	* This method verifies that every traveller of the manifest, if there is one, has valid details.
+	*/
+	private boolean verifyPassengerManifest()
+	{
+		return (passengerManifest == null || passengerManifest.getInvalidCount() == 0);
 	}
 
 	/*
@@ -156,13 +219,187 @@ public class TravelFormModel
 		return (date1 && date2);
 	}
 
+	/**
+	* This method returns a stable 64-bit fingerprint of the itinerary.  The locations are normalized by trimming them, collapsing
+	* runs of white space and ignoring case, so that "New  York " and "new york" produce the same fingerprint.  The fields are hashed
+	* with 64-bit FNV-1a, separated by a unit separator character, and the result is mixed so that every bit depends on every field.
+	* The fingerprint does not depend on String.hashCode() and is therefore the same between runs of the program.
+	* When a PassengerManifest holding travellers is attached, the number of travellers and the normalized details of each
+	* traveller are included, in any order, so that two group bookings of the same trip are only alike when their travellers are.
+	*/
+	public long fingerprint()
+	{
+		long hash = 0xcbf29ce484222325L;
+		hash = hashNormalized(hash, fromLocation);
+		hash = hashNormalized(hash, toLocation);
+		hash = hashNormalized(hash, departureDate.getMonth());
+		hash = hashNormalized(hash, departureDate.getDay());
+		hash = hashNormalized(hash, departureDate.getYear());
+		hash = hashNormalized(hash, departureDate.getPreferredTime());
+		hash = hashNormalized(hash, returnDate.getMonth());
+		hash = hashNormalized(hash, returnDate.getDay());
+		hash = hashNormalized(hash, returnDate.getYear());
+		hash = hashNormalized(hash, returnDate.getPreferredTime());
+		hash = (hash ^ getPassengerCount()) * 0x100000001b3L;
+		if (passengerManifest != null && passengerManifest.size() > 0)
+		{
+			//each traveller is hashed on its own and the results summed, so the order of the rows does not matter.
+			long travellers = 0;
+			for (int row = 0; row < passengerManifest.size(); row++)
+			{
+				long traveller = 0xcbf29ce484222325L;
+				traveller = hashNormalized(traveller, passengerManifest.getLastName(row));
+				traveller = hashNormalized(traveller, passengerManifest.getFirstName(row));
+				traveller = hashNormalized(traveller, passengerManifest.getDocumentNumber(row));
+				traveller = (traveller ^ passengerManifest.getBirthDate(row)) * 0x100000001b3L;
+				traveller ^= traveller >>> 33;
+				traveller *= 0xff51afd7ed558ccdL;
+				travellers += traveller ^ (traveller >>> 33);
+			}
+			hash = (hash ^ travellers) * 0x100000001b3L;
+		}
+
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	/*
+	* Folds the characters of the value into the FNV-1a hash, skipping leading and trailing white space, treating each run of white
+	* space as a single space and ignoring case.  A unit separator is folded in afterwards to mark the end of the field.
+	*/
+	private static long hashNormalized(long hash, String value)
+	{
+		int start = 0;
+		int end = value.length();
+		while (start < end && Character.isWhitespace(value.charAt(start)))
+			start++;
+		while (end > start && Character.isWhitespace(value.charAt(end - 1)))
+			end--;
+
+		boolean inWhitespace = false;
+		for (int i = start; i < end; i++)
+		{
+			char c = value.charAt(i);
+			if (Character.isWhitespace(c))
+			{
+				inWhitespace = true;
+				continue;
+			}
+			if (inWhitespace)
+			{
+				hash = (hash ^ ' ') * 0x100000001b3L;
+				inWhitespace = false;
+			}
+			c = Character.toLowerCase(c);
+			hash = (hash ^ (c & 0xff)) * 0x100000001b3L;
+			hash = (hash ^ (c >>> 8)) * 0x100000001b3L;
+		}
+		return (hash ^ 0x1f) * 0x100000001b3L;
+	}
+
 	/**
 	* This method returns a string representation of the Travel Form object. This method will display each field on a separate
 	* line since this method is called when a successful confirmation has been achieved.
 	*/
 	public String toString()
 	{
-		return "From: "+fromLocation+"\nTo: "+toLocation+"\nDeparting: "+departureDate+"\nReturning: "+returnDate+"\nPassengers: "+numberOfPassengers.intValue();
+		return "From: "+fromLocation+"\nTo: "+toLocation+"\nDeparting: "+departureDate+"\nReturning: "+returnDate+"\nPassengers: "+getPassengerCount();
+	}
+
+/**
+*    The fields of the form as text, in the order they are saved; the ordinal of a field is the number written for it by the
+*    SessionStore, so fields may only be added at the end.  The label is the name of the field within a rule file.
+*/
+	public enum Field
+	{
+		FROM_LOCATION("from"),
+		TO_LOCATION("to"),
+		DEPARTURE_MONTH("departureMonth"),
+		DEPARTURE_DAY("departureDay"),
+		DEPARTURE_YEAR("departureYear"),
+		DEPARTURE_TIME("departureTime"),
+		RETURN_MONTH("returnMonth"),
+		RETURN_DAY("returnDay"),
+		RETURN_YEAR("returnYear"),
+		RETURN_TIME("returnTime"),
+		PASSENGERS("passengers");
+
+		private final static Field[] FIELDS = values();
+
+		private final String label;
+
+		private Field(String label)
+		{
+			this.label = label;
+		}
+
+		/**
+		* Returns the name of the field within a rule file.
+		*/
+		public String getLabel()
+		{
+			return label;
+		}
+
+		/**
+		* Returns the value of the field of the form as text.
+		*/
+		public String get(TravelFormModel form)
+		{
+			switch (this)
+			{
+				case FROM_LOCATION:   return form.getFromLocation();
+				case TO_LOCATION:     return form.getToLocation();
+				case DEPARTURE_MONTH: return form.getDepartureDate().getMonth();
+				case DEPARTURE_DAY:   return form.getDepartureDate().getDay();
+				case DEPARTURE_YEAR:  return form.getDepartureDate().getYear();
+				case DEPARTURE_TIME:  return form.getDepartureDate().getPreferredTime();
+				case RETURN_MONTH:    return form.getReturnDate().getMonth();
+				case RETURN_DAY:      return form.getReturnDate().getDay();
+				case RETURN_YEAR:     return form.getReturnDate().getYear();
+				case RETURN_TIME:     return form.getReturnDate().getPreferredTime();
+				default:              return form.getNumberOfPassengers().toString();
+			}
+		}
+
+		/**
+		* Assigns a value given as text to the field of the form.  Throws a NumberFormatException if the passengers are not
+		* a number.
+		*/
+		public void set(TravelFormModel form, String value)
+		{
+			switch (this)
+			{
+				case FROM_LOCATION:   form.setFromLocation(value); break;
+				case TO_LOCATION:     form.setToLocation(value); break;
+				case DEPARTURE_MONTH: form.getDepartureDate().setMonth(value); break;
+				case DEPARTURE_DAY:   form.getDepartureDate().setDay(value); break;
+				case DEPARTURE_YEAR:  form.getDepartureDate().setYear(value); break;
+				case DEPARTURE_TIME:  form.getDepartureDate().setPreferredTime(value); break;
+				case RETURN_MONTH:    form.getReturnDate().setMonth(value); break;
+				case RETURN_DAY:      form.getReturnDate().setDay(value); break;
+				case RETURN_YEAR:     form.getReturnDate().setYear(value); break;
+				case RETURN_TIME:     form.getReturnDate().setPreferredTime(value); break;
+				default:              form.setNumberOfPassengers(Integer.valueOf(value)); break;
+			}
+		}
+
+		/**
+		* Returns the field named by the label within a rule file.
+		*/
+		public static Field forLabel(String label)
+		{
+			for (int i = 0; i < FIELDS.length; i++)
+			{
+				if (FIELDS[i].label.equals(label))
+					return FIELDS[i];
+			}
+			throw new IllegalArgumentException("No such field exist: " + label);
+		}
 	}
 
 /**
@@ -172,6 +409,9 @@ public class TravelFormModel
 */
 	public static class TravelDate
 	{
+		//The month names offered by the Month Combo Boxes, used for finding the number of a month.
+		private final static String[] MONTH_NAMES = new DateFormatSymbols().getMonths();
+
 		private String month;
 		private String day;
 		private String year;
@@ -181,6 +421,14 @@ public class TravelFormModel
 		* The constructor initializes all of the fields with the appropriate default settings of the TravelComboBoxModel class.
 		*/
 		public TravelDate()
+		{
+			this.reset();
+		}
+
+		/**
+		* This method returns every field to the default settings of the TravelComboBoxModel class.
+		*/
+		public void reset()
 		{
 			month = TravelComboBoxModel.DEFAULT_MONTH;
 			day = TravelComboBoxModel.DEFAULT_DAY;
@@ -256,6 +504,15 @@ public class TravelFormModel
 			return preferredTime;
 		}
 
+		/**
+		* This method returns the window of minutes described by the Preferred Time, which is ANYTIME if the Preferred Time
+		* is not one of the labels offered by the Combo Boxes.
+		*/
+		public PreferredTimeWindow getPreferredTimeWindow()
+		{
+			return PreferredTimeWindow.forLabel(preferredTime);
+		}
+
 		/**
 		* This method verifies the validity of the TravelDate.  As per the business rules, this TravelDate cannot
 		* contain any of the default values from the View's Combo Boxes.
@@ -265,6 +522,99 @@ public class TravelFormModel
 			return (!(month.equals(TravelComboBoxModel.DEFAULT_MONTH)) && !(day.equals(TravelComboBoxModel.DEFAULT_DAY)) && !(year.equals(TravelComboBoxModel.DEFAULT_YEAR)));
 		}
 
+		/**
+		* This method returns the date as the number of days since 1970-01-01, or Itinerary.NO_DATE if the date still contains a
+		* default value or does not exist (e.g. February 30).
+		*/
+		public int toEpochDay()
+		{
+			if (!isDateValid())
+				return Itinerary.NO_DATE;
+
+			int monthNumber = getMonthNumber();
+			int yearNumber = getYearNumber();
+			int dayNumber;
+			try
+			{
+				dayNumber = Integer.parseInt(day);
+			}
+			catch (NumberFormatException e)
+			{
+				return Itinerary.NO_DATE;
+			}
+			if (monthNumber == 0 || yearNumber == 0 || dayNumber < 1 || dayNumber > daysInMonth(yearNumber, monthNumber))
+				return Itinerary.NO_DATE;
+			return toEpochDay(yearNumber, monthNumber, dayNumber);
+		}
+
+		/**
+		* This method returns the number of the month (1 - 12), or 0 if no month has been selected.
+		*/
+		public int getMonthNumber()
+		{
+			for (int i = 0; i < 12; i++)
+			{
+				if (MONTH_NAMES[i].equals(month))
+					return i + 1;
+			}
+			return 0;
+		}
+
+		/**
+		* This method returns the year as a number, or 0 if no year has been selected.
+		*/
+		public int getYearNumber()
+		{
+			try
+			{
+				return Integer.parseInt(year);
+			}
+			catch (NumberFormatException e)
+			{
+				return 0;
+			}
+		}
+
+		/**
+		* Returns the number of days within the month (1 - 12) of the year.
+		*/
+		public static int daysInMonth(int year, int month)
+		{
+			if (month == 2)
+				return ((year % 4 == 0 && year % 100 != 0) || year % 400 == 0) ? 29 : 28;
+			return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+		}
+
+		/**
+		* Returns the number of days between 1970-01-01 and the given date of the proleptic Gregorian calendar.
+		*/
+		public static int toEpochDay(int year, int month, int day)
+		{
+			int y = (month <= 2) ? year - 1 : year;
+			int era = Math.floorDiv(y, 400);
+			int yearOfEra = y - era * 400;
+			int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+			int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+			return era * 146097 + dayOfEra - 719468;
+		}
+
+		/**
+		* Returns the year, month (1 - 12) and day of the date which is the given number of days after 1970-01-01.
+		*/
+		public static int[] fromEpochDay(int epochDay)
+		{
+			int z = epochDay + 719468;
+			int era = Math.floorDiv(z, 146097);
+			int dayOfEra = z - era * 146097;
+			int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+			int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+			int monthPart = (5 * dayOfYear + 2) / 153;
+			int day = dayOfYear - (153 * monthPart + 2) / 5 + 1;
+			int month = monthPart < 10 ? monthPart + 3 : monthPart - 9;
+			int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+			return new int[]{year, month, day};
+		}
+
 		/**
 		* String representation of the Travel Date.
 		*/
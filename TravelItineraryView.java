@@ -23,17 +23,21 @@ import javax.swing.event.*;
  *
  * Maintainer:       A. Cave
  *
- * Version:          0.102
+ * Version:          0.106
  *
- * Lasted Modified:  04/21/2010  by: A. Cave
+ * Lasted Modified:  10/19/2026  by: A. Cave
  *
  * Changes Made -------
  * 0.100: A. Cave   Initial Version.
  * 0.101: A. Cave   Removed main() program to the TravelForm class.
  * 0.102: A. Cave   Removed the listeners and put them into the MainController class.
+ * 0.103: A. Cave   Implements the TravelView interface and displays the controller's messages via showMessage().
+ * 0.104: A. Cave   Added the Manifest button next to the Passenger Combo Box for group bookings.
+ * 0.105: A. Cave   Added the status strip below the Submit button for messages which must not block the user.
+ * 0.106: A. Cave   Added the cached layout mode, where the form is laid out by a CachedFormLayout instead of the GroupLayout.
  * </PRE>
   */
-  public class TravelItineraryView extends javax.swing.JFrame {
+  public class TravelItineraryView extends javax.swing.JFrame implements TravelView {
 
 	    // Variables declaration
 	    private javax.swing.JLabel departureDateLabel;
@@ -44,6 +48,8 @@ import javax.swing.event.*;
 	    private javax.swing.JLabel fromLabel;
 	    private javax.swing.JTextField fromTextBox;
 	    private javax.swing.JButton submitButton;
+	    private javax.swing.JButton manifestButton;
+	    private javax.swing.JLabel statusLabel;
 	    private javax.swing.JComboBox passengersComboBox;
 	    private javax.swing.JLabel passengersLabel;
 	    private javax.swing.JLabel returnDateLabel;
@@ -55,10 +61,20 @@ import javax.swing.event.*;
 	    private javax.swing.JTextField toTextBox;
 	    // End of variables declaration//GEN-END:variables
 
+	//True if the form is laid out by a CachedFormLayout rather than by the GroupLayout.
+	private final boolean cachedLayout;
+
 
     /** Creates new form TravelItineraryView */
     public TravelItineraryView()
     {
+        this(false);
+    }
+
+    /** Creates new form TravelItineraryView, laid out by a CachedFormLayout when cachedLayout is true */
+    public TravelItineraryView(boolean cachedLayout)
+    {
+        this.cachedLayout = cachedLayout;
         initComponents();
     }
 
@@ -87,6 +103,24 @@ import javax.swing.event.*;
         this.initButtons();
 
 		//Put the form together.
+		if (cachedLayout)
+			this.initCachedLayout();
+		else
+			this.initGroupLayout();
+
+        	pack();  //render the GUI
+        	int guiWidth = (int) this.getSize().getWidth();
+			int guiHeight = (int) this.getSize().getHeight();
+
+			//set the GUI to the middle of the screen.
+        	this.setLocation((screenWidth - guiWidth)/2,(screenHeight-guiHeight)/2);
+    }// </editor-fold>//GEN-END:initComponents
+
+	/*
+	* This private method lays out the form with the GroupLayout generated by the Form Editor.
+	*/
+    private void initGroupLayout()
+    {
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
         getContentPane().setLayout(layout);
         layout.setHorizontalGroup(
@@ -99,6 +133,10 @@ import javax.swing.event.*;
                 .addContainerGap()
                 .addComponent(passengersLabel)
                 .addContainerGap(598, Short.MAX_VALUE))
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addComponent(statusLabel, 0, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                .addContainerGap())
             .addGroup(javax.swing.GroupLayout.Alignment.TRAILING, layout.createSequentialGroup()
                 .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.TRAILING)
                     .addGroup(layout.createSequentialGroup()
@@ -127,7 +165,8 @@ import javax.swing.event.*;
                             .addGap(14, 14, 14)
                             .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
                                 .addComponent(returnDayComboBox, 0, 90, Short.MAX_VALUE)
-                                .addComponent(departureDayComboBox, 0, 90, Short.MAX_VALUE))
+                                .addComponent(departureDayComboBox, 0, 90, Short.MAX_VALUE)
+                                .addComponent(manifestButton, 0, 90, Short.MAX_VALUE))
                             .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
                             .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
                                 .addComponent(returnYearComboBox, 0, 100, Short.MAX_VALUE)
@@ -166,19 +205,35 @@ import javax.swing.event.*;
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
                     .addComponent(passengersLabel)
-                    .addComponent(passengersComboBox, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                    .addComponent(passengersComboBox, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(manifestButton))
                 .addGap(18, 18, 18)
                 .addComponent(submitButton)
-                .addContainerGap(85, Short.MAX_VALUE))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                .addComponent(statusLabel)
+                .addContainerGap(60, Short.MAX_VALUE))
         );
+	}
 
-        	pack();  //render the GUI
-        	int guiWidth = (int) this.getSize().getWidth();
-			int guiHeight = (int) this.getSize().getHeight();
-
-			//set the GUI to the middle of the screen.
-        	this.setLocation((screenWidth - guiWidth)/2,(screenHeight-guiHeight)/2);
-    }// </editor-fold>//GEN-END:initComponents
+	/*
+	* This private method lays out the form with a CachedFormLayout, which measures the geometry of the form once per font
+	* and screen scale rather than on every revalidate.
+	*/
+	private void initCachedLayout()
+	{
+		CachedFormLayout layout = new CachedFormLayout(getContentPane(), new int[]{123, 90, 100, 114}, new java.awt.Insets(29, 12, 60, 12));
+		getContentPane().setLayout(layout);
+		layout.addSpanningRow(fromLabel, fromTextBox);
+		layout.addSpanningRow(toLabel, toTextBox);
+		layout.addGap(12);
+		layout.addRow(departureDateLabel, departureMonthComboBox, departureDayComboBox, departureYearComboBox, departureSettingComboBox);
+		layout.addRow(returnDateLabel, returnMonthComboBox, returnDayComboBox, returnYearComboBox, returnSettingComboBox);
+		layout.addRow(passengersLabel, passengersComboBox, manifestButton);
+		layout.addGap(18);
+		layout.addRow(null, submitButton);
+		layout.addGap(12);
+		layout.addSpanningRow(null, statusLabel);
+	}
 
 	/*
 	* This private method initializes the Labels to be displayed on the GUI.
@@ -190,6 +245,7 @@ import javax.swing.event.*;
         departureDateLabel = new javax.swing.JLabel("Departure Date:");
         returnDateLabel = new javax.swing.JLabel("Return Date:");
         passengersLabel = new javax.swing.JLabel("Passengers:");
+        statusLabel = new javax.swing.JLabel(" ");
 
 	}
 
@@ -230,11 +286,13 @@ import javax.swing.event.*;
 	}
 
 	/*
-	* This method instantiates the JButton that submits the TravelFormInformation object.
+	* This method instantiates the JButton that submits the TravelFormInformation object and the JButton that opens
+	* the passenger manifest.
 	*/
 	private void initButtons()
 	{
 		submitButton = new javax.swing.JButton("Submit");
+		manifestButton = new javax.swing.JButton("Manifest...");
 	}
 
 	/**
@@ -325,6 +383,14 @@ import javax.swing.event.*;
 		return passengersComboBox;
 	}
 
+	/**
+	* This method returns the Manifest JButton Swing Component to the Controller.
+	*/
+	public JButton getManifestButton()
+	{
+		return manifestButton;
+	}
+
 	/**
 	* This method returns the Submit JButton Swing Component to the Controller.
 	*/
@@ -332,4 +398,26 @@ import javax.swing.event.*;
 	{
 		return submitButton;
 	}
+
+	/**
+	* This method displays a modal message dialog centered on this frame.
+	*/
+	public void showMessage(String message, String title, int messageType)
+	{
+		JOptionPane.showMessageDialog(this, message, title, messageType);
+	}
+
+	/**
+	* This method displays a single line message within the status strip, in red for errors and in orange for warnings.
+	*/
+	public void showStatus(String message, int messageType)
+	{
+		if (messageType == JOptionPane.ERROR_MESSAGE)
+			statusLabel.setForeground(java.awt.Color.RED.darker());
+		else if (messageType == JOptionPane.WARNING_MESSAGE)
+			statusLabel.setForeground(java.awt.Color.ORANGE.darker());
+		else
+			statusLabel.setForeground(javax.swing.UIManager.getColor("Label.foreground"));
+		statusLabel.setText(message.isEmpty() ? " " : message);
+	}
 }
@@ -0,0 +1,107 @@
+package travel;
+
+import javax.swing.*;
+
+/**
+ * Describes the Swing Components that the MainController requires from any view of the TravelFormModel.
+ *
+ * <PRE>
+ * Filename:         TravelView.java
+ *
+ * Description:      The MainController only needs access to the Text Fields, Combo Boxes and the Submit Button of a view
+ *		     in order to register its listeners, along with a way of presenting a message back to the user.  By
+ *		     depending on this interface rather than on the JFrame itself, the controller can be driven by a view
+ *		     which is never displayed (e.g. the HeadlessItineraryView used when replaying recorded traces).
+ *
+ * Implemented By:   TravelItineraryView.java, HeadlessItineraryView.java
+ *
+ * Aggregation Of:	 MainController.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public interface TravelView
+{
+	/**
+	* Returns the To Location JTextField Swing Component.
+	*/
+	public JTextField getToLocationTextField();
+
+	/**
+	* Returns the From Location JTextField Swing Component.
+	*/
+	public JTextField getFromLocationTextField();
+
+	/**
+	* Returns the Departure Month JComboBox Swing Component.
+	*/
+	public JComboBox getDepartureMonthDropDown();
+
+	/**
+	* Returns the Departure Day JComboBox Swing Component.
+	*/
+	public JComboBox getDepartureDayDropDown();
+
+	/**
+	* Returns the Departure Year JComboBox Swing Component.
+	*/
+	public JComboBox getDepartureYearDropDown();
+
+	/**
+	* Returns the Departure Time Setting JComboBox Swing Component.
+	*/
+	public JComboBox getDepartureSettingDropDown();
+
+	/**
+	* Returns the Return Month JComboBox Swing Component.
+	*/
+	public JComboBox getReturnMonthDropDown();
+
+	/**
+	* Returns the Return Day JComboBox Swing Component.
+	*/
+	public JComboBox getReturnDayDropDown();
+
+	/**
+	* Returns the Return Year JComboBox Swing Component.
+	*/
+	public JComboBox getReturnYearDropDown();
+
+	/**
+	* Returns the Return Time Setting JComboBox Swing Component.
+	*/
+	public JComboBox getReturnSettingDropDown();
+
+	/**
+	* Returns the Passenger JComboBox Swing Component.
+	*/
+	public JComboBox getPassengerDropDown();
+
+	/**
+	* Returns the JButton Swing Component which opens the passenger manifest of a group booking.
+	*/
+	public JButton getManifestButton();
+
+	/**
+	* Returns the Submit JButton Swing Component.
+	*/
+	public JButton getSubmitButton();
+
+	/**
+	* Presents a message to the user.  The messageType is one of the JOptionPane message type constants.
+	*/
+	public void showMessage(String message, String title, int messageType);
+
+	/**
+	* Presents a single line message to the user without blocking, e.g. within a status strip.
+	*/
+	public void showStatus(String message, int messageType);
+}
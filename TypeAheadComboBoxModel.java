@@ -0,0 +1,335 @@
+package travel;
+
+import java.io.*;
+import java.util.*;
+import java.awt.*;
+import java.awt.event.*;
+import javax.swing.*;
+import javax.swing.plaf.basic.ComboPopup;
+
+/**
+ * A ComboBoxModel for very large lists of options (e.g. airports, airlines or fare classes) which can be filtered by typing.
+ *
+ * <PRE>
+ * Filename:         TypeAheadComboBoxModel.java
+ *
+ * Description:      The options are sorted once by their lower case key when the model is constructed.  A filter is a
+ *		     prefix of the key, and since all of the keys sharing a prefix are next to each other within the sorted
+ *		     index, the filtered view of the options is simply a range of that index found by two binary searches.
+ *		     Changing the filter therefore takes O(log n) time and allocates nothing, no matter how many options
+ *		     there are.  The model hands out elements by position, so the popup list only asks for the rows which
+ *		     are visible.
+ *
+ *		     The install() method attaches the model to a JComboBox along with a prototype display value.  The
+ *		     prototype gives the combo box and its popup list a fixed cell size, so that neither of them measures
+ *		     every element through the renderer, and the PrototypeCellRenderer only sets the text of the rows it is
+ *		     asked for.  Typing while the combo box has the focus narrows the options to those starting with the
+ *		     typed text; Backspace removes the last character and Escape clears the filter.
+ *
+ *		     No combo box of the form holds a large list yet: the From and To locations are text fields checked
+ *		     against the PlaceNameIndex, and the date, time and passenger combo boxes are small.  Those combo
+ *		     boxes only use setPrototype() with longestElement(), and the AvailableDayRenderer extends the
+ *		     PrototypeCellRenderer.  The model itself, install() and load() are kept for the first large list.
+ *
+ * Nested Class:     PrototypeCellRenderer
+ *
+ * Inner classes:    TypeAheadKeyListener
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.101
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   Notes which parts are in use, since no combo box of the form holds a large list yet.
+ * </PRE>
+  */
+
+public class TypeAheadComboBoxModel extends AbstractListModel implements ComboBoxModel
+{
+	private String[] options;
+	private String[] sortedKeys;
+	private int[] sortedOrder;
+
+	private String filter = "";
+	private int rangeStart;
+	private int rangeEnd;
+	private Object selectedItem;
+
+	/*
+	* The constructor builds the sorted index of the options.  The array is not copied and must not be changed afterwards.
+	*/
+	public TypeAheadComboBoxModel(String[] options)
+	{
+		this.options = options;
+		this.buildIndex();
+		rangeStart = 0;
+		rangeEnd = options.length;
+	}
+
+	/**
+	* Creates a model from a text file holding one option per line.  Blank lines are skipped.
+	*/
+	public static TypeAheadComboBoxModel load(File optionsFile) throws IOException
+	{
+		ArrayList<String> lines = new ArrayList<String>();
+		BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(optionsFile), "UTF-8"));
+		try
+		{
+			String line;
+			while ((line = in.readLine()) != null)
+			{
+				line = line.trim();
+				if (!line.isEmpty())
+					lines.add(line);
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+		return new TypeAheadComboBoxModel(lines.toArray(new String[lines.size()]));
+	}
+
+	/*
+	* Sorts the positions of the options by their lower case keys.
+	*/
+	private void buildIndex()
+	{
+		final String[] keys = new String[options.length];
+		Integer[] order = new Integer[options.length];
+		for (int i = 0; i < options.length; i++)
+		{
+			keys[i] = options[i].toLowerCase(Locale.ENGLISH);
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>()
+		{
+			public int compare(Integer a, Integer b)
+			{
+				return keys[a].compareTo(keys[b]);
+			}
+		});
+
+		sortedKeys = new String[options.length];
+		sortedOrder = new int[options.length];
+		for (int i = 0; i < order.length; i++)
+		{
+			sortedOrder[i] = order[i];
+			sortedKeys[i] = keys[order[i]];
+		}
+	}
+
+	/**
+	* Narrows the options to those whose key starts with the given text, ignoring case.  An empty filter shows every option.
+	*/
+	public void setFilter(String text)
+	{
+		String prefix = text.toLowerCase(Locale.ENGLISH);
+		if (prefix.equals(filter))
+			return;
+
+		int oldSize = this.getSize();
+		filter = prefix;
+		rangeStart = this.lowerBound(prefix);
+		rangeEnd = prefix.isEmpty() ? sortedKeys.length : this.lowerBound(prefix + Character.MAX_VALUE);
+
+		int newSize = this.getSize();
+		if (oldSize > 0)
+			fireIntervalRemoved(this, 0, oldSize - 1);
+		if (newSize > 0)
+			fireIntervalAdded(this, 0, newSize - 1);
+	}
+
+	/**
+	* Returns the text that the options are currently filtered by.
+	*/
+	public String getFilter()
+	{
+		return filter;
+	}
+
+	/*
+	* Returns the position of the first key which is not less than the given key.
+	*/
+	private int lowerBound(String key)
+	{
+		int low = 0;
+		int high = sortedKeys.length;
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if (sortedKeys[middle].compareTo(key) < 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	* Returns the number of options passing the filter.
+	*/
+	public int getSize()
+	{
+		return rangeEnd - rangeStart;
+	}
+
+	/**
+	* Returns the option at the given position of the filtered, sorted view.
+	*/
+	public Object getElementAt(int index)
+	{
+		return options[sortedOrder[rangeStart + index]];
+	}
+
+	/**
+	* Returns the total number of options, ignoring the filter.
+	*/
+	public int getOptionCount()
+	{
+		return options.length;
+	}
+
+	public void setSelectedItem(Object item)
+	{
+		if ((selectedItem != null && !selectedItem.equals(item)) || (selectedItem == null && item != null))
+		{
+			selectedItem = item;
+			fireContentsChanged(this, -1, -1);
+		}
+	}
+
+	public Object getSelectedItem()
+	{
+		return selectedItem;
+	}
+
+	/**
+	* Attaches the model to the combo box.  The prototype should be as wide as the widest option that needs to be fully
+	* visible; it fixes the size of the combo box and of every row of its popup.
+	*/
+	public static void install(JComboBox comboBox, TypeAheadComboBoxModel model, String prototype)
+	{
+		comboBox.setModel(model);
+		setPrototype(comboBox, prototype);
+		comboBox.setRenderer(new PrototypeCellRenderer());
+		comboBox.setMaximumRowCount(12);
+
+		//the default manager scans every option for a match on each key stroke, so it is replaced by the type ahead filter.
+		comboBox.setKeySelectionManager(new JComboBox.KeySelectionManager()
+		{
+			public int selectionForKey(char key, ComboBoxModel aModel)
+			{
+				return -1;
+			}
+		});
+		comboBox.addKeyListener(new TypeAheadKeyListener(comboBox, model));
+	}
+
+	/**
+	* Gives the combo box and its popup list a fixed cell size taken from the prototype, so that the options are never
+	* measured one by one.
+	*/
+	public static void setPrototype(JComboBox comboBox, Object prototype)
+	{
+		comboBox.setPrototypeDisplayValue(prototype);
+		Object popup = comboBox.getUI().getAccessibleChild(comboBox, 0);
+		if (popup instanceof ComboPopup)
+		{
+			((ComboPopup) popup).getList().setPrototypeCellValue(prototype);
+		}
+	}
+
+	/**
+	* Returns the option of the combo box with the longest text, for use as a prototype of small lists.
+	*/
+	public static Object longestElement(ComboBoxModel model)
+	{
+		Object longest = null;
+		int longestLength = -1;
+		for (int i = 0; i < model.getSize(); i++)
+		{
+			Object element = model.getElementAt(i);
+			int length = String.valueOf(element).length();
+			if (length > longestLength)
+			{
+				longest = element;
+				longestLength = length;
+			}
+		}
+		return longest;
+	}
+
+	/**
+	* A renderer which only sets the text of the row it is asked for, leaving the size to the prototype.
+	*/
+	public static class PrototypeCellRenderer extends DefaultListCellRenderer
+	{
+		public Component getListCellRendererComponent(JList list, Object value, int index, boolean isSelected, boolean cellHasFocus)
+		{
+			setText(value == null ? "" : value.toString());
+			setComponentOrientation(list.getComponentOrientation());
+			if (isSelected)
+			{
+				setBackground(list.getSelectionBackground());
+				setForeground(list.getSelectionForeground());
+			}
+			else
+			{
+				setBackground(list.getBackground());
+				setForeground(list.getForeground());
+			}
+			setFont(list.getFont());
+			setEnabled(list.isEnabled());
+			return this;
+		}
+	}
+
+	/*
+	*  This inner class narrows the model while the user types into the combo box.
+	*/
+	private static class TypeAheadKeyListener extends KeyAdapter
+	{
+		private JComboBox comboBox;
+		private TypeAheadComboBoxModel model;
+		private StringBuilder typed = new StringBuilder();
+
+		public TypeAheadKeyListener(JComboBox comboBox, TypeAheadComboBoxModel model)
+		{
+			this.comboBox = comboBox;
+			this.model = model;
+		}
+
+		public void keyTyped(KeyEvent evt)
+		{
+			char c = evt.getKeyChar();
+			if (c == KeyEvent.VK_BACK_SPACE)
+			{
+				if (typed.length() > 0)
+					typed.setLength(typed.length() - 1);
+			}
+			else if (c == KeyEvent.VK_ESCAPE)
+			{
+				typed.setLength(0);
+			}
+			else if (c != KeyEvent.CHAR_UNDEFINED && c != '\n' && !Character.isISOControl(c))
+			{
+				typed.append(c);
+			}
+			else
+			{
+				return;
+			}
+
+			model.setFilter(typed.toString());
+			if (typed.length() > 0 && model.getSize() > 0)
+			{
+				comboBox.showPopup();
+			}
+			evt.consume();
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package travel;
+
+import java.io.*;
+
+/**
+ * Records the user interactions handled by the MainController into a compact trace file.
+ *
+ * <PRE>
+ * Filename:         UIEventRecorder.java
+ *
+ * Description:      The MainController passes every Text Field update, Combo Box selection and Submit through this class
+ *		     when a recorder has been attached.  Each interaction is written as a single record: a one byte event
+ *		     type, a one byte index into the TARGETS table (the "name" property of the Text Field or the action
+ *		     command of the Combo Box), followed by the Text Field contents or the selected index of the Combo Box.
+ *		     Submits carry no payload.  The trace starts with TRACE_MAGIC and ends with END_OF_TRACE so that the
+ *		     UIEventReplayer can detect truncated files.
+ *
+ * Instantiated By:  TravelForm.java
+ *
+ * Aggregation Of:	 MainController.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class UIEventRecorder
+{
+	//The header written at the start of every trace file ("TRC1").
+	public final static int TRACE_MAGIC = 0x54524331;
+
+	//These are the event types that may appear within a trace.
+	public final static byte END_OF_TRACE = 0;
+	public final static byte TEXT_EVENT = 1;
+	public final static byte SELECTION_EVENT = 2;
+	public final static byte SUBMIT_EVENT = 3;
+
+	//The names of the Text Fields and the action commands of the Combo Boxes, as used by the MainController.
+	//A record stores the position within this table rather than the name itself.
+	public final static String[] TARGETS = new String[]{"From Field","To Field",
+		"Set Departure Month","Set Departure Day","Set Departure Year","Set Departure Time",
+		"Set Return Month","Set Return Day","Set Return Year","Set Return Time",
+		"Set Passengers","Submit"};
+
+	private DataOutputStream out;
+	private int eventCount;
+
+	/*
+	* The constructor opens the trace file and writes the header.
+	*/
+	public UIEventRecorder(File traceFile) throws IOException
+	{
+		out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(traceFile)));
+		out.writeInt(TRACE_MAGIC);
+	}
+
+	/**
+	* Returns the position of the Text Field name or action command within the TARGETS table, or -1 if it is unknown.
+	*/
+	public static int indexOfTarget(String target)
+	{
+		for (int i = 0; i < TARGETS.length; i++)
+		{
+			if (TARGETS[i].equals(target))
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	* Records the full contents of a Text Field after it has been updated.
+	*/
+	public synchronized void recordText(String fieldName, String text)
+	{
+		try
+		{
+			out.writeByte(TEXT_EVENT);
+			out.writeByte(checkedTarget(fieldName));
+			out.writeUTF(text);
+			eventCount++;
+		}
+		catch (IOException e)
+		{
+			this.fail(e);
+		}
+	}
+
+	/**
+	* Records the index selected within a Combo Box.
+	*/
+	public synchronized void recordSelection(String actionCommand, int selectedIndex)
+	{
+		try
+		{
+			out.writeByte(SELECTION_EVENT);
+			out.writeByte(checkedTarget(actionCommand));
+			out.writeShort(selectedIndex);
+			eventCount++;
+		}
+		catch (IOException e)
+		{
+			this.fail(e);
+		}
+	}
+
+	/**
+	* Records that the user clicked "Submit".
+	*/
+	public synchronized void recordSubmit()
+	{
+		try
+		{
+			out.writeByte(SUBMIT_EVENT);
+			out.writeByte(indexOfTarget("Submit"));
+			eventCount++;
+		}
+		catch (IOException e)
+		{
+			this.fail(e);
+		}
+	}
+
+	/**
+	* Returns the number of events recorded so far.
+	*/
+	public synchronized int getEventCount()
+	{
+		return eventCount;
+	}
+
+	/**
+	* Writes the end of trace marker and closes the file.  Further events are ignored.
+	*/
+	public synchronized void close()
+	{
+		if (out == null)
+			return;
+		try
+		{
+			out.writeByte(END_OF_TRACE);
+			out.close();
+		}
+		catch (IOException e)
+		{
+			System.err.println("Unable to close the event trace: " + e.getMessage());
+		}
+		out = null;
+	}
+
+	/*
+	* Verifies that the target is known before it is written.
+	*/
+	private int checkedTarget(String target)
+	{
+		int index = indexOfTarget(target);
+		if (index < 0)
+			throw new IllegalArgumentException("No such event target exist: " + target);
+		return index;
+	}
+
+	/*
+	* A failure to write the trace must not disturb the user, so the recorder reports it and stops recording.
+	*/
+	private void fail(IOException e)
+	{
+		System.err.println("Event recording stopped: " + e.getMessage());
+		try
+		{
+			out.close();
+		}
+		catch (IOException ignored)
+		{
+		}
+		out = new DataOutputStream(new OutputStream()
+		{
+			public void write(int b)
+			{
+			}
+		});
+	}
+}
@@ -0,0 +1,292 @@
+package travel;
+
+import java.io.*;
+import java.util.*;
+import javax.swing.*;
+
+/**
+ * Replays a trace written by the UIEventRecorder against a MainController as fast as possible.
+ *
+ * <PRE>
+ * Filename:         UIEventReplayer.java
+ *
+ * Description:      This class loads a recorded trace into memory and then drives a MainController which is attached to a
+ *		     HeadlessItineraryView, so that it may be run on machines without a display (java.awt.headless is set
+ *		     before any Swing Component is created).  Every event is replayed on the Event Dispatch Thread exactly
+ *		     as the user produced it: Text Fields are given their recorded contents, Combo Boxes their recorded
+ *		     selected index and the Submit Button is clicked.  The time and the bytes allocated for each event are
+ *		     measured and reported as percentiles once all iterations have completed.
+ *
+ *		     Usage:  java travel.UIEventReplayer traceFile [iterations] [warmupIterations]
+ *
+ * Composition objects: HeadlessItineraryView.java, TravelFormModel.java, TravelComboBoxModel.java, MainController.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.100
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * </PRE>
+  */
+
+public class UIEventReplayer
+{
+	//The recorded events are held in parallel arrays so that the replay loop itself allocates nothing.
+	private byte[] eventTypes;
+	private byte[] eventTargets;
+	private String[] eventTexts;
+	private short[] eventIndexes;
+	private int eventCount;
+
+	private HeadlessItineraryView view;
+	private MainController controller;
+	private JTextField[] textTargets;
+	private JComboBox[] comboTargets;
+
+	/*
+	* The constructor loads the trace and builds the controller that it will be replayed against.
+	*/
+	public UIEventReplayer(File traceFile) throws IOException
+	{
+		this.loadTrace(traceFile);
+
+		view = new HeadlessItineraryView();
+		controller = new MainController(new TravelFormModel(), view, new TravelComboBoxModel());
+		this.mapTargets();
+	}
+
+	/*
+	* Reads every record of the trace into the event arrays.
+	*/
+	private void loadTrace(File traceFile) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(traceFile)));
+		try
+		{
+			if (in.readInt() != UIEventRecorder.TRACE_MAGIC)
+				throw new IOException(traceFile + " is not an event trace");
+
+			int capacity = 1024;
+			eventTypes = new byte[capacity];
+			eventTargets = new byte[capacity];
+			eventTexts = new String[capacity];
+			eventIndexes = new short[capacity];
+
+			byte type;
+			while ((type = in.readByte()) != UIEventRecorder.END_OF_TRACE)
+			{
+				if (eventCount == capacity)
+				{
+					capacity *= 2;
+					eventTypes = Arrays.copyOf(eventTypes, capacity);
+					eventTargets = Arrays.copyOf(eventTargets, capacity);
+					eventTexts = Arrays.copyOf(eventTexts, capacity);
+					eventIndexes = Arrays.copyOf(eventIndexes, capacity);
+				}
+
+				eventTypes[eventCount] = type;
+				eventTargets[eventCount] = in.readByte();
+				if (type == UIEventRecorder.TEXT_EVENT)
+					eventTexts[eventCount] = in.readUTF();
+				else if (type == UIEventRecorder.SELECTION_EVENT)
+					eventIndexes[eventCount] = in.readShort();
+				else if (type != UIEventRecorder.SUBMIT_EVENT)
+					throw new IOException("Unknown event type " + type + " at event " + eventCount);
+				eventCount++;
+			}
+		}
+		catch (EOFException e)
+		{
+			throw new IOException(traceFile + " is truncated after " + eventCount + " events");
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	/*
+	* Associates every entry of UIEventRecorder.TARGETS with the Swing Component of the view that it refers to.
+	*/
+	private void mapTargets()
+	{
+		int length = UIEventRecorder.TARGETS.length;
+		textTargets = new JTextField[length];
+		comboTargets = new JComboBox[length];
+
+		textTargets[UIEventRecorder.indexOfTarget("From Field")] = view.getFromLocationTextField();
+		textTargets[UIEventRecorder.indexOfTarget("To Field")] = view.getToLocationTextField();
+
+		comboTargets[UIEventRecorder.indexOfTarget("Set Departure Month")] = view.getDepartureMonthDropDown();
+		comboTargets[UIEventRecorder.indexOfTarget("Set Departure Day")] = view.getDepartureDayDropDown();
+		comboTargets[UIEventRecorder.indexOfTarget("Set Departure Year")] = view.getDepartureYearDropDown();
+		comboTargets[UIEventRecorder.indexOfTarget("Set Departure Time")] = view.getDepartureSettingDropDown();
+		comboTargets[UIEventRecorder.indexOfTarget("Set Return Month")] = view.getReturnMonthDropDown();
+		comboTargets[UIEventRecorder.indexOfTarget("Set Return Day")] = view.getReturnDayDropDown();
+		comboTargets[UIEventRecorder.indexOfTarget("Set Return Year")] = view.getReturnYearDropDown();
+		comboTargets[UIEventRecorder.indexOfTarget("Set Return Time")] = view.getReturnSettingDropDown();
+		comboTargets[UIEventRecorder.indexOfTarget("Set Passengers")] = view.getPassengerDropDown();
+	}
+
+	/**
+	* Returns the number of events within the trace.
+	*/
+	public int getEventCount()
+	{
+		return eventCount;
+	}
+
+	/**
+	* Replays the whole trace the given number of times.  This method must be called on the Event Dispatch Thread.
+	* When latencies and allocations are not null, the nanoseconds and bytes spent on each event are stored in them
+	* starting at the offset of the iteration.
+	*/
+	public void replay(int iterations, long[] latencies, long[] allocations)
+	{
+		int slot = 0;
+		for (int iteration = 0; iteration < iterations; iteration++)
+		{
+			for (int i = 0; i < eventCount; i++, slot++)
+			{
+				long startBytes = AllocationCounter.currentThreadAllocatedBytes();
+				long startTime = System.nanoTime();
+
+				this.replayEvent(i);
+
+				long elapsed = System.nanoTime() - startTime;
+				long allocated = AllocationCounter.currentThreadAllocatedBytes() - startBytes;
+				if (latencies != null)
+				{
+					latencies[slot] = elapsed;
+					allocations[slot] = allocated;
+				}
+			}
+		}
+	}
+
+	/*
+	* Applies a single recorded event to the view, which in turn fires the listeners of the MainController.
+	*/
+	private void replayEvent(int i)
+	{
+		byte type = eventTypes[i];
+		if (type == UIEventRecorder.TEXT_EVENT)
+		{
+			textTargets[eventTargets[i]].setText(eventTexts[i]);
+		}
+		else if (type == UIEventRecorder.SELECTION_EVENT)
+		{
+			comboTargets[eventTargets[i]].setSelectedIndex(eventIndexes[i]);
+		}
+		else
+		{
+			view.getSubmitButton().doClick(0);
+		}
+	}
+
+	/**
+	* Returns the value at the given percentile (0 - 100) of an array which has already been sorted.
+	*/
+	public static long percentile(long[] sorted, double percent)
+	{
+		if (sorted.length == 0)
+			return 0;
+		int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+	}
+
+	/*
+	* Prints the latency and allocation percentiles of the measured events.
+	*/
+	private static void report(PrintStream out, int eventCount, int iterations, long[] latencies, long[] allocations, long wallTime)
+	{
+		long totalBytes = 0;
+		for (int i = 0; i < allocations.length; i++)
+			totalBytes += allocations[i];
+
+		Arrays.sort(latencies);
+		Arrays.sort(allocations);
+
+		out.println("Events per iteration:   " + eventCount);
+		out.println("Measured iterations:    " + iterations);
+		out.println("Measured events:        " + latencies.length);
+		out.println("Throughput (events/s):  " + (latencies.length == 0 ? 0 : (long) (latencies.length * 1e9 / wallTime)));
+		out.println("Latency (microseconds):");
+		double[] percents = new double[]{50, 90, 99, 99.9, 100};
+		for (int i = 0; i < percents.length; i++)
+			out.printf("  %-7s %10.2f%n", percentileLabel(percents[i]), percentile(latencies, percents[i]) / 1000.0);
+
+		if (!AllocationCounter.isSupported())
+		{
+			out.println("Allocation:             unsupported by this JVM");
+			return;
+		}
+		out.println("Allocation (bytes/event):");
+		out.printf("  mean    %10.1f%n", latencies.length == 0 ? 0.0 : (double) totalBytes / latencies.length);
+		for (int i = 0; i < percents.length; i++)
+			out.printf("  %-7s %10d%n", percentileLabel(percents[i]), percentile(allocations, percents[i]));
+	}
+
+	/*
+	* Returns the label printed in front of a percentile, e.g. "p99.9" or "max".
+	*/
+	private static String percentileLabel(double percent)
+	{
+		if (percent == 100)
+			return "max";
+		if (percent == Math.floor(percent))
+			return "p" + (int) percent;
+		return "p" + percent;
+	}
+
+	/**
+	* Loads the trace named by the first argument, replays it for the warm up iterations and then measures the given
+	* number of iterations.
+	*/
+	public static void main(String[] args) throws Exception
+	{
+		if (args.length < 1)
+		{
+			System.err.println("Usage: java travel.UIEventReplayer traceFile [iterations] [warmupIterations]");
+			System.exit(1);
+		}
+		System.setProperty("java.awt.headless", "true");
+
+		final File traceFile = new File(args[0]);
+		final int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		final int warmupIterations = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+		final UIEventReplayer[] replayer = new UIEventReplayer[1];
+		final long[][] results = new long[3][];
+		SwingUtilities.invokeAndWait(new Runnable()
+		{
+			public void run()
+			{
+				try
+				{
+					replayer[0] = new UIEventReplayer(traceFile);
+				}
+				catch (IOException e)
+				{
+					throw new RuntimeException(e.getMessage(), e);
+				}
+
+				int events = replayer[0].getEventCount() * iterations;
+				long[] latencies = new long[events];
+				long[] allocations = new long[events];
+
+				replayer[0].replay(warmupIterations, null, null);
+				long start = System.nanoTime();
+				replayer[0].replay(iterations, latencies, allocations);
+				results[2] = new long[]{System.nanoTime() - start};
+				results[0] = latencies;
+				results[1] = allocations;
+			}
+		});
+
+		report(System.out, replayer[0].getEventCount(), iterations, results[0], results[1], results[2][0]);
+	}
+}
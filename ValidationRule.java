@@ -0,0 +1,143 @@
+package travel;
+
+/**
+ * A single business rule which a TravelFormModel must meet before it can be submitted.
+ *
+ * <PRE>
+ * Filename:         ValidationRule.java
+ *
+ * Description:      Rules are created by the ValidationRuleEngine from the lines of a rule file.  Each rule has a name, the
+ *		     message shown to the user when it rejects an itinerary, and the statistics the engine uses to decide
+ *		     the order in which rules are evaluated: the number of evaluations, the number of rejections and the
+ *		     time spent in a sample of the evaluations.  Subclasses implement accepts() for one kind of check, with
+ *		     any argument of the check already parsed when the rule is compiled.
+ *
+ * Aggregated By:	 ValidationRuleEngine.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.103
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   Rules know the field they check and may suggest a correction of it, named by describe().
+ * 0.102: A. Cave   A rule which has not been timed has an unknown cost rather than a cost of one nanosecond.
+ * 0.103: A. Cave   The field checked is a TravelFormModel.Field.
+ * </PRE>
+  */
+
+public abstract class ValidationRule
+{
+	private final String name;
+	private final TravelFormModel.Field field;
+	private final String message;
+
+	long evaluations;
+	long rejections;
+	long sampledEvaluations;
+	long sampledNanos;
+
+	protected ValidationRule(String name, TravelFormModel.Field field, String message)
+	{
+		this.name = name;
+		this.field = field;
+		this.message = message;
+	}
+
+	/**
+	* Returns true if the itinerary meets the rule.
+	*/
+	public abstract boolean accepts(TravelFormModel travelForm);
+
+	/**
+	* Returns the name of the rule as given within the rule file.
+	*/
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	* Returns the field checked by the rule.
+	*/
+	public TravelFormModel.Field getField()
+	{
+		return field;
+	}
+
+	/**
+	* Returns the message shown to the user when the rule rejects an itinerary.
+	*/
+	public String getMessage()
+	{
+		return message;
+	}
+
+	/**
+	* Returns the value the field of a rejected itinerary was most likely meant to hold, or null if the rule cannot tell.
+	*/
+	public String getCorrection(TravelFormModel travelForm)
+	{
+		return null;
+	}
+
+	/**
+	* Returns the message shown to the user when the rule rejects the itinerary, followed by the correction if there is one.
+	*/
+	public String describe(TravelFormModel travelForm)
+	{
+		String correction = this.getCorrection(travelForm);
+		return (correction == null) ? message : message + " Did you mean \"" + correction + "\"?";
+	}
+
+	/**
+	* Returns the number of times the rule has been evaluated.
+	*/
+	public long getEvaluations()
+	{
+		return evaluations;
+	}
+
+	/**
+	* Returns the number of times the rule has rejected an itinerary.
+	*/
+	public long getRejections()
+	{
+		return rejections;
+	}
+
+	/**
+	* Returns the fraction of evaluations which were rejected.
+	*/
+	public double getRejectionRate()
+	{
+		return (evaluations == 0) ? 0.0 : (double) rejections / evaluations;
+	}
+
+	/**
+	* Returns the average time of an evaluation in nanoseconds, measured over a sample of the evaluations.
+	*/
+	public double getAverageNanos()
+	{
+		return (sampledEvaluations == 0) ? 0.0 : (double) sampledNanos / sampledEvaluations;
+	}
+
+	/**
+	* Returns the expected number of rejections per nanosecond spent on the rule.  Evaluating rules in decreasing order of
+	* this value minimises the expected time taken to find the first rejection.  A rule which has not been timed yet has an
+	* unknown cost, and returns positive infinity so that it is evaluated (and timed) ahead of the rules already measured.
+	*/
+	double getRejectionsPerNano()
+	{
+		if (sampledEvaluations == 0)
+			return Double.POSITIVE_INFINITY;
+		return getRejectionRate() / Math.max(1.0, getAverageNanos());
+	}
+
+	public String toString()
+	{
+		return name;
+	}
+}
@@ -0,0 +1,410 @@
+package travel;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Evaluates the business rules of a TravelFormModel, as declared within a rule file.
+ *
+ * <PRE>
+ * Filename:         ValidationRuleEngine.java
+ *
+ * Description:      Every non blank line of a rule file that does not start with '#' declares one rule:
+ *
+ *		         name | field | check [argument] | message
+ *
+ *		     The fields are the labels of TravelFormModel.Field (from, to, departureMonth, departureDay, departureYear,
+ *		     departureTime, returnMonth, returnDay, returnYear, returnTime, passengers) and the checks are:
+ *
+ *		         notBlank               the field contains more than white space
+ *		         notEqual value         the field is not the given value (e.g. a Combo Box default)
+ *		         maxLength n            the field has at most n characters
+ *		         minValue n / maxValue n  the field is a whole number within the bound
+ *		         oneOf a,b,c            the field is one of the listed values
+ *		         manifestValid          (field "passengers") every traveller of the manifest is valid
+ *		         knownPlace file        (fields "from" and "to") the field is blank or one of the places listed
+ *		                                within the file (relative to the working directory), ignoring case and
+ *		                                white space; the closest place within a few typing mistakes is suggested
+ *
+ *		     The rules are compiled into ValidationRule objects whose arguments are parsed once, and held within an
+ *		     array which is evaluated in order.  firstFailure() stops at the first rule that rejects the
+ *		     itinerary, which is what bulk validation needs, while failures() evaluates every rule so that the user
+ *		     can be told everything that is wrong at once.  The engine counts how often each rule rejects and
+ *		     times one in TIMING_SAMPLE evaluations of each rule, starting with its first; every REORDER_INTERVAL
+ *		     itineraries the rules are sorted by rejections per nanosecond so that cheap rules which reject often
+ *		     are evaluated first.  A rule which has not been timed yet is placed first, so that it is measured.
+ *		     failures() still reports the rejections in the order the rules were declared.
+ *
+ *		     The engine is not thread safe; bulk validation across threads should use one engine per thread.
+ *
+ * Composition objects: ValidationRule.java, PlaceNameIndex.java
+ *
+ * Aggregated By:	 MainController.java
+ *
+ * Maintainer:       A. Cave
+ *
+ * Version:          0.103
+ *
+ * Lasted Modified:  10/19/2026  by: A. Cave
+ *
+ * Changes Made -------
+ * 0.100: A. Cave   Initial Version.
+ * 0.101: A. Cave   Added the knownPlace check, which suggests the closest place of a PlaceNameIndex.
+ * 0.102: A. Cave   Every rule is timed on its own sample of evaluations, rather than on a counter shared by all rules.
+ * 0.103: A. Cave   Rules name and read their fields through TravelFormModel.Field rather than the SessionStore.
+ * </PRE>
+  */
+
+public class ValidationRuleEngine
+{
+	//One in every TIMING_SAMPLE evaluations of a rule is timed, since reading the clock costs more than most rules.
+	//This must be a power of two.
+	private final static int TIMING_SAMPLE = 64;
+
+	//The number of itineraries validated between reorderings of the rules.
+	private final static int REORDER_INTERVAL = 4096;
+
+	//The rules of TravelFormModel.submit(), used when no rule file is given.
+	private final static String[] DEFAULT_RULES = new String[]{
+		"from-required | from | notBlank | Please enter the location you are departing from.",
+		"to-required | to | notBlank | Please enter your destination.",
+		"departure-month | departureMonth | notEqual " + TravelComboBoxModel.DEFAULT_MONTH + " | Please select a departure month.",
+		"departure-day | departureDay | notEqual " + TravelComboBoxModel.DEFAULT_DAY + " | Please select a departure day.",
+		"departure-year | departureYear | notEqual " + TravelComboBoxModel.DEFAULT_YEAR + " | Please select a departure year.",
+		"return-month | returnMonth | notEqual " + TravelComboBoxModel.DEFAULT_MONTH + " | Please select a return month.",
+		"return-day | returnDay | notEqual " + TravelComboBoxModel.DEFAULT_DAY + " | Please select a return day.",
+		"return-year | returnYear | notEqual " + TravelComboBoxModel.DEFAULT_YEAR + " | Please select a return year.",
+		"manifest-valid | passengers | manifestValid | One or more travellers of the passenger manifest are invalid."};
+
+	private ValidationRule[] declared;
+	private ValidationRule[] ordered;
+	private long validations;
+
+	/*
+	* The constructor compiles the rule declarations.  The line numbers of errors count from one.
+	*/
+	public ValidationRuleEngine(List<String> declarations) throws IOException
+	{
+		ArrayList<ValidationRule> rules = new ArrayList<ValidationRule>();
+		for (int i = 0; i < declarations.size(); i++)
+		{
+			String line = declarations.get(i).trim();
+			if (line.isEmpty() || line.startsWith("#"))
+				continue;
+			try
+			{
+				rules.add(compile(line));
+			}
+			catch (IllegalArgumentException e)
+			{
+				throw new IOException("Rule " + (i + 1) + ": " + e.getMessage());
+			}
+		}
+		declared = rules.toArray(new ValidationRule[rules.size()]);
+		ordered = declared.clone();
+	}
+
+	/**
+	* Returns an engine holding the rules of TravelFormModel.submit().
+	*/
+	public static ValidationRuleEngine defaultRules()
+	{
+		try
+		{
+			return new ValidationRuleEngine(Arrays.asList(DEFAULT_RULES));
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException("The default rules are invalid: " + e.getMessage());
+		}
+	}
+
+	/**
+	* Returns an engine holding the rules declared within the file.
+	*/
+	public static ValidationRuleEngine load(File ruleFile) throws IOException
+	{
+		ArrayList<String> lines = new ArrayList<String>();
+		BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(ruleFile), "UTF-8"));
+		try
+		{
+			String line;
+			while ((line = in.readLine()) != null)
+				lines.add(line);
+		}
+		finally
+		{
+			in.close();
+		}
+		try
+		{
+			return new ValidationRuleEngine(lines);
+		}
+		catch (IOException e)
+		{
+			throw new IOException(ruleFile + ": " + e.getMessage());
+		}
+	}
+
+	/*
+	* Compiles one declaration into a ValidationRule.
+	*/
+	private static ValidationRule compile(String line)
+	{
+		String[] parts = line.split("\\|", -1);
+		if (parts.length != 4)
+			throw new IllegalArgumentException("Expected \"name | field | check [argument] | message\" but found \"" + line + "\"");
+
+		String name = parts[0].trim();
+		final TravelFormModel.Field field = TravelFormModel.Field.forLabel(parts[1].trim());
+		String check = parts[2].trim();
+		String message = parts[3].trim();
+
+		int space = check.indexOf(' ');
+		String checkName = (space < 0) ? check : check.substring(0, space);
+		final String argument = (space < 0) ? "" : check.substring(space + 1).trim();
+
+		if (checkName.equals("notBlank"))
+		{
+			return new ValidationRule(name, field, message)
+			{
+				public boolean accepts(TravelFormModel travelForm)
+				{
+					return !field.get(travelForm).trim().isEmpty();
+				}
+			};
+		}
+		else if (checkName.equals("notEqual"))
+		{
+			return new ValidationRule(name, field, message)
+			{
+				public boolean accepts(TravelFormModel travelForm)
+				{
+					return !field.get(travelForm).equals(argument);
+				}
+			};
+		}
+		else if (checkName.equals("maxLength"))
+		{
+			final int maxLength = parseNumber(argument, checkName);
+			return new ValidationRule(name, field, message)
+			{
+				public boolean accepts(TravelFormModel travelForm)
+				{
+					return field.get(travelForm).length() <= maxLength;
+				}
+			};
+		}
+		else if (checkName.equals("minValue") || checkName.equals("maxValue"))
+		{
+			final int bound = parseNumber(argument, checkName);
+			final boolean minimum = checkName.equals("minValue");
+			return new ValidationRule(name, field, message)
+			{
+				public boolean accepts(TravelFormModel travelForm)
+				{
+					int value;
+					if (field == TravelFormModel.Field.PASSENGERS)
+						value = travelForm.getPassengerCount();
+					else
+					{
+						try
+						{
+							value = Integer.parseInt(field.get(travelForm).trim());
+						}
+						catch (NumberFormatException e)
+						{
+							return false;
+						}
+					}
+					return minimum ? value >= bound : value <= bound;
+				}
+			};
+		}
+		else if (checkName.equals("oneOf"))
+		{
+			final Set<String> values = new HashSet<String>();
+			String[] listed = argument.split(",");
+			for (int i = 0; i < listed.length; i++)
+				values.add(listed[i].trim());
+			return new ValidationRule(name, field, message)
+			{
+				public boolean accepts(TravelFormModel travelForm)
+				{
+					return values.contains(field.get(travelForm));
+				}
+			};
+		}
+		else if (checkName.equals("manifestValid"))
+		{
+			return new ValidationRule(name, field, message)
+			{
+				public boolean accepts(TravelFormModel travelForm)
+				{
+					PassengerManifest manifest = travelForm.getPassengerManifest();
+					return manifest == null || manifest.getInvalidCount() == 0;
+				}
+			};
+		}
+		else if (checkName.equals("knownPlace"))
+		{
+			if (field != TravelFormModel.Field.FROM_LOCATION && field != TravelFormModel.Field.TO_LOCATION)
+				throw new IllegalArgumentException("The check knownPlace applies to the from and to fields only");
+			if (argument.isEmpty())
+				throw new IllegalArgumentException("The check knownPlace requires a place file");
+			final PlaceNameIndex places;
+			try
+			{
+				places = PlaceNameIndex.shared(new File(argument));
+			}
+			catch (IOException e)
+			{
+				throw new IllegalArgumentException("Unable to load the places of " + argument + ": " + e.getMessage());
+			}
+			return new ValidationRule(name, field, message)
+			{
+				public boolean accepts(TravelFormModel travelForm)
+				{
+					String location = field.get(travelForm);
+					return location.trim().isEmpty() || places.isKnown(location);
+				}
+
+				public String getCorrection(TravelFormModel travelForm)
+				{
+					return places.suggest(field.get(travelForm));
+				}
+			};
+		}
+		throw new IllegalArgumentException("No such check exist: " + checkName);
+	}
+
+	private static int parseNumber(String argument, String checkName)
+	{
+		try
+		{
+			return Integer.parseInt(argument);
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IllegalArgumentException("The check " + checkName + " requires a whole number but found \"" + argument + "\"");
+		}
+	}
+
+	/*
+	* Evaluates one rule, keeping its statistics.
+	*/
+	private boolean evaluate(ValidationRule rule, TravelFormModel travelForm)
+	{
+		boolean accepted;
+		if ((rule.evaluations & (TIMING_SAMPLE - 1)) == 0)
+		{
+			long start = System.nanoTime();
+			accepted = rule.accepts(travelForm);
+			rule.sampledNanos += System.nanoTime() - start;
+			rule.sampledEvaluations++;
+		}
+		else
+		{
+			accepted = rule.accepts(travelForm);
+		}
+
+		rule.evaluations++;
+		if (!accepted)
+			rule.rejections++;
+		return accepted;
+	}
+
+	/**
+	* Returns the first rule that rejects the itinerary, or null if the itinerary meets every rule.  The rules are evaluated
+	* in the order that has so far found rejections soonest.
+	*/
+	public ValidationRule firstFailure(TravelFormModel travelForm)
+	{
+		this.countValidation();
+		ValidationRule[] rules = ordered;
+		for (int i = 0; i < rules.length; i++)
+		{
+			if (!evaluate(rules[i], travelForm))
+				return rules[i];
+		}
+		return null;
+	}
+
+	/**
+	* Returns true if the itinerary meets every rule.
+	*/
+	public boolean isValid(TravelFormModel travelForm)
+	{
+		return firstFailure(travelForm) == null;
+	}
+
+	/**
+	* Returns every rule that rejects the itinerary, in the order the rules were declared.
+	*/
+	public List<ValidationRule> failures(TravelFormModel travelForm)
+	{
+		this.countValidation();
+		ArrayList<ValidationRule> failures = new ArrayList<ValidationRule>();
+		for (int i = 0; i < declared.length; i++)
+		{
+			if (!evaluate(declared[i], travelForm))
+				failures.add(declared[i]);
+		}
+		return failures;
+	}
+
+	/*
+	* Counts the itinerary and reorders the rules every REORDER_INTERVAL itineraries.
+	*/
+	private void countValidation()
+	{
+		if (++validations % REORDER_INTERVAL == 0)
+			this.reorder();
+	}
+
+	/**
+	* Sorts the rules used by firstFailure() by decreasing rejections per nanosecond.
+	*/
+	public void reorder()
+	{
+		ValidationRule[] rules = declared.clone();
+		Arrays.sort(rules, new Comparator<ValidationRule>()
+		{
+			public int compare(ValidationRule a, ValidationRule b)
+			{
+				return Double.compare(b.getRejectionsPerNano(), a.getRejectionsPerNano());
+			}
+		});
+		ordered = rules;
+	}
+
+	/**
+	* Returns the rules in the order firstFailure() currently evaluates them.
+	*/
+	public List<ValidationRule> getRules()
+	{
+		return Collections.unmodifiableList(Arrays.asList(ordered));
+	}
+
+	/**
+	* Returns the number of itineraries validated.
+	*/
+	public long getValidationCount()
+	{
+		return validations;
+	}
+
+	/**
+	* Writes the statistics of every rule, in evaluation order, as a table.
+	*/
+	public void printStatistics(PrintStream out)
+	{
+		out.printf("%-24s %14s %14s %10s %12s%n", "rule", "evaluations", "rejections", "rejected", "avg ns");
+		for (int i = 0; i < ordered.length; i++)
+		{
+			ValidationRule rule = ordered[i];
+			out.printf("%-24s %14d %14d %9.2f%% %12.1f%n", rule.getName(), rule.getEvaluations(), rule.getRejections(),
+				rule.getRejectionRate() * 100, rule.getAverageNanos());
+		}
+	}
+}